@@ -45,6 +45,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -162,6 +163,13 @@ public abstract class AbstractExcelExporter
 		this.constants = ExcelExportConstants.givenOrDefault(constants);
 
 		workbook = this.excelFormat.createWorkbook(this.constants.isUseStreamingWorkbookImplementation());
+		if (workbook instanceof SXSSFWorkbook)
+		{
+			// keep only a window of rows in memory; the rest is flushed to a (compressed) temporary file
+			final SXSSFWorkbook streamingWorkbook = (SXSSFWorkbook)workbook;
+			streamingWorkbook.setRandomAccessWindowSize(this.constants.getStreamingWorkbookRowAccessWindowSize());
+			streamingWorkbook.setCompressTempFiles(true);
+		}
 		dataFormat = workbook.createDataFormat();
 
 	}
@@ -467,6 +475,11 @@ public abstract class AbstractExcelExporter
 	private Sheet createTableSheet()
 	{
 		final Sheet sheet = getWorkbook().createSheet();
+		if (sheet instanceof SXSSFSheet && constants.getMaxRowsToAllowCellWidthAutoSize() > 0)
+		{
+			// rows are flushed while we go, so the column widths have to be tracked from the very first row
+			((SXSSFSheet)sheet).trackAllColumnsForAutoSizing();
+		}
 		formatPage(sheet);
 		createHeaderFooter(sheet);
 		createTableHeader(sheet);
@@ -547,8 +560,18 @@ public abstract class AbstractExcelExporter
 	 */
 	public final void export(@NonNull final OutputStream out) throws IOException
 	{
-		Workbook workbook = exportToWorkbook();
-		workbook.write(out);
+		final Workbook workbook = exportToWorkbook();
+		try
+		{
+			workbook.write(out);
+		}
+		finally
+		{
+			if (workbook instanceof SXSSFWorkbook)
+			{
+				((SXSSFWorkbook)workbook).dispose(); // delete the temporary files
+			}
+		}
 		out.close();
 	}
 
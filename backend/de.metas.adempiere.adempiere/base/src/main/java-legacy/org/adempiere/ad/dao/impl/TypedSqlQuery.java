@@ -41,6 +41,7 @@ import org.adempiere.ad.dao.IQueryInsertExecutor.QueryInsertExecutorResult;
 import org.adempiere.ad.dao.IQueryOrderBy;
 import org.adempiere.ad.dao.IQueryUpdater;
 import org.adempiere.ad.dao.ISqlQueryUpdater;
+import org.adempiere.ad.dao.QueryIteratorPagingMode;
 import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.exceptions.AdempiereException;
@@ -961,7 +962,9 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 			return it;
 		}
 
-		final POBufferedIterator<T, ET> poBufferedIterator = new POBufferedIterator<>(this, clazz, null);
+		final QueryIteratorPagingMode pagingModeOption = getOption(OPTION_IteratorPagingMode);
+		final QueryIteratorPagingMode pagingMode = CoalesceUtil.coalesce(pagingModeOption, QueryIteratorPagingMode.DEFAULT);
+		final POBufferedIterator<T, ET> poBufferedIterator = new POBufferedIterator<>(this, clazz, null, pagingMode);
 		if (iteratorBufferSize != null)
 		{
 			poBufferedIterator.setBufferSize(iteratorBufferSize);
@@ -21,11 +21,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.annotation.Nullable;
 
@@ -55,6 +55,8 @@ import org.adempiere.util.LegacyAdapters;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere.RunMode;
 import org.compiere.SpringContextHolder;
+import org.compiere.model.ModelValidatorsDispatchTable.RegistrationKey;
+import org.compiere.model.ModelValidatorsDispatchTable.TableValidators;
 import org.compiere.util.Env;
 import org.compiere.util.Ini;
 import org.compiere.util.KeyNamePair;
@@ -437,14 +439,16 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	/** Validators */
 	private ArrayList<ModelValidator> m_validators = new ArrayList<>();
-	/** Model Change Listeners */
-	private Hashtable<String, ArrayList<ModelValidator>> m_modelChangeListeners = new Hashtable<>();
-	/** Document Validation Listeners */
-	private Hashtable<String, ArrayList<ModelValidator>> m_docValidateListeners = new Hashtable<>();
+	/** Model Change Listeners; replaced on each (un)registration, so firing doesn't need to lock */
+	private volatile ModelValidatorsDispatchTable m_modelChangeListeners = ModelValidatorsDispatchTable.EMPTY;
+	/** Document Validation Listeners; replaced on each (un)registration, so firing doesn't need to lock */
+	private volatile ModelValidatorsDispatchTable m_docValidateListeners = ModelValidatorsDispatchTable.EMPTY;
+	/** Lock used when changing {@link #m_modelChangeListeners} or {@link #m_docValidateListeners} */
+	private final Object m_listenersRegistrationLock = new Object();
 	/** Data Import Validation Listeners */
 	private Hashtable<String, ArrayList<IImportInterceptor>> m_impValidateListeners = new Hashtable<>();
 
-	private ArrayList<ModelValidator> m_globalValidators = new ArrayList<>();
+	private final CopyOnWriteArrayList<ModelValidator> m_globalValidators = new CopyOnWriteArrayList<>();
 
 	/**
 	 * Contains model validators for subsequent processing. The boolean value tells if the subsequent processing takes place directly when fireModelChange() is invoked with this type (
@@ -615,29 +619,20 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 		//
-		if (listener.getAD_Client_ID() < 0)
+		synchronized (m_listenersRegistrationLock)
 		{
-			registerGlobal(listener);
-		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_modelChangeListeners.get(propertyName);
-		if (list == null)
-		{
-			list = new ArrayList<>();
-			list.add(listener);
-			m_modelChangeListeners.put(propertyName, list);
-		}
-		else
-		{
-			// metas: add listener only if is not already added
-			if (!list.contains(listener))
+			if (listener.getAD_Client_ID() < 0)
 			{
-				list.add(listener);
+				registerGlobal(listener);
 			}
-			else
+			final RegistrationKey key = getRegistrationKey(tableName, listener);
+			// metas: add listener only if is not already added
+			if (m_modelChangeListeners.contains(key, listener))
 			{
-				logger.debug("Listener " + listener + " already added for " + propertyName);
+				logger.debug("Listener " + listener + " already added for " + key);
+				return;
 			}
+			m_modelChangeListeners = m_modelChangeListeners.withAdded(key, listener);
 		}
 	}	// addModelValidator
 
@@ -668,16 +663,10 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_modelChangeListeners.get(propertyName);
-		if (list == null)
-		{
-			return;
-		}
-		list.remove(listener);
-		if (list.size() == 0)
+		synchronized (m_listenersRegistrationLock)
 		{
-			m_modelChangeListeners.remove(propertyName);
+			final RegistrationKey key = getRegistrationKey(tableName, listener);
+			m_modelChangeListeners = m_modelChangeListeners.withRemoved(key, listener);
 		}
 	}	// removeModelValidator
 
@@ -716,7 +705,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 	{
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("changeType", changeType.toString()))
 		{
-			if (po == null || m_modelChangeListeners.isEmpty())
+			final ModelValidatorsDispatchTable modelChangeListeners = m_modelChangeListeners;
+			if (po == null || modelChangeListeners.isEmpty())
 			{
 				return;
 			}
@@ -733,18 +723,12 @@ public class ModelValidationEngine implements IModelValidationEngine
 			int countInterceptors = 0;
 
 			//
-			// Retrieve system level model interceptors
-			final String propertyNameSystem = getPropertyName(po.get_TableName());
-			final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
-			final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
-			countInterceptors += countSystemInterceptors;
-
-			//
-			// Retrieve client level model interceptors
-			final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-			final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
-			final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
-			countInterceptors += countClientInterceptors;
+			// Retrieve system and client level model interceptors
+			final TableValidators tableInterceptors = modelChangeListeners.getTableValidators(po.get_TableName());
+			final ModelValidator[] interceptorsSystem = tableInterceptors != null ? tableInterceptors.getSystemValidators() : null;
+			final ModelValidator[] interceptorsClient = tableInterceptors != null ? tableInterceptors.getClientValidators(po.getAD_Client_ID()) : null;
+			countInterceptors += interceptorsSystem != null ? interceptorsSystem.length : 0;
+			countInterceptors += interceptorsClient != null ? interceptorsClient.length : 0;
 
 			//
 			// Retrieve script interceptors
@@ -818,8 +802,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private final void fireModelChange0(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@Nullable List<ModelValidator> interceptorsSystem,
-			@Nullable List<ModelValidator> interceptorsClient,
+			@Nullable final ModelValidator[] interceptorsSystem,
+			@Nullable final ModelValidator[] interceptorsClient,
 			@Nullable List<I_AD_Table_ScriptValidator> scriptValidators)
 	{
 		if (interceptorsSystem != null)
@@ -935,11 +919,11 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private final void invokeModelChangeMethods(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@NonNull final List<ModelValidator> validators)
+			@NonNull final ModelValidator[] validators)
 	{
-		for (final ModelValidator validator : validators)
+		for (int i = 0; i < validators.length; i++)
 		{
-			invokeModelChangeMethod(po, changeType, validator);
+			invokeModelChangeMethod(po, changeType, validators[i]);
 		}
 	}
 
@@ -950,11 +934,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 	{
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("interceptor", validator.toString()))
 		{
-			if (!appliesFor(validator, po.getAD_Client_ID()))
-			{
-				logger.debug("Skip {} ({}) for {}", validator, changeType, po);
-				return;
-			}
+			// NOTE: we are not checking appliesFor(validator, AD_Client_ID) because the dispatch table returned only the system validators and the ones of PO's client
 
 		final Stopwatch stopwatch = Stopwatch.createStarted();
 				try
@@ -991,21 +971,14 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 		//
-		if (listener.getAD_Client_ID() < 0)
-		{
-			registerGlobal(listener);
-		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_docValidateListeners.get(propertyName);
-		if (list == null)
-		{
-			list = new ArrayList<>();
-			list.add(listener);
-			m_docValidateListeners.put(propertyName, list);
-		}
-		else if (!list.contains(listener))
+		synchronized (m_listenersRegistrationLock)
 		{
-			list.add(listener);
+			if (listener.getAD_Client_ID() < 0)
+			{
+				registerGlobal(listener);
+			}
+			final RegistrationKey key = getRegistrationKey(tableName, listener);
+			m_docValidateListeners = m_docValidateListeners.withAdded(key, listener);
 		}
 	}	// addDocValidate
 
@@ -1033,16 +1006,10 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			return;
 		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_docValidateListeners.get(propertyName);
-		if (list == null)
-		{
-			return;
-		}
-		list.remove(listener);
-		if (list.size() == 0)
+		synchronized (m_listenersRegistrationLock)
 		{
-			m_docValidateListeners.remove(propertyName);
+			final RegistrationKey key = getRegistrationKey(tableName, listener);
+			m_docValidateListeners = m_docValidateListeners.withRemoved(key, listener);
 		}
 	}	// removeDocValidate
 
@@ -1092,7 +1059,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 		}
 
 		final PO po = InterfaceWrapperHelper.getPO(model);
-		if (po == null || m_docValidateListeners.isEmpty())
+		final ModelValidatorsDispatchTable docValidateListeners = m_docValidateListeners;
+		if (po == null || docValidateListeners.isEmpty())
 		{
 			return null;
 		}
@@ -1103,18 +1071,12 @@ public class ModelValidationEngine implements IModelValidationEngine
 		int countInterceptors = 0;
 
 		//
-		// Retrieve system level model interceptors
-		final String propertyNameSystem = getPropertyName(po.get_TableName());
-		final List<ModelValidator> interceptorsSystem = m_docValidateListeners.get(propertyNameSystem);
-		final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
-		countInterceptors += countSystemInterceptors;
-
-		//
-		// Retrieve client level model interceptors
-		final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-		final List<ModelValidator> interceptorsClient = m_docValidateListeners.get(propertyNameClient);
-		final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
-		countInterceptors += countClientInterceptors;
+		// Retrieve system and client level model interceptors
+		final TableValidators tableInterceptors = docValidateListeners.getTableValidators(po.get_TableName());
+		final ModelValidator[] interceptorsSystem = tableInterceptors != null ? tableInterceptors.getSystemValidators() : null;
+		final ModelValidator[] interceptorsClient = tableInterceptors != null ? tableInterceptors.getClientValidators(po.getAD_Client_ID()) : null;
+		countInterceptors += interceptorsSystem != null ? interceptorsSystem.length : 0;
+		countInterceptors += interceptorsClient != null ? interceptorsClient.length : 0;
 
 		//
 		// Retrieve script interceptors
@@ -1156,9 +1118,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	private void fireDocValidate0(final PO po,
 			final DocTimingType docTiming,
-			final List<ModelValidator> interceptorsSystem,
-			final List<ModelValidator> interceptorsClient,
-			final List<I_AD_Table_ScriptValidator> scriptValidators)
+			@Nullable final ModelValidator[] interceptorsSystem,
+			@Nullable final ModelValidator[] interceptorsClient,
+			@Nullable final List<I_AD_Table_ScriptValidator> scriptValidators)
 	{
 		if (interceptorsSystem != null)
 		{
@@ -1186,11 +1148,11 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private void fireDocValidate(
 			final PO po,
 			final DocTimingType docTiming,
-			final List<ModelValidator> interceptors)
+			final ModelValidator[] interceptors)
 	{
-		for (final ModelValidator interceptor : interceptors)
+		for (int i = 0; i < interceptors.length; i++)
 		{
-			invokeDocValidateMethod(po, docTiming, interceptor);
+			invokeDocValidateMethod(po, docTiming, interceptors[i]);
 		}
 	}
 
@@ -1199,11 +1161,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			@NonNull final DocTimingType docTiming,
 			@NonNull final ModelValidator interceptor)
 	{
-		if (!appliesFor(interceptor, po.getAD_Client_ID()))
-		{
-			logger.trace("Skip {} ({}) for {}", interceptor, docTiming, po);
-			return;
-		}
+		// NOTE: we are not checking appliesFor(interceptor, AD_Client_ID) because the dispatch table returned only the system interceptors and the ones of PO's client
 
 		final Stopwatch stopwatch = Stopwatch.createStarted();
 		try
@@ -1305,28 +1263,24 @@ public class ModelValidationEngine implements IModelValidationEngine
 		}
 		sb.append(Env.NL).append(Env.NL);
 		//
-		sb.append("ModelChange #").append(m_modelChangeListeners.size()).append(Env.NL);
-		Iterator<String> it = m_modelChangeListeners.keySet().iterator();
-		while (it.hasNext())
+		final ModelValidatorsDispatchTable modelChangeListeners = m_modelChangeListeners;
+		sb.append("ModelChange #").append(modelChangeListeners.size()).append(Env.NL);
+		for (final Map.Entry<RegistrationKey, ImmutableList<ModelValidator>> e : modelChangeListeners.getValidatorsByKey().entrySet())
 		{
-			String key = it.next();
-			ArrayList<ModelValidator> list = m_modelChangeListeners.get(key);
-			for (ModelValidator mv : list)
+			for (ModelValidator mv : e.getValue())
 			{
-				sb.append(key).append(": ").append(mv.toString()).append(Env.NL);
+				sb.append(e.getKey()).append(": ").append(mv.toString()).append(Env.NL);
 			}
 		}
 		sb.append(Env.NL).append(Env.NL);
 		//
-		sb.append("DocValidate #").append(m_docValidateListeners.size()).append(Env.NL);
-		it = m_docValidateListeners.keySet().iterator();
-		while (it.hasNext())
+		final ModelValidatorsDispatchTable docValidateListeners = m_docValidateListeners;
+		sb.append("DocValidate #").append(docValidateListeners.size()).append(Env.NL);
+		for (final Map.Entry<RegistrationKey, ImmutableList<ModelValidator>> e : docValidateListeners.getValidatorsByKey().entrySet())
 		{
-			String key = it.next();
-			ArrayList<ModelValidator> list = m_docValidateListeners.get(key);
-			for (ModelValidator mv : list)
+			for (ModelValidator mv : e.getValue())
 			{
-				sb.append(key).append(": ").append(mv.toString()).append(Env.NL);
+				sb.append(e.getKey()).append(": ").append(mv.toString()).append(Env.NL);
 			}
 		}
 		sb.append(Env.NL).append(Env.NL);
@@ -1412,10 +1366,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	private final void registerGlobal(ModelValidator validator)
 	{
-		if (!m_globalValidators.contains(validator))
-		{
-			m_globalValidators.add(validator);
-		}
+		m_globalValidators.addIfAbsent(validator);
 	}
 
 	private final boolean appliesFor(@NonNull final ModelValidator validator, final int AD_Client_ID)
@@ -1429,20 +1380,15 @@ public class ModelValidationEngine implements IModelValidationEngine
 		return tableName + "*";
 	}
 
-	private final String getPropertyName(String tableName, int AD_Client_ID)
-	{
-		return tableName + AD_Client_ID;
-	}
-
-	private final String getPropertyName(String tableName, ModelValidator listener)
+	private final RegistrationKey getRegistrationKey(@NonNull final String tableName, @NonNull final ModelValidator listener)
 	{
 		if (m_globalValidators.contains(listener))
 		{
-			return getPropertyName(tableName);
+			return RegistrationKey.system(tableName);
 		}
 		else
 		{
-			return getPropertyName(tableName, listener.getAD_Client_ID());
+			return RegistrationKey.client(tableName, listener.getAD_Client_ID());
 		}
 	}
 
@@ -0,0 +1,242 @@
+package org.compiere.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable index of the {@link ModelValidator}s which were registered for a given table, either for all clients (system level) or for one particular client.
+ * <p>
+ * {@link ModelValidationEngine} is replacing the whole table when a validator is added or removed (copy-on-register),
+ * so the lookup which is done on each PO save is not locking and is not allocating anything.
+ */
+/* package */ final class ModelValidatorsDispatchTable
+{
+	public static final ModelValidatorsDispatchTable EMPTY = new ModelValidatorsDispatchTable(ImmutableMap.of());
+
+	/** Validators per table, to be invoked on model change/document validation. Please don't change them. */
+	public static final class TableValidators
+	{
+		private static final ModelValidator[] NO_VALIDATORS = new ModelValidator[0];
+
+		private final ModelValidator[] systemValidators;
+
+		/** sorted AD_Client_IDs; the validators for {@code clientIds[i]} are {@code clientValidators[i]} */
+		private final int[] clientIds;
+		private final ModelValidator[][] clientValidators;
+
+		private TableValidators(
+				@Nullable final List<ModelValidator> systemValidators,
+				@NonNull final TreeMap<Integer, List<ModelValidator>> clientValidators)
+		{
+			this.systemValidators = systemValidators != null ? systemValidators.toArray(NO_VALIDATORS) : NO_VALIDATORS;
+
+			this.clientIds = new int[clientValidators.size()];
+			this.clientValidators = new ModelValidator[clientValidators.size()][];
+			int i = 0;
+			for (final Map.Entry<Integer, List<ModelValidator>> e : clientValidators.entrySet())
+			{
+				this.clientIds[i] = e.getKey();
+				this.clientValidators[i] = e.getValue().toArray(NO_VALIDATORS);
+				i++;
+			}
+		}
+
+		/** @return validators which were registered for all clients; never null */
+		public ModelValidator[] getSystemValidators()
+		{
+			return systemValidators;
+		}
+
+		/** @return validators which were registered for given client; never null */
+		public ModelValidator[] getClientValidators(final int adClientId)
+		{
+			final int idx = Arrays.binarySearch(clientIds, adClientId);
+			return idx >= 0 ? clientValidators[idx] : NO_VALIDATORS;
+		}
+	}
+
+	/**
+	 * @param adClientId AD_Client_ID or {@link #SYSTEM_VALIDATORS} if the validator was registered for all clients
+	 */
+	@Value
+	public static class RegistrationKey
+	{
+		public static final int SYSTEM_VALIDATORS = -1;
+
+		public static RegistrationKey system(@NonNull final String tableName)
+		{
+			return new RegistrationKey(tableName, SYSTEM_VALIDATORS);
+		}
+
+		public static RegistrationKey client(@NonNull final String tableName, final int adClientId)
+		{
+			return new RegistrationKey(tableName, adClientId);
+		}
+
+		String tableName;
+		int adClientId;
+
+		public boolean isSystem()
+		{
+			return adClientId == SYSTEM_VALIDATORS;
+		}
+
+		/** @return the legacy property name, e.g. {@code C_Order*} or {@code C_Order1000000} */
+		@Override
+		public String toString()
+		{
+			return isSystem() ? tableName + "*" : tableName + adClientId;
+		}
+	}
+
+	/** All registrations, in registration order */
+	private final ImmutableMap<RegistrationKey, ImmutableList<ModelValidator>> validatorsByKey;
+
+	/** Index used on dispatch */
+	private final ImmutableMap<String, TableValidators> validatorsByTableName;
+
+	private ModelValidatorsDispatchTable(@NonNull final ImmutableMap<RegistrationKey, ImmutableList<ModelValidator>> validatorsByKey)
+	{
+		this.validatorsByKey = validatorsByKey;
+		this.validatorsByTableName = buildIndex(validatorsByKey);
+	}
+
+	private static ImmutableMap<String, TableValidators> buildIndex(final ImmutableMap<RegistrationKey, ImmutableList<ModelValidator>> validatorsByKey)
+	{
+		final Map<String, List<ModelValidator>> systemValidatorsByTableName = new HashMap<>();
+		final Map<String, TreeMap<Integer, List<ModelValidator>>> clientValidatorsByTableName = new HashMap<>();
+		for (final Map.Entry<RegistrationKey, ImmutableList<ModelValidator>> e : validatorsByKey.entrySet())
+		{
+			final RegistrationKey key = e.getKey();
+			clientValidatorsByTableName.computeIfAbsent(key.getTableName(), tableName -> new TreeMap<>());
+			if (key.isSystem())
+			{
+				systemValidatorsByTableName.put(key.getTableName(), e.getValue());
+			}
+			else
+			{
+				clientValidatorsByTableName.get(key.getTableName()).put(key.getAdClientId(), e.getValue());
+			}
+		}
+
+		final ImmutableMap.Builder<String, TableValidators> index = ImmutableMap.builder();
+		for (final Map.Entry<String, TreeMap<Integer, List<ModelValidator>>> e : clientValidatorsByTableName.entrySet())
+		{
+			final String tableName = e.getKey();
+			index.put(tableName, new TableValidators(systemValidatorsByTableName.get(tableName), e.getValue()));
+		}
+		return index.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ModelValidatorsDispatchTable [validatorsByKey=" + validatorsByKey + "]";
+	}
+
+	public boolean isEmpty()
+	{
+		return validatorsByKey.isEmpty();
+	}
+
+	/** @return how many (table, client) registration keys we have */
+	public int size()
+	{
+		return validatorsByKey.size();
+	}
+
+	/** @return all registrations, in registration order */
+	public ImmutableMap<RegistrationKey, ImmutableList<ModelValidator>> getValidatorsByKey()
+	{
+		return validatorsByKey;
+	}
+
+	/** @return validators for given table or null */
+	@Nullable
+	public TableValidators getTableValidators(@NonNull final String tableName)
+	{
+		return validatorsByTableName.get(tableName);
+	}
+
+	public boolean contains(@NonNull final RegistrationKey key, @NonNull final ModelValidator validator)
+	{
+		final ImmutableList<ModelValidator> validators = validatorsByKey.get(key);
+		return validators != null && validators.contains(validator);
+	}
+
+	/** @return new dispatch table which also contains given validator, or this one if it's already registered */
+	public ModelValidatorsDispatchTable withAdded(@NonNull final RegistrationKey key, @NonNull final ModelValidator validator)
+	{
+		if (contains(key, validator))
+		{
+			return this;
+		}
+
+		final LinkedHashMap<RegistrationKey, ImmutableList<ModelValidator>> newValidatorsByKey = new LinkedHashMap<>(validatorsByKey);
+		final ImmutableList<ModelValidator> validators = newValidatorsByKey.get(key);
+		newValidatorsByKey.put(key, ImmutableList.<ModelValidator> builder()
+				.addAll(validators != null ? validators : ImmutableList.of())
+				.add(validator)
+				.build());
+
+		return new ModelValidatorsDispatchTable(ImmutableMap.copyOf(newValidatorsByKey));
+	}
+
+	/** @return new dispatch table without given validator, or this one if it's not registered */
+	public ModelValidatorsDispatchTable withRemoved(@NonNull final RegistrationKey key, @NonNull final ModelValidator validator)
+	{
+		if (!contains(key, validator))
+		{
+			return this;
+		}
+
+		final LinkedHashMap<RegistrationKey, ImmutableList<ModelValidator>> newValidatorsByKey = new LinkedHashMap<>(validatorsByKey);
+		final List<ModelValidator> validators = new ArrayList<>(newValidatorsByKey.get(key));
+		validators.remove(validator);
+		if (validators.isEmpty())
+		{
+			newValidatorsByKey.remove(key);
+		}
+		else
+		{
+			newValidatorsByKey.put(key, ImmutableList.copyOf(validators));
+		}
+
+		return new ModelValidatorsDispatchTable(ImmutableMap.copyOf(newValidatorsByKey));
+	}
+}
@@ -45,6 +45,7 @@ import org.adempiere.ad.migration.model.X_AD_MigrationStep;
 import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.persistence.po.INoDataFoundHandler;
 import org.adempiere.ad.persistence.po.NoDataFoundHandlers;
+import org.adempiere.ad.persistence.po.POBatchSaveBuffer;
 import org.adempiere.ad.service.IADReferenceDAO;
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.ad.session.ChangeLogRecord;
@@ -3409,7 +3410,11 @@ public abstract class PO
 			// Execute UPDATE SQL
 			log.trace("Save update: SQL={}", sql);
 			final int no;
-			if (isUseTimeoutForUpdate())
+			if (POBatchSaveBuffer.addUpdateIfActive(m_trxName, p_info.getTableName(), sql.toString()))
+			{
+				no = 1; // will be executed later, together with other saves
+			}
+			else if (isUseTimeoutForUpdate())
 			{
 				no = DB.executeUpdateEx(sql.toString(), m_trxName, QUERY_TIME_OUT);
 			}
@@ -3791,6 +3796,11 @@ public abstract class PO
 			m_custom = null;
 		}
 
+		//
+		// Remember the "INSERT INTO table (columns)" and the "(values)" parts, in case we shall batch this insert
+		final String sqlInsertInto = sqlInsert.toString() + ")";
+		final String sqlInsertValues = "(" + sqlValues.substring(") VALUES (".length()) + ")";
+
 		//
 		// Build the final INSERT sql
 		sqlInsert.append(sqlValues)
@@ -3810,12 +3820,22 @@ public abstract class PO
 
 		//
 		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
-				(Object[])null,  // params,
-				OnFail.ThrowException,  // onFail
-				m_trxName,
-				0,  // timeOut,
-				loadAfterInsertProcessor);
+		// or, if we are inside a POBatchSaveScope and we don't have to read anything back, let it be executed later, together with other INSERTs
+		final int no;
+		if (loadAfterInsertProcessor == null
+				&& POBatchSaveBuffer.addInsertIfActive(m_trxName, tableName, sqlInsertInto, sqlInsertValues))
+		{
+			no = 1;
+		}
+		else
+		{
+			no = DB.executeUpdate(sqlInsert.toString(),
+					(Object[])null,  // params,
+					OnFail.ThrowException,  // onFail
+					m_trxName,
+					0,  // timeOut,
+					loadAfterInsertProcessor);
+		}
 		boolean ok = no == 1;
 
 		//
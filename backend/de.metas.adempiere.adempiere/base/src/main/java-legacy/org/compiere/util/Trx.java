@@ -20,6 +20,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
 
+import org.adempiere.ad.persistence.po.POBatchSaveBuffer;
+import org.adempiere.ad.persistence.po.POBatchSaveScope;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.ITrxSavepoint;
@@ -82,6 +84,16 @@ public class Trx extends AbstractTrx
 	}
 
 	public Connection getConnection()
+	{
+		final Connection connection = getConnectionNoFlush();
+
+		// Make sure whoever is using this connection sees the PO saves which were batched until now
+		flushBatchedPOSaves(connection);
+
+		return connection;
+	}
+
+	private Connection getConnectionNoFlush()
 	{
 		logger.trace("Active={}, Connection={}", isActive(), m_connection);
 
@@ -126,7 +138,51 @@ public class Trx extends AbstractTrx
 		}
 
 		return m_connection;
-	}	// getConnection
+	}	// getConnectionNoFlush
+
+	/**
+	 * Sends the PO saves which were collected by a {@link POBatchSaveScope} to database.
+	 */
+	public void flushBatchedPOSaves()
+	{
+		final POBatchSaveBuffer buffer = getProperty(POBatchSaveBuffer.TRX_PROPERTY_NAME);
+		if (buffer == null || buffer.isEmpty())
+		{
+			return;
+		}
+
+		flushBatchedPOSaves(getConnectionNoFlush());
+	}
+
+	private void flushBatchedPOSaves(final Connection connection)
+	{
+		try
+		{
+			flushBatchedPOSavesNative(connection);
+		}
+		catch (final SQLException e)
+		{
+			throw DBException.wrapIfNeeded(e);
+		}
+	}
+
+	private void flushBatchedPOSavesNative(final Connection connection) throws SQLException
+	{
+		final POBatchSaveBuffer buffer = getProperty(POBatchSaveBuffer.TRX_PROPERTY_NAME);
+		if (buffer != null)
+		{
+			buffer.flush(connection);
+		}
+	}
+
+	private void discardBatchedPOSaves()
+	{
+		final POBatchSaveBuffer buffer = getProperty(POBatchSaveBuffer.TRX_PROPERTY_NAME);
+		if (buffer != null)
+		{
+			buffer.discard();
+		}
+	}
 
 	/**
 	 * Set Connection
@@ -183,6 +239,9 @@ public class Trx extends AbstractTrx
 	{
 		final String trxName = getTrxName();
 
+		// Whatever was not sent to database yet, shall not be sent anymore
+		discardBatchedPOSaves();
+
 		//
 		// Get current connection
 		// NOTE: we are not calling getConnection() because we don't want to acquire a new connection in case it was not used already.
@@ -219,6 +278,9 @@ public class Trx extends AbstractTrx
 	@Override
 	protected boolean rollbackNative(final ITrxSavepoint savepoint) throws SQLException
 	{
+		// NOTE: batched PO saves were flushed when the savepoint was created, so the pending ones were issued after it
+		discardBatchedPOSaves();
+
 		if (m_connection == null || m_connection.getAutoCommit())
 		{
 			logger.debug("rollbackNative: doing nothing because we have a null or autocomit connection; this={}, connection={}", this, m_connection);
@@ -270,6 +332,7 @@ public class Trx extends AbstractTrx
 		{
 			try
 			{
+				flushBatchedPOSavesNative(connection);
 				connection.commit();
 				logger.debug("commitNative: OK - {}", trxName);
 				// m_active = false;
@@ -301,6 +364,8 @@ public class Trx extends AbstractTrx
 	@Override
 	protected synchronized boolean closeNative()
 	{
+		discardBatchedPOSaves();
+
 		if (m_connection == null)
 		{
 			logger.debug("closeNative - m_connection is already null; just return true");
@@ -345,6 +410,9 @@ public class Trx extends AbstractTrx
 
 		if (m_connection != null)
 		{
+			// the pending PO saves belong before the savepoint
+			flushBatchedPOSaves(m_connection);
+
 			final Savepoint jdbcSavepoint;
 			if (name != null)
 			{
@@ -3,12 +3,14 @@ package de.metas;
 import com.fasterxml.jackson.databind.MapperFeature;
 import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.annotations.VisibleForTesting;
 
 import de.metas.util.Check;
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
 /*
@@ -50,12 +52,25 @@ public class JsonObjectMapperHolder
 	private static final ExtendedMemorizingSupplier<ObjectMapper> sharedJsonObjectMapper = ExtendedMemorizingSupplier.of(() -> newJsonObjectMapper());
 
 	public static ObjectMapper newJsonObjectMapper()
+	{
+		return configure(new ObjectMapper());
+	}
+
+	/**
+	 * @return object mapper which is configured like {@link #newJsonObjectMapper()}, but is reading/writing the format of given factory (e.g. smile)
+	 */
+	public static ObjectMapper newObjectMapper(@NonNull final JsonFactory jsonFactory)
+	{
+		return configure(new ObjectMapper(jsonFactory));
+	}
+
+	private static ObjectMapper configure(final ObjectMapper objectMapper)
 	{
 		// important to register the jackson-datatype-jsr310 module which we have in our pom and
 		// which is needed to serialize/deserialize java.time.Instant
 		Check.assumeNotNull(com.fasterxml.jackson.datatype.jsr310.JavaTimeModule.class, ""); // just to get a compile error if not present
 
-		return new ObjectMapper()
+		return objectMapper
 				.findAndRegisterModules()
 				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
 				.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
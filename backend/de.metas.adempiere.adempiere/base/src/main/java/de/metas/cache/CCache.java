@@ -47,6 +47,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
@@ -56,6 +57,7 @@ import de.metas.logging.LogManager;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Singular;
+import lombok.Value;
 
 /**
  * metasfresh Cache.
@@ -87,6 +89,31 @@ public class CCache<K, V> implements CacheInterface
 				.build();
 	}
 
+	/**
+	 * Creates a new LRU cache which is limited by the estimated size of its entries instead of their number.
+	 *
+	 * @param cacheName cache name; shall respect the current naming conventions, see {@link #extractTableNameForCacheName(String)}
+	 * @param maximumWeight maximum total weight (i.e. estimated bytes) of the cached entries
+	 * @param weigher estimates the size of an entry
+	 * @param expireAfterMinutes if positive, the entries will expire after given number of minutes
+	 * @return new cache instance
+	 */
+	public static final <K, V> CCache<K, V> newWeightedLRUCache(
+			final String cacheName,
+			final long maximumWeight,
+			@NonNull final CacheWeigher<K, V> weigher,
+			final int expireAfterMinutes)
+	{
+		return CCache.<K, V> builder()
+				.cacheName(cacheName)
+				// .tableName(null) // auto-detect tableName
+				.cacheMapType(CacheMapType.WeightedLRU)
+				.maximumWeight(maximumWeight)
+				.weigher(weigher)
+				.expireMinutes(expireAfterMinutes)
+				.build();
+	}
+
 	/**
 	 * Similar to {@link #newLRUCache(String, int, int)}.
 	 *
@@ -115,6 +142,12 @@ public class CCache<K, V> implements CacheInterface
 		 * This means that we can have a have a cache with a defined (limited) size without any expiration time.
 		 */
 		LRU,
+
+		/**
+		 * Like {@link #LRU}, but the size limit is the total weight (i.e. estimated bytes) of the cached entries, as computed by a {@link CacheWeigher}.
+		 * This allows us to bound caches with values of very different sizes by memory.
+		 */
+		WeightedLRU,
 	}
 
 	/**
@@ -131,6 +164,10 @@ public class CCache<K, V> implements CacheInterface
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
 
+	/** Optional second tier where the entries evicted from {@link #cache} are demoted to */
+	@Nullable
+	private final CCacheOffHeapTier<K, V> offHeapTier;
+
 	static final AtomicLong NEXT_CACHE_ID = new AtomicLong(1);
 	/** unique cache ID, mainly used for tracking, logging and debugging */
 	private final long cacheId;
@@ -185,6 +222,10 @@ public class CCache<K, V> implements CacheInterface
 				initialCapacity,
 				expireMinutes,
 				CacheMapType.HashMap,
+				(Long)null, // maximumWeight
+				(CacheWeigher<K, V>)null,
+				(Long)null, // offHeapTierMaxBytes
+				(Boolean)null, // recordStats
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
 				(CacheAdditionListener<K, V>)null);
@@ -198,6 +239,10 @@ public class CCache<K, V> implements CacheInterface
 			final Integer initialCapacity,
 			final Integer expireMinutes,
 			final CacheMapType cacheMapType,
+			@Nullable final Long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher,
+			@Nullable final Long offHeapTierMaxBytes,
+			@Nullable final Boolean recordStats,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
 			@Nullable final CacheAdditionListener<K, V> additionListener)
@@ -246,11 +291,19 @@ public class CCache<K, V> implements CacheInterface
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
+		this.offHeapTier = offHeapTierMaxBytes != null && offHeapTierMaxBytes > 0
+				? CCacheOffHeapTier.newInstanceOrNull(this.cacheName, offHeapTierMaxBytes, this.expireMinutes)
+				: null;
+		final CacheMapType cacheMapTypeEffective = cacheMapType != null ? cacheMapType : CacheMapType.HashMap;
 		this.cache = buildGuavaCache(
-				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
+				cacheMapTypeEffective,
 				initialCapacity != null ? initialCapacity : 0,
+				maximumWeight != null ? maximumWeight : 0,
+				weigher,
 				this.expireMinutes,
-				removalListener);
+				recordStats != null ? recordStats : cacheMapTypeEffective == CacheMapType.WeightedLRU || offHeapTier != null,
+				removalListener,
+				offHeapTier);
 
 		if (DEBUG)
 		{
@@ -317,10 +370,20 @@ public class CCache<K, V> implements CacheInterface
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
+			final long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher,
 			final int expireMinutes,
-			@Nullable final CacheRemovalListener<K, V> removalListener)
+			final boolean recordStats,
+			@Nullable final CacheRemovalListener<K, V> removalListener,
+			@Nullable final CCacheOffHeapTier<K, V> offHeapTier)
 	{
 		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		if (recordStats)
+		{
+			// NOTE: not enabled by default because it costs on each cache access and the counters are only needed for the caches we are monitoring
+			cacheBuilder = cacheBuilder.recordStats();
+		}
+
 		if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
@@ -331,6 +394,22 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder
 					.maximumSize(initialCapacity); // FIXME: this is confusing
 		}
+		else if (cacheMapType == CacheMapType.WeightedLRU)
+		{
+			if (weigher == null || maximumWeight <= 0)
+			{
+				throw new AdempiereException("A weigher and a positive maximumWeight are required for " + cacheMapType)
+						.setParameter("maximumWeight", maximumWeight);
+			}
+
+			cacheBuilder = cacheBuilder
+					.maximumWeight(maximumWeight)
+					.weigher((key, value) -> {
+						@SuppressWarnings("unchecked")
+						final int weight = weigher.weigh((K)key, (V)value);
+						return weight;
+					});
+		}
 		else
 		{
 			throw new AdempiereException("Unknown CacheMapType: " + cacheMapType);
@@ -341,7 +420,7 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
-		if (removalListener != null)
+		if (removalListener != null || offHeapTier != null)
 		{
 			cacheBuilder.removalListener(notif -> {
 				@SuppressWarnings("unchecked")
@@ -350,7 +429,16 @@ public class CCache<K, V> implements CacheInterface
 				@SuppressWarnings("unchecked")
 				final V value = (V)notif.getValue();
 
-				removalListener.itemRemoved(key, value);
+				// demote only what was evicted because the cache is full; everything else was explicitly removed, replaced or is expired
+				if (offHeapTier != null && notif.getCause() == RemovalCause.SIZE)
+				{
+					offHeapTier.demote(key, value);
+				}
+
+				if (removalListener != null)
+				{
+					removalListener.itemRemoved(key, value);
+				}
 			});
 		}
 		return cacheBuilder.build();
@@ -415,7 +503,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			final long no = cache.size();
+			final long no = size();
 			clear();
 			if (no > 0)
 			{
@@ -430,6 +518,10 @@ public class CCache<K, V> implements CacheInterface
 		// Clear
 		cache.invalidateAll();
 		cache.cleanUp();
+		if (offHeapTier != null)
+		{
+			offHeapTier.clear();
+		}
 
 		m_justReset = true;
 	}	// clear
@@ -516,7 +608,8 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			return cache.getIfPresent(key) != null;
+			return cache.getIfPresent(key) != null
+					|| (offHeapTier != null && offHeapTier.containsKey(key));
 		}
 	}
 
@@ -524,8 +617,13 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			final V value = cache.getIfPresent(key);
+			V value = cache.getIfPresent(key);
 			cache.invalidate(key);
+			if (offHeapTier != null)
+			{
+				final V offHeapValue = offHeapTier.remove(key);
+				value = value != null ? value : offHeapValue;
+			}
 			logger.debug("remove - Removed key={}; item that was actually in this cache={}", key, value);
 			return value;
 		}
@@ -536,7 +634,56 @@ public class CCache<K, V> implements CacheInterface
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
 			cache.invalidateAll(keys);
+			if (offHeapTier != null)
+			{
+				offHeapTier.invalidateAll(keys);
+			}
+		}
+	}
+
+	/**
+	 * Gets the value from the on-heap cache or, if not found there, from the off-heap tier. In the latter case, the value is moved back to the on-heap cache.
+	 */
+	@Nullable
+	private V getIfPresent(final K key)
+	{
+		final V value = cache.getIfPresent(key);
+		if (value != null || offHeapTier == null)
+		{
+			return value;
+		}
+
+		final V promotedValue = offHeapTier.promote(key);
+		if (promotedValue != null)
+		{
+			try (final IAutoCloseable evictionsTracking = offHeapTier.trackEvictions())
+			{
+				cache.put(key, promotedValue);
+			}
+			fireAdditionListener(key, promotedValue);
 		}
+		return promotedValue;
+	}
+
+	/**
+	 * @return loader which is first looking in the off-heap tier and only if not found there, it's calling the given loader
+	 */
+	private Callable<V> withOffHeapTier(final K key, @NonNull final Callable<V> valueInitializer)
+	{
+		if (offHeapTier == null)
+		{
+			return valueInitializer;
+		}
+
+		return () -> {
+			final V promotedValue = offHeapTier.promote(key);
+			if (promotedValue != null)
+			{
+				fireAdditionListener(key, promotedValue);
+				return promotedValue;
+			}
+			return valueInitializer.call();
+		};
 	}
 
 	/**
@@ -547,7 +694,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			final V result = cache.getIfPresent(key);
+			final V result = getIfPresent(key);
 			logger.debug("get - key={}; result={}", key, result);
 			return result;
 		}
@@ -562,7 +709,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		if (valueInitializer == null)
 		{
-			return cache.getIfPresent(key);
+			return get(key);
 		}
 
 		return get(key, new Callable<V>()
@@ -598,12 +745,12 @@ public class CCache<K, V> implements CacheInterface
 		{
 			if (valueInitializer == null)
 			{
-				return cache.getIfPresent(key);
+				return getIfPresent(key);
 			}
 
-			try
+			try (final IAutoCloseable evictionsTracking = trackEvictions())
 			{
-				return cache.get(key, valueInitializer);
+				return cache.get(key, withOffHeapTier(key, valueInitializer));
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -678,7 +825,7 @@ public class CCache<K, V> implements CacheInterface
 			final Set<K> keysToLoad = new HashSet<>();
 			for (final K key : ImmutableSet.copyOf(keys))
 			{
-				final V value = cache.getIfPresent(key);
+				final V value = getIfPresent(key);
 				if (value == null)
 				{
 					logger.debug("getAllOrLoad - Cache miss for key={}; -> adding it to 'keysToLoad'", key);
@@ -708,7 +855,10 @@ public class CCache<K, V> implements CacheInterface
 					final K key = entry.getKey();
 					final V value = entry.getValue();
 
-					cache.put(key, value);
+					try (final IAutoCloseable evictionsTracking = trackEvictions())
+					{
+						cache.put(key, value);
+					}
 					fireAdditionListener(key, value);
 				}
 				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
@@ -744,18 +894,34 @@ public class CCache<K, V> implements CacheInterface
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
 			m_justReset = false;
+			if (offHeapTier != null)
+			{
+				offHeapTier.invalidate(key);
+			}
+
 			if (value == null)
 			{
 				cache.invalidate(key);
 			}
 			else
 			{
-				cache.put(key, value);
+				try (final IAutoCloseable evictionsTracking = trackEvictions())
+				{
+					cache.put(key, value);
+				}
 				fireAdditionListener(key, value);
 			}
 		}
 	}
 
+	/**
+	 * Shall be used around the on-heap cache changes which could evict entries, so those are not demoted to the off-heap tier if the cache is reset meanwhile.
+	 */
+	private IAutoCloseable trackEvictions()
+	{
+		return offHeapTier != null ? offHeapTier.trackEvictions() : () -> {};
+	}
+
 	private void fireAdditionListener(final K key, final V value)
 	{
 		logger.debug("fireAdditionListener - Item added; key={}; value={}", key, value);
@@ -774,7 +940,14 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			cache.putAll(map);
+			if (offHeapTier != null)
+			{
+				offHeapTier.invalidateAll(map.keySet());
+			}
+			try (final IAutoCloseable evictionsTracking = trackEvictions())
+			{
+				cache.putAll(map);
+			}
 
 			for (final Entry<? extends K, ? extends V> entry : map.entrySet())
 			{
@@ -788,27 +961,41 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public boolean isEmpty()
 	{
-		return cache.size() == 0;
+		return size() == 0;
 	}	// isEmpty
 
 	/**
+	 * NOTE: if this cache has an off-heap tier, the keys of the entries which were demoted to it are also included and an immutable copy is returned.
+	 *
 	 * @see java.util.Map#keySet()
 	 */
 	public Set<K> keySet()
 	{
-		return cache.asMap().keySet();
+		if (offHeapTier == null)
+		{
+			return cache.asMap().keySet();
+		}
+
+		return ImmutableSet.<K> builder()
+				.addAll(cache.asMap().keySet())
+				.addAll(offHeapTier.keySet())
+				.build();
 	}	// keySet
 
 	/**
+	 * @return number of entries, including the ones which were demoted to the off-heap tier; same as the size of {@link #keySet()},
+	 *         because an entry is either in the on-heap cache or in the off-heap tier
 	 * @see java.util.Map#size()
 	 */
 	@Override
 	public long size()
 	{
-		return cache.size();
+		return cache.size() + (offHeapTier != null ? offHeapTier.size() : 0);
 	}	// size
 
 	/**
+	 * NOTE: only the values from the on-heap cache are returned, i.e. without the ones which were demoted to the off-heap tier.
+	 *
 	 * @see java.util.Map#values()
 	 */
 	public Collection<V> values()
@@ -827,6 +1014,10 @@ public class CCache<K, V> implements CacheInterface
 			{
 				cache.invalidateAll();
 			}
+			if (offHeapTier != null)
+			{
+				offHeapTier.close();
+			}
 		}
 	}
 
@@ -835,7 +1026,7 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats(), offHeapTier != null ? offHeapTier.stats() : null);
 	}
 
 	@SuppressWarnings("serial")
@@ -847,13 +1038,20 @@ public class CCache<K, V> implements CacheInterface
 		private final String name;
 		private final long size;
 		private final CacheStats guavaStats;
-
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private final CCacheOffHeapTierStats offHeapTierStats;
+
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final long size,
+				final CacheStats guavaStats,
+				@Nullable final CCacheOffHeapTierStats offHeapTierStats)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
 			this.size = size;
 			this.guavaStats = guavaStats;
+			this.offHeapTierStats = offHeapTierStats;
 		}
 
 		@Override
@@ -863,6 +1061,7 @@ public class CCache<K, V> implements CacheInterface
 					.add("name", name)
 					.add("size", size)
 					.add("guavaStats", guavaStats)
+					.add("offHeapTierStats", offHeapTierStats)
 					.add("cacheId", cacheId)
 					.toString();
 		}
@@ -870,7 +1069,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, guavaStats, offHeapTierStats);
 		}
 
 		@Override
@@ -882,7 +1081,8 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
-						&& guavaStats.equals(other.guavaStats);
+						&& guavaStats.equals(other.guavaStats)
+						&& Objects.equals(offHeapTierStats, other.offHeapTierStats);
 			}
 			return false;
 		}
@@ -902,9 +1102,39 @@ public class CCache<K, V> implements CacheInterface
 			return size;
 		}
 
+		/** @return statistics of the on-heap cache */
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
 		}
+
+		/** @return statistics of the off-heap tier or null if the cache has no such tier */
+		@Nullable
+		public CCacheOffHeapTierStats getOffHeapTierStats()
+		{
+			return offHeapTierStats;
+		}
+	}
+
+	@Value
+	@Builder
+	@SuppressWarnings("serial")
+	public static class CCacheOffHeapTierStats implements Serializable
+	{
+		// NOTE: must be Json serializable!!!
+
+		long size;
+		long bytesUsed;
+		long bytesCapacity;
+
+		long hitCount;
+		long missCount;
+
+		/** how many entries were moved from on-heap cache to this tier */
+		long demotionCount;
+		/** how many entries were evicted from on-heap cache but not moved to this tier, e.g. because they are not serializable */
+		long demotionSkippedCount;
+		/** how many times the tier was full and had to be cleared */
+		long wrapCount;
 	}
 }	// CCache
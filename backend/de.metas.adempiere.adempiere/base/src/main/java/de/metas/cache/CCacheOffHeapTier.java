@@ -0,0 +1,471 @@
+package de.metas.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache.CCacheOffHeapTierStats;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Second tier of a {@link CCache}: the entries which were evicted from the (on-heap) cache because of its size limit are serialized into a memory mapped file.
+ * When such an entry is requested again, it's deserialized and moved back to the on-heap cache.
+ * <p>
+ * The file is used as an append-only log. Removed entries are only dropped from the (on-heap) index; when the file is full, the whole tier is cleared and we start again from the beginning.
+ * Because a single mapped buffer can have at most 2GB, the file is mapped as multiple segments; an entry is never split across two segments.
+ * Only {@link Serializable} values are demoted; the others are just evicted.
+ * <p>
+ * The file is deleted when the JVM exits. It's not reused after a restart, because we would have missed the cache invalidations in between.
+ */
+/* package */ final class CCacheOffHeapTier<K, V>
+{
+	private static final Logger logger = LogManager.getLogger(CCacheOffHeapTier.class);
+
+	/** Max size of one mapped segment */
+	private static final int MAX_SEGMENT_BYTES = 1 << 30; // 1GB
+
+	private final String cacheName;
+	private final long capacityBytes;
+	private final int segmentBytes;
+	private final long expireMillis;
+	private final File file;
+	private final ImmutableList<MappedByteBuffer> segments;
+
+	/** Ordered by demotion time, so the expired slots are always at the beginning */
+	private final LinkedHashMap<K, Slot> slotsByKey = new LinkedHashMap<>();
+	private long writePosition = 0;
+
+	/** Incremented each time this tier is cleared */
+	private long resetGeneration = 0;
+	/** The {@link #resetGeneration} seen when the current thread started changing the on-heap cache; see {@link #trackEvictions()} */
+	private final ThreadLocal<Long> resetGenerationAtWriteStart = new ThreadLocal<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong demotionCount = new AtomicLong();
+	private final AtomicLong demotionSkippedCount = new AtomicLong();
+	private final AtomicLong wrapCount = new AtomicLong();
+
+	@Value
+	private static class Slot
+	{
+		long offset;
+		int length;
+		long demotedAtMillis;
+	}
+
+	/**
+	 * @param capacityBytes file size
+	 * @param expireMinutes if positive, demoted entries expire after given number of minutes
+	 * @return new tier or null if the memory mapped file could not be created; in that case the cache shall work without second tier
+	 */
+	@Nullable
+	public static <K, V> CCacheOffHeapTier<K, V> newInstanceOrNull(
+			@NonNull final String cacheName,
+			final long capacityBytes,
+			final int expireMinutes)
+	{
+		return newInstanceOrNull(cacheName, capacityBytes, expireMinutes, MAX_SEGMENT_BYTES);
+	}
+
+	@VisibleForTesting
+	@Nullable
+	static <K, V> CCacheOffHeapTier<K, V> newInstanceOrNull(
+			@NonNull final String cacheName,
+			final long capacityBytes,
+			final int expireMinutes,
+			final int segmentBytes)
+	{
+		Check.assumeGreaterThanZero(capacityBytes, "capacityBytes");
+		Check.assumeGreaterThanZero(segmentBytes, "segmentBytes");
+
+		try
+		{
+			final File file = File.createTempFile("metasfresh-cache-", ".bin");
+			file.deleteOnExit();
+
+			final ImmutableList.Builder<MappedByteBuffer> segments = ImmutableList.builder();
+			try (final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+					final FileChannel channel = raf.getChannel())
+			{
+				// NOTE: the mappings stay valid after the channel was closed
+				for (long segmentStart = 0; segmentStart < capacityBytes; segmentStart += segmentBytes)
+				{
+					final long size = Math.min(segmentBytes, capacityBytes - segmentStart);
+					segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, size));
+				}
+			}
+
+			return new CCacheOffHeapTier<>(cacheName, capacityBytes, segmentBytes, expireMinutes, file, segments.build());
+		}
+		catch (final IOException ex)
+		{
+			logger.warn("Failed creating the off-heap tier for cache {} with {} bytes. Continuing without it.", cacheName, capacityBytes, ex);
+			return null;
+		}
+	}
+
+	private CCacheOffHeapTier(
+			@NonNull final String cacheName,
+			final long capacityBytes,
+			final int segmentBytes,
+			final int expireMinutes,
+			@NonNull final File file,
+			@NonNull final ImmutableList<MappedByteBuffer> segments)
+	{
+		this.cacheName = cacheName;
+		this.capacityBytes = capacityBytes;
+		this.segmentBytes = segmentBytes;
+		this.expireMillis = expireMinutes > 0 ? TimeUnit.MINUTES.toMillis(expireMinutes) : 0;
+		this.file = file;
+		this.segments = segments;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CCacheOffHeapTier[" + cacheName + ", file=" + file + "]";
+	}
+
+	/**
+	 * Remembers the current reset generation until the returned closeable is closed.
+	 * The entries which are evicted by the current thread in the meantime are not demoted if this tier was cleared meanwhile,
+	 * because they would have been removed by that reset.
+	 */
+	public IAutoCloseable trackEvictions()
+	{
+		if (resetGenerationAtWriteStart.get() != null)
+		{
+			return () -> {}; // already tracked by an outer call
+		}
+
+		resetGenerationAtWriteStart.set(getResetGeneration());
+		return resetGenerationAtWriteStart::remove;
+	}
+
+	private synchronized long getResetGeneration()
+	{
+		return resetGeneration;
+	}
+
+	/**
+	 * Serializes given value into this tier. Called when the value was evicted from the on-heap cache.
+	 */
+	public void demote(@NonNull final K key, @Nullable final V value)
+	{
+		final Long expectedResetGeneration = resetGenerationAtWriteStart.get();
+
+		if (!(value instanceof Serializable))
+		{
+			demotionSkippedCount.incrementAndGet();
+			return;
+		}
+
+		final byte[] bytes = serializeOrNull(value);
+		if (bytes == null || bytes.length > segments.get(0).capacity())
+		{
+			demotionSkippedCount.incrementAndGet();
+			return;
+		}
+
+		synchronized (this)
+		{
+			if (expectedResetGeneration != null && expectedResetGeneration != resetGeneration)
+			{
+				// the cache was reset after this entry was evicted
+				demotionSkippedCount.incrementAndGet();
+				return;
+			}
+
+			// entries are not split across segments, so skip the rest of the current segment if the entry does not fit
+			// NOTE: the first segment is the biggest one, so it's fitting in there
+			while (writePosition < capacityBytes
+					&& writePosition % segmentBytes + bytes.length > segments.get((int)(writePosition / segmentBytes)).capacity())
+			{
+				writePosition = (writePosition / segmentBytes + 1) * segmentBytes;
+			}
+			if (writePosition >= capacityBytes)
+			{
+				slotsByKey.clear();
+				writePosition = 0;
+				wrapCount.incrementAndGet();
+			}
+
+			final ByteBuffer writeBuffer = segmentBufferAt(writePosition);
+			writeBuffer.put(bytes);
+
+			slotsByKey.remove(key); // keep the demotion order
+			slotsByKey.put(key, new Slot(writePosition, bytes.length, System.currentTimeMillis()));
+			writePosition += bytes.length;
+		}
+
+		demotionCount.incrementAndGet();
+	}
+
+	/**
+	 * Removes the value from this tier and returns it, so the caller can put it back to the on-heap cache.
+	 *
+	 * @return value or null if not found
+	 */
+	@Nullable
+	public V promote(@NonNull final K key)
+	{
+		return remove(key, true);
+	}
+
+	/**
+	 * Removes the value from this tier and returns it.
+	 *
+	 * @return value or null if not found
+	 */
+	@Nullable
+	public V remove(@NonNull final K key)
+	{
+		return remove(key, false);
+	}
+
+	@Nullable
+	private V remove(@NonNull final K key, final boolean recordStats)
+	{
+		final byte[] bytes;
+		synchronized (this)
+		{
+			final Slot slot = slotsByKey.remove(key);
+			if (slot == null || isExpired(slot))
+			{
+				if (recordStats)
+				{
+					missCount.incrementAndGet();
+				}
+				return null;
+			}
+
+			bytes = new byte[slot.getLength()];
+			segmentBufferAt(slot.getOffset()).get(bytes);
+		}
+
+		final V value = deserializeOrNull(bytes);
+		if (recordStats)
+		{
+			if (value != null)
+			{
+				hitCount.incrementAndGet();
+			}
+			else
+			{
+				missCount.incrementAndGet();
+			}
+		}
+		return value;
+	}
+
+	/** @return buffer of the segment which contains given position, positioned there */
+	private ByteBuffer segmentBufferAt(final long position)
+	{
+		final ByteBuffer buffer = segments.get((int)(position / segmentBytes)).duplicate();
+		buffer.position((int)(position % segmentBytes));
+		return buffer;
+	}
+
+	private boolean isExpired(@NonNull final Slot slot)
+	{
+		return expireMillis > 0 && System.currentTimeMillis() - slot.getDemotedAtMillis() > expireMillis;
+	}
+
+	public synchronized boolean containsKey(@NonNull final K key)
+	{
+		final Slot slot = slotsByKey.get(key);
+		return slot != null && !isExpired(slot);
+	}
+
+	/** Drops given key, without deserializing its value */
+	public synchronized void invalidate(@NonNull final K key)
+	{
+		slotsByKey.remove(key);
+	}
+
+	public synchronized void invalidateAll(@NonNull final Iterable<? extends K> keys)
+	{
+		for (final K key : keys)
+		{
+			slotsByKey.remove(key);
+		}
+	}
+
+	/** @return number of entries which were not expired */
+	public synchronized long size()
+	{
+		removeExpired();
+		return slotsByKey.size();
+	}
+
+	/** @return keys which were not expired */
+	public synchronized ImmutableSet<K> keySet()
+	{
+		removeExpired();
+		return ImmutableSet.copyOf(slotsByKey.keySet());
+	}
+
+	/** Removes the expired slots, which are always at the beginning because the slots are ordered by demotion time */
+	private void removeExpired()
+	{
+		if (expireMillis <= 0)
+		{
+			return;
+		}
+
+		final Iterator<Slot> slots = slotsByKey.values().iterator();
+		while (slots.hasNext() && isExpired(slots.next()))
+		{
+			slots.remove();
+		}
+	}
+
+	public synchronized void clear()
+	{
+		slotsByKey.clear();
+		writePosition = 0;
+		resetGeneration++;
+	}
+
+	public void close()
+	{
+		clear();
+
+		// NOTE: the memory is unmapped when the buffer is garbage collected
+		if (!file.delete())
+		{
+			logger.debug("Could not delete {}. It will be deleted on exit.", file);
+		}
+	}
+
+	public CCacheOffHeapTierStats stats()
+	{
+		final long size;
+		final long bytesUsed;
+		synchronized (this)
+		{
+			size = slotsByKey.size();
+			bytesUsed = writePosition;
+		}
+
+		return CCacheOffHeapTierStats.builder()
+				.size(size)
+				.bytesUsed(bytesUsed)
+				.bytesCapacity(capacityBytes)
+				.hitCount(hitCount.get())
+				.missCount(missCount.get())
+				.demotionCount(demotionCount.get())
+				.demotionSkippedCount(demotionSkippedCount.get())
+				.wrapCount(wrapCount.get())
+				.build();
+	}
+
+	@Nullable
+	private byte[] serializeOrNull(@NonNull final Object value)
+	{
+		try (final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				final ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(value);
+			out.flush();
+			return bytes.toByteArray();
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Failed serializing {} for {}. Not demoting it.", value, this, ex);
+			return null;
+		}
+	}
+
+	@Nullable
+	private V deserializeOrNull(@NonNull final byte[] bytes)
+	{
+		try (final ObjectInputStream in = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			@SuppressWarnings("unchecked")
+			final V value = (V)in.readObject();
+			return value;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed deserializing value from {}. Considering it a miss.", this, ex);
+			return null;
+		}
+	}
+
+	/** Resolves the classes using the thread's context class loader, because the cached classes might not be visible to the class loader which loaded this class. */
+	private static final class ContextClassLoaderObjectInputStream extends ObjectInputStream
+	{
+		private ContextClassLoaderObjectInputStream(final InputStream in) throws IOException
+		{
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException
+		{
+			final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			if (classLoader != null)
+			{
+				try
+				{
+					return Class.forName(desc.getName(), false, classLoader);
+				}
+				catch (final ClassNotFoundException ex)
+				{
+					// fallback to default
+				}
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
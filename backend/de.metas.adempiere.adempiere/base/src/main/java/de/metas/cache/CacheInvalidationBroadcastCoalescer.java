@@ -0,0 +1,244 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted and sends them as one {@link CacheInvalidateMultiRequest} per time window.
+ * <p>
+ * While merging, the duplicate requests are dropped and if there are more than a given number of records of the same table,
+ * they are replaced by one "reset all records of that table" request.
+ */
+/* package */ final class CacheInvalidationBroadcastCoalescer
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastCoalescer.class);
+
+	private final Consumer<CacheInvalidateMultiRequest> broadcaster;
+	private final IntSupplier escalateThresholdSupplier;
+	private final ScheduledExecutorService scheduler;
+
+	private final Object lock = new Object();
+	private LinkedHashSet<CacheInvalidateRequest> pendingRequests = new LinkedHashSet<>();
+	private boolean flushScheduled = false;
+
+	private final AtomicLong countRequestsReceived = new AtomicLong();
+	private final AtomicLong countRequestsMerged = new AtomicLong();
+	private final AtomicLong countTablesEscalated = new AtomicLong();
+
+	/**
+	 * @param broadcaster called with the merged request; it's called from a background thread
+	 * @param escalateThresholdSupplier if there are more records of one table in a time window, the whole table is reset instead; zero or negative means never
+	 */
+	public CacheInvalidationBroadcastCoalescer(
+			@NonNull final Consumer<CacheInvalidateMultiRequest> broadcaster,
+			@NonNull final IntSupplier escalateThresholdSupplier)
+	{
+		this.broadcaster = broadcaster;
+		this.escalateThresholdSupplier = escalateThresholdSupplier;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(CacheInvalidationBroadcastCoalescer.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+	}
+
+	/**
+	 * Enqueues given request. It will be broadcasted, together with all the others which were enqueued meanwhile, after given window.
+	 *
+	 * @param windowMillis how long to wait for other requests before broadcasting
+	 */
+	public void add(@NonNull final CacheInvalidateMultiRequest multiRequest, final long windowMillis)
+	{
+		countRequestsReceived.addAndGet(multiRequest.getRequests().size());
+
+		final boolean scheduleFlush;
+		synchronized (lock)
+		{
+			for (final CacheInvalidateRequest request : multiRequest.getRequests())
+			{
+				if (!pendingRequests.add(request))
+				{
+					countRequestsMerged.incrementAndGet();
+				}
+			}
+
+			scheduleFlush = !flushScheduled;
+			flushScheduled = true;
+		}
+
+		if (scheduleFlush)
+		{
+			scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@VisibleForTesting
+	void flush()
+	{
+		final List<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			requests = ImmutableList.copyOf(pendingRequests);
+			pendingRequests = new LinkedHashSet<>();
+			flushScheduled = false;
+		}
+
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			final CoalesceResult result = coalesce(requests, escalateThresholdSupplier.getAsInt());
+
+			countTablesEscalated.addAndGet(result.getCountTablesEscalated());
+			countRequestsMerged.addAndGet(requests.size() - result.getMultiRequest().getRequests().size());
+
+			logger.debug("Broadcasting {} merged cache invalidation requests: {}", requests.size(), result);
+			broadcaster.accept(result.getMultiRequest());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting {}. Ignored.", requests, ex);
+		}
+	}
+
+	@Value
+	@VisibleForTesting
+	static class CoalesceResult
+	{
+		CacheInvalidateMultiRequest multiRequest;
+		int countTablesEscalated;
+	}
+
+	/**
+	 * Merges given requests into one multi request.
+	 * <p>
+	 * Only the requests for a root record (without child record) are escalated, because a request for a child record is also invalidating its root record,
+	 * so it can't be replaced by a table reset of the child table.
+	 */
+	@VisibleForTesting
+	static CoalesceResult coalesce(@NonNull final Collection<CacheInvalidateRequest> requests, final int escalateThreshold)
+	{
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return new CoalesceResult(CacheInvalidateMultiRequest.all(), 0);
+		}
+
+		final Set<String> tablesResetAll = new HashSet<>();
+		final Map<String, Integer> rootRecordsCountByTableName = new HashMap<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (!isRootRecordOrAllRecordsRequest(request))
+			{
+				continue;
+			}
+			if (request.isAllRecords())
+			{
+				tablesResetAll.add(request.getRootTableName());
+			}
+			else
+			{
+				rootRecordsCountByTableName.merge(request.getRootTableName(), 1, Integer::sum);
+			}
+		}
+
+		int countTablesEscalated = 0;
+		if (escalateThreshold > 0)
+		{
+			for (final Map.Entry<String, Integer> e : rootRecordsCountByTableName.entrySet())
+			{
+				final String tableName = e.getKey();
+				if (e.getValue() > escalateThreshold && tablesResetAll.add(tableName))
+				{
+					countTablesEscalated++;
+				}
+			}
+		}
+
+		final LinkedHashSet<CacheInvalidateRequest> result = new LinkedHashSet<>();
+		for (final String tableName : tablesResetAll)
+		{
+			result.add(CacheInvalidateRequest.allRecordsForTable(tableName));
+		}
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (isRootRecordOrAllRecordsRequest(request) && tablesResetAll.contains(request.getRootTableName()))
+			{
+				continue; // covered by the table reset
+			}
+			result.add(request);
+		}
+
+		return new CoalesceResult(CacheInvalidateMultiRequest.of(new ArrayList<>(result)), countTablesEscalated);
+	}
+
+	private static boolean isRootRecordOrAllRecordsRequest(final CacheInvalidateRequest request)
+	{
+		return request.getChildTableName() == null && request.getRootTableName() != null;
+	}
+
+	/** @return how many cache invalidation requests were enqueued to be broadcasted */
+	public long getCountRequestsReceived()
+	{
+		return countRequestsReceived.get();
+	}
+
+	/** @return how many of the received requests were not broadcasted on their own, because they were duplicates or covered by a table reset */
+	public long getCountRequestsMerged()
+	{
+		return countRequestsMerged.get();
+	}
+
+	/** @return how many times the records of one table were replaced by a table reset */
+	public long getCountTablesEscalated()
+	{
+		return countTablesEscalated.get();
+	}
+}
@@ -1,9 +1,12 @@
 package de.metas.cache;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
@@ -57,11 +60,26 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
 
+	/** How many milliseconds to collect the cache invalidation requests before broadcasting them as one event. Zero or negative means broadcast right away. */
+	private static final String SYSCONFIG_BroadcastCoalescingWindowMillis = "de.metas.cache.CacheInvalidationRemoteHandler.BroadcastCoalescingWindowMillis";
+	private static final int DEFAULT_BroadcastCoalescingWindowMillis = 5;
+
+	/** If there are more records of the same table in one coalescing window, broadcast a reset of the whole table instead. Zero or negative means never. */
+	private static final String SYSCONFIG_BroadcastEscalateToTableThreshold = "de.metas.cache.CacheInvalidationRemoteHandler.BroadcastEscalateToTableThreshold";
+	private static final int DEFAULT_BroadcastEscalateToTableThreshold = 500;
+
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private ImmutableTableNamesGroupsIndex _tableNamesToBroadcastIndex = ImmutableTableNamesGroupsIndex.EMPTY;
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CacheInvalidationBroadcastCoalescer broadcastCoalescer = new CacheInvalidationBroadcastCoalescer(
+			this::postEventNow,
+			() -> getSysConfigInt(SYSCONFIG_BroadcastEscalateToTableThreshold, DEFAULT_BroadcastEscalateToTableThreshold));
+
+	private final AtomicLong countEventsPosted = new AtomicLong();
+	private final AtomicLong countRemoteEventsReceived = new AtomicLong();
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -143,7 +161,20 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		// Broadcast the event, together with the other ones from the same window.
+		final int coalescingWindowMillis = getBroadcastCoalescingWindowMillis();
+		if (coalescingWindowMillis > 0)
+		{
+			broadcastCoalescer.add(request, coalescingWindowMillis);
+		}
+		else
+		{
+			postEventNow(request);
+		}
+	}
+
+	private void postEventNow(final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		try (final MDCCloseable mdc = EventMDC.putEvent(event))
 		{
@@ -151,7 +182,22 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			Services.get(IEventBusFactory.class)
 					.getEventBus(TOPIC_CacheInvalidation)
 					.postEvent(event);
+			countEventsPosted.incrementAndGet();
+		}
+	}
+
+	private int getBroadcastCoalescingWindowMillis()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return 0; // keep it synchronous
 		}
+		return getSysConfigInt(SYSCONFIG_BroadcastCoalescingWindowMillis, DEFAULT_BroadcastCoalescingWindowMillis);
+	}
+
+	private static int getSysConfigInt(final String name, final int defaultValue)
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(name, defaultValue);
 	}
 
 	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
@@ -180,6 +226,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
+		countRemoteEventsReceived.incrementAndGet();
+
 		final CacheInvalidateMultiRequest request = createRequestFromEvent(event);
 		if (request == null)
 		{
@@ -193,6 +241,17 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		CacheMgt.get().reset(request, CacheMgt.ResetMode.LOCAL); // don't broadcast it anymore because else we would introduce recursion
 	}
 
+	public CacheInvalidationBroadcastStats getStats()
+	{
+		return CacheInvalidationBroadcastStats.builder()
+				.requestsReceived(broadcastCoalescer.getCountRequestsReceived())
+				.requestsMerged(broadcastCoalescer.getCountRequestsMerged())
+				.tablesEscalated(broadcastCoalescer.getCountTablesEscalated())
+				.eventsPosted(countEventsPosted.get())
+				.remoteEventsReceived(countRemoteEventsReceived.get())
+				.build();
+	}
+
 	@VisibleForTesting
 	Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request)
 	{
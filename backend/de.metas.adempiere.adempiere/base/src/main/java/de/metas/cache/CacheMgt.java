@@ -17,6 +17,7 @@
 package de.metas.cache;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -25,6 +26,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -48,6 +50,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -163,6 +166,11 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	public CacheInvalidationBroadcastStats getCacheInvalidationBroadcastStats()
+	{
+		return CacheInvalidationRemoteHandler.instance.getStats();
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -462,6 +470,23 @@ public final class CacheMgt
 				.sum();
 	}
 
+	/**
+	 * @return statistics of all registered {@link CCache}s, sorted by cache name
+	 */
+	public ImmutableList<CCacheStats> getCCacheStats()
+	{
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.collect(Collectors.toMap(CacheInterface::getCacheId, cache -> (CCache<?, ?>)cache, (cache1, cache2) -> cache1)) // same cache can be in more groups
+				.values()
+				.stream()
+				.map(CCache::stats)
+				.sorted(Comparator.comparing(CCacheStats::getName))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/**
 	 * String Representation
 	 */
@@ -47,6 +47,10 @@ public class IDCache<V> extends CCache<Object, V>
 				initialCapacity,
 				expireMinutes,
 				cacheMapType,
+				(Long)null, // maximumWeight
+				(CacheWeigher<Object, V>)null,
+				(Long)null, // offHeapTierMaxBytes
+				(Boolean)null, // recordStats
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
 				(CacheAdditionListener<Object, V>)null);
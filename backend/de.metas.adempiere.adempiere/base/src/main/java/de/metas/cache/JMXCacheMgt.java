@@ -6,6 +6,10 @@ import java.util.Set;
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import com.google.common.cache.CacheStats;
+
+import de.metas.cache.CCache.CCacheOffHeapTierStats;
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -77,6 +81,70 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return tableNamesArray;
 	}
 
+	@Override
+	public String[] getCacheStats()
+	{
+		return getCacheMgt()
+				.getCCacheStats()
+				.stream()
+				.map(JMXCacheMgt::toJMXString)
+				.toArray(size -> new String[size]);
+	}
+
+	private static String toJMXString(final CCacheStats stats)
+	{
+		final CacheStats onHeapStats = stats.getGuavaStats();
+		final StringBuilder sb = new StringBuilder()
+				.append(stats.getName())
+				.append(": size=").append(stats.getSize())
+				.append(", hits=").append(onHeapStats.hitCount())
+				.append(", misses=").append(onHeapStats.missCount())
+				.append(", evictions=").append(onHeapStats.evictionCount());
+
+		final CCacheOffHeapTierStats offHeapStats = stats.getOffHeapTierStats();
+		if (offHeapStats != null)
+		{
+			sb.append("; offHeap: size=").append(offHeapStats.getSize())
+					.append(", hits=").append(offHeapStats.getHitCount())
+					.append(", misses=").append(offHeapStats.getMissCount())
+					.append(", demotions=").append(offHeapStats.getDemotionCount())
+					.append(", bytesUsed=").append(offHeapStats.getBytesUsed())
+					.append("/").append(offHeapStats.getBytesCapacity());
+		}
+
+		return sb.toString();
+	}
+
+	@Override
+	public long getBroadcastRequestsReceived()
+	{
+		return getCacheMgt().getCacheInvalidationBroadcastStats().getRequestsReceived();
+	}
+
+	@Override
+	public long getBroadcastRequestsMerged()
+	{
+		return getCacheMgt().getCacheInvalidationBroadcastStats().getRequestsMerged();
+	}
+
+	@Override
+	public long getBroadcastTablesEscalated()
+	{
+		return getCacheMgt().getCacheInvalidationBroadcastStats().getTablesEscalated();
+	}
+
+	@Override
+	public long getBroadcastEventsPosted()
+	{
+		return getCacheMgt().getCacheInvalidationBroadcastStats().getEventsPosted();
+	}
+
+	@Override
+	public long getRemoteEventsReceived()
+	{
+		return getCacheMgt().getCacheInvalidationBroadcastStats().getRemoteEventsReceived();
+	}
+
 	@Override
 	public void enableRemoteCacheInvalidationForTableName(final String tableName)
 	{
@@ -18,6 +18,24 @@ public interface JMXCacheMgtMBean
 
 	String[] getTableNamesToBroadcast();
 
+	/** @return one line per cache, with hit/miss counts of the on-heap cache and of the off-heap tier (if any) */
+	String[] getCacheStats();
+
+	/** @return how many cache invalidation requests were enqueued to be broadcasted */
+	long getBroadcastRequestsReceived();
+
+	/** @return how many cache invalidation requests were not broadcasted on their own, because they were merged with other ones */
+	long getBroadcastRequestsMerged();
+
+	/** @return how many times the broadcasted records of one table were replaced by one table reset */
+	long getBroadcastTablesEscalated();
+
+	/** @return how many cache invalidation events were posted to the other hosts */
+	long getBroadcastEventsPosted();
+
+	/** @return how many cache invalidation events were received from the other hosts */
+	long getRemoteEventsReceived();
+
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
 	long resetAll();
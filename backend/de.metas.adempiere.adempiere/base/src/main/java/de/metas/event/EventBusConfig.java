@@ -31,9 +31,13 @@ import org.adempiere.service.ISysConfigBL;
 import org.compiere.Adempiere;
 import org.slf4j.Logger;
 
+import de.metas.event.remote.IEventSerializer;
+import de.metas.event.remote.JacksonJsonEventSerializer;
+import de.metas.event.remote.JacksonSmileEventSerializer;
 import de.metas.logging.LogManager;
 import de.metas.organization.OrgId;
 import de.metas.util.Check;
+import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import de.metas.util.StringUtils;
 import lombok.NonNull;
@@ -115,20 +119,103 @@ public final class EventBusConfig
 			return false;
 		}
 
-		final String nameForAllTopics = "de.metas.event.asyncEventBus";
+		return getBooleanValueForTopic("de.metas.event.asyncEventBus", topic.getName(), false);
+	}
+
+	public enum AsyncExecutorType
+	{
+		/** one thread per topic; the events are dispatched in the order in which they were posted */
+		SINGLE_THREAD,
+
+		/**
+		 * a pool of up to {@link #getAsyncMaxEventsInFlight(Topic)} threads per topic, for listeners which mostly wait for the database.
+		 * The events are <b>not</b> dispatched in the order in which they were posted.
+		 */
+		THREAD_POOL
+	}
+
+	/** @return how the events of given topic are dispatched if {@link #isEventBusPostAsync(Topic)} */
+	public static AsyncExecutorType getAsyncExecutorType(@NonNull final Topic topic)
+	{
+		final String executorType = getValueForTopic("de.metas.event.asyncEventBus.ExecutorType", topic.getName());
+		return AsyncExecutorType.THREAD_POOL.name().equalsIgnoreCase(executorType) ? AsyncExecutorType.THREAD_POOL : AsyncExecutorType.SINGLE_THREAD;
+	}
+
+	/**
+	 * @return how many posted events of given topic can have pending or running dispatches (an event counts once, no matter how many listeners it has);
+	 *         if the limit is reached, {@link IEventBus#postEvent(Event)} waits. Events posted from the event bus' own threads (i.e. by listeners) are not limited, so they can't block the dispatching.
+	 *         Zero means no limit, unless the executor type is {@link AsyncExecutorType#THREAD_POOL}, where it's also the number of threads.
+	 */
+	public static int getAsyncMaxEventsInFlight(@NonNull final Topic topic)
+	{
+		final String maxEventsInFlightStr = getValueForTopic("de.metas.event.asyncEventBus.MaxEventsInFlight", topic.getName());
+		final int maxEventsInFlight = NumberUtils.asInt(maxEventsInFlightStr, 0);
+		if (maxEventsInFlight <= 0 && AsyncExecutorType.THREAD_POOL.equals(getAsyncExecutorType(topic)))
+		{
+			return 20;
+		}
+		return Math.max(maxEventsInFlight, 0);
+	}
+
+	/**
+	 * @return the value of SysConfig {@code <nameForAllTopics>.topic_<topicName>} if set, else the value of SysConfig {@code <nameForAllTopics>}
+	 */
+	private static boolean getBooleanValueForTopic(
+			@NonNull final String nameForAllTopics,
+			@NonNull final String topicName,
+			final boolean defaultValue)
+	{
+		return StringUtils.toBoolean(getValueForTopic(nameForAllTopics, topicName), defaultValue);
+	}
+
+	/**
+	 * @return the value of SysConfig {@code <nameForAllTopics>.topic_<topicName>} if set, else the value of SysConfig {@code <nameForAllTopics>}
+	 */
+	private static String getValueForTopic(
+			@NonNull final String nameForAllTopics,
+			@NonNull final String topicName)
+	{
 		final Map<String, String> valuesForPrefix = Services.get(ISysConfigBL.class).getValuesForPrefix(nameForAllTopics, ClientId.SYSTEM.getRepoId(), OrgId.ANY.getRepoId());
 
-		final String keyForTopic = nameForAllTopics + ".topic_" + topic.getName();
+		final String keyForTopic = nameForAllTopics + ".topic_" + topicName;
 		final String valueForTopic = valuesForPrefix.get(keyForTopic);
 		if (Check.isNotBlank(valueForTopic))
 		{
 			getLogger(EventBusConfig.class).debug("SysConfig returned value={} for keyForTopic={}", valueForTopic, keyForTopic);
-			return StringUtils.toBoolean(valueForTopic, false);
+			return valueForTopic;
 		}
 
 		final String standardValue = valuesForPrefix.get(nameForAllTopics);
 		getLogger(EventBusConfig.class).debug("SysConfig returned value={} for keyForTopic={}", standardValue, keyForTopic);
-		return StringUtils.toBoolean(standardValue, false);
+		return standardValue;
+	}
+
+	/**
+	 * @return true if the events of given topic shall be sent to the remote endpoint in batches, instead of one message per event.
+	 *         Note that all metasfresh instances need to be able to receive batches before this is enabled.
+	 */
+	public static boolean isRemoteBatching(@NonNull final String topicName)
+	{
+		return getBooleanValueForTopic("de.metas.event.remote.Batching", topicName, false);
+	}
+
+	/** @return maximum number of events per batch; a batch is sent as soon as it's full */
+	public static int getRemoteBatchMaxSize()
+	{
+		return Math.max(Services.get(ISysConfigBL.class).getIntValue("de.metas.event.remote.BatchMaxSize", 500), 1);
+	}
+
+	/** @return how long an event can wait for its batch to be full, before the batch is sent anyways */
+	public static int getRemoteBatchMaxDelayMillis()
+	{
+		return Math.max(Services.get(ISysConfigBL.class).getIntValue("de.metas.event.remote.BatchMaxDelayMillis", 50), 0);
+	}
+
+	/** @return how batches of events are serialized, see {@link #getRemoteBatchMaxSize()} */
+	public static IEventSerializer getRemoteBatchSerializer()
+	{
+		final String serializer = Services.get(ISysConfigBL.class).getValue("de.metas.event.remote.BatchSerializer", "SMILE");
+		return "JSON".equalsIgnoreCase(serializer) ? JacksonJsonEventSerializer.instance : JacksonSmileEventSerializer.instance;
 	}
 
 	public static boolean isMonitorIncomingEvents()
@@ -32,6 +32,41 @@ public class EventBusStats
 	long eventsEnqueued;
 	long eventsDequeued;
 
+	/** event dispatches (one per event and listener) which were handed over to the async executor and are not yet done */
+	long eventsInFlight;
+	/** zero means no limit */
+	int maxEventsInFlight;
+	/** how often {@link IEventBus#postEvent(Event)} had to wait because {@link #maxEventsInFlight} was reached */
+	long postsBlockedByMaxEventsInFlight;
+
+	/** how long the events waited for an async executor thread */
+	double queueWaitMillisAvg;
+	double queueWaitMillisMax;
+
+	long listenerInvocations;
+	double listenerRunMillisAvg;
+	double listenerRunMillisMax;
+
+	/** messages sent to the remote endpoint; one message can contain a batch of events */
+	long remoteMessagesSent;
+	long remoteEventsSent;
+	long remoteBytesSent;
+	/** average over the last minute */
+	double remoteMessagesSentPerSecond;
+	/** average over the last minute */
+	double remoteBytesSentPerSecond;
+
+	long remoteMessagesReceived;
+	long remoteEventsReceived;
+	long remoteBytesReceived;
+	/** average over the last minute */
+	double remoteMessagesReceivedPerSecond;
+	/** average over the last minute */
+	double remoteBytesReceivedPerSecond;
+
+	/** average events per sent batch, relative to the maximum batch size; 0 if no batches were sent */
+	double remoteBatchFill;
+
 	public long getEventsToDequeue()
 	{
 		return getEventsEnqueued() - getEventsDequeued();
@@ -48,6 +48,7 @@ import de.metas.event.Type;
 import de.metas.event.log.EventLogEntryCollector;
 import de.metas.event.log.EventLogService;
 import de.metas.event.log.EventLogUserService;
+import de.metas.event.remote.IEventBusRemoteEndpoint;
 import de.metas.util.Check;
 import de.metas.util.JSONObjectMapper;
 import lombok.AllArgsConstructor;
@@ -88,35 +89,53 @@ final class EventBus implements IEventBus
 	@Getter
 	private Type type = Type.LOCAL;
 
-	private final ExecutorService executorOrNull;
+	@Nullable
+	private final EventBusExecutor executorOrNull;
 
 	private final EventBusStatsCollector stats;
 
+	/** the endpoint to which this bus is bound, if it's remote */
+	@Nullable
+	private IEventBusRemoteEndpoint remoteEndpoint;
+
 	/**
 	 * @param executor if not null, the system creates an {@link AsyncEventBus}; also, it shuts down this executor on {@link #destroy()}
 	 */
 	public EventBus(
 			@NonNull final String topicName,
 			@Nullable final ExecutorService executor)
+	{
+		this(topicName, executor, 0);
+	}
+
+	/**
+	 * @param executor if not null, the system creates an {@link AsyncEventBus}; also, it shuts down this executor on {@link #destroy()}
+	 * @param maxEventsInFlight if the bus is async and this is greater than zero, then {@link #postEvent(Event)} waits while there are that many events not yet dispatched to all their subscribers;
+	 *            posts made by listeners of any event bus never wait
+	 */
+	public EventBus(
+			@NonNull final String topicName,
+			@Nullable final ExecutorService executor,
+			final int maxEventsInFlight)
 	{
 		Check.assumeNotEmpty(topicName, "name not empty");
 
-		this.executorOrNull = executor;
 		this.topicName = topicName;
+		this.stats = new EventBusStatsCollector();
 
 		if (executor == null)
 		{
+			this.executorOrNull = null;
 			this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
 			this.async = false;
 
 		}
 		else
 		{
-			this.eventBus = new com.google.common.eventbus.AsyncEventBus(executor, exceptionHandler);
+			this.executorOrNull = new EventBusExecutor(executor, maxEventsInFlight, stats);
+			this.eventBus = new com.google.common.eventbus.AsyncEventBus(executorOrNull, exceptionHandler);
 			this.async = true;
 		}
-
-		this.stats = new EventBusStatsCollector();
 	}
 
 	@Override
@@ -133,9 +152,10 @@ final class EventBus implements IEventBus
 	/**
 	 * To be invoked only by the factory.
 	 */
-	/* package */void setTypeRemote()
+	/* package */void setTypeRemote(@NonNull final IEventBusRemoteEndpoint remoteEndpoint)
 	{
 		this.type = Type.REMOTE;
+		this.remoteEndpoint = remoteEndpoint;
 	}
 
 	void destroy()
@@ -247,7 +267,10 @@ final class EventBus implements IEventBus
 			}
 
 			logger.debug("{} - Posting event: {}", this, eventToPost);
-			eventBus.post(eventToPost);
+			try (final EventBusExecutor.PostTicket ignored = executorOrNull != null ? executorOrNull.beginPost() : null)
+			{
+				eventBus.post(eventToPost);
+			}
 
 			stats.incrementEventsEnqueued();
 		}
@@ -298,11 +321,16 @@ final class EventBus implements IEventBus
 		{
 			stats.incrementEventsDequeued();
 
+			final long startNanos = System.nanoTime();
 			try (final MDCCloseable mdc = EventMDC.putEvent(event))
 			{
 				logger.debug("GuavaEventListenerAdapter.onEvent - eventListener to invoke={}", eventListener);
 				invokeEventListener(this.eventListener, event);
 			}
+			finally
+			{
+				stats.recordListenerRun(System.nanoTime() - startNanos);
+			}
 		}
 	}
 
@@ -347,6 +375,12 @@ final class EventBus implements IEventBus
 	@Override
 	public EventBusStats getStats()
 	{
-		return stats.snapshot();
+		final EventBusStats.EventBusStatsBuilder statsBuilder = stats.snapshot()
+				.maxEventsInFlight(executorOrNull != null ? executorOrNull.getMaxEventsInFlight() : 0);
+		if (remoteEndpoint != null)
+		{
+			remoteEndpoint.collectStats(topicName, statsBuilder);
+		}
+		return statsBuilder.build();
 	}
 }
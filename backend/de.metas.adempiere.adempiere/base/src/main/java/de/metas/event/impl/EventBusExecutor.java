@@ -0,0 +1,171 @@
+package de.metas.event.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The executor of an async {@link EventBus}.
+ * <p>
+ * Records how long the event dispatches were waiting for a thread and, if there is a limit of events in flight,
+ * lets the posting thread wait in {@link #beginPost()} until an earlier event is done.
+ * <p>
+ * One permit is held per posted event, until all its subscriber dispatches are done. Posts made from any event bus thread (i.e. by listeners)
+ * are not limited, because the listener's own permit might be the one they would have to wait for.
+ */
+final class EventBusExecutor implements Executor
+{
+	private final ExecutorService delegate;
+	private final EventBusStatsCollector stats;
+
+	/** zero means no limit */
+	@Getter
+	private final int maxEventsInFlight;
+	@Nullable
+	private final Semaphore inFlightPermits;
+
+	/** the post which the current thread is doing, so the dispatches executed by it count on the post's permit */
+	private final ThreadLocal<PostTicket> currentPostTicket = new ThreadLocal<>();
+	/** set while the current thread is running a dispatch of any event bus */
+	private static final ThreadLocal<Boolean> IN_EVENT_BUS_THREAD = new ThreadLocal<>();
+
+	public EventBusExecutor(
+			@NonNull final ExecutorService delegate,
+			final int maxEventsInFlight,
+			@NonNull final EventBusStatsCollector stats)
+	{
+		this.delegate = delegate;
+		this.stats = stats;
+		this.maxEventsInFlight = Math.max(maxEventsInFlight, 0);
+		this.inFlightPermits = this.maxEventsInFlight > 0 ? new Semaphore(this.maxEventsInFlight) : null;
+	}
+
+	/**
+	 * To be called around posting one event. Waits if there are already {@link #getMaxEventsInFlight()} events in flight.
+	 *
+	 * @return the ticket to be closed after posting, or {@code null} if this post is not limited
+	 */
+	@Nullable
+	public PostTicket beginPost()
+	{
+		if (inFlightPermits == null || Boolean.TRUE.equals(IN_EVENT_BUS_THREAD.get()) || currentPostTicket.get() != null)
+		{
+			return null;
+		}
+
+		if (!inFlightPermits.tryAcquire())
+		{
+			stats.incrementPostsBlocked();
+			inFlightPermits.acquireUninterruptibly();
+		}
+
+		final PostTicket ticket = new PostTicket();
+		currentPostTicket.set(ticket);
+		return ticket;
+	}
+
+	@Override
+	public void execute(@NonNull final Runnable command)
+	{
+		final PostTicket ticket = currentPostTicket.get();
+		if (ticket != null)
+		{
+			ticket.dispatchStarted();
+		}
+
+		final long enqueuedNanos = System.nanoTime();
+		stats.incrementEventsInFlight();
+		try
+		{
+			delegate.execute(() -> {
+				stats.recordQueueWait(System.nanoTime() - enqueuedNanos);
+				IN_EVENT_BUS_THREAD.set(Boolean.TRUE);
+				try
+				{
+					command.run();
+				}
+				finally
+				{
+					IN_EVENT_BUS_THREAD.remove();
+					stats.decrementEventsInFlight();
+					if (ticket != null)
+					{
+						ticket.dispatchDone();
+					}
+				}
+			});
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			stats.decrementEventsInFlight();
+			if (ticket != null)
+			{
+				ticket.dispatchDone();
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Holds the permit of one posted event. The permit is released when the post is done and all dispatches which were started by it are done.
+	 */
+	final class PostTicket implements AutoCloseable
+	{
+		/** starts with one for the post itself */
+		private final AtomicInteger pending = new AtomicInteger(1);
+
+		private void dispatchStarted()
+		{
+			pending.incrementAndGet();
+		}
+
+		private void dispatchDone()
+		{
+			if (pending.decrementAndGet() == 0)
+			{
+				inFlightPermits.release();
+			}
+		}
+
+		@Override
+		public void close()
+		{
+			currentPostTicket.remove();
+			dispatchDone();
+		}
+	}
+
+	public void shutdown()
+	{
+		delegate.shutdown();
+	}
+}
@@ -6,6 +6,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -26,6 +29,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 
 import de.metas.event.EventBusConfig;
+import de.metas.event.EventBusConfig.AsyncExecutorType;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
@@ -138,7 +142,9 @@ public class EventBusFactory implements IEventBusFactory
 	private EventBus createEventBus(@NonNull final Topic topic)
 	{
 		// Create the event bus
-		final EventBus eventBus = new EventBus(topic.getName(), createExecutorOrNull(topic));
+		final ExecutorService executor = createExecutorOrNull(topic);
+		final int maxEventsInFlight = executor != null ? EventBusConfig.getAsyncMaxEventsInFlight(topic) : 0;
+		final EventBus eventBus = new EventBus(topic.getName(), executor, maxEventsInFlight);
 
 		// Bind the EventBus to remote endpoint (only if the system is enabled).
 		// If is not enabled we will use only local event buses,
@@ -151,7 +157,7 @@ public class EventBusFactory implements IEventBusFactory
 			}
 			else if (remoteEndpoint.bindIfNeeded(eventBus))
 			{
-				eventBus.setTypeRemote();
+				eventBus.setTypeRemote(remoteEndpoint);
 			}
 		}
 
@@ -169,16 +175,34 @@ public class EventBusFactory implements IEventBusFactory
 	private ExecutorService createExecutorOrNull(@NonNull final Topic topic)
 	{
 		// Setup EventBus executor
-		if (EventBusConfig.isEventBusPostAsync(topic))
+		if (!EventBusConfig.isEventBusPostAsync(topic))
 		{
-			return Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
-					.setThreadNamePrefix(getClass().getName() + "-" + topic.getName() + "-AsyncExecutor")
-					.setDaemon(true)
-					.build());
+			return null;
+		}
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getName() + "-" + topic.getName() + "-AsyncExecutor")
+				.setDaemon(true)
+				.build();
+
+		final AsyncExecutorType executorType = EventBusConfig.getAsyncExecutorType(topic);
+		if (AsyncExecutorType.THREAD_POOL.equals(executorType))
+		{
+			// the listeners mostly wait for the database, so we can afford one thread per event in flight;
+			// the threads are released after one minute of inactivity
+			final int poolSize = EventBusConfig.getAsyncMaxEventsInFlight(topic);
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					poolSize,
+					poolSize,
+					1, TimeUnit.MINUTES,
+					new LinkedBlockingQueue<>(),
+					threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
 		}
 		else
 		{
-			return null;
+			return Executors.newSingleThreadExecutor(threadFactory);
 		}
 	}
 
@@ -1,6 +1,8 @@
 package de.metas.event.impl;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 
 import de.metas.event.EventBusStats;
 
@@ -31,6 +33,12 @@ final class EventBusStatsCollector
 	private final AtomicLong eventsEnqueued = new AtomicLong();
 	private final AtomicLong eventsDequeued = new AtomicLong();
 
+	private final AtomicLong eventsInFlight = new AtomicLong();
+	private final AtomicLong postsBlocked = new AtomicLong();
+
+	private final DurationCounter queueWait = new DurationCounter();
+	private final DurationCounter listenerRun = new DurationCounter();
+
 	public void incrementEventsEnqueued()
 	{
 		eventsEnqueued.incrementAndGet();
@@ -41,11 +49,74 @@ final class EventBusStatsCollector
 		eventsDequeued.incrementAndGet();
 	}
 
-	public EventBusStats snapshot()
+	public void incrementEventsInFlight()
+	{
+		eventsInFlight.incrementAndGet();
+	}
+
+	public void decrementEventsInFlight()
+	{
+		eventsInFlight.decrementAndGet();
+	}
+
+	/** a post had to wait because the limit of events in flight was reached */
+	public void incrementPostsBlocked()
+	{
+		postsBlocked.incrementAndGet();
+	}
+
+	/** time between posting an event and starting to dispatch it to a listener */
+	public void recordQueueWait(final long nanos)
+	{
+		queueWait.record(nanos);
+	}
+
+	public void recordListenerRun(final long nanos)
+	{
+		listenerRun.record(nanos);
+	}
+
+	public EventBusStats.EventBusStatsBuilder snapshot()
 	{
 		return EventBusStats.builder()
-				.eventsEnqueued(eventsDequeued.get())
+				.eventsEnqueued(eventsEnqueued.get())
 				.eventsDequeued(eventsDequeued.get())
-				.build();
+				.eventsInFlight(eventsInFlight.get())
+				.postsBlockedByMaxEventsInFlight(postsBlocked.get())
+				.queueWaitMillisAvg(queueWait.getAvgMillis())
+				.queueWaitMillisMax(queueWait.getMaxMillis())
+				.listenerInvocations(listenerRun.getCount())
+				.listenerRunMillisAvg(listenerRun.getAvgMillis())
+				.listenerRunMillisMax(listenerRun.getMaxMillis());
+	}
+
+	private static final class DurationCounter
+	{
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		public void record(final long nanos)
+		{
+			count.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+			maxNanos.accumulate(nanos);
+		}
+
+		public long getCount()
+		{
+			return count.get();
+		}
+
+		public double getAvgMillis()
+		{
+			final long count = this.count.get();
+			return count > 0 ? (double)totalNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+		}
+
+		public double getMaxMillis()
+		{
+			return (double)maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+		}
 	}
 }
@@ -1,6 +1,7 @@
 package de.metas.event.remote;
 
 import de.metas.event.Event;
+import de.metas.event.EventBusStats;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
@@ -39,4 +40,11 @@ public interface IEventBusRemoteEndpoint
 	 * @return true if remote endpoint connection is up
 	 */
 	void checkConnection();
+
+	/**
+	 * Adds what this endpoint sent and received for the given topic to the given stats.
+	 */
+	default void collectStats(@NonNull final String topicName, @NonNull final EventBusStats.EventBusStatsBuilder stats)
+	{
+	}
 }
@@ -1,5 +1,7 @@
 package de.metas.event.remote;
 
+import java.util.List;
+
 import com.google.common.annotations.VisibleForTesting;
 
 /*
@@ -39,4 +41,16 @@ public interface IEventSerializer
 	String toString(Event event);
 
 	Event fromString(String eventStr);
+
+	/**
+	 * @return the MIME content type of what {@link #toBytes(List)} produces
+	 */
+	String getContentType();
+
+	/**
+	 * Serializes a batch of events, so they can be sent as one message.
+	 */
+	byte[] toBytes(List<Event> events);
+
+	List<Event> fromBytes(byte[] bytes);
 }
@@ -1,7 +1,18 @@
 package de.metas.event.remote;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import de.metas.JsonObjectMapperHolder;
 import de.metas.event.Event;
 import de.metas.util.JSONObjectMapper;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -29,6 +40,12 @@ public class JacksonJsonEventSerializer implements IEventSerializer
 {
 	public static final transient JacksonJsonEventSerializer instance = new JacksonJsonEventSerializer();
 
+	public static final String CONTENT_TYPE = "application/json";
+
+	private static final TypeReference<List<Event>> TYPE_EventsList = new TypeReference<List<Event>>()
+	{
+	};
+
 	private final JSONObjectMapper<Event> delegate;
 
 	private JacksonJsonEventSerializer()
@@ -47,4 +64,36 @@ public class JacksonJsonEventSerializer implements IEventSerializer
 	{
 		return delegate.readValue(eventStr);
 	}
+
+	@Override
+	public String getContentType()
+	{
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public byte[] toBytes(@NonNull final List<Event> events)
+	{
+		try
+		{
+			return JsonObjectMapperHolder.sharedJsonObjectMapper().writeValueAsBytes(events);
+		}
+		catch (final JsonProcessingException ex)
+		{
+			throw new AdempiereException("Failed converting events to json: " + events, ex);
+		}
+	}
+
+	@Override
+	public List<Event> fromBytes(@NonNull final byte[] bytes)
+	{
+		try
+		{
+			return JsonObjectMapperHolder.sharedJsonObjectMapper().readValue(bytes, TYPE_EventsList);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting json to events: " + new String(bytes, StandardCharsets.UTF_8), ex);
+		}
+	}
 }
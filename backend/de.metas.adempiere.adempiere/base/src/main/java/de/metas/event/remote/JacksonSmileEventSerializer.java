@@ -0,0 +1,123 @@
+package de.metas.event.remote;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.event.Event;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializes events to <a href="https://github.com/FasterXML/smile-format-specification">Smile</a>, i.e. binary JSON.
+ * <p>
+ * Same data model as {@link JacksonJsonEventSerializer}, but smaller and faster to read/write, in particular for batches of similar events, because the property names are written only once.
+ */
+public class JacksonSmileEventSerializer implements IEventSerializer
+{
+	public static final transient JacksonSmileEventSerializer instance = new JacksonSmileEventSerializer();
+
+	public static final String CONTENT_TYPE = "application/x-jackson-smile";
+
+	private static final TypeReference<List<Event>> TYPE_EventsList = new TypeReference<List<Event>>()
+	{
+	};
+
+	private final ObjectMapper smileObjectMapper;
+
+	private JacksonSmileEventSerializer()
+	{
+		final SmileFactory smileFactory = new SmileFactory();
+		smileObjectMapper = JsonObjectMapperHolder.newObjectMapper(smileFactory);
+	}
+
+	/**
+	 * @return base64 encoded smile
+	 */
+	@Override
+	public String toString(@NonNull final Event event)
+	{
+		try
+		{
+			return Base64.getEncoder().encodeToString(smileObjectMapper.writeValueAsBytes(event));
+		}
+		catch (final JsonProcessingException ex)
+		{
+			throw new AdempiereException("Failed converting event to smile: " + event, ex);
+		}
+	}
+
+	@Override
+	public Event fromString(@NonNull final String eventStr)
+	{
+		try
+		{
+			return smileObjectMapper.readValue(Base64.getDecoder().decode(eventStr), Event.class);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting smile to event: " + eventStr, ex);
+		}
+	}
+
+	@Override
+	public String getContentType()
+	{
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public byte[] toBytes(@NonNull final List<Event> events)
+	{
+		try
+		{
+			return smileObjectMapper.writeValueAsBytes(events);
+		}
+		catch (final JsonProcessingException ex)
+		{
+			throw new AdempiereException("Failed converting events to smile: " + events, ex);
+		}
+	}
+
+	@Override
+	public List<Event> fromBytes(@NonNull final byte[] bytes)
+	{
+		try
+		{
+			return smileObjectMapper.readValue(bytes, TYPE_EventsList);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting smile to events (" + bytes.length + " bytes)", ex);
+		}
+	}
+}
@@ -1,18 +1,30 @@
 package de.metas.event.remote;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+
+import com.google.common.collect.ImmutableList;
 
 import de.metas.event.Event;
 import de.metas.event.Event.Builder;
 import de.metas.event.EventBusConfig;
+import de.metas.event.EventBusStats;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
@@ -59,12 +71,18 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 
 	private static final String HEADER_SenderId = "metasfresh-events.SenderId";
 	private static final String HEADER_TopicName = "metasfresh-events.TopicName";
+	/** Set if the message contains a batch of events and not just one event */
+	private static final String HEADER_BatchSize = "metasfresh-events.BatchSize";
 
 	private final String senderId;
 	private final AmqpTemplate amqpTemplate;
 
 	private final IEventListener eventBus2amqpListener = EventBus2RemoteEndpointHandler.newInstance(this);
 
+	private final RemoteEventBatcher batcher;
+
+	private final ConcurrentHashMap<String, RemoteEndpointStatsCollector> statsByTopicName = new ConcurrentHashMap<>();
+
 	public RabbitMQEventBusRemoteEndpoint(
 			@NonNull final AmqpTemplate amqpTemplate,
 			@NonNull final PerformanceMonitoringService perfMonService)
@@ -72,6 +90,23 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 		senderId = EventBusConfig.getSenderId();
 		this.amqpTemplate = amqpTemplate;
 		this.perfMonService = perfMonService;
+
+		this.batcher = new RemoteEventBatcher(
+				this::sendBatch,
+				Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(getClass().getSimpleName() + "-BatchFlusher")
+						.setDaemon(true)
+						.build()),
+				EventBusConfig::getRemoteBatchMaxSize,
+				EventBusConfig::getRemoteBatchMaxDelayMillis);
+	}
+
+	/**
+	 * Sends the events which are still waiting in their batches. Called by spring when the application context is closed.
+	 */
+	public void shutdown()
+	{
+		batcher.flushAll();
 	}
 
 	@Override
@@ -85,24 +120,84 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 			RabbitMQEventBusConfiguration.CacheInvalidationQueueConfiguration.QUEUE_NAME_SPEL,
 			RabbitMQEventBusConfiguration.AccountingQueueConfiguration.QUEUE_NAME_SPEL,
 	})
-	public void onRemoteEvent(
-			@Payload final Event event,
-			@Header(HEADER_SenderId) final String senderId,
-			@Header(HEADER_TopicName) final String topicName)
+	public void onRemoteMessage(@NonNull final Message message)
 	{
+		final MessageProperties messageProperties = message.getMessageProperties();
+		final String senderId = Objects.toString(messageProperties.getHeaders().get(HEADER_SenderId), null);
+		final String topicName = Objects.toString(messageProperties.getHeaders().get(HEADER_TopicName), null);
+		if (senderId == null || topicName == null)
+		{
+			logger.warn("onRemoteMessage - message has no senderId or topicName header; -> ignoring message: {}", messageProperties);
+			return;
+		}
+
 		final Topic topic = Topic.of(topicName, Type.REMOTE);
 		final IEventBus localEventBus = eventBusFactory.getEventBusIfExists(topic);
 		if (localEventBus == null)
 		{
-			logger.debug("onRemoteEvent - localEventBus for topicName={} is null; -> ignoring event", topicName);
+			logger.debug("onRemoteMessage - localEventBus for topicName={} is null; -> ignoring message", topicName);
 			return;
 		}
 		if (Objects.equals(getSenderId(), senderId))
 		{
-			logger.debug("onRemoteEvent - event's senderId is equal to the *local* sender id; -> ignoring event", senderId);
+			logger.debug("onRemoteMessage - message's senderId={} is equal to the *local* sender id; -> ignoring message", senderId);
 			return;
 		}
 
+		final List<Event> events;
+		try
+		{
+			events = extractEvents(message);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("onRemoteMessage - Failed extracting events for topic {}; -> ignoring message: {}", topicName, messageProperties, ex);
+			return;
+		}
+		getStats(topicName).recordMessageReceived(events.size(), message.getBody().length);
+
+		// a batch contains the events in the order in which they were posted
+		for (final Event event : events)
+		{
+			onRemoteEvent(localEventBus, event, senderId, topicName);
+		}
+	}
+
+	private static List<Event> extractEvents(@NonNull final Message message)
+	{
+		final MessageProperties messageProperties = message.getMessageProperties();
+		if (messageProperties.getHeaders().get(HEADER_BatchSize) == null)
+		{
+			// one event, sent by amqpTemplate.convertAndSend as JSON
+			final Event event = JacksonJsonEventSerializer.instance.fromString(new String(message.getBody(), StandardCharsets.UTF_8));
+			return ImmutableList.of(event);
+		}
+
+		return getBatchSerializerByContentType(messageProperties.getContentType()).fromBytes(message.getBody());
+	}
+
+	private static IEventSerializer getBatchSerializerByContentType(@Nullable final String contentType)
+	{
+		if (JacksonSmileEventSerializer.CONTENT_TYPE.equals(contentType))
+		{
+			return JacksonSmileEventSerializer.instance;
+		}
+		else if (JacksonJsonEventSerializer.CONTENT_TYPE.equals(contentType))
+		{
+			return JacksonJsonEventSerializer.instance;
+		}
+		else
+		{
+			throw new AdempiereException("No event serializer found for content type " + contentType);
+		}
+	}
+
+	private void onRemoteEvent(
+			@NonNull final IEventBus localEventBus,
+			@NonNull final Event event,
+			@NonNull final String senderId,
+			@NonNull final String topicName)
+	{
 		final boolean monitorIncomingEvents = EventBusConfig.isMonitorIncomingEvents();
 		final boolean localEventBusAsync = localEventBus.isAsync();
 		try
@@ -223,6 +318,13 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 			return;
 		}
 
+		if (EventBusConfig.isRemoteBatching(topicName))
+		{
+			batcher.add(topicName, event);
+			logger.debug("Added event to batch; topicName={}; event={}", topicName, event);
+			return;
+		}
+
 		final String amqpExchangeName = RabbitMQEventBusConfiguration.getAMQPExchangeNameByTopicName(topicName);
 		final String routingKey = ""; // ignored for fan-out exchanges
 		amqpTemplate.convertAndSend(
@@ -233,12 +335,47 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 					final Map<String, Object> headers = message.getMessageProperties().getHeaders();
 					headers.put(HEADER_SenderId, getSenderId());
 					headers.put(HEADER_TopicName, topicName);
+					getStats(topicName).recordMessageSent(message.getBody().length);
 					return message;
 				});
 
 		logger.debug("Send event; topicName={}; event={}", topicName, event);
 	}
 
+	private void sendBatch(@NonNull final String topicName, @NonNull final List<Event> events)
+	{
+		final IEventSerializer serializer = EventBusConfig.getRemoteBatchSerializer();
+		final byte[] body = serializer.toBytes(events);
+		final Message message = MessageBuilder.withBody(body)
+				.setContentType(serializer.getContentType())
+				.setHeader(HEADER_SenderId, getSenderId())
+				.setHeader(HEADER_TopicName, topicName)
+				.setHeader(HEADER_BatchSize, events.size())
+				.build();
+
+		final String amqpExchangeName = RabbitMQEventBusConfiguration.getAMQPExchangeNameByTopicName(topicName);
+		final String routingKey = ""; // ignored for fan-out exchanges
+		amqpTemplate.send(amqpExchangeName, routingKey, message);
+		getStats(topicName).recordBatchSent(events.size(), body.length);
+
+		logger.debug("Send batch of {} events ({} bytes); topicName={}", events.size(), body.length, topicName);
+	}
+
+	private RemoteEndpointStatsCollector getStats(@NonNull final String topicName)
+	{
+		return statsByTopicName.computeIfAbsent(topicName, k -> new RemoteEndpointStatsCollector());
+	}
+
+	@Override
+	public void collectStats(@NonNull final String topicName, @NonNull final EventBusStats.EventBusStatsBuilder stats)
+	{
+		final RemoteEndpointStatsCollector statsCollector = statsByTopicName.get(topicName);
+		if (statsCollector != null)
+		{
+			statsCollector.collectStats(stats, batcher.getMaxSize());
+		}
+	}
+
 	private String createEventBusId(final String topicName)
 	{
 		return getSenderId() + "_" + topicName;
@@ -0,0 +1,138 @@
+package de.metas.event.remote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.event.EventBusStats;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * What a remote endpoint sent and received for one topic.
+ */
+final class RemoteEndpointStatsCollector
+{
+	private final AtomicLong messagesSent = new AtomicLong();
+	private final AtomicLong eventsSent = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final RateCounter messagesSentRate = new RateCounter();
+	private final RateCounter bytesSentRate = new RateCounter();
+
+	private final AtomicLong batchesSent = new AtomicLong();
+	private final AtomicLong batchedEventsSent = new AtomicLong();
+
+	private final AtomicLong messagesReceived = new AtomicLong();
+	private final AtomicLong eventsReceived = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+	private final RateCounter messagesReceivedRate = new RateCounter();
+	private final RateCounter bytesReceivedRate = new RateCounter();
+
+	public void recordMessageSent(final int bytes)
+	{
+		messagesSent.incrementAndGet();
+		eventsSent.incrementAndGet();
+		bytesSent.addAndGet(bytes);
+		messagesSentRate.add(1);
+		bytesSentRate.add(bytes);
+	}
+
+	public void recordBatchSent(final int eventsCount, final int bytes)
+	{
+		messagesSent.incrementAndGet();
+		eventsSent.addAndGet(eventsCount);
+		bytesSent.addAndGet(bytes);
+		messagesSentRate.add(1);
+		bytesSentRate.add(bytes);
+
+		batchesSent.incrementAndGet();
+		batchedEventsSent.addAndGet(eventsCount);
+	}
+
+	public void recordMessageReceived(final int eventsCount, final int bytes)
+	{
+		messagesReceived.incrementAndGet();
+		eventsReceived.addAndGet(eventsCount);
+		bytesReceived.addAndGet(bytes);
+		messagesReceivedRate.add(1);
+		bytesReceivedRate.add(bytes);
+	}
+
+	public void collectStats(@NonNull final EventBusStats.EventBusStatsBuilder stats, final int batchMaxSize)
+	{
+		final long batchesSent = this.batchesSent.get();
+		final double batchFill = batchesSent > 0 && batchMaxSize > 0
+				? (double)batchedEventsSent.get() / batchesSent / batchMaxSize
+				: 0;
+
+		stats.remoteMessagesSent(messagesSent.get())
+				.remoteEventsSent(eventsSent.get())
+				.remoteBytesSent(bytesSent.get())
+				.remoteMessagesSentPerSecond(messagesSentRate.getPerSecond())
+				.remoteBytesSentPerSecond(bytesSentRate.getPerSecond())
+				.remoteMessagesReceived(messagesReceived.get())
+				.remoteEventsReceived(eventsReceived.get())
+				.remoteBytesReceived(bytesReceived.get())
+				.remoteMessagesReceivedPerSecond(messagesReceivedRate.getPerSecond())
+				.remoteBytesReceivedPerSecond(bytesReceivedRate.getPerSecond())
+				.remoteBatchFill(batchFill);
+	}
+
+	/**
+	 * Sum over the last {@value #WINDOW_SECONDS} seconds, in buckets of one second.
+	 */
+	private static final class RateCounter
+	{
+		private static final int WINDOW_SECONDS = 60;
+
+		private final long[] bucketSeconds = new long[WINDOW_SECONDS];
+		private final long[] bucketAmounts = new long[WINDOW_SECONDS];
+
+		public synchronized void add(final long amount)
+		{
+			final long second = SystemTime.millis() / 1000;
+			final int index = (int)(second % WINDOW_SECONDS);
+			if (bucketSeconds[index] != second)
+			{
+				bucketSeconds[index] = second;
+				bucketAmounts[index] = 0;
+			}
+			bucketAmounts[index] += amount;
+		}
+
+		public synchronized double getPerSecond()
+		{
+			final long second = SystemTime.millis() / 1000;
+
+			long sum = 0;
+			for (int i = 0; i < WINDOW_SECONDS; i++)
+			{
+				if (second - bucketSeconds[i] < WINDOW_SECONDS)
+				{
+					sum += bucketAmounts[i];
+				}
+			}
+			return (double)sum / WINDOW_SECONDS;
+		}
+	}
+}
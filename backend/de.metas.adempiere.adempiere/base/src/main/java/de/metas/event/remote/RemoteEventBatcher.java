@@ -0,0 +1,173 @@
+package de.metas.event.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+
+import de.metas.event.Event;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the events to be sent to a remote endpoint per topic and hands them over as batches.
+ * <p>
+ * A batch is sent when it has the maximum size, or when its first event waited for the maximum delay.
+ * The events of one topic are sent in the order in which they were added.
+ */
+final class RemoteEventBatcher
+{
+	private static final Logger logger = LogManager.getLogger(RemoteEventBatcher.class);
+
+	@FunctionalInterface
+	public interface BatchSender
+	{
+		void sendBatch(String topicName, List<Event> events);
+	}
+
+	private final BatchSender sender;
+	private final ScheduledExecutorService flushScheduler;
+	private final IntSupplier maxSizeSupplier;
+	private final IntSupplier maxDelayMillisSupplier;
+
+	private final ConcurrentHashMap<String, TopicBatch> batchesByTopicName = new ConcurrentHashMap<>();
+
+	public RemoteEventBatcher(
+			@NonNull final BatchSender sender,
+			@NonNull final ScheduledExecutorService flushScheduler,
+			@NonNull final IntSupplier maxSizeSupplier,
+			@NonNull final IntSupplier maxDelayMillisSupplier)
+	{
+		this.sender = sender;
+		this.flushScheduler = flushScheduler;
+		this.maxSizeSupplier = maxSizeSupplier;
+		this.maxDelayMillisSupplier = maxDelayMillisSupplier;
+	}
+
+	private static final class TopicBatch
+	{
+		/** guards {@link #events} and {@link #flushScheduled} */
+		private final Object eventsLock = new Object();
+		/** held while a batch is taken and sent, so that batches of the same topic don't overtake each other */
+		private final Object sendLock = new Object();
+
+		private List<Event> events = new ArrayList<>();
+		private boolean flushScheduled = false;
+	}
+
+	public int getMaxSize()
+	{
+		return maxSizeSupplier.getAsInt();
+	}
+
+	public void add(@NonNull final String topicName, @NonNull final Event event)
+	{
+		final int maxSize = getMaxSize();
+		final TopicBatch batch = batchesByTopicName.computeIfAbsent(topicName, k -> new TopicBatch());
+
+		final boolean full;
+		final boolean scheduleFlush;
+		synchronized (batch.eventsLock)
+		{
+			batch.events.add(event);
+			full = batch.events.size() >= maxSize;
+			scheduleFlush = !full && !batch.flushScheduled;
+			if (scheduleFlush)
+			{
+				batch.flushScheduled = true;
+			}
+		}
+
+		if (full)
+		{
+			flush(topicName, batch);
+		}
+		else if (scheduleFlush)
+		{
+			scheduleFlush(topicName, batch);
+		}
+	}
+
+	private void scheduleFlush(final String topicName, final TopicBatch batch)
+	{
+		final int maxDelayMillis = maxDelayMillisSupplier.getAsInt();
+		if (maxDelayMillis <= 0)
+		{
+			flush(topicName, batch);
+			return;
+		}
+
+		try
+		{
+			flushScheduler.schedule(() -> flush(topicName, batch), maxDelayMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// we are shutting down
+			flush(topicName, batch);
+		}
+	}
+
+	private void flush(final String topicName, final TopicBatch batch)
+	{
+		synchronized (batch.sendLock)
+		{
+			final List<Event> events;
+			synchronized (batch.eventsLock)
+			{
+				events = batch.events;
+				batch.events = new ArrayList<>();
+				batch.flushScheduled = false;
+			}
+
+			if (events.isEmpty())
+			{
+				return;
+			}
+
+			try
+			{
+				sender.sendBatch(topicName, events);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed sending batch of {} events to topic {}. Ignored.", events.size(), topicName, ex);
+			}
+		}
+	}
+
+	/**
+	 * Sends all pending events right away.
+	 */
+	public void flushAll()
+	{
+		batchesByTopicName.forEach(this::flush);
+	}
+}
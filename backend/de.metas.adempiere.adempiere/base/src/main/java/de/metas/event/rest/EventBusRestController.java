@@ -118,6 +118,27 @@ public class EventBusRestController
 				.eventsDequeued(stats.getEventsDequeued())
 				.eventsToDequeue(stats.getEventsToDequeue())
 				//
+				.eventsInFlight(stats.getEventsInFlight())
+				.maxEventsInFlight(stats.getMaxEventsInFlight())
+				.postsBlockedByMaxEventsInFlight(stats.getPostsBlockedByMaxEventsInFlight())
+				.queueWaitMillisAvg(stats.getQueueWaitMillisAvg())
+				.queueWaitMillisMax(stats.getQueueWaitMillisMax())
+				.listenerInvocations(stats.getListenerInvocations())
+				.listenerRunMillisAvg(stats.getListenerRunMillisAvg())
+				.listenerRunMillisMax(stats.getListenerRunMillisMax())
+				//
+				.remoteMessagesSent(stats.getRemoteMessagesSent())
+				.remoteEventsSent(stats.getRemoteEventsSent())
+				.remoteBytesSent(stats.getRemoteBytesSent())
+				.remoteMessagesSentPerSecond(stats.getRemoteMessagesSentPerSecond())
+				.remoteBytesSentPerSecond(stats.getRemoteBytesSentPerSecond())
+				.remoteMessagesReceived(stats.getRemoteMessagesReceived())
+				.remoteEventsReceived(stats.getRemoteEventsReceived())
+				.remoteBytesReceived(stats.getRemoteBytesReceived())
+				.remoteMessagesReceivedPerSecond(stats.getRemoteMessagesReceivedPerSecond())
+				.remoteBytesReceivedPerSecond(stats.getRemoteBytesReceivedPerSecond())
+				.remoteBatchFill(stats.getRemoteBatchFill())
+				//
 				.build();
 	}
 }
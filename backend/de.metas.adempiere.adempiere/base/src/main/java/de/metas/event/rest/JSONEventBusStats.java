@@ -46,6 +46,27 @@ public class JSONEventBusStats
 	long eventsDequeued;
 	long eventsToDequeue;
 
+	long eventsInFlight;
+	int maxEventsInFlight;
+	long postsBlockedByMaxEventsInFlight;
+	double queueWaitMillisAvg;
+	double queueWaitMillisMax;
+	long listenerInvocations;
+	double listenerRunMillisAvg;
+	double listenerRunMillisMax;
+
+	long remoteMessagesSent;
+	long remoteEventsSent;
+	long remoteBytesSent;
+	double remoteMessagesSentPerSecond;
+	double remoteBytesSentPerSecond;
+	long remoteMessagesReceived;
+	long remoteEventsReceived;
+	long remoteBytesReceived;
+	double remoteMessagesReceivedPerSecond;
+	double remoteBytesReceivedPerSecond;
+	double remoteBatchFill;
+
 	@JsonPOJOBuilder(withPrefix = "")
 	public static class JSONEventBusStatsBuilder
 	{
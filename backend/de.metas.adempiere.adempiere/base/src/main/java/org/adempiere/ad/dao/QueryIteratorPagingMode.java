@@ -0,0 +1,50 @@
+package org.adempiere.ad.dao;
+
+import org.compiere.model.IQuery;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tells a buffered query iterator how to load its next page.
+ *
+ * @see IQuery#OPTION_IteratorPagingMode
+ */
+public enum QueryIteratorPagingMode
+{
+	/**
+	 * Each page is loaded using {@code LIMIT bufferSize OFFSET rowsAlreadyLoaded}.
+	 * Works with any ORDER BY, but the DB has to scan and discard all previous rows for each page, so iterating large results is quadratic.
+	 */
+	OFFSET,
+
+	/**
+	 * Each page is loaded using {@code WHERE keyColumn > lastKeyOfPreviousPage LIMIT bufferSize} (a.k.a. seek pagination, see http://use-the-index-luke.com/no-offset).
+	 * Each page costs the same, no matter how far we are in the result.
+	 * <p>
+	 * Applicable only if the table has exactly one key column and the query is ordered by that key column (or not ordered at all).
+	 * If that's not the case, the iterator falls back to {@link #OFFSET}.
+	 */
+	KEYSET;
+
+	public static final QueryIteratorPagingMode DEFAULT = OFFSET;
+}
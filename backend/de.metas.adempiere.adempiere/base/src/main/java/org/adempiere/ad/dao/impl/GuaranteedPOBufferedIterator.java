@@ -27,6 +27,7 @@ import java.io.Closeable;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.adempiere.ad.dao.QueryIteratorPagingMode;
 import org.adempiere.ad.persistence.TableModelClassLoader;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
@@ -138,11 +139,12 @@ import lombok.NonNull;
 
 		//
 		// Create the buffered iterator which will retrieve from selection, page by page
-		// provide column ZZ_Line so the iterator can page without using OFFSET
+		// provide column ZZ_Line so the iterator can seek by it (keyset paging) instead of using OFFSET
 		this.bufferedIterator = new POBufferedIterator<>(
 				querySelection,
 				clazzToUse,
-				QuerySelectionHelper.SELECTION_LINE_ALIAS);
+				QuerySelectionHelper.SELECTION_LINE_ALIAS,
+				QueryIteratorPagingMode.KEYSET);
 		this.peekingBufferedIterator = Iterators.peekingIterator(this.bufferedIterator);
 	}
 
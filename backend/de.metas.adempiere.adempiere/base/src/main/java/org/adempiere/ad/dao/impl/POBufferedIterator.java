@@ -27,8 +27,11 @@ import java.util.List;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.QueryIteratorPagingMode;
 import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.IQuery;
 import org.compiere.model.POInfo;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
@@ -51,9 +54,14 @@ import lombok.NonNull;
 	private final TypedSqlQuery<T> query;
 	private final Class<ET> clazz;
 	private final String rowNumberColumn;
+	/** Fully qualified key column name; not null only if we are doing keyset pagination on the table's key column */
+	private final String keysetColumnNameFQ;
+	private final String keysetColumnName;
 
 	private int bufferSize = 50;
 	private int offset = 0; // in the DB, line is set via the row_number() window function wich starts at 1
+	/** Key of the last loaded record; used only if {@link #keysetColumnNameFQ} is set */
+	private Object lastKey = null;
 
 	private Iterator<ET> bufferIterator;
 
@@ -73,6 +81,19 @@ import lombok.NonNull;
 			@NonNull final TypedSqlQuery<T> query,
 			@Nullable final Class<ET> clazz,
 			@Nullable final String rowNumberColumn)
+	{
+		this(query, clazz, rowNumberColumn, QueryIteratorPagingMode.DEFAULT);
+	}
+
+	/**
+	 * @param rowNumberColumn see {@link #POBufferedIterator(TypedSqlQuery, Class, String)}; if set, it's always used for paging, no matter which <code>pagingMode</code> was given.
+	 * @param pagingMode if {@link QueryIteratorPagingMode#KEYSET} and no <code>rowNumberColumn</code> was given, then we page by the table's key column, if possible.
+	 */
+	/* package */ POBufferedIterator(
+			@NonNull final TypedSqlQuery<T> query,
+			@Nullable final Class<ET> clazz,
+			@Nullable final String rowNumberColumn,
+			@NonNull final QueryIteratorPagingMode pagingMode)
 	{
 		if (!DB.getDatabase().isPagingSupported())
 		{
@@ -94,6 +115,52 @@ import lombok.NonNull;
 
 		this.clazz = clazz;
 		this.rowNumberColumn = rowNumberColumn;
+
+		if (Check.isEmpty(rowNumberColumn, true)
+				&& pagingMode == QueryIteratorPagingMode.KEYSET
+				&& isKeysetPagingApplicable(this.query))
+		{
+			this.keysetColumnName = this.query.getKeyColumnName();
+			this.keysetColumnNameFQ = this.query.getTableName() + "." + keysetColumnName;
+		}
+		else
+		{
+			if (pagingMode == QueryIteratorPagingMode.KEYSET && Check.isEmpty(rowNumberColumn, true))
+			{
+				logger.debug("Keyset paging is not applicable for {}. Falling back to OFFSET paging.", this.query);
+			}
+			this.keysetColumnName = null;
+			this.keysetColumnNameFQ = null;
+		}
+	}
+
+	/**
+	 * @return true if the given query has one key column and is ordered (ascending) only by that key column, so we can seek by it.
+	 */
+	private static boolean isKeysetPagingApplicable(@NonNull final TypedSqlQuery<?> query)
+	{
+		if (query.hasUnions())
+		{
+			return false;
+		}
+
+		final List<String> keyColumnNames = query.getKeyColumnNames();
+		if (keyColumnNames == null || keyColumnNames.size() != 1)
+		{
+			return false;
+		}
+		final String keyColumnName = keyColumnNames.get(0);
+
+		// NOTE: key columns are never null, so we can ignore the NULLS FIRST/LAST part
+		final String orderBy = query.getOrderBy()
+				.toUpperCase()
+				.replace(" NULLS FIRST", "")
+				.replace(" NULLS LAST", "")
+				.replace(" ASC", "")
+				.trim();
+
+		return orderBy.equalsIgnoreCase(keyColumnName)
+				|| orderBy.equalsIgnoreCase(query.getTableName() + "." + keyColumnName);
 	}
 
 	/**
@@ -164,7 +231,14 @@ import lombok.NonNull;
 		final TypedSqlQuery<T> queryToUse;
 
 		query.setLimit(QueryLimit.ofInt(bufferSize));
-		if (Check.isEmpty(rowNumberColumn, true))
+		if (keysetColumnNameFQ != null)
+		{
+			query.setLimit(QueryLimit.ofInt(bufferSize), IQuery.NO_LIMIT); // we are seeking, so make sure no OFFSET is used
+			queryToUse = lastKey != null
+					? query.addWhereClause(true, keysetColumnNameFQ + " > " + DB.TO_SQL(lastKey))
+					: query;
+		}
+		else if (Check.isEmpty(rowNumberColumn, true))
 		{
 			query.setLimit(QueryLimit.ofInt(bufferSize), offset);
 			queryToUse = query;
@@ -182,10 +256,18 @@ import lombok.NonNull;
 
 		if (logger.isDebugEnabled())
 		{
-			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + " -> " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
+			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + ", lastKey=" + lastKey + " -> " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
 		}
 
 		offset += bufferSizeActual;
+		if (keysetColumnNameFQ != null && bufferSizeActual > 0)
+		{
+			lastKey = InterfaceWrapperHelper.getValueOrNull(buffer.get(bufferSizeActual - 1), keysetColumnName);
+			if (lastKey == null)
+			{
+				throw new DBException("Cannot continue keyset paging because the last loaded record has no " + keysetColumnName + ": " + this);
+			}
+		}
 	}
 
 	/**
@@ -211,6 +293,7 @@ import lombok.NonNull;
 		return "POBufferedIterator [clazz=" + clazz
 				+ ", bufferSize=" + bufferSize
 				+ ", offset=" + offset
+				+ (keysetColumnNameFQ != null ? ", keysetColumnName=" + keysetColumnNameFQ + ", lastKey=" + lastKey : "")
 				+ ", query=" + query
 				+ "]";
 	}
@@ -0,0 +1,316 @@
+package org.adempiere.ad.persistence.po;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.migration.logger.MigrationScriptFileLoggerHolder;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.Trx;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the INSERT and UPDATE statements of {@link org.compiere.model.PO}s which are saved inside a {@link POBatchSaveScope}
+ * and sends them to database as one JDBC batch.
+ * <p>
+ * Consecutive INSERTs into the same table with the same columns are merged into one multi-row {@code INSERT ... VALUES (...),(...)}.
+ * <p>
+ * The buffer is bound to a {@link Trx}. The transaction flushes it before its connection is used for anything else, before creating a savepoint and before commit,
+ * so everybody who runs SQL in that transaction sees the batched records.
+ * On rollback, the pending statements are discarded.
+ */
+public final class POBatchSaveBuffer
+{
+	private static final transient Logger logger = LogManager.getLogger(POBatchSaveBuffer.class);
+
+	public static final String TRX_PROPERTY_NAME = POBatchSaveBuffer.class.getName();
+
+	private final int flushThreshold;
+	private final ArrayList<PendingSave> pendingSaves = new ArrayList<>();
+	private boolean flushing = false;
+
+	/** How many scopes are using this buffer; the outermost scope removes the buffer from transaction */
+	private int scopesCount = 0;
+
+	/** The thread inherited {@link OnRunnableFail} from before the outermost scope was opened, to be restored when it's closed */
+	@Getter
+	@Setter
+	@Nullable
+	private OnRunnableFail onRunnableFailToRestore;
+
+	@Getter
+	private long countFlushes = 0;
+	@Getter
+	private long countRowsFlushed = 0;
+	@Getter
+	private long countStatementsFlushed = 0;
+
+	/* package */ POBatchSaveBuffer(final int flushThreshold)
+	{
+		Check.assume(flushThreshold > 0, "flushThreshold > 0");
+		this.flushThreshold = flushThreshold;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "POBatchSaveBuffer [flushThreshold=" + flushThreshold
+				+ ", pendingSaves=" + pendingSaves.size()
+				+ ", countFlushes=" + countFlushes
+				+ ", countRowsFlushed=" + countRowsFlushed
+				+ ", countStatementsFlushed=" + countStatementsFlushed
+				+ "]";
+	}
+
+	/**
+	 * Collects the given INSERT if there is a {@link POBatchSaveScope} active for given transaction.
+	 *
+	 * @param sqlInsertInto e.g. {@code INSERT INTO MyTable (Col1, Col2)}
+	 * @param sqlValues values tuple, e.g. {@code (1, 'a')}
+	 * @return true if the INSERT was collected and will be executed later; false if there is no batch save scope and the caller shall execute it right away
+	 */
+	public static boolean addInsertIfActive(
+			@Nullable final String trxName,
+			@NonNull final String tableName,
+			@NonNull final String sqlInsertInto,
+			@NonNull final String sqlValues)
+	{
+		return addIfActive(trxName, PendingSave.insert(tableName, sqlInsertInto, sqlValues));
+	}
+
+	/**
+	 * Collects the given UPDATE if there is a {@link POBatchSaveScope} active for given transaction.
+	 *
+	 * @param sqlUpdate UPDATE statement which is expected to update exactly one row
+	 * @return true if the UPDATE was collected and will be executed later; false if there is no batch save scope and the caller shall execute it right away
+	 */
+	public static boolean addUpdateIfActive(
+			@Nullable final String trxName,
+			@NonNull final String tableName,
+			@NonNull final String sqlUpdate)
+	{
+		return addIfActive(trxName, PendingSave.update(tableName, sqlUpdate));
+	}
+
+	private static boolean addIfActive(@Nullable final String trxName, @NonNull final PendingSave pendingSave)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getTrxOrNull(trxName);
+		if (trxManager.isNull(trx) || !(trx instanceof Trx))
+		{
+			return false;
+		}
+
+		final POBatchSaveBuffer buffer = trx.getProperty(TRX_PROPERTY_NAME);
+		if (buffer == null)
+		{
+			return false;
+		}
+
+		buffer.pendingSaves.add(pendingSave);
+		if (buffer.pendingSaves.size() >= buffer.flushThreshold)
+		{
+			((Trx)trx).flushBatchedPOSaves();
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if this is the first (outermost) scope using this buffer
+	 */
+	/* package */ boolean incrementScopesCount()
+	{
+		scopesCount++;
+		return scopesCount == 1;
+	}
+
+	/**
+	 * @return true if there are no more scopes using this buffer
+	 */
+	/* package */ boolean decrementScopesCount()
+	{
+		scopesCount--;
+		return scopesCount <= 0;
+	}
+
+	public boolean isEmpty()
+	{
+		return pendingSaves.isEmpty();
+	}
+
+	/**
+	 * Executes all pending statements on given connection.
+	 */
+	public void flush(@NonNull final Connection connection) throws SQLException
+	{
+		if (flushing || pendingSaves.isEmpty())
+		{
+			return;
+		}
+
+		flushing = true;
+		final ImmutableList<PendingSave> saves = ImmutableList.copyOf(pendingSaves);
+		pendingSaves.clear();
+
+		try (final Statement stmt = connection.createStatement())
+		{
+			final List<String> sqls = new ArrayList<>();
+			final List<Integer> expectedUpdateCounts = new ArrayList<>();
+
+			PendingSave previousInsert = null;
+			StringBuilder sqlMultiRowInsert = null;
+			int multiRowInsertCount = 0;
+			for (final PendingSave save : saves)
+			{
+				MigrationScriptFileLoggerHolder.logMigrationScript(save.toSql());
+
+				if (save.isInsert() && previousInsert != null && previousInsert.isSameInsertInto(save))
+				{
+					sqlMultiRowInsert.append(",").append(save.getSqlValues());
+					multiRowInsertCount++;
+					continue;
+				}
+
+				if (sqlMultiRowInsert != null)
+				{
+					sqls.add(sqlMultiRowInsert.toString());
+					expectedUpdateCounts.add(multiRowInsertCount);
+					sqlMultiRowInsert = null;
+					previousInsert = null;
+				}
+
+				if (save.isInsert())
+				{
+					sqlMultiRowInsert = new StringBuilder(save.toSql());
+					multiRowInsertCount = 1;
+					previousInsert = save;
+				}
+				else
+				{
+					sqls.add(save.toSql());
+					expectedUpdateCounts.add(1);
+				}
+			}
+			if (sqlMultiRowInsert != null)
+			{
+				sqls.add(sqlMultiRowInsert.toString());
+				expectedUpdateCounts.add(multiRowInsertCount);
+			}
+
+			for (final String sql : sqls)
+			{
+				stmt.addBatch(DB.getDatabase().convertStatement(sql));
+			}
+
+			final int[] updateCounts = stmt.executeBatch();
+			for (int i = 0; i < updateCounts.length; i++)
+			{
+				final int updateCount = updateCounts[i];
+				final int expectedUpdateCount = expectedUpdateCounts.get(i);
+				if (updateCount != Statement.SUCCESS_NO_INFO && updateCount != expectedUpdateCount)
+				{
+					throw new DBException("Batched save updated " + updateCount + " rows instead of " + expectedUpdateCount)
+							.setParameter("sql", sqls.get(i));
+				}
+			}
+
+			countFlushes++;
+			countRowsFlushed += saves.size();
+			countStatementsFlushed += sqls.size();
+			logger.debug("Flushed {} batched PO saves using {} statements", saves.size(), sqls.size());
+		}
+		finally
+		{
+			flushing = false;
+		}
+	}
+
+	/**
+	 * Drops all pending statements, e.g. because the transaction was rolled back.
+	 */
+	public void discard()
+	{
+		if (!pendingSaves.isEmpty())
+		{
+			logger.debug("Discarding {} batched PO saves", pendingSaves.size());
+			pendingSaves.clear();
+		}
+	}
+
+	@Value
+	private static class PendingSave
+	{
+		static PendingSave insert(final String tableName, final String sqlInsertInto, final String sqlValues)
+		{
+			return new PendingSave(tableName, sqlInsertInto, sqlValues, null);
+		}
+
+		static PendingSave update(final String tableName, final String sqlUpdate)
+		{
+			return new PendingSave(tableName, null, null, sqlUpdate);
+		}
+
+		String tableName;
+		String sqlInsertInto;
+		String sqlValues;
+		String sqlUpdate;
+
+		boolean isInsert()
+		{
+			return sqlInsertInto != null;
+		}
+
+		boolean isSameInsertInto(final PendingSave other)
+		{
+			return isInsert()
+					&& other.isInsert()
+					&& tableName.equals(other.tableName)
+					&& sqlInsertInto.equals(other.sqlInsertInto);
+		}
+
+		String toSql()
+		{
+			return isInsert() ? sqlInsertInto + " VALUES " + sqlValues : sqlUpdate;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package org.adempiere.ad.persistence.po;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.util.Trx;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Opt-in unit of work for mass saving {@link org.compiere.model.PO}s.
+ * <p>
+ * While the scope is open, the INSERTs and UPDATEs issued by {@code PO.saveEx()} in the given transaction are not executed right away, but collected in a {@link POBatchSaveBuffer}
+ * and sent to database as one JDBC batch when the buffer is full, when anybody else runs SQL in this transaction, on commit or when the scope is closed.
+ * <p>
+ * Model interceptors are still called before and after each save, like without this scope. If they run SQL in the same transaction, the buffer is flushed first, so they see the saved records.
+ * The only visible difference is that a failing INSERT/UPDATE is reported when the buffer is flushed and not by the {@code saveEx()} call which issued it.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * try (final POBatchSaveScope ignored = POBatchSaveScope.open(ITrx.TRXNAME_ThreadInherited))
+ * {
+ * 	// save your records
+ * }
+ * </pre>
+ *
+ * Scopes can be nested; the outermost one is flushing and removing the buffer.
+ * <p>
+ * Note that while the outermost scope is open, the current thread's {@link ITrxManager#setThreadInheritedOnRunnableFail(OnRunnableFail)} is {@link OnRunnableFail#DONT_ROLLBACK},
+ * because otherwise each save would create a savepoint and each savepoint requires the buffer to be flushed.
+ * So a failed save is not rolled back to a savepoint; the caller shall roll back the whole transaction.
+ */
+public final class POBatchSaveScope implements AutoCloseable
+{
+	private static final transient Logger logger = LogManager.getLogger(POBatchSaveScope.class);
+
+	public static final int DEFAULT_FlushThreshold = 500;
+
+	public static POBatchSaveScope open(@Nullable final String trxName)
+	{
+		return open(trxName, DEFAULT_FlushThreshold);
+	}
+
+	/**
+	 * @param flushThreshold how many saves to collect until the buffer is sent to database
+	 */
+	public static POBatchSaveScope open(@Nullable final String trxName, final int flushThreshold)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getTrx(trxName);
+		if (trxManager.isNull(trx))
+		{
+			throw new AdempiereException("Batch saving requires a transaction")
+					.setParameter("trxName", trxName);
+		}
+
+		if (!(trx instanceof Trx))
+		{
+			// e.g. in unit tests, where there is no JDBC connection to batch on
+			logger.debug("Batch saving not supported for {}. Saving one by one.", trx);
+			return new POBatchSaveScope(null, null);
+		}
+
+		final POBatchSaveBuffer buffer = trx.getProperty(POBatchSaveBuffer.TRX_PROPERTY_NAME, () -> new POBatchSaveBuffer(flushThreshold));
+		if (buffer.incrementScopesCount())
+		{
+			buffer.setOnRunnableFailToRestore(trxManager.getThreadInheritedOnRunnableFail());
+			trxManager.setThreadInheritedOnRunnableFail(OnRunnableFail.DONT_ROLLBACK); // i.e. don't create savepoints
+		}
+
+		return new POBatchSaveScope((Trx)trx, buffer);
+	}
+
+	private final Trx trx;
+	private final POBatchSaveBuffer buffer;
+	private boolean closed = false;
+
+	private POBatchSaveScope(@Nullable final Trx trx, @Nullable final POBatchSaveBuffer buffer)
+	{
+		this.trx = trx;
+		this.buffer = buffer;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "POBatchSaveScope [trx=" + trx + ", buffer=" + buffer + ", closed=" + closed + "]";
+	}
+
+	/**
+	 * Sends the collected saves to database now.
+	 */
+	public void flush()
+	{
+		if (trx != null)
+		{
+			trx.flushBatchedPOSaves();
+		}
+	}
+
+	/**
+	 * Flushes the collected saves and, if this is the outermost scope, stops batching.
+	 */
+	@Override
+	public void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		if (trx == null || buffer == null)
+		{
+			return;
+		}
+
+		final boolean lastScope = buffer.decrementScopesCount();
+		try
+		{
+			trx.flushBatchedPOSaves();
+		}
+		finally
+		{
+			if (lastScope)
+			{
+				trx.setProperty(POBatchSaveBuffer.TRX_PROPERTY_NAME, null);
+				Services.get(ITrxManager.class).setThreadInheritedOnRunnableFail(buffer.getOnRunnableFailToRestore());
+				logger.debug("Closed outermost batch save scope: {}", buffer);
+			}
+		}
+	}
+}
@@ -507,6 +507,12 @@ public interface ITrxManager extends ISingletonService
 	 */
 	void setThreadInheritedOnRunnableFail(OnRunnableFail onRunnableFail);
 
+	/**
+	 * @return the {@link OnRunnableFail} which was set by {@link #setThreadInheritedOnRunnableFail(OnRunnableFail)}, or {@code null}
+	 */
+	@Nullable
+	OnRunnableFail getThreadInheritedOnRunnableFail();
+
 	void setDebugTrxCloseStacktrace(boolean debugTrxCloseStacktrace);
 
 	boolean isDebugTrxCloseStacktrace();
@@ -1294,6 +1294,13 @@ public abstract class AbstractTrxManager implements ITrxManager
 		threadLocalOnRunnableFail.set(onRunnableFail);
 	}
 
+	@Override
+	@Nullable
+	public OnRunnableFail getThreadInheritedOnRunnableFail()
+	{
+		return threadLocalOnRunnableFail.get();
+	}
+
 	private final OnRunnableFail getThreadInheritedOnRunnableFail(final OnRunnableFail onRunnableFailDefault)
 	{
 		final OnRunnableFail onRunnableFail = threadLocalOnRunnableFail.get();
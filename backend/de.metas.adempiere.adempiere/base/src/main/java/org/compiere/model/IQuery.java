@@ -73,6 +73,16 @@ public interface IQuery<T>
 	 */
 	String OPTION_IteratorBufferSize = "IteratorBufferSize";
 
+	/**
+	 * If this instance is used to get a non-guaranteed iterator, then this option tells how the iterator shall load its pages.
+	 * The value is a {@link org.adempiere.ad.dao.QueryIteratorPagingMode}; if not set, {@link org.adempiere.ad.dao.QueryIteratorPagingMode#DEFAULT} is used.
+	 * <p>
+	 * Note that guaranteed iterators and {@link #paginate(Class, int)} are always seeking on the selection's line number, so they don't need this option.
+	 *
+	 * @see #iterate(Class)
+	 */
+	String OPTION_IteratorPagingMode = "IteratorPagingMode";
+
 	/**
 	 * Boolean value to specify what type of iteration shall be used, when no one is specified explicitly
 	 */
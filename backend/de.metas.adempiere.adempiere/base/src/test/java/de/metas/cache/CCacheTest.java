@@ -34,6 +34,8 @@ import org.junit.Test;
 
 import com.google.common.collect.ImmutableMap;
 
+import de.metas.cache.CCache.CacheMapType;
+
 public class CCacheTest
 {
 	public static class MyUncheckedException extends RuntimeException
@@ -244,4 +246,94 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_WeightedLRU()
+	{
+		final CCache<String, String> cache = CCache.newWeightedLRUCache("Test", 10, (key, value) -> value.length(), CCache.EXPIREMINUTES_Never);
+
+		cache.put("k1", "12345");
+		cache.put("k2", "12345");
+		assertSize(cache, 2);
+
+		cache.put("k3", "123");
+		assertThat(cache.containsKey("k1")).as("k1 shall be evicted because the total weight was exceeded").isFalse();
+		assertThat(cache.get("k2")).isEqualTo("12345");
+		assertThat(cache.get("k3")).isEqualTo("123");
+	}
+
+	@Test
+	public void test_OffHeapTier()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.cacheMapType(CacheMapType.LRU)
+				.initialCapacity(2)
+				.offHeapTierMaxBytes(1024L * 1024L)
+				.build();
+
+		cache.put("k1", "v1");
+		cache.put("k2", "v2");
+		cache.put("k3", "v3"); // k1 is demoted to off-heap tier
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.keySet()).containsOnly("k1", "k2", "k3");
+
+		assertThat(cache.get("k1")).isEqualTo("v1"); // k1 is promoted back
+		assertThat(cache.keySet()).contains("k1");
+		assertThat(cache.keySet()).hasSize((int)cache.size());
+		assertThat(cache.stats().getOffHeapTierStats().getHitCount()).isEqualTo(1);
+		assertThat(cache.stats().getOffHeapTierStats().getDemotionCount()).isGreaterThanOrEqualTo(1);
+
+		assertThat(cache.getOrLoad("k4", () -> "v4")).isEqualTo("v4");
+		assertThat(cache.stats().getOffHeapTierStats().getMissCount()).isEqualTo(1);
+
+		cache.reset();
+		assertEmpty(cache);
+		assertThat(cache.stats().getOffHeapTierStats().getSize()).isZero();
+	}
+
+	@Test
+	public void test_OffHeapTier_removeDemotedKey()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.cacheMapType(CacheMapType.LRU)
+				.initialCapacity(1)
+				.offHeapTierMaxBytes(1024L * 1024L)
+				.build();
+
+		cache.put("k1", "v1");
+		cache.put("k2", "v2"); // k1 is demoted to off-heap tier
+		assertThat(cache.containsKey("k1")).isTrue();
+
+		assertThat(cache.remove("k1")).isEqualTo("v1");
+		assertThat(cache.containsKey("k1")).isFalse();
+		assertThat(cache.get("k1")).isNull();
+	}
+
+	@Test
+	public void test_OffHeapTier_multipleSegments()
+	{
+		final String value20 = "01234567890123456789"; // serialized it's a bit more than 20 bytes
+		final CCacheOffHeapTier<String, String> tier = CCacheOffHeapTier.newInstanceOrNull("Test", 100, CCache.EXPIREMINUTES_Never, 40); // segments: 40, 40, 20 bytes
+
+		tier.demote("k1", value20 + "1");
+		tier.demote("k2", value20 + "2"); // doesn't fit in the rest of the first segment
+		assertThat(tier.size()).isEqualTo(2);
+		assertThat(tier.keySet()).containsOnly("k1", "k2");
+		assertThat(tier.stats().getWrapCount()).isZero();
+
+		assertThat(tier.promote("k1")).isEqualTo(value20 + "1");
+		assertThat(tier.promote("k2")).isEqualTo(value20 + "2");
+
+		tier.demote("k3", value20 + "3"); // doesn't fit in the last segment => start again from the first one
+		assertThat(tier.stats().getWrapCount()).isEqualTo(1);
+		assertThat(tier.promote("k3")).isEqualTo(value20 + "3");
+
+		tier.demote("k4", value20 + value20 + value20); // bigger than a segment
+		assertThat(tier.containsKey("k4")).isFalse();
+		assertThat(tier.stats().getDemotionSkippedCount()).isEqualTo(1);
+
+		tier.close();
+	}
 }
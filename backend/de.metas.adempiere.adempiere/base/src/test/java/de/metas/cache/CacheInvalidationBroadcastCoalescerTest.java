@@ -0,0 +1,117 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheInvalidationBroadcastCoalescer.CoalesceResult;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CacheInvalidationBroadcastCoalescerTest
+{
+	@Test
+	void coalesce_belowThreshold()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastCoalescer.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.rootRecord("T1", 2)),
+				10);
+
+		assertThat(result.getCountTablesEscalated()).isZero();
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2));
+	}
+
+	@Test
+	void coalesce_aboveThreshold()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastCoalescer.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.rootRecord("T1", 2),
+						CacheInvalidateRequest.rootRecord("T1", 3),
+						CacheInvalidateRequest.rootRecord("T2", 1),
+						CacheInvalidateRequest.allChildRecords("T1", 1, "T1_Line")),
+				2);
+
+		assertThat(result.getCountTablesEscalated()).isEqualTo(1);
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1),
+				CacheInvalidateRequest.allChildRecords("T1", 1, "T1_Line"));
+	}
+
+	@Test
+	void coalesce_tableResetCoversRecords()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastCoalescer.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.allRecordsForTable("T1")),
+				0);
+
+		assertThat(result.getCountTablesEscalated()).isZero();
+		assertThat(result.getMultiRequest().getRequests()).containsExactly(CacheInvalidateRequest.allRecordsForTable("T1"));
+	}
+
+	@Test
+	void coalesce_all()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastCoalescer.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.all()),
+				10);
+
+		assertThat(result.getMultiRequest()).isEqualTo(CacheInvalidateMultiRequest.all());
+	}
+
+	@Test
+	void flush_mergesDuplicates()
+	{
+		final List<CacheInvalidateMultiRequest> broadcasted = new ArrayList<>();
+		final CacheInvalidationBroadcastCoalescer coalescer = new CacheInvalidationBroadcastCoalescer(broadcasted::add, () -> 10);
+
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1), 60_000);
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1), 60_000);
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 2), 60_000);
+		coalescer.flush();
+
+		assertThat(broadcasted).hasSize(1);
+		assertThat(broadcasted.get(0).getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2));
+		assertThat(coalescer.getCountRequestsReceived()).isEqualTo(3);
+		assertThat(coalescer.getCountRequestsMerged()).isEqualTo(1);
+	}
+}
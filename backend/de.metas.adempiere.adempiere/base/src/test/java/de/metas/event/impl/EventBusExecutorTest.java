@@ -0,0 +1,170 @@
+package de.metas.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.event.EventBusStats;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class EventBusExecutorTest
+{
+	private ExecutorService threadPool;
+	private EventBusStatsCollector stats;
+
+	@BeforeEach
+	void init()
+	{
+		threadPool = Executors.newFixedThreadPool(4);
+		stats = new EventBusStatsCollector();
+	}
+
+	@AfterEach
+	void shutdown()
+	{
+		threadPool.shutdownNow();
+	}
+
+	@Test
+	void maxEventsInFlight() throws Exception
+	{
+		final EventBusExecutor executor = new EventBusExecutor(threadPool, 2, stats);
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch thirdExecuted = new CountDownLatch(1);
+		post(executor, () -> await(release));
+		post(executor, () -> await(release));
+
+		assertThat(stats.snapshot().build().getEventsInFlight()).isEqualTo(2);
+
+		// the third one has to wait until one of the first two is done
+		final Thread poster = new Thread(() -> post(executor, thirdExecuted::countDown));
+		poster.start();
+		assertThat(thirdExecuted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(thirdExecuted.await(5, TimeUnit.SECONDS)).isTrue();
+		poster.join(5000);
+
+		threadPool.shutdown();
+		assertThat(threadPool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+		final EventBusStats snapshot = stats.snapshot().build();
+		assertThat(snapshot.getEventsInFlight()).isZero();
+		assertThat(snapshot.getPostsBlockedByMaxEventsInFlight()).isEqualTo(1);
+		assertThat(snapshot.getQueueWaitMillisMax()).isGreaterThanOrEqualTo(0);
+	}
+
+	@Test
+	void noLimit() throws Exception
+	{
+		final EventBusExecutor executor = new EventBusExecutor(threadPool, 0, stats);
+
+		final CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 10; i++)
+		{
+			post(executor, () -> await(release));
+		}
+
+		assertThat(stats.snapshot().build().getEventsInFlight()).isEqualTo(10);
+		release.countDown();
+
+		threadPool.shutdown();
+		assertThat(threadPool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+		final EventBusStats snapshot = stats.snapshot().build();
+		assertThat(snapshot.getEventsInFlight()).isZero();
+		assertThat(snapshot.getPostsBlockedByMaxEventsInFlight()).isZero();
+	}
+
+	@Test
+	void maxEventsInFlight_countsEventsNotDispatches() throws Exception
+	{
+		final EventBusExecutor executor = new EventBusExecutor(threadPool, 1, stats);
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch secondEventExecuted = new CountDownLatch(1);
+
+		// one event with three subscribers
+		post(executor, () -> await(release), () -> await(release), () -> await(release));
+
+		final Thread poster = new Thread(() -> post(executor, secondEventExecuted::countDown));
+		poster.start();
+		assertThat(secondEventExecuted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(secondEventExecuted.await(5, TimeUnit.SECONDS)).isTrue();
+		poster.join(5000);
+		assertThat(stats.snapshot().build().getPostsBlockedByMaxEventsInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	void maxEventsInFlight_doesNotLimitPostsFromListeners() throws Exception
+	{
+		final EventBusExecutor executor = new EventBusExecutor(threadPool, 1, stats);
+
+		final CountDownLatch nestedExecuted = new CountDownLatch(1);
+		post(executor, () -> {
+			// the listener holds the only permit; posting another event must not wait for it
+			post(executor, nestedExecuted::countDown);
+			await(nestedExecuted);
+		});
+
+		assertThat(nestedExecuted.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(stats.snapshot().build().getPostsBlockedByMaxEventsInFlight()).isZero();
+	}
+
+	/**
+	 * Does what {@link EventBus#postEvent(de.metas.event.Event)} does, with one dispatch per given subscriber.
+	 */
+	private static void post(final EventBusExecutor executor, final Runnable... subscribers)
+	{
+		try (final EventBusExecutor.PostTicket ignored = executor.beginPost())
+		{
+			for (final Runnable subscriber : subscribers)
+			{
+				executor.execute(subscriber);
+			}
+		}
+	}
+
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JacksonSmileEventSerializerTest
+{
+	private final JacksonSmileEventSerializer smileSerializer = JacksonSmileEventSerializer.instance;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	private static Event createEvent(final int i)
+	{
+		return Event.builder()
+				.setSummary("Summary" + i)
+				.setWhen(Instant.now())
+				.addRecipient_User_ID(10)
+				.putProperty("Prop_BD", new BigDecimal("3.1415"))
+				.putProperty("Prop_Bool", true)
+				.putProperty("Prop_Int", i)
+				.putProperty("Prop_Str", "string" + i)
+				.putProperty("Prop_Ref", TableRecordReference.of(I_C_Invoice.Table_Name, 123456 + i))
+				.build();
+	}
+
+	@Test
+	public void singleEvent()
+	{
+		final Event event = createEvent(1);
+
+		final Event eventRestored = smileSerializer.fromString(smileSerializer.toString(event));
+
+		assertThat(eventRestored).isEqualTo(event);
+	}
+
+	@Test
+	public void batch()
+	{
+		final ImmutableList.Builder<Event> events = ImmutableList.builder();
+		for (int i = 0; i < 100; i++)
+		{
+			events.add(createEvent(i));
+		}
+
+		final byte[] smile = smileSerializer.toBytes(events.build());
+		final List<Event> eventsRestored = smileSerializer.fromBytes(smile);
+
+		assertThat(eventsRestored).isEqualTo(events.build());
+
+		// the property names are written only once, so the batch is considerably smaller than as json
+		final byte[] json = JacksonJsonEventSerializer.instance.toBytes(events.build());
+		assertThat(smile.length).isLessThan(json.length);
+		assertThat(JacksonJsonEventSerializer.instance.fromBytes(json)).isEqualTo(events.build());
+	}
+}
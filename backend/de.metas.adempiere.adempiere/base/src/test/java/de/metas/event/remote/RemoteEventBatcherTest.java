@@ -0,0 +1,136 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RemoteEventBatcherTest
+{
+	private ScheduledExecutorService flushScheduler;
+	private final List<List<Event>> sentBatches = new ArrayList<>();
+
+	@BeforeEach
+	public void init()
+	{
+		flushScheduler = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		flushScheduler.shutdownNow();
+	}
+
+	private RemoteEventBatcher createBatcher(final int maxSize, final int maxDelayMillis)
+	{
+		return new RemoteEventBatcher(
+				(topicName, events) -> {
+					synchronized (sentBatches)
+					{
+						sentBatches.add(ImmutableList.copyOf(events));
+					}
+				},
+				flushScheduler,
+				() -> maxSize,
+				() -> maxDelayMillis);
+	}
+
+	private static Event event(final int i)
+	{
+		return Event.builder().setSummary("event" + i).build();
+	}
+
+	@Test
+	public void sendWhenFull()
+	{
+		final RemoteEventBatcher batcher = createBatcher(3, 60 * 60 * 1000);
+
+		for (int i = 1; i <= 7; i++)
+		{
+			batcher.add("topic", event(i));
+		}
+
+		assertThat(sentBatches).hasSize(2);
+		assertThat(sentBatches.get(0)).extracting(Event::getSummary).containsExactly("event1", "event2", "event3");
+		assertThat(sentBatches.get(1)).extracting(Event::getSummary).containsExactly("event4", "event5", "event6");
+
+		batcher.flushAll();
+		assertThat(sentBatches).hasSize(3);
+		assertThat(sentBatches.get(2)).extracting(Event::getSummary).containsExactly("event7");
+	}
+
+	@Test
+	public void sendAfterDelay() throws InterruptedException
+	{
+		final RemoteEventBatcher batcher = createBatcher(100, 10);
+
+		batcher.add("topic", event(1));
+		batcher.add("topic", event(2));
+
+		final long timeoutMillis = System.currentTimeMillis() + 5000;
+		while (isEmpty(sentBatches) && System.currentTimeMillis() < timeoutMillis)
+		{
+			Thread.sleep(5);
+		}
+
+		synchronized (sentBatches)
+		{
+			assertThat(sentBatches).hasSize(1);
+			assertThat(sentBatches.get(0)).extracting(Event::getSummary).containsExactly("event1", "event2");
+		}
+	}
+
+	@Test
+	public void batchesPerTopic()
+	{
+		final RemoteEventBatcher batcher = createBatcher(2, 60 * 60 * 1000);
+
+		batcher.add("topic1", event(1));
+		batcher.add("topic2", event(2));
+		batcher.add("topic1", event(3));
+
+		assertThat(sentBatches).hasSize(1);
+		assertThat(sentBatches.get(0)).extracting(Event::getSummary).containsExactly("event1", "event3");
+	}
+
+	private static boolean isEmpty(final List<?> list)
+	{
+		synchronized (list)
+		{
+			return list.isEmpty();
+		}
+	}
+}
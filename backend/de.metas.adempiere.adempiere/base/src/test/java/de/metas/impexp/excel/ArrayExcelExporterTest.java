@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -177,4 +178,26 @@ public class ArrayExcelExporterTest
 		assertThat(exporter.getWorkbook()).isInstanceOf(XSSFWorkbook.class);
 	}
 
+	@Test
+	public void test_useStreamingWorkbookImplementation_keepsOnlyRowAccessWindowInMemory()
+	{
+		final Workbook workbook = ArrayExcelExporter.builder()
+				.excelFormat(ExcelFormats.EXCEL_OPEN_XML)
+				.constants(ExcelExportConstants.builder()
+						.useStreamingWorkbookImplementation(true)
+						.streamingWorkbookRowAccessWindowSize(10)
+						.build())
+				.data(generateData(100, 2))
+				.build()
+				.exportToWorkbook();
+
+		final Sheet sheet = workbook.getSheetAt(0);
+		assertThat(sheet.getLastRowNum()).isEqualTo(99);
+		assertThat(sheet.getRow(0)).as("flushed row").isNull();
+		assertThat(sheet.getRow(89)).as("flushed row").isNull();
+		assertThat(sheet.getRow(90).getCell(0).getStringCellValue()).isEqualTo("cell 90 x 0");
+		assertThat(sheet.getRow(99).getCell(1).getStringCellValue()).isEqualTo("cell 99 x 1");
+
+		((SXSSFWorkbook)workbook).dispose();
+	}
 }
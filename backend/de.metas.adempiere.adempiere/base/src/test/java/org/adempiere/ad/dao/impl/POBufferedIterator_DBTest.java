@@ -0,0 +1,144 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.dao.QueryIteratorPagingMode;
+import org.adempiere.ad.trx.api.ITrx;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.IQuery;
+import org.compiere.model.I_AD_Column;
+import org.compiere.util.Env;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/**
+ * Database coupled test which compares {@link QueryIteratorPagingMode#OFFSET} and {@link QueryIteratorPagingMode#KEYSET} paging of {@link POBufferedIterator}.
+ * <p>
+ * Run {@link #main(String[])} to also get the per-page latencies. With OFFSET paging they are growing with the page number, with KEYSET paging they shall be flat.
+ */
+@Ignore
+// requires database connection
+public class POBufferedIterator_DBTest
+{
+	private static final int BUFFER_SIZE = 500;
+
+	public static void main(final String[] args)
+	{
+		final POBufferedIterator_DBTest test = new POBufferedIterator_DBTest();
+
+		test.setupAdempiere();
+
+		test.test_OFFSET_vs_KEYSET();
+		test.benchmark(QueryIteratorPagingMode.OFFSET);
+		test.benchmark(QueryIteratorPagingMode.KEYSET);
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	private IQueryBuilder<I_AD_Column> createQueryBuilder()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_AD_Column.class, Env.getCtx(), ITrx.TRXNAME_None)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_AD_Column.COLUMNNAME_AD_Column_ID);
+	}
+
+	private Iterator<I_AD_Column> iterate(final QueryIteratorPagingMode pagingMode)
+	{
+		return createQueryBuilder()
+				.create()
+				.setOption(IQuery.OPTION_GuaranteedIteratorRequired, false)
+				.setOption(IQuery.OPTION_IteratorBufferSize, BUFFER_SIZE)
+				.setOption(IQuery.OPTION_IteratorPagingMode, pagingMode)
+				.iterate(I_AD_Column.class);
+	}
+
+	@Test
+	public void test_OFFSET_vs_KEYSET()
+	{
+		final List<Integer> expectedIds = createQueryBuilder()
+				.create()
+				.listIds();
+
+		final List<Integer> offsetIds = new ArrayList<>();
+		iterate(QueryIteratorPagingMode.OFFSET).forEachRemaining(column -> offsetIds.add(column.getAD_Column_ID()));
+		Assert.assertEquals(expectedIds, offsetIds);
+
+		final List<Integer> keysetIds = new ArrayList<>();
+		iterate(QueryIteratorPagingMode.KEYSET).forEachRemaining(column -> keysetIds.add(column.getAD_Column_ID()));
+		Assert.assertEquals(expectedIds, keysetIds);
+	}
+
+	private void benchmark(final QueryIteratorPagingMode pagingMode)
+	{
+		System.out.println("Benchmark: " + pagingMode + " ======================================================================");
+
+		final Iterator<I_AD_Column> iterator = iterate(pagingMode);
+
+		int pageNo = 0;
+		int rowsOnPage = 0;
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		while (iterator.hasNext())
+		{
+			iterator.next();
+			rowsOnPage++;
+			if (rowsOnPage >= BUFFER_SIZE)
+			{
+				System.out.println("page " + pageNo + ": " + stopwatch.elapsed(TimeUnit.MICROSECONDS) + "us");
+
+				pageNo++;
+				rowsOnPage = 0;
+				stopwatch = Stopwatch.createStarted();
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package org.adempiere.ad.persistence.po;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_Test;
+import org.compiere.util.Env;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/**
+ * Database coupled test which makes sure the {@link POBatchSaveScope} works OK.
+ * <p>
+ * Run {@link #main(String[])} to also get the rows/sec with and without batching.
+ */
+@Ignore
+// requires database connection
+public class POBatchSaveScope_DBTest
+{
+	private static final int BENCHMARK_ROWS = 100_000;
+
+	public static void main(final String[] args)
+	{
+		final POBatchSaveScope_DBTest test = new POBatchSaveScope_DBTest();
+
+		test.setupAdempiere();
+
+		test.test_BatchedRecordsAreVisibleInTrx();
+		test.benchmark(false);
+		test.benchmark(true);
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void test_BatchedRecordsAreVisibleInTrx()
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			try (final POBatchSaveScope scope = POBatchSaveScope.open(ITrx.TRXNAME_ThreadInherited, 1000))
+			{
+				final List<Integer> recordIds = new ArrayList<>();
+				for (int i = 1; i <= 10; i++)
+				{
+					final I_Test record = createRecord("test_BatchedRecordsAreVisibleInTrx_" + i);
+					record.setDescription("changed");
+					InterfaceWrapperHelper.save(record);
+					recordIds.add(record.getTest_ID());
+				}
+
+				// NOTE: querying is flushing the batched saves first
+				final int count = Services.get(IQueryBL.class)
+						.createQueryBuilder(I_Test.class)
+						.addInArrayFilter(I_Test.COLUMNNAME_Test_ID, recordIds)
+						.addEqualsFilter(I_Test.COLUMNNAME_Description, "changed")
+						.create()
+						.count();
+				Assert.assertEquals(recordIds.size(), count);
+			}
+		});
+	}
+
+	private void benchmark(final boolean batched)
+	{
+		System.out.println("Benchmark: batched=" + batched + " ======================================================================");
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			if (batched)
+			{
+				try (final POBatchSaveScope scope = POBatchSaveScope.open(ITrx.TRXNAME_ThreadInherited))
+				{
+					createRecords(BENCHMARK_ROWS);
+				}
+			}
+			else
+			{
+				createRecords(BENCHMARK_ROWS);
+			}
+		});
+		stopwatch.stop();
+
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.println("Saved " + BENCHMARK_ROWS + " records in " + stopwatch + " => " + (BENCHMARK_ROWS * 1000L / millis) + " rows/sec");
+	}
+
+	private void createRecords(final int count)
+	{
+		for (int i = 1; i <= count; i++)
+		{
+			createRecord("benchmark_" + i);
+		}
+	}
+
+	private I_Test createRecord(final String name)
+	{
+		final I_Test record = InterfaceWrapperHelper.newInstance(I_Test.class);
+		record.setName(name);
+		record.setDescription("Generated by " + getClass());
+		InterfaceWrapperHelper.save(record);
+		return record;
+	}
+}
@@ -0,0 +1,127 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/**
+ * Database coupled benchmark which measures the PO save throughput when {@value #THREADS} threads are saving at the same time.
+ * <p>
+ * All model change events are dispatched by {@link ModelValidationEngine}, so this is the place to check for contention there.
+ */
+@Ignore
+// requires database connection
+public class ModelValidationEngine_SaveThroughput_DBTest
+{
+	private static final int THREADS = 16;
+	private static final int SAVES_PER_THREAD = 2_000;
+
+	public static void main(final String[] args) throws Exception
+	{
+		final ModelValidationEngine_SaveThroughput_DBTest test = new ModelValidationEngine_SaveThroughput_DBTest();
+
+		test.setupAdempiere();
+
+		test.benchmark(); // warm up
+		test.benchmark();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void benchmark() throws Exception
+	{
+		System.out.println("Benchmark: threads=" + THREADS + ", savesPerThread=" + SAVES_PER_THREAD + " ======================================================================");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 1; thread <= THREADS; thread++)
+			{
+				final String namePrefix = "thread" + thread + "_";
+				futures.add(executor.submit(() -> Services.get(ITrxManager.class).runInNewTrx(() -> createRecords(namePrefix))));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+
+			stopwatch.stop();
+
+			final int saves = THREADS * SAVES_PER_THREAD;
+			final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+			System.out.println("Saved " + saves + " records in " + stopwatch + " => " + (saves * 1000L / millis) + " saves/sec");
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private void createRecords(final String namePrefix)
+	{
+		for (int i = 1; i <= SAVES_PER_THREAD; i++)
+		{
+			final I_Test record = InterfaceWrapperHelper.newInstance(I_Test.class);
+			record.setName(namePrefix + i);
+			record.setDescription("Generated by " + getClass());
+			InterfaceWrapperHelper.save(record);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.compiere.model.ModelValidatorsDispatchTable.RegistrationKey;
+import org.compiere.model.ModelValidatorsDispatchTable.TableValidators;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelValidatorsDispatchTableTest
+{
+	private final ModelValidator systemValidator1 = Mockito.mock(ModelValidator.class);
+	private final ModelValidator systemValidator2 = Mockito.mock(ModelValidator.class);
+	private final ModelValidator clientValidator = Mockito.mock(ModelValidator.class);
+
+	@Test
+	public void empty()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY;
+		assertThat(table.isEmpty()).isTrue();
+		assertThat(table.getTableValidators("C_Order")).isNull();
+	}
+
+	@Test
+	public void withAdded()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator1)
+				.withAdded(RegistrationKey.client("C_Order", 1000000), clientValidator)
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator2);
+
+		assertThat(table.size()).isEqualTo(2);
+
+		final TableValidators orderValidators = table.getTableValidators("C_Order");
+		assertThat(orderValidators.getSystemValidators()).containsExactly(systemValidator1, systemValidator2);
+		assertThat(orderValidators.getClientValidators(1000000)).containsExactly(clientValidator);
+		assertThat(orderValidators.getClientValidators(1000001)).isEmpty();
+
+		assertThat(table.getTableValidators("C_Invoice")).isNull();
+	}
+
+	@Test
+	public void withAdded_onlyClientValidators()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY
+				.withAdded(RegistrationKey.client("C_Order", 1000000), clientValidator);
+
+		final TableValidators orderValidators = table.getTableValidators("C_Order");
+		assertThat(orderValidators.getSystemValidators()).isEmpty();
+		assertThat(orderValidators.getClientValidators(1000000)).containsExactly(clientValidator);
+	}
+
+	@Test
+	public void withAdded_sameValidatorTwice()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator1);
+
+		assertThat(table.withAdded(RegistrationKey.system("C_Order"), systemValidator1)).isSameAs(table);
+	}
+
+	@Test
+	public void withRemoved()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator1)
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator2)
+				.withAdded(RegistrationKey.client("C_Order", 1000000), clientValidator);
+
+		final ModelValidatorsDispatchTable tableAfterRemove = table
+				.withRemoved(RegistrationKey.system("C_Order"), systemValidator1)
+				.withRemoved(RegistrationKey.client("C_Order", 1000000), clientValidator);
+
+		assertThat(tableAfterRemove.size()).isEqualTo(1);
+		assertThat(tableAfterRemove.getTableValidators("C_Order").getSystemValidators()).containsExactly(systemValidator2);
+		assertThat(tableAfterRemove.getTableValidators("C_Order").getClientValidators(1000000)).isEmpty();
+
+		// the original table is not changed
+		assertThat(table.getTableValidators("C_Order").getSystemValidators()).containsExactly(systemValidator1, systemValidator2);
+		assertThat(table.getTableValidators("C_Order").getClientValidators(1000000)).containsExactly(clientValidator);
+	}
+
+	@Test
+	public void withRemoved_notRegistered()
+	{
+		final ModelValidatorsDispatchTable table = ModelValidatorsDispatchTable.EMPTY
+				.withAdded(RegistrationKey.system("C_Order"), systemValidator1);
+
+		assertThat(table.withRemoved(RegistrationKey.system("C_Order"), systemValidator2)).isSameAs(table);
+		assertThat(table.withRemoved(RegistrationKey.client("C_Order", 1000000), systemValidator1)).isSameAs(table);
+	}
+
+	@Test
+	public void registrationKey_toString()
+	{
+		assertThat(RegistrationKey.system("C_Order")).hasToString("C_Order*");
+		assertThat(RegistrationKey.client("C_Order", 1000000)).hasToString("C_Order1000000");
+	}
+}
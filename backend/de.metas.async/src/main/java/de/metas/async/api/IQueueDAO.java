@@ -135,6 +135,11 @@ public interface IQueueDAO extends ISingletonService
 
 	IQuery<I_C_Queue_WorkPackage> createQuery(Properties ctx, IWorkPackageQuery packageQuery);
 
+	/**
+	 * Retrieves the not locked work packages which are matching given query, aggregated by C_Queue_PackageProcessor_ID and C_Async_Batch_ID.
+	 */
+	List<WorkPackageBacklog> retrieveBacklogs(Properties ctx, IWorkPackageQuery packageQuery);
+
 	/**
 	 * Return the ordering used when the next work package is retrieved from the queue. Can be used where it is required to have the same ordering as the queue.
 	 *
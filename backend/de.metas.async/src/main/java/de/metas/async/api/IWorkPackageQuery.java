@@ -58,4 +58,9 @@ public interface IWorkPackageQuery
 	 */
 	public abstract String getPriorityFrom();
 
+	/**
+	 * @return if not null, only the work packages of this C_Async_Batch_ID; {@code 0} means only the work packages without async batch
+	 */
+	public abstract Integer getC_Async_Batch_ID();
+
 }
@@ -37,6 +37,7 @@ import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IQueueProcessorListener;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.processor.IWorkpackageProcessorExecutionResult;
+import de.metas.async.processor.WorkPackageSchedulerStats;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.IWorkpackageProcessor;
 import de.metas.async.spi.impl.SizeBasedWorkpackagePrio;
@@ -86,6 +87,16 @@ public interface IWorkPackageQueue
 	 */
 	I_C_Queue_WorkPackage pollAndLock(long timeoutMillis);
 
+	/**
+	 * Same as {@link #pollAndLock(long)}, but retrieves and locks up to {@code maxCount} work packages.
+	 * <p>
+	 * Whether more than one work package is returned depends on this queue's {@link WorkPackageClaimStrategy}.
+	 * Each returned package has its own context, like in {@link #pollAndLock(long)}.
+	 *
+	 * @return locked work packages or empty list if there is no package available within given timeout
+	 */
+	List<I_C_Queue_WorkPackage> pollAndLock(long timeoutMillis, int maxCount);
+
 	/**
 	 * Unlocks given package
 	 *
@@ -226,4 +237,12 @@ public interface IWorkPackageQueue
 	 * @throws {@link UnsupportedOperationException} if this queue was not created with {@link IWorkPackageQueueFactory#getQueueForEnqueuing(Properties, Class)}.
 	 */
 	String getEnquingPackageProcessorInternalName();
+
+	/**
+	 * @return what the fair work package scheduler of this queue did so far; {@link WorkPackageSchedulerStats#DISABLED} if the work packages are taken just by priority
+	 */
+	default WorkPackageSchedulerStats getSchedulerStats()
+	{
+		return WorkPackageSchedulerStats.DISABLED;
+	}
 }
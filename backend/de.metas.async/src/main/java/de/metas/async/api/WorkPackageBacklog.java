@@ -0,0 +1,56 @@
+package de.metas.async.api;
+
+import java.time.Instant;
+
+import javax.annotation.Nullable;
+
+import de.metas.async.AsyncBatchId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The not locked work packages which are waiting to be processed, for one C_Queue_PackageProcessor_ID and C_Async_Batch_ID.
+ */
+@Value
+@Builder(toBuilder = true)
+public class WorkPackageBacklog
+{
+	int packageProcessorId;
+
+	/** null means the work packages without async batch */
+	@Nullable
+	AsyncBatchId asyncBatchId;
+
+	int queueSize;
+
+	/** best (i.e. lowest) C_Queue_WorkPackage.Priority */
+	@Nullable
+	String bestPriority;
+
+	/** when the oldest work package was last updated, i.e. since when it's waiting */
+	@NonNull
+	Instant waitingSince;
+}
@@ -0,0 +1,42 @@
+package de.metas.async.api;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * How a {@link IWorkPackageQueue} is retrieving and locking the next work packages to be processed.
+ */
+public enum WorkPackageClaimStrategy
+{
+	/**
+	 * One work package at a time, serialized by a JVM-wide lock: select the next not locked work package, then try to insert its T_Lock record and retry if somebody else was faster.
+	 * <p>
+	 * This is the default.
+	 */
+	T_LOCK,
+
+	/**
+	 * A batch of work packages at a time, without JVM-wide lock: one {@code SELECT ... FOR UPDATE SKIP LOCKED LIMIT n} statement which is also inserting the T_Lock records.
+	 * Concurrent pollers, also on other hosts, are skipping each other's rows instead of retrying.
+	 */
+	SKIP_LOCKED;
+}
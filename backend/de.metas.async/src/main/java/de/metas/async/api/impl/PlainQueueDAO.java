@@ -24,6 +24,11 @@ package de.metas.async.api.impl;
 
 
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,13 +43,16 @@ import org.adempiere.ad.wrapper.POJOLookupMap;
 import org.compiere.model.IQuery;
 import org.slf4j.Logger;
 
+import de.metas.async.AsyncBatchId;
 import de.metas.async.api.IWorkPackageQuery;
+import de.metas.async.api.WorkPackageBacklog;
 import de.metas.async.exceptions.PackageItemNotAvailableException;
 import de.metas.async.model.I_C_Queue_Element;
 import de.metas.async.model.I_C_Queue_PackageProcessor;
 import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.model.I_C_Queue_Processor_Assign;
 import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.lock.api.ILockManager;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 
@@ -200,6 +208,40 @@ public class PlainQueueDAO extends AbstractQueueDAO
 				.setOrderBy(queueOrderByComparator);
 	}
 
+	@Override
+	public List<WorkPackageBacklog> retrieveBacklogs(final Properties ctx, final IWorkPackageQuery packageQuery)
+	{
+		final ILockManager lockManager = Services.get(ILockManager.class);
+		final Map<List<Object>, WorkPackageBacklog> backlogs = new LinkedHashMap<>();
+		for (final I_C_Queue_WorkPackage workPackage : createQuery(ctx, packageQuery).list(I_C_Queue_WorkPackage.class))
+		{
+			if (lockManager.isLocked(I_C_Queue_WorkPackage.class, workPackage.getC_Queue_WorkPackage_ID()))
+			{
+				continue;
+			}
+
+			final int packageProcessorId = workPackage.getC_Queue_Block().getC_Queue_PackageProcessor_ID();
+			final AsyncBatchId asyncBatchId = AsyncBatchId.ofRepoIdOrNull(workPackage.getC_Async_Batch_ID());
+			final Instant updated = workPackage.getUpdated() != null ? workPackage.getUpdated().toInstant() : SystemTime.asInstant();
+			backlogs.merge(
+					Arrays.asList(packageProcessorId, asyncBatchId),
+					WorkPackageBacklog.builder()
+							.packageProcessorId(packageProcessorId)
+							.asyncBatchId(asyncBatchId)
+							.queueSize(1)
+							.bestPriority(workPackage.getPriority())
+							.waitingSince(updated)
+							.build(),
+					(backlog1, backlog2) -> backlog1.toBuilder()
+							.queueSize(backlog1.getQueueSize() + backlog2.getQueueSize())
+							.bestPriority(Comparator.nullsLast(Comparator.<String> naturalOrder()).compare(backlog1.getBestPriority(), backlog2.getBestPriority()) <= 0 ? backlog1.getBestPriority() : backlog2.getBestPriority())
+							.waitingSince(backlog1.getWaitingSince().isBefore(backlog2.getWaitingSince()) ? backlog1.getWaitingSince() : backlog2.getWaitingSince())
+							.build());
+		}
+
+		return new ArrayList<>(backlogs.values());
+	}
+
 	private static class QueueFilter implements IQueryFilter<I_C_Queue_WorkPackage>
 	{
 		private final IWorkPackageQuery packageQuery;
@@ -260,6 +302,12 @@ public class PlainQueueDAO extends AbstractQueueDAO
 				return false;
 			}
 
+			final Integer asyncBatchId = packageQuery.getC_Async_Batch_ID();
+			if (asyncBatchId != null && asyncBatchId != Math.max(workpackage.getC_Async_Batch_ID(), 0))
+			{
+				return false;
+			}
+
 			return true;
 		}
 
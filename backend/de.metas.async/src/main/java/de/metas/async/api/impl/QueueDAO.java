@@ -22,7 +22,9 @@
 
 package de.metas.async.api.impl;
 
+import de.metas.async.AsyncBatchId;
 import de.metas.async.api.IWorkPackageQuery;
+import de.metas.async.api.WorkPackageBacklog;
 import de.metas.async.exceptions.PackageItemNotAvailableException;
 import de.metas.async.model.I_C_Queue_Block;
 import de.metas.async.model.I_C_Queue_Element;
@@ -32,10 +34,13 @@ import de.metas.async.model.I_C_Queue_Processor_Assign;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.cache.annotation.CacheTrx;
+import de.metas.lock.api.ILockManager;
+import de.metas.util.Services;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
@@ -46,6 +51,9 @@ import org.compiere.model.Query;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -156,6 +164,67 @@ public class QueueDAO extends AbstractQueueDAO
 	public IQuery<I_C_Queue_WorkPackage> createQuery(final Properties ctx, final IWorkPackageQuery packageQuery)
 	{
 		final List<Object> params = new ArrayList<>();
+		final String wc = buildWhereClause(packageQuery, params);
+
+		// NOTE: don't filter by AD_Client_ID because it might be that it's not available
+		return new TypedSqlQuery<>(ctx, I_C_Queue_WorkPackage.class, wc, ITrx.TRXNAME_None)
+				.setParameters(params)
+				.setOnlyActiveRecords(true)
+				.setOrderBy(queueOrderByComparator.getSql());
+	}
+
+	@Override
+	public List<WorkPackageBacklog> retrieveBacklogs(final Properties ctx, final IWorkPackageQuery packageQuery)
+	{
+		final List<Object> params = new ArrayList<>();
+		final String wc = buildWhereClause(packageQuery, params);
+		final String notLockedWhereClause = Services.get(ILockManager.class)
+				.getNotLockedWhereClause(I_C_Queue_WorkPackage.Table_Name, I_C_Queue_WorkPackage.Table_Name + "." + I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID);
+
+		final String sql = "SELECT"
+				+ " b." + I_C_Queue_Block.COLUMNNAME_C_Queue_PackageProcessor_ID
+				+ ", COALESCE(" + I_C_Queue_WorkPackage.Table_Name + "." + I_C_Queue_WorkPackage.COLUMNNAME_C_Async_Batch_ID + ", 0) AS " + I_C_Queue_WorkPackage.COLUMNNAME_C_Async_Batch_ID
+				+ ", COUNT(1) AS QueueSize"
+				+ ", MIN(" + I_C_Queue_WorkPackage.Table_Name + "." + I_C_Queue_WorkPackage.COLUMNNAME_Priority + ") AS BestPriority"
+				+ ", MIN(" + I_C_Queue_WorkPackage.Table_Name + "." + I_C_Queue_WorkPackage.COLUMNNAME_Updated + ") AS WaitingSince"
+				+ " FROM (SELECT * FROM " + I_C_Queue_WorkPackage.Table_Name + " WHERE IsActive='Y' AND " + wc + ") " + I_C_Queue_WorkPackage.Table_Name
+				+ " INNER JOIN " + I_C_Queue_Block.Table_Name + " b ON (b." + I_C_Queue_Block.COLUMNNAME_C_Queue_Block_ID + "=" + I_C_Queue_WorkPackage.Table_Name + "." + I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_Block_ID + ")"
+				+ " WHERE " + notLockedWhereClause
+				+ " GROUP BY 1, 2";
+
+		final List<WorkPackageBacklog> backlogs = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, params);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				backlogs.add(WorkPackageBacklog.builder()
+						.packageProcessorId(rs.getInt(I_C_Queue_Block.COLUMNNAME_C_Queue_PackageProcessor_ID))
+						.asyncBatchId(AsyncBatchId.ofRepoIdOrNull(rs.getInt(I_C_Queue_WorkPackage.COLUMNNAME_C_Async_Batch_ID)))
+						.queueSize(rs.getInt("QueueSize"))
+						.bestPriority(rs.getString("BestPriority"))
+						.waitingSince(rs.getTimestamp("WaitingSince").toInstant())
+						.build());
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, params);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		return backlogs;
+	}
+
+	private static String buildWhereClause(final IWorkPackageQuery packageQuery, final List<Object> params)
+	{
 		final StringBuilder wc = new StringBuilder("1=1");
 
 		// Only not processed packages
@@ -212,15 +281,17 @@ public class QueueDAO extends AbstractQueueDAO
 		//
 		if (packageQuery.getPriorityFrom() != null)
 		{
-			wc.append("AND ").append(I_C_Queue_WorkPackage.COLUMNNAME_Priority).append(">=?");
+			wc.append(" AND ").append(I_C_Queue_WorkPackage.COLUMNNAME_Priority).append(">=?");
 			params.add(packageQuery.getPriorityFrom());
 		}
 
-		// NOTE: don't filter by AD_Client_ID because it might be that it's not available
-		return new TypedSqlQuery<>(ctx, I_C_Queue_WorkPackage.class, wc.toString(), ITrx.TRXNAME_None)
-				.setParameters(params)
-				.setOnlyActiveRecords(true)
-				.setOrderBy(queueOrderByComparator.getSql());
+		// Only work packages of given async batch
+		if (packageQuery.getC_Async_Batch_ID() != null)
+		{
+			wc.append(" AND COALESCE(").append(I_C_Queue_WorkPackage.COLUMNNAME_C_Async_Batch_ID).append(", 0)=?");
+			params.add(packageQuery.getC_Async_Batch_ID());
+		}
 
+		return wc.toString();
 	}
 }
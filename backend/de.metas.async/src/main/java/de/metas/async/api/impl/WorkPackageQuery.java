@@ -37,6 +37,7 @@ public class WorkPackageQuery implements IWorkPackageQuery
 	private long skippedTimeoutMillis = 0;
 	private List<Integer> packageProcessorIds;
 	private String priorityFrom;
+	private Integer asyncBatchId;
 
 	/*
 	 * (non-Javadoc)
@@ -162,6 +163,20 @@ public class WorkPackageQuery implements IWorkPackageQuery
 		this.priorityFrom = priorityFrom;
 	}
 
+	@Override
+	public Integer getC_Async_Batch_ID()
+	{
+		return asyncBatchId;
+	}
+
+	/**
+	 * @param asyncBatchId if not null, only the work packages of this C_Async_Batch_ID; {@code 0} means only the work packages without async batch
+	 */
+	public void setC_Async_Batch_ID(final Integer asyncBatchId)
+	{
+		this.asyncBatchId = asyncBatchId;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -172,6 +187,7 @@ public class WorkPackageQuery implements IWorkPackageQuery
 				+ ", skippedTimeoutMillis=" + skippedTimeoutMillis
 				+ ", packageProcessorIds=" + packageProcessorIds
 				+ ", priorityFrom=" + priorityFrom
+				+ ", asyncBatchId=" + asyncBatchId
 				+ "]";
 	}
 
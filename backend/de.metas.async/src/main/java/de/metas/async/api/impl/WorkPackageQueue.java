@@ -28,9 +28,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.Nullable;
 import java.util.concurrent.locks.ReentrantLock;
 
 import de.metas.common.util.time.SystemTime;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryOrderBy;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -46,6 +52,9 @@ import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.async.AsyncBatchId;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchBL;
@@ -54,6 +63,8 @@ import de.metas.async.api.IWorkPackageBL;
 import de.metas.async.api.IWorkPackageBlockBuilder;
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageProcessorContextFactory;
+import de.metas.async.api.WorkPackageBacklog;
+import de.metas.async.api.WorkPackageClaimStrategy;
 import de.metas.async.model.I_C_Async_Batch;
 import de.metas.async.model.I_C_Queue_Block;
 import de.metas.async.model.I_C_Queue_Element;
@@ -65,6 +76,9 @@ import de.metas.async.processor.IQueueProcessorListener;
 import de.metas.async.processor.IWorkpackageProcessorExecutionResult;
 import de.metas.async.processor.IWorkpackageProcessorFactory;
 import de.metas.async.processor.NullQueueProcessorListener;
+import de.metas.async.processor.WorkPackageSchedulerStats;
+import de.metas.async.processor.impl.FairSchedulingConfig;
+import de.metas.async.processor.impl.FairWorkPackageScheduler;
 import de.metas.async.processor.impl.SyncQueueProcessorListener;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.NullWorkpackagePrio;
@@ -83,10 +97,18 @@ import lombok.NonNull;
 
 public class WorkPackageQueue implements IWorkPackageQueue
 {
+	/** How long to wait before polling again, after the queue was found empty */
 	private final static String SYSCONFIG_POLLINTERVAL = "de.metas.async.PollIntervallMillis";
+	/** While the queue stays empty, the poll interval is doubled up to this value. We are woken up right away when a work package becomes ready anyways. */
+	private final static String SYSCONFIG_POLLINTERVAL_MAX = "de.metas.async.PollIntervallMaxMillis";
 
 	private static final transient Logger logger = LogManager.getLogger(WorkPackageQueue.class);
 
+	private static final IQueryOrderBy ORDER_BY_OLDEST_FIRST = Services.get(IQueryBL.class)
+			.createQueryOrderByBuilder(I_C_Queue_WorkPackage.class)
+			.addColumn(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID)
+			.createQueryOrderBy();
+
 	private final transient IQueueDAO dao;
 	private final transient IWorkpackageProcessorContextFactory contextFactory = Services.get(IWorkpackageProcessorContextFactory.class);
 	private final transient IAsyncBatchBL asyncBatchBL = Services.get(IAsyncBatchBL.class);
@@ -96,6 +118,13 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	private final List<Integer> packageProcessorIds;
 	private final String priorityFrom;
 	private final int skipRetryTimeoutMillis;
+	private final WorkPackageClaimStrategy claimStrategy;
+
+	/**
+	 * Decides from which package processor and async batch the next work package is taken. Null if work packages are simply taken by priority.
+	 */
+	@Nullable
+	private final FairWorkPackageScheduler scheduler;
 
 	/**
 	 * C_Queue_PackageProcessor_ID used for enquing
@@ -120,6 +149,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			@NonNull final List<Integer> packageProcessorIds,
 			final String enquingPackageProcessorInternalName,
 			final String priorityFrom,
+			@NonNull final WorkPackageClaimStrategy claimStrategy,
+			final boolean fairScheduling,
 			final boolean forEnqueing)
 	{
 		Check.assume(!packageProcessorIds.isEmpty(), "packageProcessorIds not empty");
@@ -131,6 +162,10 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		this.packageProcessorIds = Collections.unmodifiableList(new ArrayList<>(packageProcessorIds));
 		this.priorityFrom = priorityFrom;
 		this.skipRetryTimeoutMillis = Async_Constants.DEFAULT_RETRY_TIMEOUT_MILLIS;
+		this.claimStrategy = claimStrategy;
+		this.scheduler = fairScheduling && !forEnqueing
+				? new FairWorkPackageScheduler(() -> FairSchedulingConfig.ofSysConfig(this.packageProcessorIds))
+				: null;
 
 		if (forEnqueing)
 		{
@@ -152,17 +187,41 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				Collections.singletonList(packageProcessorId),
 				enquingPackageProcessorInternalName,
 				null,
+				WorkPackageClaimStrategy.T_LOCK,
+				false, // fairScheduling
 				true);
 	}
 
 	public static WorkPackageQueue createForQueueProcessing(final Properties ctx,
 			final List<Integer> packageProcessorIds,
 			final String priorityFrom)
+	{
+		return createForQueueProcessing(ctx, packageProcessorIds, priorityFrom, WorkPackageClaimStrategy.T_LOCK);
+	}
+
+	public static WorkPackageQueue createForQueueProcessing(final Properties ctx,
+			final List<Integer> packageProcessorIds,
+			final String priorityFrom,
+			final WorkPackageClaimStrategy claimStrategy)
+	{
+		return createForQueueProcessing(ctx, packageProcessorIds, priorityFrom, claimStrategy, false);
+	}
+
+	/**
+	 * @param fairScheduling if true, the work packages are taken by {@link FairWorkPackageScheduler} and not just by priority
+	 */
+	public static WorkPackageQueue createForQueueProcessing(final Properties ctx,
+			final List<Integer> packageProcessorIds,
+			final String priorityFrom,
+			final WorkPackageClaimStrategy claimStrategy,
+			final boolean fairScheduling)
 	{
 		return new WorkPackageQueue(ctx,
 				packageProcessorIds,
 				null, // enquingPackageProcessorInternalName
 				priorityFrom,
+				claimStrategy,
+				fairScheduling,
 				false);
 	}
 
@@ -173,6 +232,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				+ "packageProcessorIds=" + packageProcessorIds
 				+ ", priorityFrom=" + priorityFrom
 				+ ", skipRetryTimeoutMillis=" + skipRetryTimeoutMillis
+				+ ", claimStrategy=" + claimStrategy
+				+ ", fairScheduling=" + (scheduler != null)
 				+ ", enquingPackageProcessorId=" + enquingPackageProcessorId
 				+ "]";
 	}
@@ -198,6 +259,12 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	@Override
 	public I_C_Queue_WorkPackage pollAndLock(final long timeoutMillis)
 	{
+		if (claimStrategy == WorkPackageClaimStrategy.SKIP_LOCKED)
+		{
+			final List<I_C_Queue_WorkPackage> workPackages = pollAndLockSkipLocked(timeoutMillis, 1);
+			return !workPackages.isEmpty() ? workPackages.get(0) : null;
+		}
+
 		logger.debug("Going to obtain mainLock");
 		mainLock.lock();
 		logger.debug("Obtained mainLock");
@@ -218,7 +285,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
 
 		final long startTS = de.metas.common.util.time.SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
+		WorkPackageReadyNotifier.Ticket wakeupTicket = newWakeupTicket();
+		I_C_Queue_WorkPackage workPackage = retrieveAndLockNext(workPackageCtx, query);
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
@@ -226,9 +294,11 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			return null;
 		}
 
+		final IdleBackoff idleBackoff = new IdleBackoff();
 		while (workPackage == null)
 		{
 			// If we have a timeout specified, make sure we are not waiting more then that timeout
+			long remainingMillis = Long.MAX_VALUE;
 			if (timeoutMillis != TIMEOUT_Infinite)
 			{
 				Check.assume(timeoutMillis > 0, "timeoutMillis > 0");
@@ -239,24 +309,19 @@ public class WorkPackageQueue implements IWorkPackageQueue
 					logger.debug("Poll waiting time exceeded. Returning null");
 					return null;
 				}
+				remainingMillis = timeoutMillis - elapsedMillis;
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
-			try
+			// No workpackages were found. Wait until one is enqueued or until the poll interval elapsed and then try again
+			if (!waitForWorkPackages(wakeupTicket, idleBackoff, remainingMillis))
 			{
-				// note: we always get the new service, because things might have changed since this method started
-				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
-			}
-			catch (final InterruptedException e)
-			{
-				logger.debug("Got interrupted signal. Returning null", e);
 				return null;
 			}
 
 			// Try fetching the workpackage again
 			logger.debug("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			wakeupTicket = newWakeupTicket();
+			workPackage = retrieveAndLockNext(workPackageCtx, query);
 		}
 
 		Check.assumeNotNull(workPackage, "workPackage not null");
@@ -276,6 +341,203 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return workPackage;
 	}
 
+	@Override
+	public List<I_C_Queue_WorkPackage> pollAndLock(final long timeoutMillis, final int maxCount)
+	{
+		Check.assume(maxCount > 0, "maxCount > 0");
+
+		if (claimStrategy == WorkPackageClaimStrategy.SKIP_LOCKED)
+		{
+			return pollAndLockSkipLocked(timeoutMillis, maxCount);
+		}
+
+		final I_C_Queue_WorkPackage workPackage = pollAndLock(timeoutMillis);
+		return workPackage != null ? ImmutableList.of(workPackage) : ImmutableList.of();
+	}
+
+	/**
+	 * Same as {@link #pollAndLock0(long)}, but without {@link #mainLock}, because the database is making sure concurrent pollers don't get the same packages.
+	 */
+	private List<I_C_Queue_WorkPackage> pollAndLockSkipLocked(final long timeoutMillis, final int maxCount)
+	{
+		final long startTS = SystemTime.millis();
+		WorkPackageReadyNotifier.Ticket wakeupTicket = newWakeupTicket();
+		List<I_C_Queue_WorkPackage> workPackages = retrieveAndLockSkipLocked(maxCount);
+		if (timeoutMillis == TIMEOUT_OneTimeOnly)
+		{
+			return workPackages;
+		}
+
+		final IdleBackoff idleBackoff = new IdleBackoff();
+		while (workPackages.isEmpty())
+		{
+			long remainingMillis = Long.MAX_VALUE;
+			if (timeoutMillis != TIMEOUT_Infinite)
+			{
+				Check.assume(timeoutMillis > 0, "timeoutMillis > 0");
+
+				final long elapsedMillis = SystemTime.millis() - startTS;
+				if (elapsedMillis >= timeoutMillis)
+				{
+					logger.debug("Poll waiting time exceeded. Returning empty list");
+					return ImmutableList.of();
+				}
+				remainingMillis = timeoutMillis - elapsedMillis;
+			}
+
+			if (!waitForWorkPackages(wakeupTicket, idleBackoff, remainingMillis))
+			{
+				return ImmutableList.of();
+			}
+
+			logger.debug("Retry retrieving next workpackages");
+			wakeupTicket = newWakeupTicket();
+			workPackages = retrieveAndLockSkipLocked(maxCount);
+		}
+
+		return workPackages;
+	}
+
+	private WorkPackageReadyNotifier.Ticket newWakeupTicket()
+	{
+		return WorkPackageReadyNotifier.instance.newTicket(packageProcessorIds);
+	}
+
+	/**
+	 * Waits until a work package of one of our processors is marked as ready for processing, or until the current idle poll interval elapsed.
+	 *
+	 * @return false if the thread was interrupted while waiting
+	 */
+	private boolean waitForWorkPackages(
+			@NonNull final WorkPackageReadyNotifier.Ticket wakeupTicket,
+			@NonNull final IdleBackoff idleBackoff,
+			final long maxWaitMillis)
+	{
+		final long waitMillis = Math.min(idleBackoff.nextWaitMillis(), maxWaitMillis);
+		try
+		{
+			if (wakeupTicket.await(waitMillis))
+			{
+				logger.debug("Got notified that a workpackage is ready for processing");
+				idleBackoff.reset();
+			}
+			return true;
+		}
+		catch (final InterruptedException e)
+		{
+			logger.debug("Got interrupted signal. Returning nothing", e);
+			Thread.currentThread().interrupt(); // let our caller know that it shall stop
+			return false;
+		}
+	}
+
+	/**
+	 * Poll interval which is doubled after each unsuccessful poll, from {@value #SYSCONFIG_POLLINTERVAL} up to {@value #SYSCONFIG_POLLINTERVAL_MAX}.
+	 */
+	private static final class IdleBackoff
+	{
+		private static final int MAX_DOUBLINGS = 16;
+
+		private int unsuccessfulPolls = 0;
+
+		public long nextWaitMillis()
+		{
+			// note: we always get the new service, because things might have changed since polling started
+			final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+			final int minMillis = Math.max(sysConfigBL.getIntValue(SYSCONFIG_POLLINTERVAL, 1000), 1);
+			final int maxMillis = sysConfigBL.getIntValue(SYSCONFIG_POLLINTERVAL_MAX, 5000);
+
+			final long waitMillis = Math.max(Math.min((long)minMillis << unsuccessfulPolls, maxMillis), minMillis);
+			if (unsuccessfulPolls < MAX_DOUBLINGS)
+			{
+				unsuccessfulPolls++;
+			}
+			return waitMillis;
+		}
+
+		public void reset()
+		{
+			unsuccessfulPolls = 0;
+		}
+	}
+
+	private List<I_C_Queue_WorkPackage> retrieveAndLockSkipLocked(final int maxCount)
+	{
+		final List<Integer> workPackageIds = retrieveAndLockIdsSkipLocked(maxCount);
+		if (workPackageIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<I_C_Queue_WorkPackage> workPackages = new ArrayList<>(workPackageIds.size());
+		int loadedCount = 0;
+		try
+		{
+			for (final int workPackageId : workPackageIds)
+			{
+				// each work package gets its own context, because it's modified by setupWorkpackageContext
+				final Properties workPackageCtx = Env.newTemporaryCtx();
+				final I_C_Queue_WorkPackage workPackage = InterfaceWrapperHelper.create(workPackageCtx, workPackageId, I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+				loadedCount++;
+				if (!isValid(workPackage))
+				{
+					logger.warn("Aquired {} (C_Queue_WorkPackage_ID={}) but is not valid. Unlocking and skipping it.", workPackage, workPackageId);
+					if (workPackage != null)
+					{
+						unlockNoFail(workPackage);
+					}
+					continue;
+				}
+
+				workPackages.add(workPackage);
+				setupWorkpackageContext(workPackageCtx, workPackage);
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			// don't leave the already claimed packages locked
+			workPackages.forEach(this::unlockNoFail);
+			final List<Integer> notLoadedIds = workPackageIds.subList(loadedCount, workPackageIds.size());
+			if (!notLoadedIds.isEmpty())
+			{
+				final List<I_C_Queue_WorkPackage> notLoadedWorkPackages = InterfaceWrapperHelper.loadByIds(ImmutableSet.copyOf(notLoadedIds), I_C_Queue_WorkPackage.class);
+				notLoadedWorkPackages.forEach(this::unlockNoFail);
+			}
+			throw e;
+		}
+
+		return workPackages;
+	}
+
+	private List<Integer> retrieveAndLockIdsSkipLocked(final int maxCount)
+	{
+		final ILockManager lockManager = Services.get(ILockManager.class);
+		final Properties queryCtx = Env.newTemporaryCtx();
+		if (scheduler == null)
+		{
+			return lockManager.retrieveAndLockIds(createQuery(queryCtx), maxCount);
+		}
+
+		// ask the scheduler for each work package, because the next one might have to come from another package processor
+		final List<Integer> workPackageIds = new ArrayList<>(maxCount);
+		while (workPackageIds.size() < maxCount)
+		{
+			final Integer workPackageId = retrieveAndLockScheduled(
+					queryCtx,
+					query -> {
+						final List<Integer> ids = lockManager.retrieveAndLockIds(query, 1);
+						return !ids.isEmpty() ? ids.get(0) : null;
+					},
+					Integer::intValue);
+			if (workPackageId == null)
+			{
+				break;
+			}
+			workPackageIds.add(workPackageId);
+		}
+		return workPackageIds;
+	}
+
 	/**
 	 * Update context from work package (AD_Client_ID, AD_Org_ID, AD_User_ID, AD_Role_ID etc).
 	 *
@@ -334,6 +596,74 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		Env.setContext(workPackageCtx, Env.CTXNAME_AD_Session_ID, Env.CTXVALUE_AD_SESSION_ID_NONE);
 	}
 
+	private I_C_Queue_WorkPackage retrieveAndLockNext(final Properties workPackageCtx, final IQuery<I_C_Queue_WorkPackage> query)
+	{
+		if (scheduler == null)
+		{
+			return retrieveAndLock(query);
+		}
+
+		return retrieveAndLockScheduled(workPackageCtx, this::retrieveAndLock, I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID);
+	}
+
+	/**
+	 * Asks the {@link #scheduler} from where to take the next work package and tries its candidates one after the other.
+	 *
+	 * @param retrieveAndLock retrieves and locks the first work package of given query, or returns null if there is none
+	 * @return the locked work package (or its ID) or null
+	 */
+	@Nullable
+	private <T> T retrieveAndLockScheduled(
+			final Properties queryCtx,
+			@NonNull final Function<IQuery<I_C_Queue_WorkPackage>, T> retrieveAndLock,
+			@NonNull final ToIntFunction<T> workPackageIdGetter)
+	{
+		final WorkPackageQuery workPackageQuery = createWorkPackageQuery();
+		if (workPackageQuery.getPackageProcessorIds().isEmpty())
+		{
+			return null; // all blacklisted
+		}
+
+		final List<FairWorkPackageScheduler.Candidate> candidates = scheduler.getCandidates(() -> dao.retrieveBacklogs(queryCtx, workPackageQuery));
+		for (final FairWorkPackageScheduler.Candidate candidate : candidates)
+		{
+			final int packageProcessorId = candidate.getClassKey().getPackageProcessorId();
+			if (!workPackageQuery.getPackageProcessorIds().contains(packageProcessorId))
+			{
+				continue; // blacklisted in the meantime
+			}
+
+			final IQuery<I_C_Queue_WorkPackage> candidateQuery = createCandidateQuery(queryCtx, candidate);
+			final T workPackage = retrieveAndLock.apply(candidateQuery);
+			if (workPackage == null)
+			{
+				scheduler.onEmpty(candidate);
+				continue;
+			}
+
+			scheduler.onDispatched(candidate, workPackageIdGetter.applyAsInt(workPackage));
+			return workPackage;
+		}
+
+		return null;
+	}
+
+	private IQuery<I_C_Queue_WorkPackage> createCandidateQuery(final Properties queryCtx, final FairWorkPackageScheduler.Candidate candidate)
+	{
+		final WorkPackageQuery workPackageQuery = createWorkPackageQuery();
+		workPackageQuery.setPackageProcessorIds(ImmutableList.of(candidate.getClassKey().getPackageProcessorId()));
+		final AsyncBatchId asyncBatchId = candidate.getClassKey().getAsyncBatchId();
+		workPackageQuery.setC_Async_Batch_ID(asyncBatchId != null ? asyncBatchId.getRepoId() : 0); // 0 = the ones without async batch
+
+		final IQuery<I_C_Queue_WorkPackage> query = dao.createQuery(queryCtx, workPackageQuery);
+		if (candidate.isSlaEscalation())
+		{
+			// waiting for too long => take the oldest one, no matter its priority
+			query.setOrderBy(ORDER_BY_OLDEST_FIRST);
+		}
+		return query;
+	}
+
 	private I_C_Queue_WorkPackage retrieveAndLock(final IQuery<I_C_Queue_WorkPackage> query)
 	{
 		I_C_Queue_WorkPackage workPackage = Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class);
@@ -384,6 +714,16 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	{
 		// NOTE: unlocking shall not be synchronized with mainLock because else we can get dead-locks or unlocked workPackages will be left on shutdown
 
+		if (scheduler != null)
+		{
+			final int packageProcessorIdWithFreeCapacity = scheduler.onReleased(workPackage.getC_Queue_WorkPackage_ID());
+			if (packageProcessorIdWithFreeCapacity > 0)
+			{
+				// we might be waiting with work packages of this processor, because it was at its maximum concurrency
+				WorkPackageReadyNotifier.instance.notifyLocal(packageProcessorIdWithFreeCapacity);
+			}
+		}
+
 		try
 		{
 			final boolean success = Services.get(ILockManager.class).unlock(workPackage);
@@ -771,10 +1111,19 @@ public class WorkPackageQueue implements IWorkPackageQueue
 					mainLock.unlock(); // make sure we unlock, even if unregisterListener failed
 				}
 			}
+
+			// Wake up the queue processors which are waiting for this workpackage
+			final int packageProcessorId = enquingPackageProcessorId > 0 ? enquingPackageProcessorId : workPackage.getC_Queue_Block().getC_Queue_PackageProcessor_ID();
+			WorkPackageReadyNotifier.instance.notifyWorkPackageReadyAfterCommit(packageProcessorId, InterfaceWrapperHelper.getTrxName(workPackage));
 		}
 	}
 
 	private IQuery<I_C_Queue_WorkPackage> createQuery(final Properties workPackageCtx)
+	{
+		return dao.createQuery(workPackageCtx, createWorkPackageQuery());
+	}
+
+	private WorkPackageQuery createWorkPackageQuery()
 	{
 		//
 		// Filter out processors which were temporary blacklisted
@@ -797,7 +1146,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		workPackageQuery.setPackageProcessorIds(availablePackageProcessorIds);
 		workPackageQuery.setPriorityFrom(priorityFrom);
 
-		return dao.createQuery(workPackageCtx, workPackageQuery);
+		return workPackageQuery;
 	}
 
 	private boolean isValid(final I_C_Queue_WorkPackage workPackage)
@@ -875,4 +1224,10 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 		return enquingPackageProcessorInternalName;
 	}
+
+	@Override
+	public WorkPackageSchedulerStats getSchedulerStats()
+	{
+		return scheduler != null ? scheduler.getStats() : WorkPackageSchedulerStats.DISABLED;
+	}
 }
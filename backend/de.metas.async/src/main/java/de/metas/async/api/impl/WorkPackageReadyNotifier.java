@@ -0,0 +1,336 @@
+package de.metas.async.api.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.Adempiere;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Wakes up the {@link WorkPackageQueue}s which are waiting for work packages of a given C_Queue_PackageProcessor_ID,
+ * right after a work package of that processor became ready for processing.
+ * <p>
+ * Queues running in this JVM are notified directly. Queues running on other hosts are notified via the {@link IEventBus},
+ * which is forwarding the event to them after the enqueuing transaction was committed.
+ * <p>
+ * The queues are still polling the database from time to time, because not all the changes which are making a work package available are notified
+ * (e.g. a skip timeout which expired, or a lock which was released by another host).
+ */
+public final class WorkPackageReadyNotifier
+{
+	public static final WorkPackageReadyNotifier instance = new WorkPackageReadyNotifier();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadyNotifier.class);
+
+	private static final Topic EVENTBUS_TOPIC = Topic.builder()
+			.name("de.metas.async.WorkPackageReady")
+			.type(Type.REMOTE)
+			.build();
+	private static final String EVENT_PROPERTY_PackageProcessorId = "C_Queue_PackageProcessor_ID";
+
+	private static final String SYSCONFIG_NotifyRemote = "de.metas.async.WorkPackageReadyNotifier.NotifyRemote";
+	private static final boolean DEFAULT_NotifyRemote = true;
+
+	/** Don't post more than one remote event per package processor within this interval, so mass enqueueing is not flooding the event bus */
+	private static final String SYSCONFIG_RemoteNotifyMinIntervalMillis = "de.metas.async.WorkPackageReadyNotifier.RemoteNotifyMinIntervalMillis";
+	private static final int DEFAULT_RemoteNotifyMinIntervalMillis = 100;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition workPackageReadyCondition = lock.newCondition();
+
+	/** C_Queue_PackageProcessor_ID to a counter which is incremented each time a work package of that processor was marked as ready */
+	private final ConcurrentHashMap<Integer, AtomicLong> versionsByPackageProcessorId = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, RemoteNotifyState> remoteNotifyStatesByPackageProcessorId = new ConcurrentHashMap<>();
+	/** posts the trailing remote events of throttled package processors */
+	private final ScheduledExecutorService remoteNotifyScheduler = Executors.newSingleThreadScheduledExecutor(
+			CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(WorkPackageReadyNotifier.class.getSimpleName() + "-remoteNotify")
+					.setDaemon(true)
+					.build());
+
+	private final AtomicBoolean remoteEventsSubscribed = new AtomicBoolean(false);
+
+	private WorkPackageReadyNotifier()
+	{
+	}
+
+	/**
+	 * Subscribes to the work package ready events posted by other hosts. To be called on hosts which are running queue processors.
+	 */
+	public void subscribeToRemoteEvents()
+	{
+		if (!remoteEventsSubscribed.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		final IEventBus eventBus = getEventBus();
+		eventBus.subscribe(event -> {
+			if (event.isLocalEvent())
+			{
+				return; // local queues were already notified directly
+			}
+
+			final int packageProcessorId = event.getPropertyAsInt(EVENT_PROPERTY_PackageProcessorId, -1);
+			if (packageProcessorId > 0)
+			{
+				logger.debug("Got remote work package ready event for C_Queue_PackageProcessor_ID={}", packageProcessorId);
+				notifyLocal(packageProcessorId);
+			}
+		});
+
+		logger.info("Subscribed to event bus: {}", eventBus);
+	}
+
+	/**
+	 * Notifies the waiting queues that a work package of given processor is ready for processing.
+	 * If given transaction is still running, the notification is sent after it was committed, because before that the work package is not visible to the queues anyways.
+	 */
+	public void notifyWorkPackageReadyAfterCommit(final int packageProcessorId, final String trxName)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			notifyWorkPackageReady(packageProcessorId);
+		}
+		else
+		{
+			trxManager.getTrxListenerManager(trxName)
+					.runAfterCommit(() -> notifyWorkPackageReady(packageProcessorId));
+		}
+	}
+
+	/**
+	 * Notifies the waiting queues that a work package of given processor is ready for processing.
+	 */
+	public void notifyWorkPackageReady(final int packageProcessorId)
+	{
+		if (packageProcessorId <= 0)
+		{
+			return;
+		}
+
+		notifyLocal(packageProcessorId);
+
+		try
+		{
+			notifyRemote(packageProcessorId);
+		}
+		catch (final Exception ex)
+		{
+			// the remote queues will find the work package on their next poll
+			logger.warn("Failed notifying remote queues about work package ready for C_Queue_PackageProcessor_ID={}. Ignored.", packageProcessorId, ex);
+		}
+	}
+
+	/**
+	 * Wakes up only the queues of this JVM, e.g. when a package processor which reached its maximum concurrency can take more work packages.
+	 */
+	void notifyLocal(final int packageProcessorId)
+	{
+		getVersion(packageProcessorId).incrementAndGet();
+
+		lock.lock();
+		try
+		{
+			workPackageReadyCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void notifyRemote(final int packageProcessorId)
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return;
+		}
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_NotifyRemote, DEFAULT_NotifyRemote))
+		{
+			return;
+		}
+
+		final int minIntervalMillis = sysConfigBL.getIntValue(SYSCONFIG_RemoteNotifyMinIntervalMillis, DEFAULT_RemoteNotifyMinIntervalMillis);
+		final RemoteNotifyState state = remoteNotifyStatesByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new RemoteNotifyState());
+		synchronized (state)
+		{
+			final long nowMillis = SystemTime.millis();
+			final long remainingIntervalMillis = state.lastPostMillis + minIntervalMillis - nowMillis;
+			if (state.lastPostMillis > 0 && remainingIntervalMillis > 0)
+			{
+				// throttled; make sure the remote queues still get one event at the end of the interval, so they don't fall back to polling
+				if (!state.trailingPostScheduled)
+				{
+					state.trailingPostScheduled = true;
+					remoteNotifyScheduler.schedule(() -> postTrailingRemoteEvent(packageProcessorId, state), remainingIntervalMillis, TimeUnit.MILLISECONDS);
+				}
+				return;
+			}
+			state.lastPostMillis = nowMillis;
+		}
+
+		postRemoteEvent(packageProcessorId);
+	}
+
+	private void postTrailingRemoteEvent(final int packageProcessorId, @NonNull final RemoteNotifyState state)
+	{
+		synchronized (state)
+		{
+			state.trailingPostScheduled = false;
+			state.lastPostMillis = SystemTime.millis();
+		}
+
+		try
+		{
+			postRemoteEvent(packageProcessorId);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed notifying remote queues about work package ready for C_Queue_PackageProcessor_ID={}. Ignored.", packageProcessorId, ex);
+		}
+	}
+
+	private void postRemoteEvent(final int packageProcessorId)
+	{
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_PackageProcessorId, packageProcessorId)
+				.build();
+		getEventBus().postEvent(event);
+		logger.debug("Posted work package ready event: {}", event);
+	}
+
+	private static final class RemoteNotifyState
+	{
+		/** when we last actually posted an event; zero if never */
+		private long lastPostMillis = 0;
+		private boolean trailingPostScheduled = false;
+	}
+
+	private AtomicLong getVersion(final int packageProcessorId)
+	{
+		return versionsByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new AtomicLong());
+	}
+
+	private static IEventBus getEventBus()
+	{
+		return Services.get(IEventBusFactory.class).getEventBus(EVENTBUS_TOPIC);
+	}
+
+	/**
+	 * Remembers the current state of given package processors. Create it <b>before</b> polling the database, so any work package which is marked as ready after that is not missed.
+	 */
+	public Ticket newTicket(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		return new Ticket(packageProcessorIds);
+	}
+
+	public final class Ticket
+	{
+		private final ImmutableList<Integer> packageProcessorIds;
+		private final long[] versions;
+
+		private Ticket(final Collection<Integer> packageProcessorIds)
+		{
+			this.packageProcessorIds = ImmutableList.copyOf(packageProcessorIds);
+			this.versions = new long[this.packageProcessorIds.size()];
+			for (int i = 0; i < versions.length; i++)
+			{
+				versions[i] = getVersion(this.packageProcessorIds.get(i)).get();
+			}
+		}
+
+		/**
+		 * @return true if a work package of one of our package processors was marked as ready since this ticket was created
+		 */
+		public boolean isNotified()
+		{
+			for (int i = 0; i < versions.length; i++)
+			{
+				if (getVersion(packageProcessorIds.get(i)).get() != versions[i])
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Waits until a work package of one of our package processors is marked as ready or until the timeout expired.
+		 *
+		 * @return true if notified, false if the timeout expired
+		 */
+		public boolean await(final long timeoutMillis) throws InterruptedException
+		{
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+			lock.lockInterruptibly();
+			try
+			{
+				while (!isNotified())
+				{
+					if (remainingNanos <= 0)
+					{
+						return false;
+					}
+					remainingNanos = workPackageReadyCondition.awaitNanos(remainingNanos);
+				}
+				return true;
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@ package de.metas.async.jmx;
 
 
 import de.metas.async.processor.IQueueProcessor;
+import de.metas.async.processor.WorkPackageSchedulerStats;
 
 public class JMXQueueProcessor implements JMXQueueProcessorMBean
 {
@@ -72,9 +73,66 @@ public class JMXQueueProcessor implements JMXQueueProcessorMBean
 		return processor.getStatisticsSnapshot().getCountSkipped();
 	}
 
+	@Override
+	public long getEnqueueToStartLatencyAvgMillis()
+	{
+		return processor.getStatisticsSnapshot().getEnqueueToStartLatency().getAvgMillis();
+	}
+
+	@Override
+	public long getEnqueueToStartLatencyP95Millis()
+	{
+		return processor.getStatisticsSnapshot().getEnqueueToStartLatency().getPercentileMillis(0.95);
+	}
+
+	@Override
+	public long getEnqueueToStartLatencyMaxMillis()
+	{
+		return processor.getStatisticsSnapshot().getEnqueueToStartLatency().getMaxMillis();
+	}
+
+	@Override
+	public String getEnqueueToStartLatencyHistogram()
+	{
+		return processor.getStatisticsSnapshot().getEnqueueToStartLatency().toHistogramString();
+	}
+
 	@Override
 	public String getQueueInfo()
 	{
 		return processor.getQueue().toString();
 	}
+
+	@Override
+	public boolean isFairScheduling()
+	{
+		return processor.getQueue().getSchedulerStats().isEnabled();
+	}
+
+	@Override
+	public long getSchedulerCountDispatched()
+	{
+		return processor.getQueue().getSchedulerStats().getCountDispatched();
+	}
+
+	@Override
+	public long getSchedulerCountSlaEscalations()
+	{
+		return processor.getQueue().getSchedulerStats().getCountSlaEscalations();
+	}
+
+	@Override
+	public long getSchedulerCountDeferredByConcurrencyCap()
+	{
+		return processor.getQueue().getSchedulerStats().getCountDeferredByConcurrencyCap();
+	}
+
+	@Override
+	public String[] getSchedulerClasses()
+	{
+		return processor.getQueue().getSchedulerStats().getClasses()
+				.stream()
+				.map(WorkPackageSchedulerStats.ClassStats::toString)
+				.toArray(String[]::new);
+	}
 }
@@ -37,5 +37,23 @@ public interface JMXQueueProcessorMBean
 
 	long getCountSkipped();
 
+	long getEnqueueToStartLatencyAvgMillis();
+
+	long getEnqueueToStartLatencyP95Millis();
+
+	long getEnqueueToStartLatencyMaxMillis();
+
+	String getEnqueueToStartLatencyHistogram();
+
 	String getQueueInfo();
+
+	boolean isFairScheduling();
+
+	long getSchedulerCountDispatched();
+
+	long getSchedulerCountSlaEscalations();
+
+	long getSchedulerCountDeferredByConcurrencyCap();
+
+	String[] getSchedulerClasses();
 }
@@ -39,6 +39,7 @@ import de.metas.Profiles;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchListeners;
 import de.metas.async.api.impl.AsyncBatchDAO;
+import de.metas.async.api.impl.WorkPackageReadyNotifier;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.model.I_C_Queue_WorkPackage_Log;
 import de.metas.async.model.I_C_Queue_WorkPackage_Param;
@@ -103,6 +104,8 @@ public class Main extends AbstractModuleInterceptor
 			return;
 		}
 
+		WorkPackageReadyNotifier.instance.subscribeToRemoteEvents();
+
 		final int initDelayMillis = getInitDelayMillis();
 		Services.get(IQueueProcessorExecutorService.class).init(initDelayMillis);
 	}
@@ -56,6 +56,15 @@ public interface IQueueProcessor extends Runnable
 
 	void shutdown();
 
+	/**
+	 * Called by API right before a workpackage is processed.
+	 * 
+	 * NOTE: don't call it directly
+	 * 
+	 * @param workPackage
+	 */
+	void notifyWorkpackageStarted(I_C_Queue_WorkPackage workPackage);
+
 	/**
 	 * Called by API when a workpackage was processed.
 	 * 
@@ -40,4 +40,12 @@ public interface IQueueProcessorStatistics
 	long getQueueSize();
 
 	long getCountSkipped();
+
+	/**
+	 * @return how long the workpackages waited from being enqueued (i.e. created) until their first processing started
+	 */
+	default LatencyHistogram getEnqueueToStartLatency()
+	{
+		return LatencyHistogram.EMPTY;
+	}
 }
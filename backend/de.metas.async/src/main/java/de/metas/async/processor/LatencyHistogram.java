@@ -0,0 +1,124 @@
+package de.metas.async.processor;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable snapshot of a latency histogram with fixed buckets.
+ * <p>
+ * Bucket {@code i} is counting the latencies which are less or equal to {@link #BUCKET_UPPER_BOUNDS_MILLIS}{@code [i]} and greater than the previous bound.
+ * The last bucket is counting everything which is greater than the last bound.
+ */
+@Value
+public class LatencyHistogram
+{
+	public static final ImmutableList<Long> BUCKET_UPPER_BOUNDS_MILLIS = ImmutableList.of(10L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L, 30000L, 60000L);
+
+	public static final LatencyHistogram EMPTY = new LatencyHistogram(new long[BUCKET_UPPER_BOUNDS_MILLIS.size() + 1], 0, 0);
+
+	/** @return the index of the bucket which is counting given latency */
+	public static int getBucketIndex(final long latencyMillis)
+	{
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.size(); i++)
+		{
+			if (latencyMillis <= BUCKET_UPPER_BOUNDS_MILLIS.get(i))
+			{
+				return i;
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_MILLIS.size();
+	}
+
+	ImmutableList<Long> bucketCounts;
+	long count;
+	long sumMillis;
+	long maxMillis;
+
+	public LatencyHistogram(@NonNull final long[] bucketCounts, final long sumMillis, final long maxMillis)
+	{
+		Check.assume(bucketCounts.length == BUCKET_UPPER_BOUNDS_MILLIS.size() + 1, "Expected {} buckets but got {}", BUCKET_UPPER_BOUNDS_MILLIS.size() + 1, bucketCounts.length);
+
+		final ImmutableList.Builder<Long> bucketCountsList = ImmutableList.builder();
+		long count = 0;
+		for (final long bucketCount : bucketCounts)
+		{
+			bucketCountsList.add(bucketCount);
+			count += bucketCount;
+		}
+
+		this.bucketCounts = bucketCountsList.build();
+		this.count = count;
+		this.sumMillis = sumMillis;
+		this.maxMillis = maxMillis;
+	}
+
+	public long getAvgMillis()
+	{
+		return count > 0 ? sumMillis / count : 0;
+	}
+
+	/**
+	 * @param percentile e.g. 0.95
+	 * @return the upper bound of the bucket which contains the given percentile; for the last bucket, {@link #getMaxMillis()} is returned
+	 */
+	public long getPercentileMillis(final double percentile)
+	{
+		Check.assume(percentile > 0 && percentile <= 1, "0 < percentile <= 1 but it was {}", percentile);
+		if (count <= 0)
+		{
+			return 0;
+		}
+
+		final long rank = (long)Math.ceil(percentile * count);
+		long cumulatedCount = 0;
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.size(); i++)
+		{
+			cumulatedCount += bucketCounts.get(i);
+			if (cumulatedCount >= rank)
+			{
+				return Math.min(BUCKET_UPPER_BOUNDS_MILLIS.get(i), maxMillis);
+			}
+		}
+		return maxMillis;
+	}
+
+	/** @return human readable histogram, e.g. {@code <=10ms: 5, <=50ms: 2, ..., >60000ms: 0} */
+	public String toHistogramString()
+	{
+		final List<Long> bounds = BUCKET_UPPER_BOUNDS_MILLIS;
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < bounds.size(); i++)
+		{
+			sb.append("<=").append(bounds.get(i)).append("ms: ").append(bucketCounts.get(i)).append(", ");
+		}
+		sb.append(">").append(bounds.get(bounds.size() - 1)).append("ms: ").append(bucketCounts.get(bounds.size()));
+		return sb.toString();
+	}
+}
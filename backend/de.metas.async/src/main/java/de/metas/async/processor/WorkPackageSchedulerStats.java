@@ -0,0 +1,100 @@
+package de.metas.async.processor;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.AsyncBatchId;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Snapshot of the fair work package scheduler of one queue.
+ */
+@Value
+@Builder
+public class WorkPackageSchedulerStats
+{
+	public static final WorkPackageSchedulerStats DISABLED = builder().enabled(false).build();
+
+	boolean enabled;
+
+	/** how many work packages were handed out by the scheduler */
+	long countDispatched;
+
+	/** how many work packages were handed out ahead of their fair share, because they were waiting longer than the configured maximum */
+	long countSlaEscalations;
+
+	/** how many times a package processor with pending work packages was passed over because it reached its maximum concurrency */
+	long countDeferredByConcurrencyCap;
+
+	@Singular("clazz")
+	ImmutableList<ClassStats> classes;
+
+	/**
+	 * Scheduler state for one C_Queue_PackageProcessor_ID and C_Async_Batch_ID.
+	 */
+	@Value
+	@Builder
+	public static class ClassStats
+	{
+		int packageProcessorId;
+
+		@Nullable
+		AsyncBatchId asyncBatchId;
+
+		int weight;
+
+		/** 0 means unlimited */
+		int maxConcurrency;
+
+		/** work packages of this package processor which are currently processed; shared by all async batches of the package processor */
+		int inFlight;
+
+		/** not locked work packages which are waiting, as of the last backlog refresh */
+		int queueSize;
+
+		/** how long the oldest waiting work package is waiting, as of the last backlog refresh */
+		long waitingMillis;
+
+		long countDispatched;
+
+		long countSlaEscalations;
+
+		@Override
+		public String toString()
+		{
+			return "C_Queue_PackageProcessor_ID=" + packageProcessorId
+					+ ", C_Async_Batch_ID=" + (asyncBatchId != null ? asyncBatchId.getRepoId() : "-")
+					+ ", weight=" + weight
+					+ ", inFlight=" + inFlight + (maxConcurrency > 0 ? "/" + maxConcurrency : "")
+					+ ", queueSize=" + queueSize
+					+ ", waitingMillis=" + waitingMillis
+					+ ", dispatched=" + countDispatched
+					+ ", slaEscalations=" + countSlaEscalations;
+		}
+	}
+}
@@ -22,6 +22,7 @@ package de.metas.async.processor.impl;
  * #L%
  */
 
+import java.util.List;
 import java.util.Properties;
 
 import de.metas.common.util.time.SystemTime;
@@ -72,6 +73,14 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 
 	protected abstract void executeTask(WorkpackageProcessorTask task);
 
+	/**
+	 * @return how many work packages to retrieve and lock at once. Note that the queue might return less, depending on its {@link de.metas.async.api.WorkPackageClaimStrategy}.
+	 */
+	protected int getPollBatchSize()
+	{
+		return 1;
+	}
+
 	@Override
 	public IWorkPackageQueue getQueue()
 	{
@@ -153,12 +162,14 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 						break;
 					}
 				}
+				else if (error == null)
+				{
+					// The queue already waited for workpackages until the polling timeout, or it was interrupted. Nothing to wait for here.
+					logger.debug("Previous pollAndSubmit returned no workpackage. Polling again");
+				}
 				else
 				{
-					if (error != null)
-					{
-						logger.warn(error.getLocalizedMessage(), error);
-					}
+					logger.warn(error.getLocalizedMessage(), error);
 					logger.info("Previous pollAndSubmit was not successful. Sleeping 1000ms");
 					try
 					{
@@ -178,37 +189,46 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 	private boolean pollAndSubmitNextWorkPackageTask()
 	{
 		final IWorkPackageQueue queue = getQueue();
-		final I_C_Queue_WorkPackage workPackage;
+		final List<I_C_Queue_WorkPackage> workPackages;
 		try (final MDCCloseable ignored = MDC.putCloseable("queue", queue.toString());
 				final MDCCloseable ignored1 = MDC.putCloseable("queue.pollAndLockStart", Long.toString(SystemTime.millis()));)
 		{
 			logger.debug("pollAndSubmitNextWorkPackageTask - going to invoke queue.pollAndLock() with timeout={} on queue={}", queuePollingTimeout, queue);
-			workPackage = queue.pollAndLock(queuePollingTimeout);
-			if (workPackage == null)
+			workPackages = queue.pollAndLock(queuePollingTimeout, getPollBatchSize());
+			if (workPackages.isEmpty())
 			{
-				logger.debug("pollAndSubmitNextWorkPackageTask - queue returned workPackage", queuePollingTimeout, queue);
+				logger.debug("pollAndSubmitNextWorkPackageTask - queue returned no workPackage; timeout={}; queue={}", queuePollingTimeout, queue);
 				return false;
 			}
 		}
-		boolean success = false;
-		try
-		{
-			final IWorkpackageProcessor workPackageProcessor = getWorkpackageProcessor(workPackage);
-			final WorkpackageProcessorTask task = new WorkpackageProcessorTask(this, workPackageProcessor, workPackage, logsRepository);
-			executeTask(task);
-			success = true;
-			return true;
-		}
-		finally
+
+		for (int i = 0; i < workPackages.size(); i++)
 		{
-			if (!success)
+			final I_C_Queue_WorkPackage workPackage = workPackages.get(i);
+			boolean success = false;
+			try
 			{
-				logger.info("Submitting for processing next workpackage failed. Trying to unlock {}.", workPackage);
-				queue.unlockNoFail(workPackage);
+				final IWorkpackageProcessor workPackageProcessor = getWorkpackageProcessor(workPackage);
+				final WorkpackageProcessorTask task = new WorkpackageProcessorTask(this, workPackageProcessor, workPackage, logsRepository);
+				executeTask(task);
+				success = true;
+			}
+			finally
+			{
+				if (!success)
+				{
+					// also unlock the packages which were locked together with this one but not submitted yet
+					for (final I_C_Queue_WorkPackage workPackageToUnlock : workPackages.subList(i, workPackages.size()))
+					{
+						logger.info("Submitting for processing next workpackage failed. Trying to unlock {}.", workPackageToUnlock);
+						queue.unlockNoFail(workPackageToUnlock);
 
-				getEventDispatcher().unregisterListeners(workPackage.getC_Queue_WorkPackage_ID());
+						getEventDispatcher().unregisterListeners(workPackageToUnlock.getC_Queue_WorkPackage_ID());
+					}
+				}
 			}
 		}
+		return true;
 	}
 
 	@Override
@@ -220,6 +240,23 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 		}
 	}
 
+	@Override
+	public void notifyWorkpackageStarted(@NonNull final I_C_Queue_WorkPackage workPackage)
+	{
+		// Measure only the first start, because a skipped workpackage is waiting on purpose afterwards.
+		// NOTE: measured from Created and not from Updated, because Updated changes with each update of the workpackage (e.g. when it's marked as ready or skipped).
+		if (workPackage.getLastStartTime() != null || workPackage.getCreated() == null)
+		{
+			return;
+		}
+
+		final long enqueueToStartMillis = Math.max(SystemTime.millis() - workPackage.getCreated().getTime(), 0);
+		synchronized (statistics)
+		{
+			statistics.recordEnqueueToStartLatency(enqueueToStartMillis);
+		}
+	}
+
 	@Override
 	public void notifyWorkpackageProcessed(
 			@NonNull final I_C_Queue_WorkPackage workPackage,
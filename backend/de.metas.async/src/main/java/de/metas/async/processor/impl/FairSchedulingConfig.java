@@ -0,0 +1,114 @@
+package de.metas.async.processor.impl;
+
+import java.util.Collection;
+
+import org.adempiere.service.ISysConfigBL;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Configuration of {@link FairWorkPackageScheduler}.
+ */
+@Value
+@Builder
+public class FairSchedulingConfig
+{
+	private static final String SYSCONFIG_MaxWaitMillis = "de.metas.async.FairScheduling.MaxWaitMillis";
+	private static final int DEFAULT_MaxWaitMillis = 5 * 60 * 1000;
+
+	private static final String SYSCONFIG_MaxSlaEscalationsPerRefresh = "de.metas.async.FairScheduling.MaxSlaEscalationsPerRefresh";
+	private static final int DEFAULT_MaxSlaEscalationsPerRefresh = 10;
+
+	private static final String SYSCONFIG_BacklogRefreshMillis = "de.metas.async.FairScheduling.BacklogRefreshMillis";
+	private static final int DEFAULT_BacklogRefreshMillis = 1000;
+
+	private static final String SYSCONFIG_PackageProcessorPrefix = "de.metas.async.FairScheduling.PackageProcessor.";
+	private static final String SYSCONFIG_Suffix_Weight = ".Weight";
+	private static final String SYSCONFIG_Suffix_MaxConcurrency = ".MaxConcurrency";
+
+	public static final int DEFAULT_Weight = 1;
+
+	/**
+	 * Reads the configuration from these SysConfigs:
+	 * <ul>
+	 * <li>{@code de.metas.async.FairScheduling.MaxWaitMillis}: work packages which are waiting longer are handed out first, ahead of the fair share; 0 disables it
+	 * <li>{@code de.metas.async.FairScheduling.MaxSlaEscalationsPerRefresh}: how many of those work packages can be handed out without being charged to their package processor's share, between two refreshes of the pending work packages; 0 means unlimited
+	 * <li>{@code de.metas.async.FairScheduling.BacklogRefreshMillis}: how often the pending work packages are counted
+	 * <li>{@code de.metas.async.FairScheduling.PackageProcessor.<C_Queue_PackageProcessor_ID>.Weight}: share of the package processor, relative to the others (default 1)
+	 * <li>{@code de.metas.async.FairScheduling.PackageProcessor.<C_Queue_PackageProcessor_ID>.MaxConcurrency}: how many work packages of the package processor can be processed at the same time by one queue processor (default 0, i.e. unlimited)
+	 * </ul>
+	 */
+	public static FairSchedulingConfig ofSysConfig(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		final FairSchedulingConfigBuilder builder = builder()
+				.maxWaitMillis(sysConfigBL.getIntValue(SYSCONFIG_MaxWaitMillis, DEFAULT_MaxWaitMillis))
+				.maxSlaEscalationsPerRefresh(sysConfigBL.getIntValue(SYSCONFIG_MaxSlaEscalationsPerRefresh, DEFAULT_MaxSlaEscalationsPerRefresh))
+				.backlogRefreshMillis(sysConfigBL.getIntValue(SYSCONFIG_BacklogRefreshMillis, DEFAULT_BacklogRefreshMillis));
+
+		for (final int packageProcessorId : packageProcessorIds)
+		{
+			final String prefix = SYSCONFIG_PackageProcessorPrefix + packageProcessorId;
+			builder.weight(packageProcessorId, sysConfigBL.getIntValue(prefix + SYSCONFIG_Suffix_Weight, DEFAULT_Weight));
+			builder.maxConcurrency(packageProcessorId, sysConfigBL.getIntValue(prefix + SYSCONFIG_Suffix_MaxConcurrency, 0));
+		}
+
+		return builder.build();
+	}
+
+	/** 0 means no maximum */
+	long maxWaitMillis;
+
+	/** 0 means no maximum */
+	int maxSlaEscalationsPerRefresh;
+
+	long backlogRefreshMillis;
+
+	@Singular
+	ImmutableMap<Integer, Integer> weights;
+
+	@Singular("maxConcurrency")
+	ImmutableMap<Integer, Integer> maxConcurrencies;
+
+	public int getWeight(final int packageProcessorId)
+	{
+		final Integer weight = weights.get(packageProcessorId);
+		return weight != null && weight > 0 ? weight : DEFAULT_Weight;
+	}
+
+	/** @return maximum concurrency or 0 if unlimited */
+	public int getMaxConcurrency(final int packageProcessorId)
+	{
+		final Integer maxConcurrency = maxConcurrencies.get(packageProcessorId);
+		return maxConcurrency != null && maxConcurrency > 0 ? maxConcurrency : 0;
+	}
+}
@@ -0,0 +1,417 @@
+package de.metas.async.processor.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.AsyncBatchId;
+import de.metas.async.api.WorkPackageBacklog;
+import de.metas.async.processor.WorkPackageSchedulerStats;
+import de.metas.common.util.time.SystemTime;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Decides from which C_Queue_PackageProcessor_ID and C_Async_Batch_ID a queue shall take its next work package.
+ * <p>
+ * Without this scheduler, a queue is taking the work packages ordered by priority and ID, so a big batch of work packages can starve the others.
+ * This scheduler is doing weighted fair queuing (stride scheduling) instead:
+ * <ul>
+ * <li>each package processor gets a share which is proportional to its configured weight;
+ * <li>within a package processor, each async batch (and the work packages without async batch) gets an equal share;
+ * <li>a package processor which reached its maximum concurrency is passed over until one of its work packages is released;
+ * <li>work packages which are waiting longer than the configured maximum wait time are handed out first, oldest first, regardless of their fair share.
+ * Such an escalation is not charged to the package processor's share, but between two backlog refreshes it's done at most once per async batch and only a limited number of times overall.
+ * </ul>
+ * The scheduler is not looking at individual work packages, but at the {@link WorkPackageBacklog}s, which are refreshed from time to time.
+ * The queue is then retrieving the work packages of the chosen backlog, by priority and ID as before.
+ * <p>
+ * Note that the concurrency caps are per scheduler, i.e. per queue processor and host.
+ */
+public final class FairWorkPackageScheduler
+{
+	private static final Logger logger = LogManager.getLogger(FairWorkPackageScheduler.class);
+
+	private static final Comparator<String> PRIORITY_COMPARATOR = Comparator.nullsLast(Comparator.naturalOrder());
+
+	private final Supplier<FairSchedulingConfig> configSupplier;
+	private FairSchedulingConfig config;
+
+	private final Map<Integer, PackageProcessorState> packageProcessors = new HashMap<>();
+	private final Map<ClassKey, ClassState> classes = new LinkedHashMap<>();
+	/** C_Queue_WorkPackage_ID to C_Queue_PackageProcessor_ID of the work packages which were handed out but not released yet */
+	private final Map<Integer, Integer> inFlightWorkPackages = new HashMap<>();
+
+	/** stride scheduling virtual time, i.e. the pass of the last served package processor */
+	private double virtualTime = 0;
+	private long backlogsLoadedMillis = -1;
+	/** escalated work packages which were not charged since the last backlog refresh */
+	private int slaEscalationsSinceRefresh = 0;
+
+	private long countDispatched = 0;
+	private long countSlaEscalations = 0;
+	private long countDeferredByConcurrencyCap = 0;
+
+	public FairWorkPackageScheduler(@NonNull final Supplier<FairSchedulingConfig> configSupplier)
+	{
+		this.configSupplier = configSupplier;
+		this.config = configSupplier.get();
+	}
+
+	@Value
+	public static class ClassKey
+	{
+		int packageProcessorId;
+		@Nullable
+		AsyncBatchId asyncBatchId;
+	}
+
+	/**
+	 * A backlog from which the queue shall try to take the next work package.
+	 */
+	@Value
+	public static class Candidate
+	{
+		ClassKey classKey;
+
+		/**
+		 * true if the oldest work package of this backlog is waiting longer than the maximum wait time.
+		 * In that case the queue shall take the oldest work package and not the one with the best priority.
+		 */
+		boolean slaEscalation;
+	}
+
+	private static final class PackageProcessorState
+	{
+		private final int packageProcessorId;
+		private double pass;
+		/** stride scheduling virtual time between the async batches of this package processor */
+		private double classesVirtualTime = 0;
+		private int inFlight = 0;
+
+		private PackageProcessorState(final int packageProcessorId, final double pass)
+		{
+			this.packageProcessorId = packageProcessorId;
+			this.pass = pass;
+		}
+	}
+
+	private static final class ClassState
+	{
+		private final ClassKey key;
+		private double pass;
+		private int queueSize = 0;
+		@Nullable
+		private String bestPriority;
+		private long waitingSinceMillis;
+		private long countDispatched = 0;
+		private long countSlaEscalations = 0;
+
+		private ClassState(final ClassKey key, final double pass)
+		{
+			this.key = key;
+			this.pass = pass;
+		}
+	}
+
+	/**
+	 * @param backlogsLoader called if the backlogs need to be refreshed
+	 * @return the backlogs from which the queue shall try to take the next work package, in this order
+	 */
+	public synchronized List<Candidate> getCandidates(@NonNull final Supplier<List<WorkPackageBacklog>> backlogsLoader)
+	{
+		final long nowMillis = SystemTime.millis();
+		if (isBacklogsRefreshRequired(nowMillis))
+		{
+			refreshBacklogs(backlogsLoader.get(), nowMillis);
+		}
+
+		//
+		// Eligible classes: having work packages which can be dispatched now
+		final List<ClassState> eligibleClasses = new ArrayList<>();
+		for (final ClassState classState : classes.values())
+		{
+			if (classState.queueSize <= 0)
+			{
+				continue;
+			}
+			if (isConcurrencyCapReached(classState.key.getPackageProcessorId()))
+			{
+				countDeferredByConcurrencyCap++;
+				continue;
+			}
+			eligibleClasses.add(classState);
+		}
+		if (eligibleClasses.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<Candidate> candidates = ImmutableList.builder();
+
+		//
+		// First, the classes which are waiting for too long, oldest first
+		final long maxWaitMillis = config.getMaxWaitMillis();
+		if (maxWaitMillis > 0 && !isSlaEscalationsCapReached())
+		{
+			final List<ClassState> escalatedClasses = new ArrayList<>();
+			for (final Iterator<ClassState> it = eligibleClasses.iterator(); it.hasNext();)
+			{
+				final ClassState classState = it.next();
+				if (nowMillis - classState.waitingSinceMillis >= maxWaitMillis)
+				{
+					escalatedClasses.add(classState);
+					it.remove();
+				}
+			}
+			escalatedClasses.sort(Comparator.comparingLong(classState -> classState.waitingSinceMillis));
+			escalatedClasses.forEach(classState -> candidates.add(new Candidate(classState.key, true)));
+		}
+
+		//
+		// Then, the fair share: package processors by pass, then their classes by pass
+		final Map<Integer, List<ClassState>> eligibleClassesByPackageProcessorId = new HashMap<>();
+		for (final ClassState classState : eligibleClasses)
+		{
+			eligibleClassesByPackageProcessorId.computeIfAbsent(classState.key.getPackageProcessorId(), k -> new ArrayList<>()).add(classState);
+		}
+
+		final Comparator<ClassState> classesComparator = Comparator.<ClassState> comparingDouble(classState -> classState.pass)
+				.thenComparing(classState -> classState.bestPriority, PRIORITY_COMPARATOR)
+				.thenComparingLong(classState -> classState.waitingSinceMillis);
+		eligibleClassesByPackageProcessorId.values().forEach(packageProcessorClasses -> packageProcessorClasses.sort(classesComparator));
+
+		final List<PackageProcessorState> eligiblePackageProcessors = new ArrayList<>();
+		eligibleClassesByPackageProcessorId.keySet().forEach(packageProcessorId -> eligiblePackageProcessors.add(packageProcessors.get(packageProcessorId)));
+		eligiblePackageProcessors.sort(Comparator.<PackageProcessorState> comparingDouble(packageProcessor -> packageProcessor.pass)
+				.thenComparing(packageProcessor -> eligibleClassesByPackageProcessorId.get(packageProcessor.packageProcessorId).get(0).bestPriority, PRIORITY_COMPARATOR)
+				.thenComparingInt(packageProcessor -> packageProcessor.packageProcessorId));
+
+		for (final PackageProcessorState packageProcessor : eligiblePackageProcessors)
+		{
+			for (final ClassState classState : eligibleClassesByPackageProcessorId.get(packageProcessor.packageProcessorId))
+			{
+				candidates.add(new Candidate(classState.key, false));
+			}
+		}
+
+		return candidates.build();
+	}
+
+	private boolean isBacklogsRefreshRequired(final long nowMillis)
+	{
+		if (backlogsLoadedMillis < 0 || nowMillis - backlogsLoadedMillis >= config.getBacklogRefreshMillis())
+		{
+			return true;
+		}
+
+		// nothing left from what we loaded last time; maybe there is something new
+		return classes.values().stream().allMatch(classState -> classState.queueSize <= 0);
+	}
+
+	private void refreshBacklogs(@NonNull final List<WorkPackageBacklog> backlogs, final long nowMillis)
+	{
+		config = configSupplier.get();
+
+		classes.values().forEach(classState -> classState.queueSize = 0);
+
+		for (final WorkPackageBacklog backlog : backlogs)
+		{
+			if (backlog.getQueueSize() <= 0)
+			{
+				continue;
+			}
+
+			final ClassKey key = new ClassKey(backlog.getPackageProcessorId(), backlog.getAsyncBatchId());
+			final PackageProcessorState packageProcessor = activatePackageProcessor(key.getPackageProcessorId());
+
+			ClassState classState = classes.get(key);
+			if (classState == null)
+			{
+				// start where the others are, so a new class is not getting everything until it caught up
+				classState = new ClassState(key, packageProcessor.classesVirtualTime);
+				classes.put(key, classState);
+			}
+			classState.queueSize = backlog.getQueueSize();
+			classState.bestPriority = backlog.getBestPriority();
+			classState.waitingSinceMillis = backlog.getWaitingSince().toEpochMilli();
+		}
+
+		// forget the classes which have nothing to do anymore
+		classes.values().removeIf(classState -> classState.queueSize <= 0);
+
+		backlogsLoadedMillis = nowMillis;
+		slaEscalationsSinceRefresh = 0;
+		logger.debug("Refreshed backlogs: {}", backlogs);
+	}
+
+	private PackageProcessorState activatePackageProcessor(final int packageProcessorId)
+	{
+		final PackageProcessorState packageProcessor = packageProcessors.computeIfAbsent(packageProcessorId, k -> new PackageProcessorState(packageProcessorId, virtualTime));
+
+		// a package processor which was idle is not getting the share it did not use in the meantime
+		final boolean idle = classes.values().stream().noneMatch(classState -> classState.key.getPackageProcessorId() == packageProcessorId);
+		if (idle && packageProcessor.pass < virtualTime)
+		{
+			packageProcessor.pass = virtualTime;
+		}
+		return packageProcessor;
+	}
+
+	private boolean isSlaEscalationsCapReached()
+	{
+		final int maxSlaEscalationsPerRefresh = config.getMaxSlaEscalationsPerRefresh();
+		return maxSlaEscalationsPerRefresh > 0 && slaEscalationsSinceRefresh >= maxSlaEscalationsPerRefresh;
+	}
+
+	private boolean isConcurrencyCapReached(final int packageProcessorId)
+	{
+		final int maxConcurrency = config.getMaxConcurrency(packageProcessorId);
+		if (maxConcurrency <= 0)
+		{
+			return false;
+		}
+
+		final PackageProcessorState packageProcessor = packageProcessors.get(packageProcessorId);
+		return packageProcessor != null && packageProcessor.inFlight >= maxConcurrency;
+	}
+
+	/**
+	 * Called when the queue took a work package from given candidate.
+	 */
+	public synchronized void onDispatched(@NonNull final Candidate candidate, final int workPackageId)
+	{
+		final ClassKey key = candidate.getClassKey();
+		final int packageProcessorId = key.getPackageProcessorId();
+		final PackageProcessorState packageProcessor = activatePackageProcessor(packageProcessorId);
+
+		final ClassState classState = classes.computeIfAbsent(key, k -> new ClassState(k, packageProcessor.classesVirtualTime));
+		classState.queueSize = Math.max(classState.queueSize - 1, 0);
+		classState.countDispatched++;
+		packageProcessor.classesVirtualTime = Math.max(packageProcessor.classesVirtualTime, classState.pass);
+		classState.pass += 1;
+
+		// escalated work packages are not charged, so the package processor is not losing its fair share because it was waiting
+		if (candidate.isSlaEscalation() && !isSlaEscalationsCapReached())
+		{
+			classState.countSlaEscalations++;
+			countSlaEscalations++;
+			slaEscalationsSinceRefresh++;
+
+			// the oldest work package was handed out and we don't know since when the next one is waiting;
+			// so don't escalate this class again until the next refresh tells us
+			classState.waitingSinceMillis = SystemTime.millis();
+		}
+		else
+		{
+			virtualTime = Math.max(virtualTime, packageProcessor.pass);
+			packageProcessor.pass += 1.0 / config.getWeight(packageProcessorId);
+		}
+
+		if (inFlightWorkPackages.put(workPackageId, packageProcessorId) == null)
+		{
+			packageProcessor.inFlight++;
+		}
+		countDispatched++;
+	}
+
+	/**
+	 * Called when the queue found no work package for given candidate, i.e. our backlog is outdated.
+	 */
+	public synchronized void onEmpty(@NonNull final Candidate candidate)
+	{
+		final ClassState classState = classes.get(candidate.getClassKey());
+		if (classState != null)
+		{
+			classState.queueSize = 0;
+		}
+	}
+
+	/**
+	 * Called when a work package which was handed out was processed (or given back).
+	 *
+	 * @return the C_Queue_PackageProcessor_ID if it was at its maximum concurrency before, i.e. if its waiting work packages can be dispatched again; else -1
+	 */
+	public synchronized int onReleased(final int workPackageId)
+	{
+		final Integer packageProcessorId = inFlightWorkPackages.remove(workPackageId);
+		if (packageProcessorId == null)
+		{
+			return -1;
+		}
+
+		final PackageProcessorState packageProcessor = packageProcessors.get(packageProcessorId);
+		if (packageProcessor == null || packageProcessor.inFlight <= 0)
+		{
+			return -1;
+		}
+
+		final boolean wasCapped = isConcurrencyCapReached(packageProcessorId);
+		packageProcessor.inFlight--;
+		return wasCapped ? packageProcessorId : -1;
+	}
+
+	public synchronized WorkPackageSchedulerStats getStats()
+	{
+		final long nowMillis = SystemTime.millis();
+
+		final WorkPackageSchedulerStats.WorkPackageSchedulerStatsBuilder stats = WorkPackageSchedulerStats.builder()
+				.enabled(true)
+				.countDispatched(countDispatched)
+				.countSlaEscalations(countSlaEscalations)
+				.countDeferredByConcurrencyCap(countDeferredByConcurrencyCap);
+
+		for (final ClassState classState : classes.values())
+		{
+			final int packageProcessorId = classState.key.getPackageProcessorId();
+			final PackageProcessorState packageProcessor = packageProcessors.get(packageProcessorId);
+			stats.clazz(WorkPackageSchedulerStats.ClassStats.builder()
+					.packageProcessorId(packageProcessorId)
+					.asyncBatchId(classState.key.getAsyncBatchId())
+					.weight(config.getWeight(packageProcessorId))
+					.maxConcurrency(config.getMaxConcurrency(packageProcessorId))
+					.inFlight(packageProcessor != null ? packageProcessor.inFlight : 0)
+					.queueSize(classState.queueSize)
+					.waitingMillis(classState.queueSize > 0 ? Math.max(nowMillis - classState.waitingSinceMillis, 0) : 0)
+					.countDispatched(classState.countDispatched)
+					.countSlaEscalations(classState.countSlaEscalations)
+					.build());
+		}
+
+		return stats.build();
+	}
+}
@@ -23,6 +23,7 @@ package de.metas.async.processor.impl;
  */
 
 import de.metas.async.processor.IMutableQueueProcessorStatistics;
+import de.metas.async.processor.LatencyHistogram;
 import lombok.ToString;
 
 @ToString
@@ -34,6 +35,10 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 	private long countSkipped;
 	private long queueSize;
 
+	private final long[] enqueueToStartLatencyBucketCounts;
+	private long enqueueToStartLatencySumMillis;
+	private long enqueueToStartLatencyMaxMillis;
+
 	public QueueProcessorStatistics()
 	{
 		countAll = 0;
@@ -41,6 +46,10 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countErrors = 0;
 		countSkipped = 0;
 		queueSize = 0;
+
+		enqueueToStartLatencyBucketCounts = new long[LatencyHistogram.BUCKET_UPPER_BOUNDS_MILLIS.size() + 1];
+		enqueueToStartLatencySumMillis = 0;
+		enqueueToStartLatencyMaxMillis = 0;
 	}
 
 	private QueueProcessorStatistics(final QueueProcessorStatistics from)
@@ -50,6 +59,10 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countProcessed = from.countProcessed;
 		countSkipped = from.countSkipped;
 		queueSize = from.queueSize;
+
+		enqueueToStartLatencyBucketCounts = from.enqueueToStartLatencyBucketCounts.clone();
+		enqueueToStartLatencySumMillis = from.enqueueToStartLatencySumMillis;
+		enqueueToStartLatencyMaxMillis = from.enqueueToStartLatencyMaxMillis;
 	}
 
 	@Override
@@ -124,4 +137,17 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countSkipped++;
 	}
 
+	@Override
+	public LatencyHistogram getEnqueueToStartLatency()
+	{
+		return new LatencyHistogram(enqueueToStartLatencyBucketCounts, enqueueToStartLatencySumMillis, enqueueToStartLatencyMaxMillis);
+	}
+
+	public void recordEnqueueToStartLatency(final long latencyMillis)
+	{
+		enqueueToStartLatencyBucketCounts[LatencyHistogram.getBucketIndex(latencyMillis)]++;
+		enqueueToStartLatencySumMillis += latencyMillis;
+		enqueueToStartLatencyMaxMillis = Math.max(enqueueToStartLatencyMaxMillis, latencyMillis);
+	}
+
 }
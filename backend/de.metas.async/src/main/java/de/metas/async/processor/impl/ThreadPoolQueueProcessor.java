@@ -51,6 +51,7 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	private static final Logger loggerForExecutor = LogManager.getLogger(BlockingExecutorWrapper.class);
 
 	private String name;
+	private final int poolSize;
 	private final ExecutorService executor;
 	private final AtomicBoolean running;
 
@@ -62,6 +63,7 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		super(queue, logsRepository);
 
 		this.name = config.getName();
+		this.poolSize = config.getPoolSize();
 
 		//
 		// Create the tasks executor
@@ -129,6 +131,15 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		return true;
 	}
 
+	/**
+	 * Retrieve at most as many work packages as we have threads, so none of them waits too long, locked, until it's executed.
+	 */
+	@Override
+	protected int getPollBatchSize()
+	{
+		return Math.max(poolSize, 1);
+	}
+
 	@Override
 	protected void executeTask(@NonNull final WorkpackageProcessorTask task)
 	{
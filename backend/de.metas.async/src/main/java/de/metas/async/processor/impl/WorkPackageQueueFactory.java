@@ -28,19 +28,37 @@ import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
 
 import de.metas.async.api.IQueueDAO;
 import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.WorkPackageClaimStrategy;
 import de.metas.async.api.impl.WorkPackageQueue;
 import de.metas.async.model.I_C_Queue_PackageProcessor;
 import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.spi.IWorkpackageProcessor;
+import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
 
 public class WorkPackageQueueFactory implements IWorkPackageQueueFactory
 {
+	private static final Logger logger = LogManager.getLogger(WorkPackageQueueFactory.class);
+
+	/**
+	 * {@link WorkPackageClaimStrategy} to be used by all queue processors. Can be overridden per queue processor by {@code de.metas.async.QueueProcessor.<C_Queue_Processor.Name>.WorkPackageClaimStrategy}.
+	 */
+	private static final String SYSCONFIG_WorkPackageClaimStrategy = "de.metas.async.QueueProcessor.WorkPackageClaimStrategy";
+	private static final WorkPackageClaimStrategy DEFAULT_WorkPackageClaimStrategy = WorkPackageClaimStrategy.T_LOCK;
+
+	/**
+	 * If Y, the queue processors take their work packages by {@link FairWorkPackageScheduler} instead of just by priority. Can be overridden per queue processor by {@code de.metas.async.QueueProcessor.<C_Queue_Processor.Name>.FairScheduling}.
+	 */
+	private static final String SYSCONFIG_FairScheduling = "de.metas.async.QueueProcessor.FairScheduling";
+	private static final boolean DEFAULT_FairScheduling = false;
+
 	@Override
 	public IWorkPackageQueue getQueueForPackageProcessing(final I_C_Queue_Processor processor)
 	{
@@ -54,8 +72,34 @@ public class WorkPackageQueueFactory implements IWorkPackageQueueFactory
 
 		final Properties ctx = InterfaceWrapperHelper.getCtx(processor);
 		final String priorityFrom = processor.getPriority();
+		final WorkPackageClaimStrategy claimStrategy = getClaimStrategy(processor);
+		final boolean fairScheduling = isFairScheduling(processor);
+
+		return WorkPackageQueue.createForQueueProcessing(ctx, packageProcessorIds, priorityFrom, claimStrategy, fairScheduling);
+	}
+
+	private static boolean isFairScheduling(final I_C_Queue_Processor processor)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final boolean defaultFairScheduling = sysConfigBL.getBooleanValue(SYSCONFIG_FairScheduling, DEFAULT_FairScheduling);
+		return sysConfigBL.getBooleanValue("de.metas.async.QueueProcessor." + processor.getName() + ".FairScheduling", defaultFairScheduling);
+	}
+
+	private static WorkPackageClaimStrategy getClaimStrategy(final I_C_Queue_Processor processor)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final String defaultClaimStrategy = sysConfigBL.getValue(SYSCONFIG_WorkPackageClaimStrategy, DEFAULT_WorkPackageClaimStrategy.name());
+		final String claimStrategy = sysConfigBL.getValue("de.metas.async.QueueProcessor." + processor.getName() + ".WorkPackageClaimStrategy", defaultClaimStrategy);
 
-		return WorkPackageQueue.createForQueueProcessing(ctx, packageProcessorIds, priorityFrom);
+		try
+		{
+			return WorkPackageClaimStrategy.valueOf(claimStrategy.trim());
+		}
+		catch (final IllegalArgumentException e)
+		{
+			logger.warn("Invalid work package claim strategy `{}` for {}. Using {}.", claimStrategy, processor, DEFAULT_WorkPackageClaimStrategy, e);
+			return DEFAULT_WorkPackageClaimStrategy;
+		}
 	}
 
 	@Override
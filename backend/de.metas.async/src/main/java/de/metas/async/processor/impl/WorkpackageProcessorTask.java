@@ -178,6 +178,7 @@ class WorkpackageProcessorTask implements Runnable
 		{
 			final IMutable<Result> resultRef = new Mutable<>(null);
 
+			queueProcessor.notifyWorkpackageStarted(workPackage);
 			markStartProcessing(workPackage);
 
 			//
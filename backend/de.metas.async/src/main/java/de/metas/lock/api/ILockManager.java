@@ -23,6 +23,8 @@ package de.metas.lock.api;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -94,6 +96,16 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves up to {@code limit} models from query and locks them (using {@link LockOwner#NONE}).
+	 * <p>
+	 * Unlike {@link #retrieveAndLock(IQuery, Class)}, the records which are concurrently locked by somebody else are skipped, without retrying.
+	 * Depending on implementation, the records are retrieved and locked in one database round-trip.
+	 *
+	 * @return IDs of the retrieved records (already locked), in query order; empty list if there is no record available
+	 */
+	<T> List<Integer> retrieveAndLockIds(IQuery<T> query, int limit);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
@@ -22,7 +22,9 @@ package de.metas.lock.api.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -43,6 +45,7 @@ import de.metas.lock.spi.ILockDatabase;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
  * Abstract lock database which does not implement any database specific logic.
@@ -269,8 +272,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
 
 		final int maxLockRetries = 50;
-		final ILockCommand lockCommand = new LockCommand(this)
-				.setOwner(LockOwner.NONE);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
 
 		int retryCounter = 0;
 		while (retryCounter < maxLockRetries)
@@ -308,6 +310,41 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return null;
 	}
 
+	/** @return the lock command to be used by the retrieve and lock methods */
+	protected final ILockCommand newRetrieveAndLockCommand()
+	{
+		return new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+	}
+
+	/**
+	 * Generic implementation which is locking the records one by one. Implementations are encouraged to do it in one go.
+	 */
+	@Override
+	public <T> List<Integer> retrieveAndLockIds(@NonNull final IQuery<T> query, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0");
+
+		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
+
+		final List<Integer> lockedIds = new ArrayList<>();
+		for (final T model : finalQuery.list())
+		{
+			final TableRecordReference record = TableRecordReference.of(model);
+			if (lockRecord(lockCommand, record))
+			{
+				lockedIds.add(record.getRecord_ID());
+				if (lockedIds.size() >= limit)
+				{
+					break;
+				}
+			}
+		}
+
+		return lockedIds;
+	}
+
 	@Override
 	public final String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
 	{
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.ad.dao.ISqlQueryFilter;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
@@ -436,6 +437,78 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Selects the records using {@code FOR UPDATE SKIP LOCKED} and inserts their {@link I_T_Lock} records in the same statement.
+	 * So concurrent callers, also from other JVMs, are neither blocking each other nor getting the same records.
+	 */
+	@Override
+	public <T> List<Integer> retrieveAndLockIds(@NonNull final IQuery<T> query, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0");
+
+		final TypedSqlQuery<T> notLockedQuery = TypedSqlQuery.cast(retrieveNotLockedQuery(query))
+				.setLimit(QueryLimit.ofInt(limit));
+
+		final String tableName = notLockedQuery.getTableName();
+		final String keyColumnName = notLockedQuery.getKeyColumnName();
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
+
+		final List<Object> sqlParams = new ArrayList<>(notLockedQuery.getParametersEffective());
+		final String sqlSelectToLock = notLockedQuery.buildSQL(
+				"SELECT " + tableName + "." + keyColumnName, // selectClause
+				null, // fromClause
+				null, // groupByClause
+				true) // useOrderByClause
+				+ "\n FOR UPDATE SKIP LOCKED";
+
+		// toLock is produced in the query's order; we remember that order in SeqNo, because INSERT .. RETURNING does not guarantee any
+		final String sql = "WITH toLock AS (" + sqlSelectToLock + ")"
+				+ "\n, toLockOrdered AS (SELECT toLock." + keyColumnName + ", row_number() OVER () AS SeqNo FROM toLock)"
+				+ "\n, locked AS ("
+				+ "\n INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				//
+				+ "\n SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", toLockOrdered." + keyColumnName // Record_ID
+				+ ", " + toSqlParam(lockCommand.getOwner().getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				+ " FROM toLockOrdered"
+				// a concurrent caller which committed right after our statement started is not holding the row lock anymore, but its T_Lock is there
+				+ "\n ON CONFLICT DO NOTHING"
+				+ "\n RETURNING " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ")"
+				+ "\n SELECT locked." + I_T_Lock.COLUMNNAME_Record_ID
+				+ " FROM locked"
+				+ " INNER JOIN toLockOrdered ON toLockOrdered." + keyColumnName + "=locked." + I_T_Lock.COLUMNNAME_Record_ID
+				+ " ORDER BY toLockOrdered.SeqNo";
+
+		try
+		{
+			final List<Integer> lockedIds = new ArrayList<>();
+			DB.executeUpdateEx(
+					sql,
+					sqlParams.toArray(),
+					ITrx.TRXNAME_None,
+					0, // no timeout
+					rs -> lockedIds.add(rs.getInt(I_T_Lock.COLUMNNAME_Record_ID)));
+			return lockedIds;
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+	}
+
 	@Override
 	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
 	{
@@ -0,0 +1,85 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.WorkPackageClaimStrategy;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.processor.impl.StaticMockedWorkpackageProcessor;
+import de.metas.lock.api.ILockManager;
+import de.metas.util.Services;
+
+/**
+ * Validates {@link WorkPackageQueue#pollAndLock(long, int)} with {@link WorkPackageClaimStrategy#SKIP_LOCKED}.
+ */
+public class TestQueue_SkipLockedClaimStrategy extends QueueProcessorTestBase
+{
+	@Test
+	public void pollAndLock_batches()
+	{
+		final I_C_Queue_PackageProcessor packageProcessor = helper.createPackageProcessor(ctx, StaticMockedWorkpackageProcessor.class);
+		final IWorkPackageQueue queueForEnqueuing = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		final List<I_C_Queue_WorkPackage> workpackages = helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true);
+
+		final WorkPackageQueue queue = WorkPackageQueue.createForQueueProcessing(
+				ctx,
+				ImmutableList.of(packageProcessor.getC_Queue_PackageProcessor_ID()),
+				null, // priorityFrom
+				WorkPackageClaimStrategy.SKIP_LOCKED);
+
+		final List<I_C_Queue_WorkPackage> batch1 = queue.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly, 3);
+		assertThat(batch1).hasSize(3);
+
+		final List<I_C_Queue_WorkPackage> batch2 = queue.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly, 3);
+		assertThat(batch2).hasSize(2);
+
+		assertThat(queue.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly, 3)).isEmpty();
+		assertThat(queue.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly)).isNull();
+
+		final List<I_C_Queue_WorkPackage> polled = new ArrayList<>(batch1);
+		polled.addAll(batch2);
+		assertThat(polled)
+				.extracting(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID)
+				.containsExactlyInAnyOrderElementsOf(workpackages.stream().map(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID).collect(ImmutableList.toImmutableList()));
+
+		final ILockManager lockManager = Services.get(ILockManager.class);
+		for (final I_C_Queue_WorkPackage workpackage : polled)
+		{
+			assertThat(lockManager.isLocked(workpackage)).isTrue();
+			queue.unlock(workpackage);
+		}
+		helper.assertNothingLocked();
+	}
+}
@@ -0,0 +1,236 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.Env;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.WorkPackageClaimStrategy;
+import de.metas.async.model.I_C_Queue_Block;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.spi.WorkpackageProcessorAdapter;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/**
+ * Database coupled test which compares the {@link WorkPackageClaimStrategy}s of {@link WorkPackageQueue}.
+ * <p>
+ * Run {@link #main(String[])} to also get the claimed work packages/sec for each strategy, with several concurrent pollers.
+ */
+@Ignore
+// requires database connection
+public class WorkPackageQueue_ClaimStrategy_DBTest
+{
+	private static final int BENCHMARK_WORKPACKAGES = 5_000;
+	private static final int BENCHMARK_POLLERS = 8;
+	private static final int BENCHMARK_BATCH_SIZE = 10;
+
+	public static void main(final String[] args) throws Exception
+	{
+		final WorkPackageQueue_ClaimStrategy_DBTest test = new WorkPackageQueue_ClaimStrategy_DBTest();
+
+		test.setupAdempiere();
+
+		test.test_SkipLocked_NoWorkPackageClaimedTwice();
+		test.benchmark(WorkPackageClaimStrategy.T_LOCK);
+		test.benchmark(WorkPackageClaimStrategy.SKIP_LOCKED);
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.async\
+					+ File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void test_SkipLocked_NoWorkPackageClaimedTwice() throws Exception
+	{
+		final List<I_C_Queue_WorkPackage> workPackages = enqueueWorkPackages(500);
+		try
+		{
+			final Set<Integer> claimedIds = claimAll(WorkPackageClaimStrategy.SKIP_LOCKED);
+			Assert.assertEquals(workPackages.size(), claimedIds.size());
+		}
+		finally
+		{
+			markProcessed(workPackages);
+		}
+	}
+
+	private void benchmark(final WorkPackageClaimStrategy claimStrategy) throws Exception
+	{
+		System.out.println("Benchmark: " + claimStrategy + " ======================================================================");
+
+		final List<I_C_Queue_WorkPackage> workPackages = enqueueWorkPackages(BENCHMARK_WORKPACKAGES);
+		try
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final Set<Integer> claimedIds = claimAll(claimStrategy);
+			stopwatch.stop();
+
+			final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+			System.out.println("Claimed " + claimedIds.size() + " work packages using " + BENCHMARK_POLLERS + " pollers in " + stopwatch
+					+ " => " + (claimedIds.size() * 1000L / millis) + " work packages/sec");
+		}
+		finally
+		{
+			markProcessed(workPackages);
+		}
+	}
+
+	/**
+	 * Polls the queue from {@link #BENCHMARK_POLLERS} threads until it's empty.
+	 *
+	 * @return IDs of the claimed work packages
+	 */
+	private Set<Integer> claimAll(final WorkPackageClaimStrategy claimStrategy) throws Exception
+	{
+		final Properties ctx = Env.getCtx();
+		final IWorkPackageQueue queue = WorkPackageQueue.createForQueueProcessing(
+				ctx,
+				ImmutableList.of(getPackageProcessor().getC_Queue_PackageProcessor_ID()),
+				null, // priorityFrom
+				claimStrategy);
+
+		final Set<Integer> claimedIds = ConcurrentHashMap.newKeySet();
+		final ExecutorService executor = Executors.newFixedThreadPool(BENCHMARK_POLLERS);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < BENCHMARK_POLLERS; i++)
+			{
+				futures.add(executor.submit(() -> {
+					while (true)
+					{
+						final List<I_C_Queue_WorkPackage> claimed = queue.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly, BENCHMARK_BATCH_SIZE);
+						if (claimed.isEmpty())
+						{
+							return;
+						}
+						for (final I_C_Queue_WorkPackage workPackage : claimed)
+						{
+							Assert.assertTrue("Claimed twice: " + workPackage, claimedIds.add(workPackage.getC_Queue_WorkPackage_ID()));
+							queue.unlock(workPackage);
+							markProcessed(ImmutableList.of(workPackage)); // so it's not claimed again
+						}
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return claimedIds;
+	}
+
+	private I_C_Queue_PackageProcessor getPackageProcessor()
+	{
+		final String classname = NOPWorkpackageProcessor.class.getName();
+		I_C_Queue_PackageProcessor packageProcessor = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Queue_PackageProcessor.class)
+				.addEqualsFilter(I_C_Queue_PackageProcessor.COLUMNNAME_Classname, classname)
+				.create()
+				.firstOnly(I_C_Queue_PackageProcessor.class);
+		if (packageProcessor == null)
+		{
+			packageProcessor = InterfaceWrapperHelper.newInstanceOutOfTrx(I_C_Queue_PackageProcessor.class);
+			packageProcessor.setClassname(classname);
+			packageProcessor.setEntityType("U");
+			InterfaceWrapperHelper.saveRecord(packageProcessor);
+		}
+		return packageProcessor;
+	}
+
+	private List<I_C_Queue_WorkPackage> enqueueWorkPackages(final int count)
+	{
+		final I_C_Queue_PackageProcessor packageProcessor = getPackageProcessor();
+		final WorkPackageQueue queue = WorkPackageQueue.createForEnqueuing(Env.getCtx(), packageProcessor.getC_Queue_PackageProcessor_ID(), packageProcessor.getClassname());
+
+		final I_C_Queue_Block block = queue.enqueueBlock(Env.getCtx());
+		final List<I_C_Queue_WorkPackage> workPackages = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++)
+		{
+			final I_C_Queue_WorkPackage workPackage = queue.enqueueWorkPackage(block, IWorkPackageQueue.PRIORITY_AUTO);
+			queue.markReadyForProcessing(workPackage);
+			workPackages.add(workPackage);
+		}
+		return workPackages;
+	}
+
+	private static void markProcessed(final List<I_C_Queue_WorkPackage> workPackages)
+	{
+		for (final I_C_Queue_WorkPackage workPackage : workPackages)
+		{
+			workPackage.setProcessed(true);
+			InterfaceWrapperHelper.saveRecord(workPackage);
+		}
+	}
+
+	private static final class NOPWorkpackageProcessor extends WorkpackageProcessorAdapter
+	{
+		@Override
+		public Result processWorkPackage(final I_C_Queue_WorkPackage workPackage, final String localTrxName)
+		{
+			return Result.SUCCESS;
+		}
+	}
+}
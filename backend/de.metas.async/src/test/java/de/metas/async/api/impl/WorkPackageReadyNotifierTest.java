@@ -0,0 +1,111 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+class WorkPackageReadyNotifierTest
+{
+	// NOTE: the notifier is a singleton, so each test is using its own package processor IDs
+	private final WorkPackageReadyNotifier notifier = WorkPackageReadyNotifier.instance;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	void notifiedTicket_doesNotWait() throws Exception
+	{
+		final WorkPackageReadyNotifier.Ticket ticket = notifier.newTicket(ImmutableList.of(101, 102));
+		assertThat(ticket.isNotified()).isFalse();
+
+		notifier.notifyWorkPackageReady(102);
+
+		assertThat(ticket.isNotified()).isTrue();
+		assertThat(ticket.await(TimeUnit.MINUTES.toMillis(1))).isTrue();
+
+		// a ticket created after the notification is not notified
+		assertThat(notifier.newTicket(ImmutableList.of(101, 102)).isNotified()).isFalse();
+	}
+
+	@Test
+	void otherPackageProcessorNotified_timesOut() throws Exception
+	{
+		final WorkPackageReadyNotifier.Ticket ticket = notifier.newTicket(ImmutableList.of(201));
+
+		notifier.notifyWorkPackageReady(202);
+
+		assertThat(ticket.await(20)).isFalse();
+	}
+
+	@Test
+	void waitingThread_isWokenUp() throws Exception
+	{
+		final WorkPackageReadyNotifier.Ticket ticket = notifier.newTicket(ImmutableList.of(301));
+		final CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return ticket.await(TimeUnit.MINUTES.toMillis(1));
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+
+		notifier.notifyWorkPackageReady(301);
+
+		assertThat(waiter.get(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void notifyAfterCommit() throws Exception
+	{
+		final WorkPackageReadyNotifier.Ticket ticket = notifier.newTicket(ImmutableList.of(401));
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			notifier.notifyWorkPackageReadyAfterCommit(401, ITrx.TRXNAME_ThreadInherited);
+			assertThat(ticket.isNotified()).as("not notified before commit").isFalse();
+		});
+
+		assertThat(ticket.isNotified()).as("notified after commit").isTrue();
+	}
+}
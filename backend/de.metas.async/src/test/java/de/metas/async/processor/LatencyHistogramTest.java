@@ -0,0 +1,66 @@
+package de.metas.async.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class LatencyHistogramTest
+{
+	@Test
+	void getBucketIndex()
+	{
+		assertThat(LatencyHistogram.getBucketIndex(0)).isEqualTo(0);
+		assertThat(LatencyHistogram.getBucketIndex(10)).isEqualTo(0);
+		assertThat(LatencyHistogram.getBucketIndex(11)).isEqualTo(1);
+		assertThat(LatencyHistogram.getBucketIndex(60000)).isEqualTo(LatencyHistogram.BUCKET_UPPER_BOUNDS_MILLIS.size() - 1);
+		assertThat(LatencyHistogram.getBucketIndex(60001)).isEqualTo(LatencyHistogram.BUCKET_UPPER_BOUNDS_MILLIS.size());
+	}
+
+	@Test
+	void empty()
+	{
+		assertThat(LatencyHistogram.EMPTY.getCount()).isEqualTo(0);
+		assertThat(LatencyHistogram.EMPTY.getAvgMillis()).isEqualTo(0);
+		assertThat(LatencyHistogram.EMPTY.getPercentileMillis(0.95)).isEqualTo(0);
+	}
+
+	@Test
+	void percentiles()
+	{
+		final long[] bucketCounts = new long[LatencyHistogram.BUCKET_UPPER_BOUNDS_MILLIS.size() + 1];
+		bucketCounts[LatencyHistogram.getBucketIndex(5)] = 90; // 90 x 5ms
+		bucketCounts[LatencyHistogram.getBucketIndex(800)] = 9; // 9 x 800ms
+		bucketCounts[LatencyHistogram.getBucketIndex(90000)] = 1; // 1 x 90s
+
+		final LatencyHistogram histogram = new LatencyHistogram(bucketCounts, 90 * 5 + 9 * 800 + 90000, 90000);
+
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getAvgMillis()).isEqualTo((90 * 5 + 9 * 800 + 90000) / 100);
+		assertThat(histogram.getPercentileMillis(0.5)).isEqualTo(10);
+		assertThat(histogram.getPercentileMillis(0.95)).isEqualTo(1000);
+		assertThat(histogram.getPercentileMillis(1)).isEqualTo(90000);
+		assertThat(histogram.toHistogramString()).startsWith("<=10ms: 90, <=50ms: 0").endsWith(">60000ms: 1");
+	}
+}
@@ -0,0 +1,265 @@
+package de.metas.async.processor.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.AsyncBatchId;
+import de.metas.async.api.WorkPackageBacklog;
+import de.metas.async.processor.WorkPackageSchedulerStats;
+import de.metas.async.processor.impl.FairWorkPackageScheduler.Candidate;
+import de.metas.async.processor.impl.FairWorkPackageScheduler.ClassKey;
+import de.metas.common.util.time.SystemTime;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class FairWorkPackageSchedulerTest
+{
+	private Instant now;
+	private int nextWorkPackageId = 1;
+
+	@BeforeEach
+	void init()
+	{
+		SystemTime.setFixedTimeSource("2020-11-23T10:00:00+01:00[Europe/Berlin]");
+		now = SystemTime.asInstant();
+	}
+
+	@AfterEach
+	void resetTimeSource()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private static FairSchedulingConfig.FairSchedulingConfigBuilder config()
+	{
+		return FairSchedulingConfig.builder()
+				.maxWaitMillis(Duration.ofMinutes(5).toMillis())
+				.backlogRefreshMillis(Duration.ofHours(1).toMillis());
+	}
+
+	private WorkPackageBacklog backlog(final int packageProcessorId, final int asyncBatchId, final int queueSize)
+	{
+		return WorkPackageBacklog.builder()
+				.packageProcessorId(packageProcessorId)
+				.asyncBatchId(AsyncBatchId.ofRepoIdOrNull(asyncBatchId))
+				.queueSize(queueSize)
+				.bestPriority("5")
+				.waitingSince(now)
+				.build();
+	}
+
+	/**
+	 * Dispatches from the first candidate and releases the work package right away.
+	 */
+	private ClassKey dispatchNext(final FairWorkPackageScheduler scheduler, final Supplier<List<WorkPackageBacklog>> backlogs)
+	{
+		final List<Candidate> candidates = scheduler.getCandidates(backlogs);
+		assertThat(candidates).isNotEmpty();
+
+		final int workPackageId = nextWorkPackageId++;
+		scheduler.onDispatched(candidates.get(0), workPackageId);
+		scheduler.onReleased(workPackageId);
+		return candidates.get(0).getClassKey();
+	}
+
+	@Test
+	void weights()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config()
+				.weight(1, 3)
+				.weight(2, 1)
+				.build());
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, -1, 1000), backlog(2, -1, 1000));
+
+		final Map<Integer, Integer> countsByPackageProcessorId = new HashMap<>();
+		for (int i = 0; i < 40; i++)
+		{
+			final ClassKey classKey = dispatchNext(scheduler, () -> backlogs);
+			countsByPackageProcessorId.merge(classKey.getPackageProcessorId(), 1, Integer::sum);
+		}
+
+		assertThat(countsByPackageProcessorId).containsEntry(1, 30).containsEntry(2, 10);
+		assertThat(scheduler.getStats().getCountDispatched()).isEqualTo(40);
+	}
+
+	@Test
+	void maxConcurrency()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config()
+				.weight(1, 10)
+				.maxConcurrency(1, 2)
+				.build());
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, -1, 1000), backlog(2, -1, 1000));
+
+		// dispatch from package processor 1 and don't release
+		final List<Integer> inFlightWorkPackageIds = new ArrayList<>();
+		while (inFlightWorkPackageIds.size() < 2)
+		{
+			final Candidate candidate = scheduler.getCandidates(() -> backlogs)
+					.stream()
+					.filter(c -> c.getClassKey().getPackageProcessorId() == 1)
+					.findFirst()
+					.get();
+			final int workPackageId = nextWorkPackageId++;
+			scheduler.onDispatched(candidate, workPackageId);
+			inFlightWorkPackageIds.add(workPackageId);
+		}
+
+		// package processor 1 is at its maximum
+		assertThat(scheduler.getCandidates(() -> backlogs))
+				.extracting(candidate -> candidate.getClassKey().getPackageProcessorId())
+				.containsExactly(2);
+		assertThat(scheduler.getStats().getCountDeferredByConcurrencyCap()).isEqualTo(1);
+
+		// release one => package processor 1 can be dispatched again
+		assertThat(scheduler.onReleased(inFlightWorkPackageIds.get(0))).isEqualTo(1);
+		assertThat(scheduler.getCandidates(() -> backlogs))
+				.extracting(candidate -> candidate.getClassKey().getPackageProcessorId())
+				.containsExactly(2, 1);
+
+		// releasing a package which is not at its maximum has nothing to report
+		assertThat(scheduler.onReleased(inFlightWorkPackageIds.get(1))).isEqualTo(-1);
+		assertThat(scheduler.onReleased(inFlightWorkPackageIds.get(1))).isEqualTo(-1);
+	}
+
+	@Test
+	void slaEscalation()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config()
+				.weight(1, 100)
+				.build());
+		final WorkPackageBacklog starving = backlog(2, -1, 1).toBuilder()
+				.waitingSince(now.minus(Duration.ofMinutes(6)))
+				.bestPriority("9")
+				.build();
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, -1, 1000), starving);
+
+		final Candidate first = scheduler.getCandidates(() -> backlogs).get(0);
+		assertThat(first.getClassKey().getPackageProcessorId()).isEqualTo(2);
+		assertThat(first.isSlaEscalation()).isTrue();
+
+		scheduler.onDispatched(first, 1);
+
+		final WorkPackageSchedulerStats stats = scheduler.getStats();
+		assertThat(stats.getCountSlaEscalations()).isEqualTo(1);
+		assertThat(stats.getClasses())
+				.filteredOn(classStats -> classStats.getPackageProcessorId() == 2)
+				.extracting(WorkPackageSchedulerStats.ClassStats::getCountSlaEscalations)
+				.containsExactly(1L);
+	}
+
+	@Test
+	void slaEscalation_notRepeatedUntilRefresh()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config()
+				.weight(1, 100)
+				.build());
+		final WorkPackageBacklog starving = backlog(2, -1, 5).toBuilder()
+				.waitingSince(now.minus(Duration.ofMinutes(6)))
+				.build();
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, -1, 1000), starving);
+
+		final Candidate first = scheduler.getCandidates(() -> backlogs).get(0);
+		assertThat(first.isSlaEscalation()).isTrue();
+		scheduler.onDispatched(first, 1);
+
+		// the remaining work packages of package processor 2 are getting their fair share again
+		assertThat(scheduler.getCandidates(() -> backlogs)).noneMatch(Candidate::isSlaEscalation);
+		assertThat(scheduler.getStats().getCountSlaEscalations()).isEqualTo(1);
+	}
+
+	@Test
+	void slaEscalation_cappedPerRefresh()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config()
+				.weight(1, 100)
+				.maxSlaEscalationsPerRefresh(2)
+				.build());
+		final Instant longAgo = now.minus(Duration.ofMinutes(6));
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(
+				backlog(1, -1, 1000),
+				backlog(2, -1, 10).toBuilder().waitingSince(longAgo).build(),
+				backlog(3, -1, 10).toBuilder().waitingSince(longAgo).build(),
+				backlog(4, -1, 10).toBuilder().waitingSince(longAgo).build());
+
+		final List<Candidate> escalated = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			final Candidate candidate = scheduler.getCandidates(() -> backlogs).get(0);
+			scheduler.onDispatched(candidate, nextWorkPackageId++);
+			if (candidate.isSlaEscalation())
+			{
+				escalated.add(candidate);
+			}
+		}
+
+		assertThat(escalated).hasSize(2);
+		assertThat(scheduler.getStats().getCountSlaEscalations()).isEqualTo(2);
+	}
+
+	@Test
+	void asyncBatchesShareTheirPackageProcessor()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config().build());
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, 10, 1000), backlog(1, -1, 3));
+
+		final List<AsyncBatchId> asyncBatchIds = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			asyncBatchIds.add(dispatchNext(scheduler, () -> backlogs).getAsyncBatchId());
+		}
+
+		// the 3 packages without async batch are not waiting until the big batch is done
+		assertThat(asyncBatchIds.subList(0, 6)).containsOnly(AsyncBatchId.ofRepoId(10), null);
+		assertThat(asyncBatchIds.subList(0, 6)).filteredOn(asyncBatchId -> asyncBatchId == null).hasSize(3);
+		assertThat(asyncBatchIds.subList(6, 8)).containsOnly(AsyncBatchId.ofRepoId(10));
+	}
+
+	@Test
+	void emptyCandidateIsSkippedUntilRefresh()
+	{
+		final FairWorkPackageScheduler scheduler = new FairWorkPackageScheduler(() -> config().build());
+		final ImmutableList<WorkPackageBacklog> backlogs = ImmutableList.of(backlog(1, -1, 1000), backlog(2, -1, 1000));
+
+		final Candidate first = scheduler.getCandidates(() -> backlogs).get(0);
+		scheduler.onEmpty(first);
+
+		assertThat(scheduler.getCandidates(() -> backlogs))
+				.extracting(Candidate::getClassKey)
+				.doesNotContain(first.getClassKey())
+				.hasSize(1);
+	}
+}
@@ -104,6 +104,11 @@ public class MockedQueueProcessor implements IQueueProcessor
 		// nothing
 	}
 
+	@Override
+	public void notifyWorkpackageStarted(final I_C_Queue_WorkPackage workPackage)
+	{
+	}
+
 	@Override
 	public void notifyWorkpackageProcessed(final I_C_Queue_WorkPackage workPackage, final IWorkpackageProcessor workPackageProcessor)
 	{
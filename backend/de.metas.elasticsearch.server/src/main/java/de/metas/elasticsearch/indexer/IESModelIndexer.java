@@ -63,4 +63,11 @@ public interface IESModelIndexer
 	IESIndexerResult removeFromIndexByIds(Collection<String> ids);
 
 	Set<String> getFullTextSearchFieldNames();
+
+	/**
+	 * Searches given text in {@link #getFullTextSearchFieldNames()}.
+	 *
+	 * @return IDs of the matching documents, best matches first
+	 */
+	List<String> searchIds(String text, int maxResults);
 }
@@ -19,10 +19,14 @@ import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.IndicesAdminClient;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.slf4j.Logger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -526,6 +530,26 @@ public final class ESModelIndexer implements IESModelIndexer
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
+	@Override
+	public List<String> searchIds(@NonNull final String text, final int maxResults)
+	{
+		final Set<String> fieldNames = getFullTextSearchFieldNames();
+		final QueryBuilder query = QueryBuilders.multiMatchQuery(text, fieldNames.toArray(new String[fieldNames.size()]));
+		logger.trace("ES query: {}", query);
+
+		final SearchResponse searchResponse = elasticsearchClient.prepareSearch(getIndexName())
+				.setQuery(query)
+				.setSize(maxResults)
+				.setExplain(logger.isTraceEnabled())
+				.get();
+		logger.trace("ES response: {}", searchResponse);
+
+		return Stream.of(searchResponse.getHits().getHits())
+				.map(SearchHit::getId)
+				.distinct()
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private final String toFieldNameFQ(final String fieldName)
 	{
 		final String parentAttributeName = getParentAttributeName();
@@ -72,6 +72,12 @@ final class ESModelIndexerFactory
 
 	public IESModelIndexer create()
 	{
+		if (getProfile() == ESModelIndexerProfile.FULL_TEXT_SEARCH
+				&& esModelIndexingService.isEmbeddedFullTextSearch())
+		{
+			return createLuceneModelIndexer();
+		}
+
 		final ImmutableList<ESModelIndexer> includedModelIndexers = includedModelsConfigs.stream()
 				.map(this::createIncludedModelIndexer)
 				.collect(ImmutableList.toImmutableList());
@@ -96,6 +102,27 @@ final class ESModelIndexerFactory
 				.build();
 	}
 
+	private LuceneModelIndexer createLuceneModelIndexer()
+	{
+		final ImmutableList<LuceneModelIndexer.IncludedModel> includedModels = includedModelsConfigs.stream()
+				.map(includedModelConfig -> LuceneModelIndexer.IncludedModel.builder()
+						.modelTableName(includedModelConfig.getChildTableName())
+						.modelDenormalizer(createModelDenormalizer(includedModelConfig.getChildTableName()))
+						.parentAttributeName(includedModelConfig.getAttributeName())
+						.parentLinkColumnName(includedModelConfig.getChildLinkColumnName())
+						.build())
+				.collect(ImmutableList.toImmutableList());
+
+		return LuceneModelIndexer.builder()
+				.id(id)
+				.modelTableName(modelTableName)
+				.modelDenormalizer(createModelDenormalizer(modelTableName))
+				.includedModels(includedModels)
+				.triggers(triggers)
+				.index(esModelIndexingService.getEmbeddedFullTextIndex(id.getIndexName()))
+				.build();
+	}
+
 	private ESModelIndexerBuilder newModelIndexerBuilder(final String modelTableName)
 	{
 		return ESModelIndexer.builder()
@@ -1,5 +1,6 @@
 package de.metas.elasticsearch.indexer.impl;
 
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,8 +56,13 @@ public class ESModelIndexersRegistry implements IESModelIndexersRegistry
 
 	private static final String SYSCONFIG_AUTOINDEX_MODELS = "de.metas.elasticsearch.indexer.AutoIndexModels";
 
+	/** If enabled, the full text search indexes are maintained in-process (see {@link LuceneModelIndexer}) instead of Elasticsearch */
+	private static final String SYSCONFIG_FullTextSearch_Embedded = "de.metas.elasticsearch.indexer.FullTextSearch.Embedded";
+	private static final String SYSCONFIG_FullTextSearch_Embedded_Directory = "de.metas.elasticsearch.indexer.FullTextSearch.Embedded.Directory";
+
 	private final ConcurrentHashMap<ESModelIndexerId, IESModelIndexer> indexersById = new ConcurrentHashMap<>();
 	private final ConcurrentHashMap<String, ImmutableList<IESModelIndexer>> indexersByModelTableName = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, LuceneFullTextIndex> embeddedFullTextIndexesByIndexName = new ConcurrentHashMap<>();
 
 	@Autowired
 	private Client elasticsearchClient;
@@ -81,6 +87,26 @@ public class ESModelIndexersRegistry implements IESModelIndexersRegistry
 		return jsonObjectMapper;
 	}
 
+	/* package */boolean isEmbeddedFullTextSearch()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_FullTextSearch_Embedded, false);
+	}
+
+	/* package */LuceneFullTextIndex getEmbeddedFullTextIndex(@NonNull final String indexName)
+	{
+		return embeddedFullTextIndexesByIndexName.computeIfAbsent(indexName, this::createEmbeddedFullTextIndex);
+	}
+
+	private LuceneFullTextIndex createEmbeddedFullTextIndex(@NonNull final String indexName)
+	{
+		final String defaultDirectory = Paths.get(System.getProperty("user.home"), "metasfresh-fts").toString();
+		final String directory = Services.get(ISysConfigBL.class).getValue(SYSCONFIG_FullTextSearch_Embedded_Directory, defaultDirectory);
+
+		final LuceneFullTextIndex index = LuceneFullTextIndex.ofPath(Paths.get(directory, indexName));
+		logger.info("Using embedded full text index: {}", index);
+		return index;
+	}
+
 	@Override
 	public Collection<IESModelIndexer> getModelIndexersByTableName(final String modelTableName)
 	{
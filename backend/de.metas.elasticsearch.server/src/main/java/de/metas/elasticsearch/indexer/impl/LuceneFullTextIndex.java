@@ -0,0 +1,303 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.MutableInt;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * File backed, in-process full text index.
+ * <p>
+ * The index writer is opened only while writing, so more processes (e.g. app server which runs the indexing workpackages and webui which searches) can share the same index directory.
+ */
+/* package */ final class LuceneFullTextIndex
+{
+	public static LuceneFullTextIndex ofPath(@NonNull final Path path)
+	{
+		try
+		{
+			return new LuceneFullTextIndex(FSDirectory.open(path));
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed opening full text index directory: " + path, ex);
+		}
+	}
+
+	public static LuceneFullTextIndex ofDirectory(@NonNull final Directory directory)
+	{
+		return new LuceneFullTextIndex(directory);
+	}
+
+	private static final Logger logger = LogManager.getLogger(LuceneFullTextIndex.class);
+
+	private static final String FIELDNAME_ID = "_id";
+
+	private final Directory directory;
+	private final Analyzer analyzer = new StandardAnalyzer();
+
+	private SearcherManager _searcherManager; // lazy
+
+	private LuceneFullTextIndex(@NonNull final Directory directory)
+	{
+		this.directory = directory;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.addValue(directory)
+				.toString();
+	}
+
+	public boolean exists()
+	{
+		try
+		{
+			return DirectoryReader.indexExists(directory);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed checking if index exists: " + this, ex);
+		}
+	}
+
+	/**
+	 * Adds given documents to index. Documents which already exist (i.e. same ID) are replaced.
+	 *
+	 * @return how many documents were added or replaced
+	 */
+	public int addOrUpdate(@NonNull final Stream<FullTextDocument> documents)
+	{
+		final MutableInt count = new MutableInt(0);
+		write(writer -> documents.forEach(document -> {
+			try
+			{
+				writer.updateDocument(new Term(FIELDNAME_ID, document.getId()), toLuceneDocument(document));
+				count.incrementAndGet();
+			}
+			catch (final IOException ex)
+			{
+				throw new AdempiereException("Failed indexing " + document, ex);
+			}
+		}));
+
+		return count.getValue();
+	}
+
+	public int removeByIds(@NonNull final Collection<String> ids)
+	{
+		if (ids.isEmpty())
+		{
+			return 0;
+		}
+
+		final Term[] terms = ids.stream()
+				.map(id -> new Term(FIELDNAME_ID, id))
+				.toArray(Term[]::new);
+		write(writer -> writer.deleteDocuments(terms));
+
+		return terms.length;
+	}
+
+	public void deleteAll()
+	{
+		write(IndexWriter::deleteAll);
+	}
+
+	/**
+	 * @return IDs of the documents matching given text in any of given fields, best matches first
+	 */
+	public ImmutableList<String> search(
+			@NonNull final String text,
+			@NonNull final Set<String> fieldNames,
+			final int maxResults)
+	{
+		Check.assumeGreaterThanZero(maxResults, "maxResults");
+		if (fieldNames.isEmpty() || Check.isEmpty(text, true))
+		{
+			return ImmutableList.of();
+		}
+
+		final SearcherManager searcherManager = getSearcherManagerOrNull();
+		if (searcherManager == null)
+		{
+			return ImmutableList.of(); // nothing indexed yet
+		}
+
+		IndexSearcher searcher = null;
+		try
+		{
+			searcherManager.maybeRefresh(); // pick up the changes done meanwhile, maybe by another process
+			searcher = searcherManager.acquire();
+
+			final Query query = createQuery(text, fieldNames);
+			final TopDocs topDocs = searcher.search(query, maxResults);
+			logger.trace("Query {} matched {} documents", query, topDocs.totalHits);
+
+			final ImmutableList.Builder<String> ids = ImmutableList.builder();
+			for (final ScoreDoc scoreDoc : topDocs.scoreDocs)
+			{
+				ids.add(searcher.doc(scoreDoc.doc).get(FIELDNAME_ID));
+			}
+			return ids.build();
+		}
+		catch (final IOException | ParseException ex)
+		{
+			throw new AdempiereException("Failed searching '" + text + "' in " + this, ex);
+		}
+		finally
+		{
+			releaseSearcher(searcherManager, searcher);
+		}
+	}
+
+	private Query createQuery(final String text, final Set<String> fieldNames) throws ParseException
+	{
+		final MultiFieldQueryParser queryParser = new MultiFieldQueryParser(fieldNames.toArray(new String[fieldNames.size()]), analyzer);
+		return queryParser.parse(QueryParser.escape(text));
+	}
+
+	private synchronized SearcherManager getSearcherManagerOrNull()
+	{
+		if (_searcherManager == null)
+		{
+			if (!exists())
+			{
+				return null;
+			}
+
+			try
+			{
+				_searcherManager = new SearcherManager(directory, null);
+			}
+			catch (final IOException ex)
+			{
+				throw new AdempiereException("Failed opening index for reading: " + this, ex);
+			}
+		}
+		return _searcherManager;
+	}
+
+	private static void releaseSearcher(final SearcherManager searcherManager, final IndexSearcher searcher)
+	{
+		if (searcher == null)
+		{
+			return;
+		}
+
+		try
+		{
+			searcherManager.release(searcher);
+		}
+		catch (final IOException ex)
+		{
+			logger.warn("Failed releasing {}. Ignored.", searcher, ex);
+		}
+	}
+
+	@FunctionalInterface
+	private interface WriteOperation
+	{
+		void execute(IndexWriter writer) throws IOException;
+	}
+
+	private synchronized void write(final WriteOperation operation)
+	{
+		final IndexWriterConfig config = new IndexWriterConfig(analyzer)
+				.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+
+		try (final IndexWriter writer = new IndexWriter(directory, config))
+		{
+			operation.execute(writer);
+			writer.commit();
+		}
+		catch (final IOException ex)
+		{
+			// NOTE: LockObtainFailedException is also thrown here if another process is writing right now
+			throw new AdempiereException("Failed writing to " + this, ex);
+		}
+	}
+
+	private static Document toLuceneDocument(final FullTextDocument document)
+	{
+		final Document luceneDocument = new Document();
+		luceneDocument.add(new StringField(FIELDNAME_ID, document.getId(), Field.Store.YES));
+
+		for (final Map.Entry<String, String> fieldNameAndText : document.getTexts().entries())
+		{
+			luceneDocument.add(new TextField(fieldNameAndText.getKey(), fieldNameAndText.getValue(), Field.Store.NO));
+		}
+
+		return luceneDocument;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class FullTextDocument
+	{
+		@NonNull
+		String id;
+
+		/** Texts to be indexed, by field name. A field might have more texts (e.g. from included models). */
+		@NonNull
+		ImmutableListMultimap<String, String> texts;
+	}
+}
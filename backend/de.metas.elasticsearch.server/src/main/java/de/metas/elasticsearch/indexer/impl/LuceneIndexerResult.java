@@ -0,0 +1,77 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import com.google.common.base.MoreObjects;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Result of {@link LuceneModelIndexer} operations. Failures are not collected but thrown right away.
+ */
+@Value(staticConstructor = "of")
+/* package */ class LuceneIndexerResult implements IESIndexerResult
+{
+	int totalCount;
+	long durationInMillis;
+
+	@Override
+	public String getSummary()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("TotalCount", getTotalCount())
+				.add("Duration", getDurationInMillis() + "ms")
+				.toString();
+	}
+
+	@Override
+	public int getOKCount()
+	{
+		return getTotalCount();
+	}
+
+	@Override
+	public int getFailuresCount()
+	{
+		return 0;
+	}
+
+	@Override
+	public boolean hasFailures()
+	{
+		return false;
+	}
+
+	@Override
+	public String getFailureMessage()
+	{
+		return null;
+	}
+
+	@Override
+	public void throwExceptionIfAnyFailure()
+	{
+		// nothing
+	}
+}
@@ -0,0 +1,315 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.elasticsearch.config.ESModelIndexerId;
+import de.metas.elasticsearch.config.ESModelIndexerProfile;
+import de.metas.elasticsearch.denormalizers.IESModelDenormalizer;
+import de.metas.elasticsearch.indexer.ESModelIndexerDataSource;
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import de.metas.elasticsearch.indexer.IESModelIndexer;
+import de.metas.elasticsearch.indexer.impl.LuceneFullTextIndex.FullTextDocument;
+import de.metas.elasticsearch.trigger.IESModelIndexerTrigger;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Full text search model indexer which maintains an in-process {@link LuceneFullTextIndex} instead of an Elasticsearch index.
+ * <p>
+ * Same as {@link ESModelIndexer}, the models are denormalized using {@link IESModelDenormalizer}s,
+ * but only the full text search fields are indexed.
+ */
+public final class LuceneModelIndexer implements IESModelIndexer
+{
+	// services
+	private static final transient Logger logger = LogManager.getLogger(LuceneModelIndexer.class);
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	@Getter
+	private final ESModelIndexerId id;
+
+	@Getter
+	private final String modelTableName;
+	private final IESModelDenormalizer modelDenormalizer;
+
+	@Getter
+	private final ImmutableList<IESModelIndexerTrigger> triggers;
+
+	private final ImmutableList<IncludedModel> includedModels;
+
+	private final LuceneFullTextIndex index;
+
+	@Builder
+	private LuceneModelIndexer(
+			@NonNull final ESModelIndexerId id,
+			@NonNull final String modelTableName,
+			@NonNull final IESModelDenormalizer modelDenormalizer,
+			@NonNull @Singular final ImmutableList<IncludedModel> includedModels,
+			@NonNull @Singular final ImmutableList<IESModelIndexerTrigger> triggers,
+			@NonNull final LuceneFullTextIndex index)
+	{
+		Check.assumeEquals(id.getProfile(), ESModelIndexerProfile.FULL_TEXT_SEARCH, "Only full text search profile is supported: {}", id);
+
+		this.id = id;
+		this.modelTableName = modelTableName;
+		this.modelDenormalizer = modelDenormalizer;
+		this.includedModels = includedModels;
+		this.triggers = triggers;
+		this.index = index;
+	}
+
+	@Override
+	public String toString()
+	{
+		// NOTE: keep it short
+		return MoreObjects.toStringHelper(this)
+				.add("id", id)
+				.add("modelTableName", modelTableName)
+				.add("index", index)
+				.toString();
+	}
+
+	@Override
+	public String getIndexName()
+	{
+		return getId().getIndexName();
+	}
+
+	@Override
+	public String getIndexType()
+	{
+		return getId().getIndexType();
+	}
+
+	@Override
+	public ESModelIndexerProfile getProfile()
+	{
+		return getId().getProfile();
+	}
+
+	@Override
+	public boolean createUpdateIndex()
+	{
+		if (index.exists())
+		{
+			logger.debug("Skip creating index because it already exists: {}", index);
+			return false;
+		}
+
+		index.deleteAll(); // creates an empty index
+		return true;
+	}
+
+	@Override
+	public void deleteIndex()
+	{
+		index.deleteAll();
+	}
+
+	@Override
+	public IESIndexerResult addToIndex(@NonNull final ESModelIndexerDataSource dataSource)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			final Stream<FullTextDocument> documents = IteratorUtils.stream(dataSource.getModelsToIndex())
+					.map(this::toFullTextDocumentOrNull)
+					.filter(Objects::nonNull);
+
+			final int count = index.addOrUpdate(documents);
+			if (count <= 0)
+			{
+				return IESIndexerResult.NULL;
+			}
+
+			final IESIndexerResult result = LuceneIndexerResult.of(count, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+			logger.debug("Added {}", result);
+			return result;
+		}
+		catch (final AdempiereException ex)
+		{
+			throw ex;
+		}
+		catch (final Exception ex)
+		{
+			throw new AdempiereException("Failed indexing models because: " + ex.getLocalizedMessage()
+					+ "\n Indexer: " + this, ex);
+		}
+	}
+
+	@Override
+	public IESIndexerResult removeFromIndexByIds(@NonNull final Collection<String> ids)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final int count = index.removeByIds(ids);
+
+		final IESIndexerResult result = LuceneIndexerResult.of(count, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		logger.debug("Deleted {}", result);
+		return result;
+	}
+
+	@Override
+	public Set<String> getFullTextSearchFieldNames()
+	{
+		final Stream<String> thisLevelfieldNames = modelDenormalizer.getFullTextSearchFieldNames().stream();
+
+		final Stream<String> includedFieldNames = includedModels.stream()
+				.flatMap(includedModel -> includedModel.getFullTextSearchFieldNames().stream());
+
+		return Stream.concat(thisLevelfieldNames, includedFieldNames)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	@Override
+	public List<String> searchIds(@NonNull final String text, final int maxResults)
+	{
+		return index.search(text, getFullTextSearchFieldNames(), maxResults);
+	}
+
+	@Nullable
+	private FullTextDocument toFullTextDocumentOrNull(final Object model)
+	{
+		final String documentId = modelDenormalizer.extractId(model);
+		if (documentId == null)
+		{
+			logger.warn("Skip indexing {} because it has no ID", model);
+			return null;
+		}
+
+		final ImmutableListMultimap.Builder<String, String> texts = ImmutableListMultimap.builder();
+		collectFullTextSearchTexts(texts, null, modelDenormalizer, model);
+
+		final int modelId = InterfaceWrapperHelper.getId(model);
+		for (final IncludedModel includedModel : includedModels)
+		{
+			queryBL.createQueryBuilder(includedModel.getModelTableName())
+					.addOnlyActiveRecordsFilter()
+					.addEqualsFilter(includedModel.getParentLinkColumnName(), modelId)
+					.create()
+					.stream()
+					.forEach(childModel -> collectFullTextSearchTexts(texts, includedModel.getParentAttributeName(), includedModel.getModelDenormalizer(), childModel));
+		}
+
+		return FullTextDocument.of(documentId, texts.build());
+	}
+
+	private static void collectFullTextSearchTexts(
+			@NonNull final ImmutableListMultimap.Builder<String, String> texts,
+			@Nullable final String parentAttributeName,
+			@NonNull final IESModelDenormalizer modelDenormalizer,
+			@NonNull final Object model)
+	{
+		final Set<String> fullTextSearchFieldNames = modelDenormalizer.getFullTextSearchFieldNames();
+		final Map<String, Object> denormalizedModel = modelDenormalizer.denormalize(model);
+		for (final String fieldName : fullTextSearchFieldNames)
+		{
+			final Object value = denormalizedModel.get(fieldName);
+			final String fieldNameFQ = toFieldNameFQ(parentAttributeName, fieldName);
+			collectTexts(texts, fieldNameFQ, value);
+		}
+	}
+
+	private static void collectTexts(
+			@NonNull final ImmutableListMultimap.Builder<String, String> texts,
+			@NonNull final String fieldName,
+			@Nullable final Object value)
+	{
+		if (value == null)
+		{
+			return;
+		}
+		else if (value instanceof Map)
+		{
+			// e.g. denormalized lookup values
+			((Map<?, ?>)value).values().forEach(item -> collectTexts(texts, fieldName, item));
+		}
+		else if (value instanceof Collection)
+		{
+			((Collection<?>)value).forEach(item -> collectTexts(texts, fieldName, item));
+		}
+		else
+		{
+			final String text = value.toString();
+			if (!Check.isEmpty(text, true))
+			{
+				texts.put(fieldName, text);
+			}
+		}
+	}
+
+	private static String toFieldNameFQ(@Nullable final String parentAttributeName, @NonNull final String fieldName)
+	{
+		return parentAttributeName != null ? parentAttributeName + "." + fieldName : fieldName;
+	}
+
+	@Value
+	@Builder
+	public static class IncludedModel
+	{
+		@NonNull
+		String modelTableName;
+		@NonNull
+		IESModelDenormalizer modelDenormalizer;
+		@NonNull
+		String parentAttributeName;
+		@NonNull
+		String parentLinkColumnName;
+
+		public Set<String> getFullTextSearchFieldNames()
+		{
+			return modelDenormalizer.getFullTextSearchFieldNames()
+					.stream()
+					.map(fieldName -> toFieldNameFQ(parentAttributeName, fieldName))
+					.collect(ImmutableSet.toImmutableSet());
+		}
+	}
+}
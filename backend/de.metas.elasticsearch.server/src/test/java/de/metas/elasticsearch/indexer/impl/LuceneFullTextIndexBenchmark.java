@@ -0,0 +1,172 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.elasticsearch.indexer.impl.LuceneFullTextIndex.FullTextDocument;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks {@link LuceneFullTextIndex} with {@value #BENCHMARK_DOCUMENTS} synthetic business partner like documents: indexing, searching, updating and removing.
+ * No database is needed.
+ * <p>
+ * By default the index is kept in a {@link RAMDirectory} (run it with about 2GB heap); when started via {@link #main(String[])} with a directory path argument, that directory is used instead.
+ */
+@Ignore
+// benchmark; run it manually
+public class LuceneFullTextIndexBenchmark
+{
+	private static final ImmutableSet<String> FIELDNAMES = ImmutableSet.of("Name", "Locations.City");
+
+	private static final String[] NAME_WORDS = {
+			"Muster", "Test", "Global", "Nord", "Sued", "Alpen", "Rhein", "Berg", "Stadt", "Land",
+			"Bau", "Handel", "Logistik", "Technik", "Service", "Agrar", "Holz", "Metall", "Fisch", "Obst" };
+	private static final String[] NAME_SUFFIXES = { "AG", "GmbH", "KG", "eG", "GmbH & Co. KG", "Ltd", "SA" };
+	private static final String[] CITIES = {
+			"Berlin", "Bonn", "Hamburg", "Muenchen", "Koeln", "Frankfurt", "Stuttgart", "Dresden", "Leipzig", "Bremen",
+			"Zuerich", "Basel", "Bern", "Wien", "Graz", "Paris", "Lyon", "Amsterdam", "Rotterdam", "Bruessel" };
+
+	private static final int BENCHMARK_DOCUMENTS = 1_000_000;
+	private static final int BENCHMARK_SEARCHES = 10_000;
+	private static final int BENCHMARK_UPDATES = 10_000;
+	private static final int BENCHMARK_REMOVES = 10_000;
+
+	private final LuceneFullTextIndex index;
+
+	public LuceneFullTextIndexBenchmark()
+	{
+		this(LuceneFullTextIndex.ofDirectory(new RAMDirectory()));
+	}
+
+	private LuceneFullTextIndexBenchmark(final LuceneFullTextIndex index)
+	{
+		this.index = index;
+	}
+
+	public static void main(final String[] args)
+	{
+		final LuceneFullTextIndexBenchmark benchmark = args.length > 0
+				? new LuceneFullTextIndexBenchmark(LuceneFullTextIndex.ofPath(Paths.get(args[0])))
+				: new LuceneFullTextIndexBenchmark();
+
+		benchmark.benchmark(); // warm up
+		benchmark.benchmark();
+	}
+
+	@Test
+	public void benchmark()
+	{
+		System.out.println("Benchmark: index=" + index + ", documents=" + BENCHMARK_DOCUMENTS + ", searches=" + BENCHMARK_SEARCHES
+				+ " ======================================================================");
+		index.deleteAll();
+
+		final Random random = new Random(4711);
+
+		final Stopwatch addStopwatch = Stopwatch.createStarted();
+		final int added = index.addOrUpdate(IntStream.range(0, BENCHMARK_DOCUMENTS).mapToObj(id -> randomDocument(id, random)));
+		addStopwatch.stop();
+		assertEquals(BENCHMARK_DOCUMENTS, added);
+		printThroughput("Indexed " + added + " documents", added, addStopwatch);
+
+		final Stopwatch searchStopwatch = Stopwatch.createStarted();
+		long hits = 0;
+		for (int i = 0; i < BENCHMARK_SEARCHES; i++)
+		{
+			hits += index.search(randomSearchText(random), FIELDNAMES, 10).size();
+		}
+		searchStopwatch.stop();
+		printThroughput("Searched " + BENCHMARK_SEARCHES + " texts (" + hits + " hits)", BENCHMARK_SEARCHES, searchStopwatch);
+
+		final Stopwatch updateStopwatch = Stopwatch.createStarted();
+		for (int i = 0; i < BENCHMARK_UPDATES; i++)
+		{
+			// one document per call, like when a single changed record is indexed
+			index.addOrUpdate(IntStream.of(random.nextInt(BENCHMARK_DOCUMENTS)).mapToObj(id -> randomDocument(id, random)));
+		}
+		updateStopwatch.stop();
+		printThroughput("Updated " + BENCHMARK_UPDATES + " documents, one by one", BENCHMARK_UPDATES, updateStopwatch);
+
+		final List<String> idsToRemove = new ArrayList<>(BENCHMARK_REMOVES);
+		for (int i = 0; i < BENCHMARK_REMOVES; i++)
+		{
+			idsToRemove.add(String.valueOf(random.nextInt(BENCHMARK_DOCUMENTS)));
+		}
+		final Stopwatch removeStopwatch = Stopwatch.createStarted();
+		index.removeByIds(idsToRemove);
+		removeStopwatch.stop();
+		printThroughput("Removed " + BENCHMARK_REMOVES + " documents", BENCHMARK_REMOVES, removeStopwatch);
+	}
+
+	private static FullTextDocument randomDocument(final int id, final Random random)
+	{
+		final ImmutableListMultimap.Builder<String, String> texts = ImmutableListMultimap.builder();
+		texts.put("Name", randomItem(NAME_WORDS, random) + " " + randomItem(NAME_WORDS, random) + " " + randomItem(NAME_SUFFIXES, random) + " " + id);
+
+		final int citiesCount = 1 + random.nextInt(3);
+		for (int i = 0; i < citiesCount; i++)
+		{
+			texts.put("Locations.City", randomItem(CITIES, random));
+		}
+
+		return FullTextDocument.of(String.valueOf(id), texts.build());
+	}
+
+	private static String randomSearchText(final Random random)
+	{
+		switch (random.nextInt(3))
+		{
+			case 0:
+				return randomItem(NAME_WORDS, random);
+			case 1:
+				return randomItem(NAME_WORDS, random) + " " + randomItem(CITIES, random);
+			default:
+				return String.valueOf(random.nextInt(BENCHMARK_DOCUMENTS));
+		}
+	}
+
+	private static String randomItem(final String[] items, final Random random)
+	{
+		return items[random.nextInt(items.length)];
+	}
+
+	private static void printThroughput(final String what, final int count, final Stopwatch stopwatch)
+	{
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.println(what + " in " + stopwatch + " => " + (count * 1000L / millis) + "/sec");
+	}
+}
@@ -0,0 +1,126 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.Stream;
+
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.elasticsearch.indexer.impl.LuceneFullTextIndex.FullTextDocument;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LuceneFullTextIndexTest
+{
+	private static final ImmutableSet<String> FIELDNAMES = ImmutableSet.of("Name", "Locations.City");
+
+	private LuceneFullTextIndex index;
+
+	@Before
+	public void init()
+	{
+		index = LuceneFullTextIndex.ofDirectory(new RAMDirectory());
+	}
+
+	private static FullTextDocument document(final String id, final String name, final String... cities)
+	{
+		final ImmutableListMultimap.Builder<String, String> texts = ImmutableListMultimap.builder();
+		texts.put("Name", name);
+		for (final String city : cities)
+		{
+			texts.put("Locations.City", city);
+		}
+		return FullTextDocument.of(id, texts.build());
+	}
+
+	@Test
+	public void search_notExistingIndex()
+	{
+		assertFalse(index.exists());
+		assertEquals(ImmutableList.of(), index.search("test", FIELDNAMES, 10));
+	}
+
+	@Test
+	public void addOrUpdate_and_search()
+	{
+		index.addOrUpdate(Stream.of(
+				document("1", "Muster AG", "Berlin"),
+				document("2", "Test GmbH", "Bonn", "Berlin"),
+				document("3", "Other Company", "Paris")));
+
+		assertTrue(index.exists());
+		assertEquals(ImmutableList.of("1"), index.search("muster", FIELDNAMES, 10));
+		assertEquals(ImmutableSet.of("1", "2"), ImmutableSet.copyOf(index.search("berlin", FIELDNAMES, 10)));
+		assertEquals(ImmutableList.of("2"), index.search("test bonn", FIELDNAMES, 10));
+		assertEquals(ImmutableList.of(), index.search("munich", FIELDNAMES, 10));
+	}
+
+	@Test
+	public void search_bestMatchesFirst()
+	{
+		index.addOrUpdate(Stream.of(
+				document("1", "Berlin Trading", "Bonn"),
+				document("2", "Berlin Berlin Trading", "Berlin")));
+
+		assertEquals(ImmutableList.of("2", "1"), index.search("berlin", FIELDNAMES, 10));
+		assertEquals(ImmutableList.of("2"), index.search("berlin", FIELDNAMES, 1));
+	}
+
+	@Test
+	public void search_specialCharactersAreEscaped()
+	{
+		index.addOrUpdate(Stream.of(document("1", "Muster AG", "Berlin")));
+
+		assertEquals(ImmutableList.of("1"), index.search("muster (AG", FIELDNAMES, 10));
+	}
+
+	@Test
+	public void addOrUpdate_replacesExistingDocument()
+	{
+		index.addOrUpdate(Stream.of(document("1", "Muster AG", "Berlin")));
+		index.addOrUpdate(Stream.of(document("1", "Renamed AG", "Berlin")));
+
+		assertEquals(ImmutableList.of(), index.search("muster", FIELDNAMES, 10));
+		assertEquals(ImmutableList.of("1"), index.search("renamed", FIELDNAMES, 10));
+	}
+
+	@Test
+	public void removeByIds()
+	{
+		index.addOrUpdate(Stream.of(
+				document("1", "Muster AG", "Berlin"),
+				document("2", "Test GmbH", "Berlin")));
+
+		index.removeByIds(ImmutableSet.of("1"));
+
+		assertEquals(ImmutableList.of("2"), index.search("berlin", FIELDNAMES, 10));
+	}
+}
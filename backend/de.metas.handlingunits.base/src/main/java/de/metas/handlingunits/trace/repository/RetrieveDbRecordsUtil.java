@@ -1,6 +1,7 @@
 package de.metas.handlingunits.trace.repository;
 
 import java.sql.Timestamp;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -10,21 +11,29 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.model.util.ModelByIdComparator;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.ModelColumn;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import ch.qos.logback.classic.Level;
 
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.model.I_M_HU_Trace;
 import de.metas.handlingunits.trace.HUTraceEvent;
 import de.metas.handlingunits.trace.HUTraceEventQuery;
 import de.metas.handlingunits.trace.HUTraceEventQuery.RecursionMode;
+import de.metas.logging.LogManager;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
@@ -54,6 +63,20 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class RetrieveDbRecordsUtil
 {
+	private static final Logger logger = LogManager.getLogger(RetrieveDbRecordsUtil.class);
+
+	/**
+	 * Max number of levels that {@link RecursionMode#FORWARD} and {@link RecursionMode#BACKWARD} follow the trace graph; zero or less means "unlimited".
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_MaxRecursionDepth = "de.metas.handlingunits.trace.MaxRecursionDepth";
+	private static final int DEFAULT_MaxRecursionDepth = 1000;
+
+	/**
+	 * Max number of VHU IDs per {@code IN (...)} list, to stay well below the JDBC driver's bind parameter limit.
+	 */
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	public static List<HUTraceEvent> query(@NonNull final HUTraceEventQuery query)
 	{
 		final ListResult resultOut = (ListResult)queryDbRecord(query, new ListResult());
@@ -414,84 +437,97 @@ public class RetrieveDbRecordsUtil
 		return false;
 	}
 
+	/**
+	 * Adds the records whose {@code VHU_ID}s show up as {@code VHU_Source_ID}s in the given result, then does the same with those records and so on.
+	 * <p>
+	 * Note that we expand the whole frontier of each level with one query (per chunk), instead of issuing one query per VHU.
+	 */
 	private Result recurseBackwards(@NonNull final Result resultIn)
 	{
 		final Result resultOut = resultIn.newEmptyResult();
-		final List<HuId> vhuSourceIds = resultIn.getVhuSourceIds();
-		for (final HuId vhuSourceId : vhuSourceIds)
+
+		final Set<HuId> visitedVhuIds = new HashSet<>();
+		Set<HuId> frontier = new HashSet<>(resultIn.getVhuSourceIds());
+
+		for (int depth = 1; !frontier.isEmpty(); depth++)
 		{
-			resultOut.addAll(queryDbRecord(HUTraceEventQuery
-					.builder()
-					.vhuId(vhuSourceId)
-					.recursionMode(RecursionMode.BACKWARD)
-					.build(),
-					resultIn));
+			if (isMaxRecursionDepthExceeded(depth, frontier))
+			{
+				break;
+			}
+			visitedVhuIds.addAll(frontier);
+
+			final Result levelResult = queryByVhuIds(I_M_HU_Trace.COLUMN_VHU_ID, frontier, resultIn);
+			resultOut.addAll(levelResult);
+
+			frontier = new HashSet<>(levelResult.getVhuSourceIds());
+			frontier.removeAll(visitedVhuIds);
 		}
 		return resultOut;
 	}
 
+	/**
+	 * Adds the records with the same {@code VHU_ID}s as the given result, plus the records that have those {@code VHU_ID}s as their {@code VHU_Source_ID}, and so on.
+	 */
 	private Result recurseForwards(@NonNull final Result resultIn)
 	{
 		final Result resultOut = resultIn.newEmptyResult();
 
-		final List<HuId> vhuIDs = resultIn.getVhuIds();
-		for (final HuId vhuId : vhuIDs)
+		final Set<HuId> visitedVhuIds = new HashSet<>();
+		Set<HuId> frontier = new HashSet<>(resultIn.getVhuIds());
+
+		for (int depth = 1; !frontier.isEmpty(); depth++)
 		{
-			resultOut.addAll(recuseForwardViaVhuLink(resultIn, vhuId));
+			if (isMaxRecursionDepthExceeded(depth, frontier))
+			{
+				break;
+			}
+			visitedVhuIds.addAll(frontier);
+
+			// the records of the VHUs we are at
+			resultOut.addAll(queryByVhuIds(I_M_HU_Trace.COLUMN_VHU_ID, frontier, resultIn));
 
-			resultOut.addAll(recurseForwardViaSourceVhuLink(resultIn, vhuId));
+			// the records of the VHUs that were created from the VHUs we are at; they are added when we get there in the next level
+			final Result directFollowUpRecordsResult = queryByVhuIds(I_M_HU_Trace.COLUMN_VHU_Source_ID, frontier, resultIn);
+
+			frontier = new HashSet<>(directFollowUpRecordsResult.getVhuIds());
+			frontier.removeAll(visitedVhuIds);
 		}
 		return resultOut;
 	}
 
-	private Result recuseForwardViaVhuLink(
-			@NonNull final EmptyResultSupplier emptyResultSupplier,
-			final HuId vhuId)
+	private Result queryByVhuIds(
+			@NonNull final ModelColumn<I_M_HU_Trace, ?> vhuIdColumn,
+			@NonNull final Set<HuId> vhuIds,
+			@NonNull final EmptyResultSupplier emptyResultSupplier)
 	{
-
-		final HUTraceEventQuery sameVhuIdRecordsQuery = HUTraceEventQuery.builder()
-				.vhuId(vhuId)
-				.recursionMode(RecursionMode.NONE)
-				.build();
-		final Result sameVhuIdRecordsResult = queryDbRecord(
-				sameVhuIdRecordsQuery,
-				emptyResultSupplier.newEmptyResult());
-
 		final Result resultOut = emptyResultSupplier.newEmptyResult();
-		resultOut.addAll(sameVhuIdRecordsResult);
 
+		final ImmutableList<HuId> sortedVhuIds = ImmutableList.sortedCopyOf(vhuIds);
+		for (final List<HuId> chunk : Lists.partition(sortedVhuIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			final IQuery<I_M_HU_Trace> query = Services.get(IQueryBL.class).createQueryBuilder(I_M_HU_Trace.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(vhuIdColumn, chunk)
+					.orderBy().addColumn(I_M_HU_Trace.COLUMN_EventTime).endOrderBy()
+					.create();
+			resultOut.executeQueryAndAddAll(query);
+		}
 		return resultOut;
 	}
 
-	/**
-	 * Get the records where our vhuId is the vhuSourceId.
-	 */
-	private Result recurseForwardViaSourceVhuLink(
-			@NonNull final EmptyResultSupplier emptyResultSupplier,
-			final HuId vhuId)
+	private boolean isMaxRecursionDepthExceeded(final int depth, @NonNull final Set<HuId> frontier)
 	{
-		final HUTraceEventQuery directFollowUpRecordsQuery = HUTraceEventQuery.builder()
-				.vhuSourceId(vhuId)
-				.recursionMode(RecursionMode.NONE)
-				.build();
-		final Result directFollowUpRecordsResult = queryDbRecord(
-				directFollowUpRecordsQuery,
-				emptyResultSupplier.newEmptyResult());
-		final List<HuId> directFollowupVhuIDs = directFollowUpRecordsResult.getVhuIds();
-
-		final Result resultOut = emptyResultSupplier.newEmptyResult();
-		for (final HuId directFollowupVhuID : directFollowupVhuIDs)
+		final int maxRecursionDepth = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRecursionDepth, DEFAULT_MaxRecursionDepth);
+		if (maxRecursionDepth <= 0 || depth <= maxRecursionDepth)
 		{
-			final Result forwardResult = queryDbRecord(
-					HUTraceEventQuery.builder()
-							.vhuId(directFollowupVhuID)
-							.recursionMode(RecursionMode.FORWARD)
-							.build(),
-					emptyResultSupplier);
-			resultOut.addAll(forwardResult);
+			return false;
 		}
 
-		return resultOut;
+		Loggables.withLogger(logger, Level.WARN)
+				.addLog("HU trace recursion stopped at maxRecursionDepth={}; {} VHUs were not traced any further; sysconfig={}",
+						maxRecursionDepth, frontier.size(), SYSCONFIG_MaxRecursionDepth);
+		return true;
 	}
 
 	/**
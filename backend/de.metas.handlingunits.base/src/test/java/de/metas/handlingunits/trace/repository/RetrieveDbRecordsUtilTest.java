@@ -9,6 +9,8 @@ import java.util.OptionalInt;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.util.TimeUtil;
@@ -232,6 +234,93 @@ public class RetrieveDbRecordsUtilTest
 		assertThat(result).hasSize(2);
 	}
 
+	@Test
+	public void queryToList_forward_through_chain_of_ten_levels()
+	{
+		createChainOfEvents(10);
+
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.recursionMode(RecursionMode.FORWARD)
+				.inOutId(10).build();
+		final List<HUTraceEvent> result = invoke_query(query);
+
+		assertThat(result).hasSize(10);
+	}
+
+	@Test
+	public void queryToList_backward_through_chain_of_ten_levels()
+	{
+		createChainOfEvents(10);
+
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.recursionMode(RecursionMode.BACKWARD)
+				.vhuId(HuId.ofRepoId(10)).build();
+		final List<HUTraceEvent> result = invoke_query(query);
+
+		assertThat(result).hasSize(10);
+	}
+
+	@Test
+	public void queryToList_forward_stops_at_max_recursion_depth()
+	{
+		createChainOfEvents(10);
+		Services.get(ISysConfigBL.class).setValue(RetrieveDbRecordsUtil.SYSCONFIG_MaxRecursionDepth, 3, ClientId.SYSTEM, OrgId.ANY);
+
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.recursionMode(RecursionMode.FORWARD)
+				.inOutId(10).build();
+		final List<HUTraceEvent> result = invoke_query(query);
+
+		assertThat(result).extracting(HUTraceEvent::getVhuId)
+				.containsExactlyInAnyOrder(HuId.ofRepoId(1), HuId.ofRepoId(2), HuId.ofRepoId(3));
+	}
+
+	@Test
+	public void queryToList_forward_with_cycle()
+	{
+		final HUTraceEvent event1 = HUTraceRepositoryTests.createCommonEventBuilder()
+				.eventTime(eventTime)
+				.inOutId(10)
+				.topLevelHuId(HuId.ofRepoId(101))
+				.vhuSourceId(HuId.ofRepoId(12))
+				.vhuId(HuId.ofRepoId(11))
+				.build();
+		huTraceRepository.addEvent(event1);
+
+		final HUTraceEvent event2 = HUTraceRepositoryTests.createCommonEventBuilder()
+				.eventTime(eventTime)
+				.topLevelHuId(HuId.ofRepoId(102))
+				.vhuSourceId(HuId.ofRepoId(11))
+				.vhuId(HuId.ofRepoId(12))
+				.build();
+		huTraceRepository.addEvent(event2);
+
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.recursionMode(RecursionMode.BOTH)
+				.inOutId(10).build();
+		final List<HUTraceEvent> result = invoke_query(query);
+
+		assertThat(result).hasSize(2);
+	}
+
+	/**
+	 * Creates one event per VHU; the first one has {@code M_InOut_ID=10}, each following one has its predecessor as {@code VHU_Source_ID}.
+	 */
+	private void createChainOfEvents(final int length)
+	{
+		for (int vhuRepoId = 1; vhuRepoId <= length; vhuRepoId++)
+		{
+			final HUTraceEvent event = HUTraceRepositoryTests.createCommonEventBuilder()
+					.eventTime(eventTime)
+					.inOutId(vhuRepoId == 1 ? 10 : 0)
+					.topLevelHuId(HuId.ofRepoId(100 + vhuRepoId))
+					.vhuSourceId(HuId.ofRepoIdOrNull(vhuRepoId - 1))
+					.vhuId(HuId.ofRepoId(vhuRepoId))
+					.build();
+			huTraceRepository.addEvent(event);
+		}
+	}
+
 	private void createTwoEvents_Linked_By_Same_VhuId()
 	{
 		final HUTraceEvent event1_1 = HUTraceRepositoryTests.createCommonEventBuilder()
@@ -1,6 +1,11 @@
 package de.metas.material.cockpit.stock;
 
+import com.google.common.collect.ImmutableList;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.IModelCacheInvalidationService;
+import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.material.cockpit.model.I_MD_Stock;
+import de.metas.material.cockpit.stock.StockRecordUpsertStatement.StockRecordKey;
 import de.metas.material.event.PostMaterialEventService;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.EventDescriptor;
@@ -10,19 +15,26 @@ import de.metas.material.event.stock.StockChangedEvent.StockChangeDetails;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import lombok.NonNull;
-import org.adempiere.ad.dao.IQueryBL;
+import lombok.Value;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.mm.attributes.api.AttributesKeys;
-import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.warehouse.WarehouseId;
-import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
-import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
-import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 /*
  * #%L
@@ -49,6 +61,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 @Component
 public class StockDataUpdateRequestHandler
 {
+	/**
+	 * Max number of {@code MD_Stock} rows per {@code INSERT .. ON CONFLICT} statement.
+	 */
+	private static final int UPSERT_CHUNK_SIZE = 500;
+
 	private final PostMaterialEventService postMaterialEventService;
 
 	public StockDataUpdateRequestHandler(
@@ -59,57 +76,87 @@ public class StockDataUpdateRequestHandler
 
 	public void handleDataUpdateRequest(@NonNull final StockDataUpdateRequest dataUpdateRequest)
 	{
-		final I_MD_Stock dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
-
-		final BigDecimal qtyOnHandOld = dataRecord.getQtyOnHand();
-
-		final BigDecimal qtyOnHandToAdd = dataUpdateRequest.getOnHandQtyChange();
-		final BigDecimal qtyOnHandNew = NumberUtils.stripTrailingDecimalZeros(dataRecord.getQtyOnHand().add(qtyOnHandToAdd));
-		dataRecord.setQtyOnHand(qtyOnHandNew);
-		save(dataRecord);
-
-		fireStockChangedEvent(dataRecord, qtyOnHandOld, dataUpdateRequest.getSourceInfo());
+		handleDataUpdateRequests(ImmutableList.of(dataUpdateRequest));
 	}
 
-	private I_MD_Stock retrieveOrCreateDataRecord(@NonNull final StockDataRecordIdentifier identifier)
+	/**
+	 * Adds the given requests' on-hand quantities to their respective {@code MD_Stock} records and fires one {@link StockChangedEvent} per changed record and source info.
+	 * <p>
+	 * Requests with the same source info and identifier are summed up first; the result is written within the current transaction using one
+	 * {@code INSERT .. ON CONFLICT DO UPDATE SET QtyOnHand = QtyOnHand + EXCLUDED.QtyOnHand} statement per chunk,
+	 * so concurrent updates of the same record can't get lost.
+	 */
+	public void handleDataUpdateRequests(@NonNull final Collection<StockDataUpdateRequest> dataUpdateRequests)
 	{
-		final IQuery<I_MD_Stock> query = createQueryForIdentifier(identifier);
-
-		final I_MD_Stock existingDataRecord = query.firstOnly(I_MD_Stock.class);
-		if (existingDataRecord != null)
+		if (dataUpdateRequests.isEmpty())
 		{
-			return existingDataRecord;
+			return;
 		}
 
-		final I_MD_Stock newDataRecord = newInstance(I_MD_Stock.class);
-		InterfaceWrapperHelper.setValue(newDataRecord, I_MD_Stock.COLUMNNAME_AD_Client_ID, identifier.getClientId().getRepoId());
+		final ImmutableList<StockRecordUpsertStatement> statements = StockRecordUpsertStatement.createForRequests(
+				dataUpdateRequests,
+				Env.getAD_User_ID(Env.getCtx()),
+				UPSERT_CHUNK_SIZE);
 
-		newDataRecord.setAD_Org_ID(identifier.getOrgId().getRepoId());
-		newDataRecord.setM_Product_ID(identifier.getProductId().getRepoId());
-		newDataRecord.setAttributesKey(identifier.getStorageAttributesKey().getAsString());
-		newDataRecord.setM_Warehouse_ID(identifier.getWarehouseId().getRepoId());
+		final List<Integer> stockRecordIds = new ArrayList<>();
+		for (final StockRecordUpsertStatement statement : statements)
+		{
+			for (final StockRecordUpsertResult result : executeUpsert(statement))
+			{
+				stockRecordIds.add(result.getStockId());
 
-		return newDataRecord;
+				final BigDecimal qtyOnHandOld = result.getQtyOnHand().subtract(statement.getDeltas().get(result.getKey()));
+				fireStockChangedEvent(result, qtyOnHandOld, statement.getSourceInfo());
+			}
+		}
+
+		Services.get(IModelCacheInvalidationService.class).invalidate(
+				CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Stock.Table_Name, stockRecordIds),
+				ModelCacheInvalidationTiming.CHANGE);
 	}
 
-	private IQuery<I_MD_Stock> createQueryForIdentifier(@NonNull final StockDataRecordIdentifier identifier)
+	private static List<StockRecordUpsertResult> executeUpsert(@NonNull final StockRecordUpsertStatement statement)
 	{
-		final AttributesKey attributesKey = identifier.getStorageAttributesKey();
-		attributesKey.assertNotAllOrOther();
-
-		return Services.get(IQueryBL.class)
-				.createQueryBuilder(I_MD_Stock.class)
-				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(I_MD_Stock.COLUMN_AD_Client_ID, identifier.getClientId())
-				.addEqualsFilter(I_MD_Stock.COLUMN_AD_Org_ID, identifier.getOrgId())
-				.addEqualsFilter(I_MD_Stock.COLUMN_M_Product_ID, identifier.getProductId())
-				.addEqualsFilter(I_MD_Stock.COLUMN_AttributesKey, attributesKey.getAsString())
-				.addEqualsFilter(I_MD_Stock.COLUMN_M_Warehouse_ID, identifier.getWarehouseId())
-				.create();
+		final String sql = statement.getSql();
+		final List<Object> sqlParams = statement.getSqlParams();
+
+		final ImmutableList.Builder<StockRecordUpsertResult> results = ImmutableList.builder();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final StockRecordKey key = new StockRecordKey(
+						rs.getInt(I_MD_Stock.COLUMNNAME_AD_Client_ID),
+						rs.getInt(I_MD_Stock.COLUMNNAME_AD_Org_ID),
+						rs.getInt(I_MD_Stock.COLUMNNAME_M_Product_ID),
+						rs.getString(I_MD_Stock.COLUMNNAME_AttributesKey),
+						rs.getInt(I_MD_Stock.COLUMNNAME_M_Warehouse_ID));
+
+				results.add(new StockRecordUpsertResult(
+						key,
+						rs.getInt(I_MD_Stock.COLUMNNAME_MD_Stock_ID),
+						NumberUtils.stripTrailingDecimalZeros(rs.getBigDecimal(I_MD_Stock.COLUMNNAME_QtyOnHand)),
+						rs.getTimestamp(I_MD_Stock.COLUMNNAME_Updated)));
+			}
+			return results.build();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
 	}
 
 	private void fireStockChangedEvent(
-			@NonNull final I_MD_Stock dataRecord,
+			@NonNull final StockRecordUpsertResult dataRecord,
 			@NonNull final BigDecimal qtyOnHandOld,
 			@NonNull final StockChangeSourceInfo stockChangeSourceInfo)
 	{
@@ -119,18 +166,20 @@ public class StockDataUpdateRequestHandler
 			return;
 		}
 
+		final StockRecordKey key = dataRecord.getKey();
+
 		// there should be no empty parts, but let's just make sure..
-		final AttributesKey attributesKey = AttributesKeys.pruneEmptyParts(AttributesKey.ofString(dataRecord.getAttributesKey()));
+		final AttributesKey attributesKey = AttributesKeys.pruneEmptyParts(AttributesKey.ofString(key.getAttributesKey()));
 		final AttributeSetInstanceId asiId = AttributesKeys.createAttributeSetInstanceFromAttributesKey(attributesKey);
 
 		final EventDescriptor eventDescriptor = EventDescriptor
 				.ofClientAndOrg(
-						dataRecord.getAD_Client_ID(),
-						dataRecord.getAD_Org_ID());
+						key.getClientId(),
+						key.getOrgId());
 
 		final ProductDescriptor productDescriptor = ProductDescriptor
 				.forProductAndAttributes(
-						dataRecord.getM_Product_ID(),
+						key.getProductId(),
 						attributesKey,
 						asiId.getRepoId());
 
@@ -138,14 +187,14 @@ public class StockDataUpdateRequestHandler
 				.builder()
 				.transactionId(stockChangeSourceInfo.getTransactionId())
 				.resetStockPInstanceId(stockChangeSourceInfo.getResetStockAdPinstanceId())
-				.stockId(dataRecord.getMD_Stock_ID())
+				.stockId(dataRecord.getStockId())
 				.build();
 
 		final StockChangedEvent event = StockChangedEvent
 				.builder()
 				.eventDescriptor(eventDescriptor)
 				.productDescriptor(productDescriptor)
-				.warehouseId(WarehouseId.ofRepoId(dataRecord.getM_Warehouse_ID()))
+				.warehouseId(WarehouseId.ofRepoId(key.getWarehouseId()))
 				.qtyOnHand(qtyOnHandNew)
 				.qtyOnHandOld(qtyOnHandOld)
 				.stockChangeDetails(details)
@@ -154,4 +203,13 @@ public class StockDataUpdateRequestHandler
 
 		postMaterialEventService.postEventNow(event);
 	}
+
+	@Value
+	private static class StockRecordUpsertResult
+	{
+		StockRecordKey key;
+		int stockId;
+		BigDecimal qtyOnHand;
+		Timestamp updated;
+	}
 }
@@ -0,0 +1,172 @@
+package de.metas.material.cockpit.stock;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+
+import de.metas.material.cockpit.model.I_MD_Stock;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One {@code INSERT .. ON CONFLICT DO UPDATE SET QtyOnHand = QtyOnHand + EXCLUDED.QtyOnHand} statement which adds the on-hand quantities of some {@link StockDataUpdateRequest}s
+ * with the same {@link StockChangeSourceInfo} to their {@code MD_Stock} records.
+ * The statement returns the inserted or updated records' ID, key columns, new {@code QtyOnHand} and {@code Updated}.
+ */
+@Value
+class StockRecordUpsertStatement
+{
+	/**
+	 * Sums up the given requests' on-hand quantities per source info and {@code MD_Stock} record
+	 * and creates one statement for each chunk of up to {@code maxRecordsPerStatement} records of the same source info.
+	 */
+	static ImmutableList<StockRecordUpsertStatement> createForRequests(
+			@NonNull final Collection<StockDataUpdateRequest> dataUpdateRequests,
+			final int adUserId,
+			final int maxRecordsPerStatement)
+	{
+		final LinkedHashMap<StockChangeSourceInfo, LinkedHashMap<StockRecordKey, BigDecimal>> deltasBySourceInfo = new LinkedHashMap<>();
+		for (final StockDataUpdateRequest dataUpdateRequest : dataUpdateRequests)
+		{
+			deltasBySourceInfo
+					.computeIfAbsent(dataUpdateRequest.getSourceInfo(), sourceInfo -> new LinkedHashMap<>())
+					.merge(StockRecordKey.of(dataUpdateRequest.getIdentifier()), dataUpdateRequest.getOnHandQtyChange(), BigDecimal::add);
+		}
+
+		final ImmutableList.Builder<StockRecordUpsertStatement> statements = ImmutableList.builder();
+		for (final Map.Entry<StockChangeSourceInfo, LinkedHashMap<StockRecordKey, BigDecimal>> entry : deltasBySourceInfo.entrySet())
+		{
+			final StockChangeSourceInfo sourceInfo = entry.getKey();
+			final Map<StockRecordKey, BigDecimal> deltas = entry.getValue();
+
+			for (final List<StockRecordKey> chunk : Iterables.partition(deltas.keySet(), maxRecordsPerStatement))
+			{
+				final ImmutableMap.Builder<StockRecordKey, BigDecimal> chunkDeltas = ImmutableMap.builder();
+				chunk.forEach(key -> chunkDeltas.put(key, deltas.get(key)));
+
+				statements.add(createForDeltas(sourceInfo, chunkDeltas.build(), adUserId));
+			}
+		}
+		return statements.build();
+	}
+
+	private static StockRecordUpsertStatement createForDeltas(
+			@NonNull final StockChangeSourceInfo sourceInfo,
+			@NonNull final ImmutableMap<StockRecordKey, BigDecimal> deltas,
+			final int adUserId)
+	{
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_MD_Stock.Table_Name + " ("
+				+ I_MD_Stock.COLUMNNAME_MD_Stock_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_Created
+				+ ", " + I_MD_Stock.COLUMNNAME_CreatedBy
+				+ ", " + I_MD_Stock.COLUMNNAME_Updated
+				+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy
+				+ ", " + I_MD_Stock.COLUMNNAME_IsActive
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_QtyOnHand
+				+ ") VALUES ");
+
+		final List<Object> sqlParams = new ArrayList<>();
+		for (final Map.Entry<StockRecordKey, BigDecimal> delta : deltas.entrySet())
+		{
+			if (!sqlParams.isEmpty())
+			{
+				sql.append(", ");
+			}
+			sql.append("(nextval('md_stock_seq'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?)");
+
+			final StockRecordKey key = delta.getKey();
+			sqlParams.add(key.getClientId());
+			sqlParams.add(key.getOrgId());
+			sqlParams.add(adUserId);
+			sqlParams.add(adUserId);
+			sqlParams.add(key.getProductId());
+			sqlParams.add(key.getAttributesKey());
+			sqlParams.add(key.getWarehouseId());
+			sqlParams.add(delta.getValue());
+		}
+
+		// the conflict target needs to match the unique index md_stock_uq
+		sql.append(" ON CONFLICT (" + I_MD_Stock.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+				+ ") WHERE " + I_MD_Stock.COLUMNNAME_IsActive + "='Y'"
+				+ " DO UPDATE SET "
+				+ I_MD_Stock.COLUMNNAME_QtyOnHand + " = " + I_MD_Stock.Table_Name + "." + I_MD_Stock.COLUMNNAME_QtyOnHand + " + EXCLUDED." + I_MD_Stock.COLUMNNAME_QtyOnHand
+				+ ", " + I_MD_Stock.COLUMNNAME_Updated + " = EXCLUDED." + I_MD_Stock.COLUMNNAME_Updated
+				+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy + " = EXCLUDED." + I_MD_Stock.COLUMNNAME_UpdatedBy
+				+ " RETURNING " + I_MD_Stock.COLUMNNAME_MD_Stock_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_QtyOnHand
+				+ ", " + I_MD_Stock.COLUMNNAME_Updated);
+
+		return new StockRecordUpsertStatement(sourceInfo, deltas, sql.toString(), ImmutableList.copyOf(sqlParams));
+	}
+
+	StockChangeSourceInfo sourceInfo;
+
+	/** The on-hand quantities which are added by this statement */
+	ImmutableMap<StockRecordKey, BigDecimal> deltas;
+
+	String sql;
+	ImmutableList<Object> sqlParams;
+
+	@Value
+	static class StockRecordKey
+	{
+		static StockRecordKey of(@NonNull final StockDataRecordIdentifier identifier)
+		{
+			return new StockRecordKey(
+					identifier.getClientId().getRepoId(),
+					identifier.getOrgId().getRepoId(),
+					identifier.getProductId().getRepoId(),
+					identifier.getStorageAttributesKey().getAsString(),
+					identifier.getWarehouseId().getRepoId());
+		}
+
+		int clientId;
+		int orgId;
+		int productId;
+		String attributesKey;
+		int warehouseId;
+	}
+}
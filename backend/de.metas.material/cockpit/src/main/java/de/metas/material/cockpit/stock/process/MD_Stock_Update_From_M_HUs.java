@@ -9,6 +9,8 @@ import org.adempiere.service.ClientId;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.SpringContextHolder;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.material.cockpit.model.I_MD_Stock_From_HUs_V;
 import de.metas.material.cockpit.stock.StockChangeSourceInfo;
@@ -91,14 +93,18 @@ public class MD_Stock_Update_From_M_HUs extends JavaProcess
 		final ResetStockPInstanceId resetStockPInstanceId = ResetStockPInstanceId.ofPInstanceId(getProcessInfo().getPinstanceId());
 		final StockChangeSourceInfo info = StockChangeSourceInfo.ofResetStockPInstanceId(resetStockPInstanceId);
 
+		final ImmutableList.Builder<StockDataUpdateRequest> dataUpdateRequests = ImmutableList.builder();
 		for (final I_MD_Stock_From_HUs_V huBasedDataRecord : huBasedDataRecords)
 		{
 			final StockDataUpdateRequest dataUpdateRequest = createDataUpdatedRequest(
 					huBasedDataRecord,
 					info);
 			addLog("Handling corrective dataUpdateRequest={}", dataUpdateRequest);
-			dataUpdateRequestHandler.handleDataUpdateRequest(dataUpdateRequest);
+			dataUpdateRequests.add(dataUpdateRequest);
 		}
+
+		// all corrections are applied in one go, using batched upserts
+		dataUpdateRequestHandler.handleDataUpdateRequests(dataUpdateRequests.build());
 	}
 
 	private StockDataUpdateRequest createDataUpdatedRequest(
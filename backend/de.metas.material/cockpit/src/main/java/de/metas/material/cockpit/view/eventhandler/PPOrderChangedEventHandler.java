@@ -127,7 +127,7 @@ public class PPOrderChangedEventHandler implements MaterialEventHandler<PPOrderC
 			requests.add(request);
 		}
 
-		requests.forEach(dataUpdateRequestHandler::handleDataUpdateRequest);
+		dataUpdateRequestHandler.handleDataUpdateRequests(requests);
 	}
 
 }
@@ -0,0 +1,237 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.compiere.util.TimeUtil;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One {@code INSERT .. ON CONFLICT DO UPDATE SET qty = qty + EXCLUDED.qty} statement which adds the quantities of some {@link UpdateMainDataRequest}s to their {@code MD_Cockpit} records.
+ * The statement returns the IDs of the inserted or updated records.
+ */
+@Value
+class MainDataRecordUpsertStatement
+{
+	/**
+	 * Sums up the given requests' quantities per {@code MD_Cockpit} record and creates one statement for each chunk of up to {@code maxRecordsPerStatement} records.
+	 */
+	static ImmutableList<MainDataRecordUpsertStatement> createForRequests(
+			@NonNull final Collection<UpdateMainDataRequest> dataUpdateRequests,
+			final int adClientId,
+			final int adOrgId,
+			final int adUserId,
+			final int maxRecordsPerStatement)
+	{
+		final LinkedHashMap<MainDataRecordKey, MainDataRecordDelta> deltas = new LinkedHashMap<>();
+		for (final UpdateMainDataRequest dataUpdateRequest : dataUpdateRequests)
+		{
+			final MainDataRecordDelta delta = MainDataRecordDelta.of(dataUpdateRequest);
+			deltas.merge(delta.getKey(), delta, MainDataRecordDelta::add);
+		}
+
+		final ImmutableList.Builder<MainDataRecordUpsertStatement> statements = ImmutableList.builder();
+		for (final List<MainDataRecordDelta> chunk : Iterables.partition(deltas.values(), maxRecordsPerStatement))
+		{
+			statements.add(createForDeltas(chunk, adClientId, adOrgId, adUserId));
+		}
+		return statements.build();
+	}
+
+	private static MainDataRecordUpsertStatement createForDeltas(
+			@NonNull final List<MainDataRecordDelta> deltas,
+			final int adClientId,
+			final int adOrgId,
+			final int adUserId)
+	{
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_MD_Cockpit.Table_Name + " ("
+				+ I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Created
+				+ ", " + I_MD_Cockpit.COLUMNNAME_CreatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ ", " + I_MD_Cockpit.COLUMNNAME_IsActive
+				+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Cockpit.COLUMNNAME_DateGeneral
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount
+				+ ", " + I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyStockChange
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate
+				+ ") VALUES ");
+
+		final List<Object> sqlParams = new ArrayList<>();
+		for (final MainDataRecordDelta delta : deltas)
+		{
+			if (!sqlParams.isEmpty())
+			{
+				sql.append(", ");
+			}
+			sql.append("(nextval('md_cockpit_seq'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+			final MainDataRecordKey key = delta.getKey();
+			sqlParams.add(adClientId);
+			sqlParams.add(adOrgId);
+			sqlParams.add(adUserId);
+			sqlParams.add(adUserId);
+			sqlParams.add(key.getProductId());
+			sqlParams.add(key.getAttributesKey());
+			sqlParams.add(TimeUtil.asTimestamp(key.getDate()));
+			sqlParams.add(key.getPlantId() > 0 ? key.getPlantId() : null);
+			sqlParams.add(delta.getQtyMaterialentnahme());
+			sqlParams.add(delta.getQtyOnHandCount());
+			sqlParams.add(delta.getPmmQtyPromisedOnDate());
+			sqlParams.add(delta.getQtyStockChange());
+			sqlParams.add(delta.getQtyReservedPurchase());
+			sqlParams.add(delta.getQtyReservedSale());
+			sqlParams.add(delta.getQtyRequiredForProduction());
+			sqlParams.add(delta.computeQtyOnHandEstimate());
+			sqlParams.add(delta.computeQtyOnHandEstimate().add(delta.getQtyReservedPurchase()).subtract(delta.getQtyReservedSale()));
+		}
+
+		// the conflict target needs to match the unique index md_cockpit_uc
+		final String qtyOnHandEstimateSql = sum(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount)
+				+ " + " + sum(I_MD_Cockpit.COLUMNNAME_QtyStockChange)
+				+ " - " + sum(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme);
+		sql.append(" ON CONFLICT (" + I_MD_Cockpit.COLUMNNAME_DateGeneral
+				+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+				+ ", COALESCE(" + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID + ", 0))"
+				+ " DO UPDATE SET "
+				+ addToColumn(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_QtyStockChange)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale)
+				+ ", " + addToColumn(I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate + " = " + qtyOnHandEstimateSql
+				+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate + " = " + qtyOnHandEstimateSql
+				+ " + " + sum(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase)
+				+ " - " + sum(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale)
+				+ ", " + I_MD_Cockpit.COLUMNNAME_Updated + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_Updated
+				+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+				+ " RETURNING " + I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID);
+
+		return new MainDataRecordUpsertStatement(sql.toString(), Collections.unmodifiableList(sqlParams));
+	}
+
+	private static String sum(@NonNull final String columnName)
+	{
+		return "(" + I_MD_Cockpit.Table_Name + "." + columnName + " + EXCLUDED." + columnName + ")";
+	}
+
+	private static String addToColumn(@NonNull final String columnName)
+	{
+		return columnName + " = " + sum(columnName);
+	}
+
+	String sql;
+
+	/** Might contain {@code null}s, e.g. for records without {@code PP_Plant_ID} */
+	List<Object> sqlParams;
+
+	@Value
+	private static class MainDataRecordKey
+	{
+		int productId;
+		String attributesKey;
+		Instant date;
+		int plantId;
+	}
+
+	@Value
+	private static class MainDataRecordDelta
+	{
+		static MainDataRecordDelta of(@NonNull final UpdateMainDataRequest request)
+		{
+			final MainDataRecordIdentifier identifier = request.getIdentifier();
+			final ProductDescriptor productDescriptor = identifier.getProductDescriptor();
+			final MainDataRecordKey key = new MainDataRecordKey(
+					productDescriptor.getProductId(),
+					productDescriptor.getStorageAttributesKey().getAsString(),
+					identifier.getDate(),
+					identifier.getPlantId() > 0 ? identifier.getPlantId() : 0);
+
+			return new MainDataRecordDelta(
+					key,
+					request.getDirectMovementQty(),
+					request.getCountedQty(),
+					request.getOfferedQty(),
+					request.getOnHandQtyChange(),
+					request.getReservedPurchaseQty(),
+					request.getReservedSalesQty(),
+					request.getRequiredForProductionQty());
+		}
+
+		MainDataRecordKey key;
+		BigDecimal qtyMaterialentnahme;
+		BigDecimal qtyOnHandCount;
+		BigDecimal pmmQtyPromisedOnDate;
+		BigDecimal qtyStockChange;
+		BigDecimal qtyReservedPurchase;
+		BigDecimal qtyReservedSale;
+		BigDecimal qtyRequiredForProduction;
+
+		MainDataRecordDelta add(@NonNull final MainDataRecordDelta other)
+		{
+			return new MainDataRecordDelta(
+					key,
+					qtyMaterialentnahme.add(other.qtyMaterialentnahme),
+					qtyOnHandCount.add(other.qtyOnHandCount),
+					pmmQtyPromisedOnDate.add(other.pmmQtyPromisedOnDate),
+					qtyStockChange.add(other.qtyStockChange),
+					qtyReservedPurchase.add(other.qtyReservedPurchase),
+					qtyReservedSale.add(other.qtyReservedSale),
+					qtyRequiredForProduction.add(other.qtyRequiredForProduction));
+		}
+
+		BigDecimal computeQtyOnHandEstimate()
+		{
+			return qtyOnHandCount.add(qtyStockChange).subtract(qtyMaterialentnahme);
+		}
+	}
+}
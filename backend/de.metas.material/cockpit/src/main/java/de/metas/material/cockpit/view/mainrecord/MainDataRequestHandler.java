@@ -1,19 +1,28 @@
 package de.metas.material.cockpit.view.mainrecord;
 
-import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
-import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
-import static org.adempiere.model.InterfaceWrapperHelper.save;
-
-import org.compiere.model.IQuery;
-import org.compiere.util.TimeUtil;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
-import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.Profiles;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.IModelCacheInvalidationService;
+import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
-import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -42,79 +51,75 @@ import lombok.NonNull;
 @Profile(Profiles.PROFILE_App) // the event handler is also just on this profile
 public class MainDataRequestHandler
 {
+	/**
+	 * Max number of {@code MD_Cockpit} rows per {@code INSERT .. ON CONFLICT} statement.
+	 */
+	private static final int UPSERT_CHUNK_SIZE = 500;
+
 	public void handleDataUpdateRequest(@NonNull final UpdateMainDataRequest dataUpdateRequest)
 	{
-		synchronized (MainDataRequestHandler.class)
-		{
-			final I_MD_Cockpit dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
-			updateDataRecordWithRequestQtys(dataRecord, dataUpdateRequest);
-			save(dataRecord);
-		}
+		handleDataUpdateRequests(ImmutableList.of(dataUpdateRequest));
 	}
 
-	@VisibleForTesting
-	static I_MD_Cockpit retrieveOrCreateDataRecord(@NonNull final MainDataRecordIdentifier identifier)
+	/**
+	 * Adds the given requests' quantities to their respective {@code MD_Cockpit} records.
+	 * <p>
+	 * Requests with the same identifier are summed up first; the result is written within the current transaction using one
+	 * {@code INSERT .. ON CONFLICT DO UPDATE SET qty = qty + EXCLUDED.qty} statement per chunk,
+	 * so concurrent updates of the same (hot) record neither get lost nor need to be serialized in this JVM.
+	 */
+	public void handleDataUpdateRequests(@NonNull final Collection<UpdateMainDataRequest> dataUpdateRequests)
 	{
-		final IQuery<I_MD_Cockpit> query = identifier.createQueryBuilder().create();
-
-		final I_MD_Cockpit existingDataRecord = query.firstOnly(I_MD_Cockpit.class);
-		if (existingDataRecord != null)
+		if (dataUpdateRequests.isEmpty())
 		{
-			return existingDataRecord;
+			return;
 		}
 
-		final I_MD_Cockpit newDataRecord = newInstance(I_MD_Cockpit.class);
-		newDataRecord.setM_Product_ID(identifier.getProductDescriptor().getProductId());
-		newDataRecord.setAttributesKey(identifier.getProductDescriptor().getStorageAttributesKey().getAsString());
-		newDataRecord.setDateGeneral(TimeUtil.asTimestamp(identifier.getDate()));
-		newDataRecord.setPP_Plant_ID(identifier.getPlantId());
+		final Properties ctx = Env.getCtx();
+		final ImmutableList<MainDataRecordUpsertStatement> statements = MainDataRecordUpsertStatement.createForRequests(
+				dataUpdateRequests,
+				Env.getAD_Client_ID(ctx),
+				Env.getAD_Org_ID(ctx),
+				Env.getAD_User_ID(ctx),
+				UPSERT_CHUNK_SIZE);
 
-		return newDataRecord;
+		final List<Integer> cockpitRecordIds = new ArrayList<>();
+		for (final MainDataRecordUpsertStatement statement : statements)
+		{
+			cockpitRecordIds.addAll(executeUpsert(statement));
+		}
+
+		Services.get(IModelCacheInvalidationService.class).invalidate(
+				CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Cockpit.Table_Name, cockpitRecordIds),
+				ModelCacheInvalidationTiming.CHANGE);
 	}
 
-	private static void updateDataRecordWithRequestQtys(
-			final I_MD_Cockpit dataRecord,
-			final UpdateMainDataRequest dataUpdateRequest)
+	private static List<Integer> executeUpsert(@NonNull final MainDataRecordUpsertStatement statement)
 	{
-		// was QtyMaterialentnahme
-		dataRecord.setQtyMaterialentnahme(
-				stripTrailingDecimalZeros(dataRecord.getQtyMaterialentnahme().add(dataUpdateRequest.getDirectMovementQty())));
-
-		// this column was not in the old data model
-		dataRecord.setQtyOnHandCount(stripTrailingDecimalZeros(
-				dataRecord.getQtyOnHandCount().add(dataUpdateRequest.getCountedQty())));
-
-		// was PMM_QtyPromised_OnDate
-		dataRecord.setPMM_QtyPromised_OnDate(stripTrailingDecimalZeros(
-				dataRecord.getPMM_QtyPromised_OnDate().add(dataUpdateRequest.getOfferedQty())));
-
-		// this column was not in the old data model
-		dataRecord.setQtyStockChange(stripTrailingDecimalZeros(
-				dataRecord.getQtyStockChange().add(dataUpdateRequest.getOnHandQtyChange())));
+		final String sql = statement.getSql();
+		final List<Object> sqlParams = statement.getSqlParams();
 
-		// was QtyOrdered_OnDate => sum of RV_C_OrderLine_QtyOrderedReservedPromised_OnDate_V.QtyReserved_Purchase => ol.QtyReserved of purchaseOrders
-		dataRecord.setQtyReserved_Purchase(stripTrailingDecimalZeros(
-				dataRecord.getQtyReserved_Purchase().add(dataUpdateRequest.getReservedPurchaseQty())));
-
-		// was QtyReserved_OnDate
-		dataRecord.setQtyReserved_Sale(stripTrailingDecimalZeros(
-				dataRecord.getQtyReserved_Sale().add(dataUpdateRequest.getReservedSalesQty())));
-
-		// was Fresh_QtyMRP
-		dataRecord.setQtyRequiredForProduction(stripTrailingDecimalZeros(
-				dataRecord.getQtyRequiredForProduction().add(dataUpdateRequest.getRequiredForProductionQty())));
-
-		// was Fresh_QtyOnHand_OnDate
-		dataRecord.setQtyOnHandEstimate(
-				stripTrailingDecimalZeros(
-						dataRecord.getQtyOnHandCount()
-								.add(dataRecord.getQtyStockChange())
-								.subtract(dataRecord.getQtyMaterialentnahme())));
-
-		// was Fresh_QtyPromised
-		dataRecord.setQtyAvailableToPromiseEstimate(stripTrailingDecimalZeros(
-				dataRecord.getQtyOnHandEstimate()
-						.add(dataRecord.getQtyReserved_Purchase())
-						.subtract(dataRecord.getQtyReserved_Sale())));
+		final ImmutableList.Builder<Integer> cockpitRecordIds = ImmutableList.builder();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				cockpitRecordIds.add(rs.getInt(1));
+			}
+			return cockpitRecordIds.build();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
 	}
 }
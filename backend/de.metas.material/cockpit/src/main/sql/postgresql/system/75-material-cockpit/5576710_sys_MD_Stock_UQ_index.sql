@@ -0,0 +1,34 @@
+--
+-- MD_Stock records are now updated via INSERT .. ON CONFLICT, which needs a unique index on the record's identifier.
+-- First fold duplicate active records (if any) into the one with the lowest ID, then deactivate the rest.
+--
+UPDATE MD_Stock s
+SET QtyOnHand=d.QtyOnHand, Updated=now(), UpdatedBy=100
+FROM (
+         SELECT MIN(MD_Stock_ID) AS MD_Stock_ID, SUM(QtyOnHand) AS QtyOnHand
+         FROM MD_Stock
+         WHERE IsActive = 'Y'
+         GROUP BY AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID
+         HAVING COUNT(1) > 1
+     ) d
+WHERE s.MD_Stock_ID = d.MD_Stock_ID
+;
+
+UPDATE MD_Stock s
+SET IsActive='N', Updated=now(), UpdatedBy=100
+WHERE s.IsActive = 'Y'
+  AND EXISTS(SELECT 1
+             FROM MD_Stock s2
+             WHERE s2.IsActive = 'Y'
+               AND s2.AD_Client_ID = s.AD_Client_ID
+               AND s2.AD_Org_ID = s.AD_Org_ID
+               AND s2.M_Product_ID = s.M_Product_ID
+               AND s2.AttributesKey = s.AttributesKey
+               AND s2.M_Warehouse_ID = s.M_Warehouse_ID
+               AND s2.MD_Stock_ID < s.MD_Stock_ID)
+;
+
+CREATE UNIQUE INDEX IF NOT EXISTS md_stock_uq
+    ON public.md_stock (AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID)
+    WHERE IsActive = 'Y'
+;
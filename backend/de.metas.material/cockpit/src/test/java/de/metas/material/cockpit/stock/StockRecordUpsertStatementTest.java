@@ -0,0 +1,123 @@
+package de.metas.material.cockpit.stock;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.math.BigDecimal;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.warehouse.WarehouseId;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.cockpit.stock.StockRecordUpsertStatement.StockRecordKey;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockRecordUpsertStatementTest
+{
+	private static final StockChangeSourceInfo SOURCE_INFO_1 = StockChangeSourceInfo.ofTransactionId(100);
+	private static final StockChangeSourceInfo SOURCE_INFO_2 = StockChangeSourceInfo.ofTransactionId(200);
+
+	private static StockDataUpdateRequest request(
+			final StockChangeSourceInfo sourceInfo,
+			final int productId,
+			final BigDecimal onHandQtyChange)
+	{
+		final StockDataRecordIdentifier identifier = StockDataRecordIdentifier.builder()
+				.clientId(ClientId.ofRepoId(1))
+				.orgId(OrgId.ofRepoId(2))
+				.warehouseId(WarehouseId.ofRepoId(3))
+				.productId(ProductId.ofRepoId(productId))
+				.storageAttributesKey(AttributesKey.NONE)
+				.build();
+
+		return StockDataUpdateRequest.builder()
+				.identifier(identifier)
+				.onHandQtyChange(onHandQtyChange)
+				.sourceInfo(sourceInfo)
+				.build();
+	}
+
+	@Test
+	public void createForRequests_sumsUpRequestsOfSameRecordAndSourceInfo()
+	{
+		final ImmutableList<StockRecordUpsertStatement> statements = StockRecordUpsertStatement.createForRequests(
+				ImmutableList.of(
+						request(SOURCE_INFO_1, 30, TEN),
+						request(SOURCE_INFO_1, 30, ONE),
+						request(SOURCE_INFO_2, 30, ONE)),
+				4, // adUserId
+				500);
+
+		assertThat(statements).hasSize(2);
+
+		final StockRecordUpsertStatement statement = statements.get(0);
+		assertThat(statement.getSourceInfo()).isEqualTo(SOURCE_INFO_1);
+		assertThat(statement.getDeltas()).containsExactly(
+				entry(new StockRecordKey(1, 2, 30, AttributesKey.NONE.getAsString(), 3), new BigDecimal("11")));
+
+		assertThat(statement.getSql())
+				.startsWith("INSERT INTO MD_Stock (MD_Stock_ID, AD_Client_ID, AD_Org_ID, ")
+				.contains(" VALUES (nextval('md_stock_seq'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?) ON CONFLICT ")
+				.contains(" ON CONFLICT (AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID) WHERE IsActive='Y' DO UPDATE SET QtyOnHand = MD_Stock.QtyOnHand + EXCLUDED.QtyOnHand")
+				.endsWith(" RETURNING MD_Stock_ID, AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID, QtyOnHand, Updated");
+
+		assertThat(statement.getSqlParams()).containsExactly(
+				1, // AD_Client_ID
+				2, // AD_Org_ID
+				4, // CreatedBy
+				4, // UpdatedBy
+				30, // M_Product_ID
+				AttributesKey.NONE.getAsString(),
+				3, // M_Warehouse_ID
+				new BigDecimal("11")); // QtyOnHand
+
+		assertThat(statements.get(1).getSourceInfo()).isEqualTo(SOURCE_INFO_2);
+		assertThat(statements.get(1).getSqlParams()).endsWith(ONE);
+	}
+
+	@Test
+	public void createForRequests_chunks()
+	{
+		final ImmutableList<StockRecordUpsertStatement> statements = StockRecordUpsertStatement.createForRequests(
+				ImmutableList.of(
+						request(SOURCE_INFO_1, 30, TEN),
+						request(SOURCE_INFO_1, 40, TEN),
+						request(SOURCE_INFO_1, 50, TEN)),
+				4, // adUserId
+				2);
+
+		assertThat(statements).hasSize(2);
+		assertThat(statements.get(0).getDeltas()).hasSize(2);
+		assertThat(statements.get(0).getSqlParams()).hasSize(2 * 8);
+		assertThat(statements.get(1).getDeltas()).hasSize(1);
+		assertThat(statements.get(1).getSqlParams()).hasSize(8);
+	}
+}
@@ -0,0 +1,114 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TEN;
+import static java.math.BigDecimal.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.commons.ProductDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MainDataRecordUpsertStatementTest
+{
+	private static final Instant NOW = Instant.now();
+
+	private static MainDataRecordIdentifier identifier(final int productId)
+	{
+		return MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(productId))
+				.build();
+	}
+
+	@Test
+	public void createForRequests_sumsUpRequestsOfSameRecord()
+	{
+		final ImmutableList<MainDataRecordUpsertStatement> statements = MainDataRecordUpsertStatement.createForRequests(
+				ImmutableList.of(
+						UpdateMainDataRequest.builder().identifier(identifier(30)).countedQty(TEN).reservedSalesQty(ONE).build(),
+						UpdateMainDataRequest.builder().identifier(identifier(30)).onHandQtyChange(ONE).reservedPurchaseQty(TEN).build()),
+				1, // adClientId
+				2, // adOrgId
+				3, // adUserId
+				500);
+
+		assertThat(statements).hasSize(1);
+		final MainDataRecordUpsertStatement statement = statements.get(0);
+
+		assertThat(statement.getSql())
+				.startsWith("INSERT INTO MD_Cockpit (MD_Cockpit_ID, AD_Client_ID, AD_Org_ID, ")
+				.contains(" VALUES (nextval('md_cockpit_seq'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT ")
+				.contains(" ON CONFLICT (DateGeneral, M_Product_ID, AttributesKey, COALESCE(PP_Plant_ID, 0)) DO UPDATE SET ")
+				.contains("QtyOnHandCount = (MD_Cockpit.QtyOnHandCount + EXCLUDED.QtyOnHandCount)")
+				.contains("QtyOnHandEstimate = (MD_Cockpit.QtyOnHandCount + EXCLUDED.QtyOnHandCount) + (MD_Cockpit.QtyStockChange + EXCLUDED.QtyStockChange) - (MD_Cockpit.QtyMaterialentnahme + EXCLUDED.QtyMaterialentnahme)")
+				.endsWith(" RETURNING MD_Cockpit_ID");
+
+		assertThat(statement.getSqlParams()).containsExactly(
+				1, // AD_Client_ID
+				2, // AD_Org_ID
+				3, // CreatedBy
+				3, // UpdatedBy
+				30, // M_Product_ID
+				AttributesKey.NONE.getAsString(),
+				TimeUtil.asTimestamp(NOW),
+				null, // PP_Plant_ID
+				ZERO, // QtyMaterialentnahme
+				TEN, // QtyOnHandCount
+				ZERO, // PMM_QtyPromised_OnDate
+				ONE, // QtyStockChange
+				TEN, // QtyReserved_Purchase
+				ONE, // QtyReserved_Sale
+				ZERO, // QtyRequiredForProduction
+				new BigDecimal("11"), // QtyOnHandEstimate
+				new BigDecimal("20")); // QtyAvailableToPromiseEstimate
+	}
+
+	@Test
+	public void createForRequests_chunks()
+	{
+		final ImmutableList<MainDataRecordUpsertStatement> statements = MainDataRecordUpsertStatement.createForRequests(
+				ImmutableList.of(
+						UpdateMainDataRequest.builder().identifier(identifier(30)).countedQty(TEN).build(),
+						UpdateMainDataRequest.builder().identifier(identifier(40)).countedQty(TEN).build(),
+						UpdateMainDataRequest.builder().identifier(identifier(50)).countedQty(TEN).build()),
+				1, 2, 3,
+				2);
+
+		assertThat(statements).hasSize(2);
+		assertThat(statements.get(0).getSqlParams()).hasSize(2 * 17);
+		assertThat(statements.get(0).getSql()).containsOnlyOnce("), (nextval('md_cockpit_seq')"); // two rows
+		assertThat(statements.get(1).getSqlParams()).hasSize(17);
+		assertThat(statements.get(1).getSqlParams().get(4)).isEqualTo(50);
+	}
+}
@@ -0,0 +1,100 @@
+package de.metas.material.dispo.commons.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.springframework.stereotype.Service;
+
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
+import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maintains the stock deltas of the non-stock candidates in {@code MD_Candidate_Stock_Delta} and their per-day sums in {@code MD_Candidate_Stock_DayBucket}.
+ * <p>
+ * The projected stock at a given time is then the sum of the day buckets before that time's day, plus the deltas of that day until the given time.
+ * So, unlike with the {@code MD_Candidate} stock records, a change does not need to update all later stock records.
+ * <p>
+ * If enabled, the {@code Qty} of a {@code MD_Candidate} stock record is only correct when the record is created; it's not updated when earlier candidates change.
+ * So code which needs the projected stock shall use {@link #retrieveStockBefore(MaterialDescriptor, DateAndSeqNo)} or {@link #retrieveStockAt(MaterialDescriptor, Instant)} instead.
+ * <p>
+ * Only used if {@link #SYSCONFIG_Enabled} is set. Before enabling it, the tables need to be filled using {@code de_metas_material.MD_Candidate_Stock_Delta_Rebuild()}.
+ */
+@Service
+public class StockDeltasRepository
+{
+	public static final String SYSCONFIG_Enabled = "de.metas.material.dispo.StockDeltas.Enabled";
+
+	public boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	/**
+	 * Records the stock change of the given (non-stock) candidate.
+	 * If the candidate was moved on the time axis, its previous quantity is removed at the previous time and its current quantity is added at its current time.
+	 * <p>
+	 * To record the deletion of a candidate, pass a result with the candidate's time, quantity zero and the candidate's previous quantity.
+	 */
+	public void addDeltas(@NonNull final SaveResult saveResult)
+	{
+		for (final StockDeltasStatement statement : StockDeltasStatement.createAddStatements(saveResult))
+		{
+			DB.executeFunctionCallEx(ITrx.TRXNAME_ThreadInherited, statement.getSql(), statement.getSqlParams().toArray());
+		}
+	}
+
+	/**
+	 * @return the projected stock of the given {@code materialDescriptor}'s product, warehouse, storage attributes key and (reserved) customer,
+	 *         summing up all deltas which are strictly before the given {@code time}.
+	 */
+	public BigDecimal retrieveStockBefore(
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final DateAndSeqNo time)
+	{
+		return retrieveStock(StockDeltasStatement.createRetrieveStockBeforeStatement(materialDescriptor, time));
+	}
+
+	/**
+	 * @return the projected stock like {@link #retrieveStockBefore(MaterialDescriptor, DateAndSeqNo)}, but including the deltas at the given {@code date}.
+	 *         That's what the latest {@code MD_Candidate} stock record until that date would contain.
+	 */
+	public BigDecimal retrieveStockAt(
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final Instant date)
+	{
+		return retrieveStock(StockDeltasStatement.createRetrieveStockAtStatement(materialDescriptor, date));
+	}
+
+	private static BigDecimal retrieveStock(@NonNull final StockDeltasStatement statement)
+	{
+		final BigDecimal stock = DB.getSQLValueBDEx(ITrx.TRXNAME_ThreadInherited, statement.getSql(), statement.getSqlParams());
+		return stock != null ? stock : BigDecimal.ZERO;
+	}
+}
@@ -0,0 +1,152 @@
+package de.metas.material.dispo.commons.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.compiere.util.TimeUtil;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.dispo.commons.candidate.Candidate;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
+import de.metas.material.event.commons.MaterialDescriptor;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One call of the {@code de_metas_material} functions which maintain and read {@code MD_Candidate_Stock_Delta} and {@code MD_Candidate_Stock_DayBucket}.
+ *
+ * @see StockDeltasRepository
+ */
+@Value
+class StockDeltasStatement
+{
+	private static final String SQL_Add = "SELECT de_metas_material.MD_Candidate_Stock_Delta_Add(?,?,?,?,?,?,?)";
+	private static final String SQL_RetrieveStock = "SELECT de_metas_material.retrieve_stock_from_deltas(?,?,?,?,?,?)";
+
+	/**
+	 * @return the statements which add the stock change of the given (non-stock) candidate; empty if there is no change.
+	 */
+	static ImmutableList<StockDeltasStatement> createAddStatements(@NonNull final SaveResult saveResult)
+	{
+		final Candidate candidate = saveResult.getCandidate();
+		final MaterialDescriptor materialDescriptor = candidate.getMaterialDescriptor();
+
+		final ImmutableList.Builder<StockDeltasStatement> statements = ImmutableList.builder();
+		if (saveResult.isDateMoved())
+		{
+			final BigDecimal previousQty = saveResult.getPreviousQty();
+			if (previousQty != null)
+			{
+				addIfNotZero(statements, materialDescriptor, saveResult.getPreviousTime(), previousQty.negate());
+			}
+			addIfNotZero(statements, materialDescriptor, DateAndSeqNo.ofCandidate(candidate), candidate.getQuantity());
+		}
+		else
+		{
+			addIfNotZero(statements, materialDescriptor, DateAndSeqNo.ofCandidate(candidate), saveResult.getQtyDelta());
+		}
+		return statements.build();
+	}
+
+	private static void addIfNotZero(
+			@NonNull final ImmutableList.Builder<StockDeltasStatement> statements,
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final DateAndSeqNo time,
+			@Nullable final BigDecimal qtyDelta)
+	{
+		if (qtyDelta == null || qtyDelta.signum() == 0)
+		{
+			return;
+		}
+
+		statements.add(new StockDeltasStatement(
+				SQL_Add,
+				Collections.unmodifiableList(Arrays.asList(
+						materialDescriptor.getProductId(),
+						materialDescriptor.getWarehouseId().getRepoId(),
+						extractCustomerRepoId(materialDescriptor),
+						materialDescriptor.getStorageAttributesKey().getAsString(),
+						TimeUtil.asTimestamp(time.getDate()),
+						time.getSeqNo(),
+						qtyDelta))));
+	}
+
+	/**
+	 * @return a statement which sums up all deltas which are strictly before the given {@code time}.
+	 */
+	static StockDeltasStatement createRetrieveStockBeforeStatement(
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final DateAndSeqNo time)
+	{
+		return createRetrieveStockStatement(materialDescriptor, time.getDate(), time.getSeqNo());
+	}
+
+	/**
+	 * @return a statement which sums up all deltas until and including the given {@code date}.
+	 */
+	static StockDeltasStatement createRetrieveStockAtStatement(
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final Instant date)
+	{
+		return createRetrieveStockStatement(materialDescriptor, date, null);
+	}
+
+	private static StockDeltasStatement createRetrieveStockStatement(
+			@NonNull final MaterialDescriptor materialDescriptor,
+			@NonNull final Instant date,
+			@Nullable final Integer seqNo)
+	{
+		return new StockDeltasStatement(
+				SQL_RetrieveStock,
+				Collections.unmodifiableList(Arrays.asList(
+						materialDescriptor.getProductId(),
+						materialDescriptor.getWarehouseId().getRepoId(),
+						extractCustomerRepoId(materialDescriptor),
+						materialDescriptor.getStorageAttributesKey().getAsString(),
+						TimeUtil.asTimestamp(date),
+						seqNo)));
+	}
+
+	/**
+	 * Same as with the stock records: only if the quantity is reserved for the customer, it does not change the stock of other customers.
+	 */
+	private static int extractCustomerRepoId(@NonNull final MaterialDescriptor materialDescriptor)
+	{
+		return materialDescriptor.isReservedForCustomer() && materialDescriptor.getCustomerId() != null
+				? materialDescriptor.getCustomerId().getRepoId()
+				: 0;
+	}
+
+	String sql;
+
+	/** Might contain {@code null}, i.e. the {@code SeqNo} of a statement which includes all deltas at the given date */
+	List<Object> sqlParams;
+}
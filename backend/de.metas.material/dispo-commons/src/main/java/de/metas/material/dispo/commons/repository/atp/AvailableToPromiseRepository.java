@@ -124,7 +124,8 @@ public class AvailableToPromiseRepository
 	private IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForMaterialQueryOrNull(
 			@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
-		return multiQuery.getQueries()
+		// note that the result buckets are still created from the original queries; here we just reduce the number of selects
+		return AvailableToPromiseSqlHelper.mergeQueriesWithSameFiltersExceptProduct(multiQuery.getQueries())
 				.stream()
 				.filter(Objects::nonNull)
 				.map(AvailableToPromiseSqlHelper::createDBQueryForStockQuery)
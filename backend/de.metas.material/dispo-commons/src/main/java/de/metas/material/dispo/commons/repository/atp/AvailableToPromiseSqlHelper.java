@@ -1,5 +1,8 @@
 package de.metas.material.dispo.commons.repository.atp;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -8,6 +11,7 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
@@ -16,13 +20,16 @@ import org.compiere.util.TimeUtil;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyQueryHelper;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.experimental.UtilityClass;
 
 /*
@@ -50,6 +57,61 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 /* package */ final class AvailableToPromiseSqlHelper
 {
+	/**
+	 * Merges the given queries which differ only by their product IDs into one query per date, warehouses, bpartner and storage attributes key patterns.
+	 * <p>
+	 * A merged query selects exactly the union of the records which its original queries would have selected,
+	 * so e.g. the ATP of all lines of a sales order can be loaded with one {@code retrieve_atp_at_date} call instead of one per line.
+	 */
+	public ImmutableList<AvailableToPromiseQuery> mergeQueriesWithSameFiltersExceptProduct(@NonNull final Collection<AvailableToPromiseQuery> queries)
+	{
+		if (queries.size() <= 1)
+		{
+			return ImmutableList.copyOf(queries);
+		}
+
+		final LinkedHashMap<MergeKey, AvailableToPromiseQuery> mergedQueries = new LinkedHashMap<>();
+		for (final AvailableToPromiseQuery query : queries)
+		{
+			mergedQueries.merge(MergeKey.of(query), query, AvailableToPromiseSqlHelper::mergeProductIds);
+		}
+
+		return ImmutableList.copyOf(mergedQueries.values());
+	}
+
+	private AvailableToPromiseQuery mergeProductIds(
+			@NonNull final AvailableToPromiseQuery query1,
+			@NonNull final AvailableToPromiseQuery query2)
+	{
+		final ImmutableSet<Integer> productIds = ImmutableSet.<Integer> builder()
+				.addAll(query1.getProductIds())
+				.addAll(query2.getProductIds())
+				.build();
+
+		return query1.toBuilder()
+				.clearProductIds()
+				.productIds(productIds)
+				.build();
+	}
+
+	@Value
+	private static class MergeKey
+	{
+		static MergeKey of(@NonNull final AvailableToPromiseQuery query)
+		{
+			return new MergeKey(
+					query.getDate().toInstant(),
+					query.getWarehouseIds(),
+					query.getBpartner(),
+					query.getStorageAttributesKeyPatterns());
+		}
+
+		Instant date;
+		ImmutableSet<WarehouseId> warehouseIds;
+		BPartnerClassifier bpartner;
+		ImmutableList<AttributesKeyPattern> storageAttributesKeyPatterns;
+	}
+
 	public IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForStockQuery(@NonNull final AvailableToPromiseQuery query)
 	{
 		final IQueryBuilder<I_MD_Candidate_ATP_QueryResult> queryBuilder = createDBQueryForStockQueryBuilder(query);
@@ -64,7 +126,10 @@ import lombok.experimental.UtilityClass;
 			final TypedSqlQuery<I_MD_Candidate_ATP_QueryResult> sqlDbQuery = (TypedSqlQuery<I_MD_Candidate_ATP_QueryResult>)dbQuery;
 
 			final String dateString = DB.TO_DATE(query.getDate());
-			sqlDbQuery.setSqlFrom("de_metas_material.retrieve_atp_at_date(" + dateString + ")");
+			final String sqlFunctionName = isStockDeltasEnabled()
+					? "de_metas_material.retrieve_atp_from_deltas_at_date"
+					: "de_metas_material.retrieve_atp_at_date";
+			sqlDbQuery.setSqlFrom(sqlFunctionName + "(" + dateString + ")");
 		}
 
 		//
@@ -126,6 +191,14 @@ import lombok.experimental.UtilityClass;
 		return queryBuilder;
 	}
 
+	/**
+	 * @see StockDeltasRepository
+	 */
+	private boolean isStockDeltasEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(StockDeltasRepository.SYSCONFIG_Enabled, false);
+	}
+
 	private boolean isRealSqlQuery()
 	{
 		final boolean isRealSqlQuery = !Adempiere.isUnitTestMode();
@@ -0,0 +1,345 @@
+package de.metas.material.dispo.commons.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.material.dispo.commons.candidate.Candidate;
+import de.metas.material.dispo.commons.candidate.CandidateType;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.organization.ClientAndOrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the {@code de_metas_material} stock delta functions against a real database and benchmarks delta updates and point-in-time ATP reads.
+ * Every test runs in its own transaction which is rolled back in the end.
+ * The delta tables don't have foreign keys, so most tests use a product and warehouse ID which don't exist.
+ */
+@Ignore
+// requires database connection
+public class StockDeltasRepository_DBTest
+{
+	private static final int PRODUCT_ID = 999_999_901;
+	private static final WarehouseId WAREHOUSE_ID = WarehouseId.ofRepoId(999_999_902);
+	private static final BPartnerId CUSTOMER1_ID = BPartnerId.ofRepoId(999_999_903);
+	private static final BPartnerId CUSTOMER2_ID = BPartnerId.ofRepoId(999_999_904);
+
+	private static final Instant DAY1 = Instant.parse("2099-01-01T10:00:00Z");
+	private static final Instant DAY2 = DAY1.plus(1, ChronoUnit.DAYS);
+
+	private static final int BENCHMARK_DELTAS = 100_000;
+	private static final int BENCHMARK_DAYS = 365;
+	private static final int BENCHMARK_READS = 10_000;
+
+	private final StockDeltasRepository stockDeltasRepository = new StockDeltasRepository();
+
+	public static void main(final String[] args)
+	{
+		final StockDeltasRepository_DBTest test = new StockDeltasRepository_DBTest();
+
+		test.setupAdempiere();
+
+		test.test_retrieveStockFromDeltas();
+		test.test_retrieveAtpFromDeltasAtDate();
+		test.test_rebuild();
+		test.benchmark(); // warm up
+		test.benchmark();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.material\dispo-commons\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void test_retrieveStockFromDeltas()
+	{
+		runAndRollback(() -> {
+			addDelta(DAY1, 0, null, "10");
+			addDelta(DAY2.minus(2, ChronoUnit.HOURS), 1, null, "-3");
+			addDelta(DAY2.minus(2, ChronoUnit.HOURS), 2, null, "-2");
+			addDelta(DAY2, 0, null, "5");
+
+			final MaterialDescriptor materialDescriptor = materialDescriptor(DAY2, null);
+			assertStock(stockDeltasRepository.retrieveStockBefore(materialDescriptor, time(DAY1, 0)), "0");
+			assertStock(stockDeltasRepository.retrieveStockAt(materialDescriptor, DAY1), "10");
+			assertStock(stockDeltasRepository.retrieveStockBefore(materialDescriptor, time(DAY2.minus(2, ChronoUnit.HOURS), 2)), "7"); // day bucket of DAY1 + first delta of DAY2
+			assertStock(stockDeltasRepository.retrieveStockAt(materialDescriptor, DAY2.minus(2, ChronoUnit.HOURS)), "5");
+			assertStock(stockDeltasRepository.retrieveStockAt(materialDescriptor, DAY2), "10");
+			assertStock(stockDeltasRepository.retrieveStockAt(materialDescriptor, DAY2.plus(10, ChronoUnit.DAYS)), "10");
+		});
+	}
+
+	/**
+	 * The row without customer contains all deltas, a customer's row contains the unreserved deltas and the ones which are reserved for that customer.
+	 */
+	@Test
+	public void test_retrieveAtpFromDeltasAtDate()
+	{
+		runAndRollback(() -> {
+			addDelta(DAY1, 0, null, "10");
+			addDelta(DAY1, 1, CUSTOMER1_ID, "-4");
+			addDelta(DAY2, 0, CUSTOMER2_ID, "-1");
+
+			final Map<Integer, BigDecimal> atpByCustomerId = retrieveAtpByCustomerId(DAY2);
+			assertThat(atpByCustomerId).hasSize(3);
+			assertStock(atpByCustomerId.get(0), "5");
+			assertStock(atpByCustomerId.get(CUSTOMER1_ID.getRepoId()), "6");
+			assertStock(atpByCustomerId.get(CUSTOMER2_ID.getRepoId()), "9");
+
+			// the delta of customer2 is not yet relevant at DAY1, and customer2 has no row yet
+			final Map<Integer, BigDecimal> atpByCustomerIdAtDay1 = retrieveAtpByCustomerId(DAY1);
+			assertThat(atpByCustomerIdAtDay1).hasSize(2);
+			assertStock(atpByCustomerIdAtDay1.get(0), "6");
+			assertStock(atpByCustomerIdAtDay1.get(CUSTOMER1_ID.getRepoId()), "6");
+		});
+	}
+
+	/**
+	 * Supply and demand candidates with the same time end up in one delta; stock candidates are ignored.
+	 * Needs a product and a warehouse, because {@code MD_Candidate} has foreign keys.
+	 */
+	@Test
+	public void test_rebuild()
+	{
+		runAndRollback(() -> {
+			final int productId = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, "SELECT MIN(M_Product_ID) FROM M_Product WHERE IsActive='Y'");
+			final int warehouseId = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, "SELECT MIN(M_Warehouse_ID) FROM M_Warehouse WHERE IsActive='Y'");
+
+			createCandidateRecord(productId, warehouseId, X_MD_Candidate.MD_CANDIDATE_TYPE_SUPPLY, "10");
+			createCandidateRecord(productId, warehouseId, X_MD_Candidate.MD_CANDIDATE_TYPE_DEMAND, "3");
+			createCandidateRecord(productId, warehouseId, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK, "7");
+
+			DB.executeFunctionCallEx(ITrx.TRXNAME_ThreadInherited, "SELECT de_metas_material.MD_Candidate_Stock_Delta_Rebuild()", new Object[] {});
+
+			final BigDecimal delta = DB.getSQLValueBDEx(
+					ITrx.TRXNAME_ThreadInherited,
+					"SELECT QtyDelta FROM MD_Candidate_Stock_Delta WHERE M_Product_ID=? AND M_Warehouse_ID=? AND DateProjected=? AND SeqNo=?",
+					productId, warehouseId, TimeUtil.asTimestamp(DAY1), 4711);
+			assertStock(delta, "7");
+
+			final BigDecimal dayBucket = DB.getSQLValueBDEx(
+					ITrx.TRXNAME_ThreadInherited,
+					"SELECT QtyDelta FROM MD_Candidate_Stock_DayBucket WHERE M_Product_ID=? AND M_Warehouse_ID=? AND Day=?::date",
+					productId, warehouseId, TimeUtil.asTimestamp(DAY1));
+			assertStock(dayBucket, "7");
+		});
+	}
+
+	/**
+	 * Records {@link #BENCHMARK_DELTAS} deltas over {@link #BENCHMARK_DAYS} days for one product, then reads the stock and the ATP at random dates.
+	 */
+	@Test
+	public void benchmark()
+	{
+		System.out.println("Benchmark: deltas=" + BENCHMARK_DELTAS + ", days=" + BENCHMARK_DAYS + ", reads=" + BENCHMARK_READS + " ======================================================================");
+
+		runAndRollback(() -> {
+			final Random random = new Random(4711);
+
+			final Stopwatch addStopwatch = Stopwatch.createStarted();
+			for (int i = 0; i < BENCHMARK_DELTAS; i++)
+			{
+				final Instant date = randomDate(random);
+				final BPartnerId customerId = random.nextInt(10) == 0 ? CUSTOMER1_ID : null;
+				addDelta(date, random.nextInt(100), customerId, Integer.toString(random.nextInt(21) - 10));
+			}
+			addStopwatch.stop();
+			printThroughput("Added " + BENCHMARK_DELTAS + " deltas", BENCHMARK_DELTAS, addStopwatch);
+
+			final Stopwatch stockStopwatch = Stopwatch.createStarted();
+			for (int i = 0; i < BENCHMARK_READS; i++)
+			{
+				final Instant date = randomDate(random);
+				stockDeltasRepository.retrieveStockAt(materialDescriptor(date, null), date);
+			}
+			stockStopwatch.stop();
+			printThroughput("Retrieved the stock at " + BENCHMARK_READS + " dates", BENCHMARK_READS, stockStopwatch);
+
+			final int atpReads = BENCHMARK_READS / 10;
+			final Stopwatch atpStopwatch = Stopwatch.createStarted();
+			for (int i = 0; i < atpReads; i++)
+			{
+				retrieveAtpByCustomerId(randomDate(random));
+			}
+			atpStopwatch.stop();
+			printThroughput("Retrieved the ATP at " + atpReads + " dates", atpReads, atpStopwatch);
+		});
+	}
+
+	private static Instant randomDate(final Random random)
+	{
+		return DAY1.plus(random.nextInt(BENCHMARK_DAYS * 24 * 60), ChronoUnit.MINUTES);
+	}
+
+	private static void printThroughput(final String what, final int count, final Stopwatch stopwatch)
+	{
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.println(what + " in " + stopwatch + " => " + (count * 1000L / millis) + "/sec");
+	}
+
+	private static void runAndRollback(final Runnable runnable)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String trxName = trxManager.createTrxName(StockDeltasRepository_DBTest.class.getSimpleName(), true);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.Fail);
+		final String previousTrxName = trxManager.setThreadInheritedTrxName(trxName);
+		try
+		{
+			runnable.run();
+		}
+		finally
+		{
+			trxManager.setThreadInheritedTrxName(previousTrxName);
+			trx.rollback();
+			trx.close();
+		}
+	}
+
+	private void addDelta(final Instant date, final int seqNo, @Nullable final BPartnerId customerId, final String qty)
+	{
+		final Candidate candidate = Candidate.builder()
+				.type(CandidateType.SUPPLY)
+				.clientAndOrgId(ClientAndOrgId.ofClientAndOrg(1, 1))
+				.materialDescriptor(materialDescriptor(date, customerId).withQuantity(new BigDecimal(qty)))
+				.seqNo(seqNo)
+				.build();
+		stockDeltasRepository.addDeltas(SaveResult.builder().candidate(candidate).build());
+	}
+
+	private static MaterialDescriptor materialDescriptor(final Instant date, @Nullable final BPartnerId customerId)
+	{
+		return MaterialDescriptor.builder()
+				.productDescriptor(ProductDescriptor.forProductAndAttributes(PRODUCT_ID, AttributesKey.NONE))
+				.warehouseId(WAREHOUSE_ID)
+				.customerId(customerId)
+				.reservedForCustomer(customerId != null)
+				.quantity(BigDecimal.ZERO)
+				.date(date)
+				.build();
+	}
+
+	private static DateAndSeqNo time(final Instant date, final int seqNo)
+	{
+		return DateAndSeqNo.builder().date(date).seqNo(seqNo).build();
+	}
+
+	private static void assertStock(@Nullable final BigDecimal actual, final String expected)
+	{
+		assertThat(actual).isNotNull();
+		assertThat(actual).isEqualByComparingTo(expected);
+	}
+
+	private static Map<Integer, BigDecimal> retrieveAtpByCustomerId(final Instant date)
+	{
+		final String sql = "SELECT COALESCE(C_BPartner_Customer_ID, 0), Qty FROM de_metas_material.retrieve_atp_from_deltas_at_date(?) WHERE M_Product_ID=?";
+		final Object[] sqlParams = new Object[] { TimeUtil.asTimestamp(date), PRODUCT_ID };
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final Map<Integer, BigDecimal> atpByCustomerId = new HashMap<>();
+			while (rs.next())
+			{
+				atpByCustomerId.put(rs.getInt(1), rs.getBigDecimal(2));
+			}
+			return atpByCustomerId;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private static void createCandidateRecord(final int productId, final int warehouseId, final String type, final String qty)
+	{
+		final Timestamp dateProjected = TimeUtil.asTimestamp(DAY1);
+
+		final I_MD_Candidate record = InterfaceWrapperHelper.newInstance(I_MD_Candidate.class);
+		record.setMD_Candidate_Type(type);
+		record.setM_Product_ID(productId);
+		record.setM_Warehouse_ID(warehouseId);
+		record.setStorageAttributesKey(AttributesKey.NONE.getAsString());
+		record.setDateProjected(dateProjected);
+		record.setSeqNo(4711);
+		record.setQty(new BigDecimal(qty));
+		InterfaceWrapperHelper.save(record);
+	}
+}
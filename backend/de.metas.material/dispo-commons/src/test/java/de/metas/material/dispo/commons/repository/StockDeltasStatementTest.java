@@ -0,0 +1,210 @@
+package de.metas.material.dispo.commons.repository;
+
+import static de.metas.material.event.EventTestHelper.BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.BPARTNER_ID;
+import static de.metas.material.event.EventTestHelper.CLIENT_AND_ORG_ID;
+import static de.metas.material.event.EventTestHelper.NOW;
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.STORAGE_ATTRIBUTES_KEY;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static de.metas.material.event.EventTestHelper.createMaterialDescriptor;
+import static de.metas.material.event.EventTestHelper.createProductDescriptor;
+import static java.math.BigDecimal.TEN;
+import static java.math.BigDecimal.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.dispo.commons.candidate.Candidate;
+import de.metas.material.dispo.commons.candidate.CandidateType;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
+import de.metas.material.event.commons.MaterialDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockDeltasStatementTest
+{
+	private static Candidate supplyCandidate(final BigDecimal qty)
+	{
+		return Candidate.builder()
+				.type(CandidateType.SUPPLY)
+				.clientAndOrgId(CLIENT_AND_ORG_ID)
+				.materialDescriptor(createMaterialDescriptor().withQuantity(qty))
+				.seqNo(5)
+				.build();
+	}
+
+	private static DateAndSeqNo time(final Candidate candidate)
+	{
+		return DateAndSeqNo.ofCandidate(candidate);
+	}
+
+	private static Object[] addParams(final int customerId, final DateAndSeqNo time, final String qtyDelta)
+	{
+		return new Object[] {
+				PRODUCT_ID,
+				WAREHOUSE_ID.getRepoId(),
+				customerId,
+				STORAGE_ATTRIBUTES_KEY.getAsString(),
+				TimeUtil.asTimestamp(time.getDate()),
+				time.getSeqNo(),
+				new BigDecimal(qtyDelta) };
+	}
+
+	@Test
+	public void createAddStatements_qtyChanged()
+	{
+		final Candidate candidate = supplyCandidate(TEN);
+		final SaveResult saveResult = SaveResult.builder()
+				.candidate(candidate)
+				.previousTime(time(candidate))
+				.previousQty(new BigDecimal("4"))
+				.build();
+
+		final ImmutableList<StockDeltasStatement> statements = StockDeltasStatement.createAddStatements(saveResult);
+
+		assertThat(statements).hasSize(1);
+		assertThat(statements.get(0).getSql()).isEqualTo("SELECT de_metas_material.MD_Candidate_Stock_Delta_Add(?,?,?,?,?,?,?)");
+		assertThat(statements.get(0).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(0, time(candidate), "6"));
+	}
+
+	@Test
+	public void createAddStatements_newCandidate()
+	{
+		final Candidate candidate = supplyCandidate(TEN);
+
+		final ImmutableList<StockDeltasStatement> statements = StockDeltasStatement.createAddStatements(SaveResult.builder().candidate(candidate).build());
+
+		assertThat(statements).hasSize(1);
+		assertThat(statements.get(0).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(0, time(candidate), "10"));
+	}
+
+	@Test
+	public void createAddStatements_dateMoved()
+	{
+		final Candidate candidate = supplyCandidate(TEN);
+		final DateAndSeqNo previousTime = DateAndSeqNo.builder().date(BEFORE_NOW).seqNo(2).build();
+		final SaveResult saveResult = SaveResult.builder()
+				.candidate(candidate)
+				.previousTime(previousTime)
+				.previousQty(new BigDecimal("4"))
+				.build();
+
+		final ImmutableList<StockDeltasStatement> statements = StockDeltasStatement.createAddStatements(saveResult);
+
+		assertThat(statements).hasSize(2);
+		assertThat(statements.get(0).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(0, previousTime, "-4"));
+		assertThat(statements.get(1).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(0, time(candidate), "10"));
+	}
+
+	/**
+	 * That's the save result which {@code StockCandidateService.applyDeleteToMatchingLaterStockCandidates} creates for a deleted demand candidate with qty 10.
+	 */
+	@Test
+	public void createAddStatements_deletedDemand()
+	{
+		final Candidate candidate = supplyCandidate(ZERO).withType(CandidateType.DEMAND);
+		final SaveResult saveResult = SaveResult.builder()
+				.candidate(candidate)
+				.previousQty(TEN.negate())
+				.build();
+
+		final ImmutableList<StockDeltasStatement> statements = StockDeltasStatement.createAddStatements(saveResult);
+
+		assertThat(statements).hasSize(1);
+		assertThat(statements.get(0).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(0, time(candidate), "10"));
+	}
+
+	@Test
+	public void createAddStatements_noChange()
+	{
+		final Candidate candidate = supplyCandidate(TEN);
+		final SaveResult saveResult = SaveResult.builder()
+				.candidate(candidate)
+				.previousTime(time(candidate))
+				.previousQty(TEN)
+				.build();
+
+		assertThat(StockDeltasStatement.createAddStatements(saveResult)).isEmpty();
+	}
+
+	@Test
+	public void createAddStatements_reservedForCustomer()
+	{
+		final Candidate candidate = supplyCandidate(TEN);
+		final MaterialDescriptor reservedMaterialDescriptor = MaterialDescriptor.builder()
+				.productDescriptor(createProductDescriptor())
+				.warehouseId(WAREHOUSE_ID)
+				.customerId(BPARTNER_ID)
+				.reservedForCustomer(true)
+				.quantity(TEN)
+				.date(candidate.getDate())
+				.build();
+
+		final ImmutableList<StockDeltasStatement> statements = StockDeltasStatement.createAddStatements(
+				SaveResult.builder().candidate(candidate.withMaterialDescriptor(reservedMaterialDescriptor)).build());
+
+		assertThat(statements.get(0).getSqlParams()).usingElementComparator(StockDeltasStatementTest::compareParams)
+				.containsExactly(addParams(BPARTNER_ID.getRepoId(), time(candidate), "10"));
+	}
+
+	@Test
+	public void createRetrieveStockStatements()
+	{
+		final MaterialDescriptor materialDescriptor = createMaterialDescriptor();
+		final DateAndSeqNo time = DateAndSeqNo.builder().date(NOW).seqNo(5).build();
+
+		final StockDeltasStatement before = StockDeltasStatement.createRetrieveStockBeforeStatement(materialDescriptor, time);
+		assertThat(before.getSql()).isEqualTo("SELECT de_metas_material.retrieve_stock_from_deltas(?,?,?,?,?,?)");
+		assertThat(before.getSqlParams()).containsExactly(
+				PRODUCT_ID,
+				WAREHOUSE_ID.getRepoId(),
+				0, // not reserved for the customer
+				STORAGE_ATTRIBUTES_KEY.getAsString(),
+				TimeUtil.asTimestamp(NOW),
+				5);
+
+		final StockDeltasStatement at = StockDeltasStatement.createRetrieveStockAtStatement(materialDescriptor, NOW);
+		assertThat(at.getSql()).isEqualTo(before.getSql());
+		assertThat(at.getSqlParams()).endsWith(TimeUtil.asTimestamp(NOW), null);
+	}
+
+	private static int compareParams(final Object actual, final Object expected)
+	{
+		if (actual instanceof BigDecimal && expected instanceof BigDecimal)
+		{
+			return ((BigDecimal)actual).compareTo((BigDecimal)expected);
+		}
+		return actual.equals(expected) ? 0 : 1;
+	}
+}
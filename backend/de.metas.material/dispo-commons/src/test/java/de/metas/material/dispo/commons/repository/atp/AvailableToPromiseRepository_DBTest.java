@@ -0,0 +1,149 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks the ATP retrieval of a sales order with 10, 100 and 1000 lines (one product per line) against a real database,
+ * once with all lines in one {@link AvailableToPromiseMultiQuery} (i.e. one merged select) and once line by line.
+ * Use a database with realistic {@code MD_Candidate} data.
+ */
+@Ignore
+// requires database connection
+public class AvailableToPromiseRepository_DBTest
+{
+	private static final int[] BENCHMARK_PRODUCTS_COUNTS = { 10, 100, 1000 };
+	private static final int BENCHMARK_RUNS = 10;
+
+	private final AvailableToPromiseRepository availableToPromiseRepository = new AvailableToPromiseRepository();
+
+	public static void main(final String[] args)
+	{
+		final AvailableToPromiseRepository_DBTest test = new AvailableToPromiseRepository_DBTest();
+
+		test.setupAdempiere();
+
+		test.benchmark(); // warm up
+		test.benchmark();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.material\dispo-commons\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void benchmark()
+	{
+		final int maxProductsCount = BENCHMARK_PRODUCTS_COUNTS[BENCHMARK_PRODUCTS_COUNTS.length - 1];
+		final List<Integer> productIds = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_Product.class)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_Product.COLUMNNAME_M_Product_ID)
+				.setLimit(maxProductsCount)
+				.create()
+				.listIds();
+		assertThat(productIds).as("products in database").isNotEmpty();
+
+		final ZonedDateTime date = SystemTime.asZonedDateTime();
+		for (final int productsCount : BENCHMARK_PRODUCTS_COUNTS)
+		{
+			final List<Integer> orderLineProductIds = productIds.subList(0, Math.min(productsCount, productIds.size()));
+			System.out.println("Benchmark: products=" + orderLineProductIds.size() + ", runs=" + BENCHMARK_RUNS + " ======================================================================");
+
+			final AvailableToPromiseMultiQuery.AvailableToPromiseMultiQueryBuilder multiQuery = AvailableToPromiseMultiQuery.builder();
+			for (final int productId : orderLineProductIds)
+			{
+				multiQuery.query(query(productId, date));
+			}
+			final AvailableToPromiseMultiQuery allLinesQuery = multiQuery.build();
+
+			final Stopwatch mergedStopwatch = Stopwatch.createStarted();
+			for (int run = 0; run < BENCHMARK_RUNS; run++)
+			{
+				availableToPromiseRepository.retrieveAvailableStock(allLinesQuery);
+			}
+			mergedStopwatch.stop();
+			printLatency("Retrieved the ATP of all lines in one multi query", mergedStopwatch);
+
+			final Stopwatch lineByLineStopwatch = Stopwatch.createStarted();
+			for (int run = 0; run < BENCHMARK_RUNS; run++)
+			{
+				for (final int productId : orderLineProductIds)
+				{
+					availableToPromiseRepository.retrieveAvailableStock(query(productId, date));
+				}
+			}
+			lineByLineStopwatch.stop();
+			printLatency("Retrieved the ATP line by line", lineByLineStopwatch);
+		}
+	}
+
+	private static AvailableToPromiseQuery query(final int productId, final ZonedDateTime date)
+	{
+		return AvailableToPromiseQuery.builder()
+				.productId(productId)
+				.date(date)
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.bpartner(BPartnerClassifier.any())
+				.build();
+	}
+
+	private static void printLatency(final String what, final Stopwatch stopwatch)
+	{
+		final long millisPerRun = stopwatch.elapsed(TimeUnit.MILLISECONDS) / BENCHMARK_RUNS;
+		System.out.println(what + " in " + stopwatch + " => " + millisPerRun + "ms/order");
+	}
+}
@@ -17,6 +17,9 @@ import org.compiere.util.TimeUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
 import de.metas.material.event.EventTestHelper;
@@ -164,4 +167,26 @@ public class AvailableToPromiseSqlHelperTest
 				.addFilter(ConstantQueryFilter.of(true)); // attributes filter
 		assertThat(dbFilter).isEqualTo(expectedFilter);
 	}
+
+	@Test
+	public void mergeQueriesWithSameFiltersExceptProduct()
+	{
+		final AvailableToPromiseQuery query1 = AvailableToPromiseQuery.builder()
+				.productId(10)
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.bpartner(BPartnerClassifier.specific(BPARTNER_ID))
+				.date(TimeUtil.asZonedDateTime(NOW))
+				.build();
+		final AvailableToPromiseQuery query2 = query1.toBuilder().clearProductIds().productId(20).build();
+		final AvailableToPromiseQuery query3 = query1.toBuilder().clearProductIds().productId(10).build();
+		final AvailableToPromiseQuery queryWithOtherWarehouse = query1.toBuilder().clearProductIds().productId(30).warehouseId(WAREHOUSE_ID).build();
+
+		// invoke the method under test
+		final ImmutableList<AvailableToPromiseQuery> mergedQueries = AvailableToPromiseSqlHelper.mergeQueriesWithSameFiltersExceptProduct(
+				ImmutableList.of(query1, query2, query3, queryWithOtherWarehouse));
+
+		assertThat(mergedQueries).containsExactly(
+				query1.toBuilder().clearProductIds().productId(10).productId(20).build(),
+				queryWithOtherWarehouse);
+	}
 }
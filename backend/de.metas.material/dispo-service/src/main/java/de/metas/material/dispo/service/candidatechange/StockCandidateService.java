@@ -6,9 +6,11 @@ import de.metas.material.dispo.commons.candidate.CandidateId;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.DeleteResult;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
 import de.metas.material.dispo.commons.repository.DateAndSeqNo;
 import de.metas.material.dispo.commons.repository.DateAndSeqNo.Operator;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.commons.repository.atp.BPartnerClassifier;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.query.MaterialDescriptorQuery;
@@ -27,6 +29,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import static java.math.BigDecimal.ZERO;
 import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
@@ -58,13 +61,16 @@ public class StockCandidateService
 {
 	private final CandidateRepositoryRetrieval candidateRepositoryRetrieval;
 	private final CandidateRepositoryWriteService candidateRepositoryWriteService;
+	private final StockDeltasRepository stockDeltasRepository;
 
 	public StockCandidateService(
 			@NonNull final CandidateRepositoryRetrieval candidateRepositoryRetrieval,
-			@NonNull final CandidateRepositoryWriteService candidateRepositoryWriteService)
+			@NonNull final CandidateRepositoryWriteService candidateRepositoryWriteService,
+			@NonNull final StockDeltasRepository stockDeltasRepository)
 	{
 		this.candidateRepositoryRetrieval = candidateRepositoryRetrieval;
 		this.candidateRepositoryWriteService = candidateRepositoryWriteService;
+		this.stockDeltasRepository = stockDeltasRepository;
 	}
 
 	/**
@@ -95,7 +101,9 @@ public class StockCandidateService
 		}
 		else
 		{
-			previousQty = previousStockOrNull.getQuantity();
+			previousQty = stockDeltasRepository.isEnabled()
+					? stockDeltasRepository.retrieveStockBefore(candidate.getMaterialDescriptor(), DateAndSeqNo.ofCandidate(candidate))
+					: previousStockOrNull.getQuantity();
 			newQty = previousQty.add(candidate.getQuantity());
 		}
 
@@ -168,9 +176,17 @@ public class StockCandidateService
 	/**
 	 * Selects all stock candidates which have the same product and locator but a later timestamp than the one from the given {@code materialDescriptor}.
 	 * Iterate them and add the given {@code delta} to their quantity.
+	 * <p>
+	 * If {@link StockDeltasRepository#isEnabled()}, then just the delta is recorded and the later stock candidates are not updated.
 	 */
 	public void applyDeltaToMatchingLaterStockCandidates(@NonNull final SaveResult stockWithDelta)
 	{
+		if (stockDeltasRepository.isEnabled())
+		{
+			stockDeltasRepository.addDeltas(stockWithDelta);
+			return;
+		}
+
 		final CandidatesQuery query = createStockQueryBetweenDates(stockWithDelta);
 
 		final BigDecimal deltaUntilRangeEnd;
@@ -225,6 +241,45 @@ public class StockCandidateService
 		}
 	}
 
+	/**
+	 * Removes the quantity of a deleted supply or demand candidate from the later stock.
+	 *
+	 * @param deletedCandidate the deleted supply or demand candidate
+	 * @param candidateDeleteResult the result of deleting {@code deletedCandidate}
+	 * @param deletedStockChange the stock change that was caused by {@code deletedCandidate}, i.e. its quantity, negated in case of a demand candidate
+	 * @param stockDeleteResult the result of deleting the candidate's stock candidate
+	 */
+	public void applyDeleteToMatchingLaterStockCandidates(
+			@NonNull final Candidate deletedCandidate,
+			@NonNull final DeleteResult candidateDeleteResult,
+			@NonNull final BigDecimal deletedStockChange,
+			@NonNull final DeleteResult stockDeleteResult)
+	{
+		if (stockDeltasRepository.isEnabled())
+		{
+			// the deltas are recorded per candidate, so just the deleted candidate's own quantity is removed at the candidate's own time
+			final DateAndSeqNo timeOfDeletedCandidate = candidateDeleteResult.getPreviousTime();
+			stockDeltasRepository.addDeltas(SaveResult.builder()
+					.candidate(deletedCandidate
+							.withQuantity(ZERO)
+							.withDate(timeOfDeletedCandidate.getDate())
+							.withSeqNo(timeOfDeletedCandidate.getSeqNo()))
+					.previousQty(deletedStockChange)
+					.build());
+			return;
+		}
+
+		final DateAndSeqNo timeOfDeletedStock = stockDeleteResult.getPreviousTime();
+		final SaveResult applyDeltaRequest = SaveResult.builder()
+				.candidate(deletedCandidate
+						.withQuantity(ZERO)
+						.withDate(timeOfDeletedStock.getDate())
+						.withSeqNo(timeOfDeletedStock.getSeqNo()))
+				.previousQty(stockDeleteResult.getPreviousQty())
+				.build();
+		applyDeltaToMatchingLaterStockCandidates(applyDeltaRequest);
+	}
+
 	private CandidatesQuery createStockQueryUntilDate(
 			@NonNull final Candidate candidate)
 	{
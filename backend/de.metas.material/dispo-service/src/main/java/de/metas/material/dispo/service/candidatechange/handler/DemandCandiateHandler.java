@@ -11,7 +11,6 @@ import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.DeleteResult;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
-import de.metas.material.dispo.commons.repository.DateAndSeqNo;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseMultiQuery;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.service.candidatechange.StockCandidateService;
@@ -146,7 +145,7 @@ public class DemandCandiateHandler implements CandidateHandler
 	{
 		assertCorrectCandidateType(candidate);
 
-		candidateRepositoryWriteService.deleteCandidatebyId(candidate.getId());
+		final DeleteResult candidateDeleteResult = candidateRepositoryWriteService.deleteCandidatebyId(candidate.getId());
 
 		final Optional<Candidate> childStockCandidate = candidateRepository.retrieveSingleChild(candidate.getId());
 		if (!childStockCandidate.isPresent())
@@ -155,15 +154,11 @@ public class DemandCandiateHandler implements CandidateHandler
 		}
 		final DeleteResult stockDeleteResult = candidateRepositoryWriteService.deleteCandidatebyId(childStockCandidate.get().getId());
 
-		final DateAndSeqNo timeOfDeletedStock = stockDeleteResult.getPreviousTime();
-		final SaveResult applyDeltaRequest = SaveResult.builder()
-				.candidate(candidate
-						.withQuantity(ZERO)
-						.withDate(timeOfDeletedStock.getDate())
-						.withSeqNo(timeOfDeletedStock.getSeqNo()))
-				.previousQty(stockDeleteResult.getPreviousQty())
-				.build();
-		stockCandidateService.applyDeltaToMatchingLaterStockCandidates(applyDeltaRequest);
+		stockCandidateService.applyDeleteToMatchingLaterStockCandidates(
+				candidate,
+				candidateDeleteResult,
+				candidateDeleteResult.getPreviousQty().negate(),
+				stockDeleteResult);
 	}
 
 	private void assertCorrectCandidateType(@NonNull final Candidate demandCandidate)
@@ -8,7 +8,6 @@ import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.DeleteResult;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
-import de.metas.material.dispo.commons.repository.DateAndSeqNo;
 import de.metas.material.dispo.service.candidatechange.StockCandidateService;
 import lombok.NonNull;
 import org.springframework.context.annotation.Profile;
@@ -16,8 +15,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 
-import static java.math.BigDecimal.ZERO;
-
 /*
  * #%L
  * metasfresh-material-dispo-service
@@ -129,19 +126,15 @@ public class SupplyCandidateHandler implements CandidateHandler
 	{
 		assertCorrectCandidateType(candidate);
 
-		candidateRepositoryWriteService.deleteCandidatebyId(candidate.getId());
+		final DeleteResult candidateDeleteResult = candidateRepositoryWriteService.deleteCandidatebyId(candidate.getId());
 
 		final DeleteResult stockDeleteResult = candidateRepositoryWriteService.deleteCandidatebyId(candidate.getParentId());
 
-		final DateAndSeqNo timeOfDeletedStock = stockDeleteResult.getPreviousTime();
-		final SaveResult applyDeltaRequest = SaveResult.builder()
-				.candidate(candidate
-						.withQuantity(ZERO)
-						.withDate(timeOfDeletedStock.getDate())
-						.withSeqNo(timeOfDeletedStock.getSeqNo()))
-				.previousQty(stockDeleteResult.getPreviousQty())
-				.build();
-		stockCandidateService.applyDeltaToMatchingLaterStockCandidates(applyDeltaRequest);
+		stockCandidateService.applyDeleteToMatchingLaterStockCandidates(
+				candidate,
+				candidateDeleteResult,
+				candidateDeleteResult.getPreviousQty(),
+				stockDeleteResult);
 	}
 
 	private void assertCorrectCandidateType(@NonNull final Candidate supplyCandidate)
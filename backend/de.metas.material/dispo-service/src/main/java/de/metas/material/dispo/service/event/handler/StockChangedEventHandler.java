@@ -21,6 +21,7 @@ import de.metas.material.dispo.commons.candidate.TransactionDetail;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.DateAndSeqNo;
 import de.metas.material.dispo.commons.repository.DateAndSeqNo.Operator;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.query.MaterialDescriptorQuery;
 import de.metas.material.dispo.service.candidatechange.CandidateChangeService;
@@ -65,13 +66,16 @@ public class StockChangedEventHandler implements MaterialEventHandler<StockChang
 
 	private final CandidateRepositoryRetrieval candidateRepository;
 	private final CandidateChangeService candidateChangeHandler;
+	private final StockDeltasRepository stockDeltasRepository;
 
 	public StockChangedEventHandler(
 			@NonNull final CandidateRepositoryRetrieval candidateRepository,
-			@NonNull final CandidateChangeService candidateChangeHandler)
+			@NonNull final CandidateChangeService candidateChangeHandler,
+			@NonNull final StockDeltasRepository stockDeltasRepository)
 	{
 		this.candidateChangeHandler = candidateChangeHandler;
 		this.candidateRepository = candidateRepository;
+		this.stockDeltasRepository = stockDeltasRepository;
 	}
 
 	@Override
@@ -133,7 +137,7 @@ public class StockChangedEventHandler implements MaterialEventHandler<StockChang
 			// we work with the delta to the predecessor candidate, so that we can invoke our existing candidateChangeHandler implementation
 			final BigDecimal qtyDifference = event
 					.getQtyOnHand()
-					.subtract(latestStockRecord.getQuantity());
+					.subtract(retrieveProjectedStock(event, latestStockRecord));
 
 			final CandidateType type = computeCandidateTypeOrNull(qtyDifference);
 			if (type == null)
@@ -159,6 +163,24 @@ public class StockChangedEventHandler implements MaterialEventHandler<StockChang
 		candidateChangeHandler.onCandidateNewOrChange(candidate);
 	}
 
+	/**
+	 * If {@link StockDeltasRepository#isEnabled()}, then the given latest stock record's quantity is not updated anymore when earlier candidates change.
+	 */
+	private BigDecimal retrieveProjectedStock(
+			@NonNull final StockChangedEvent event,
+			@NonNull final Candidate latestStockRecord)
+	{
+		if (!stockDeltasRepository.isEnabled())
+		{
+			return latestStockRecord.getQuantity();
+		}
+
+		final MaterialDescriptor materialDescriptor = createMaterialDescriptorBuilder(event)
+				.quantity(BigDecimal.ZERO)
+				.build();
+		return stockDeltasRepository.retrieveStockAt(materialDescriptor, materialDescriptor.getDate());
+	}
+
 	private BigDecimal extractQuantityIfPositive(@NonNull final StockChangedEvent event)
 	{
 		final BigDecimal quantityOnHand = event.getQtyOnHand();
@@ -0,0 +1,168 @@
+--
+-- Stock deltas: each ATP relevant change of a non-stock MD_Candidate is recorded as a delta at the candidate's (DateProjected, SeqNo).
+-- The deltas are additionally summed up per day, so the stock at a given date is
+--   sum(day buckets before that date's day) + sum(deltas of that day until the given date).
+-- Both tables are only maintained if the SysConfig de.metas.material.dispo.StockDeltas.Enabled is set to Y.
+-- Before setting it, run SELECT de_metas_material.MD_Candidate_Stock_Delta_Rebuild();
+--
+-- C_BPartner_Customer_ID=0 means that the delta is not reserved for a particular customer.
+--
+
+CREATE TABLE public.MD_Candidate_Stock_Delta
+(
+	M_Product_ID           numeric(10)              NOT NULL,
+	M_Warehouse_ID         numeric(10)              NOT NULL,
+	C_BPartner_Customer_ID numeric(10)              NOT NULL DEFAULT 0,
+	StorageAttributesKey   character varying(1024)  NOT NULL,
+	Day                    date                     NOT NULL,
+	DateProjected          timestamp with time zone NOT NULL,
+	SeqNo                  numeric(10)              NOT NULL DEFAULT 0,
+	QtyDelta               numeric                  NOT NULL DEFAULT 0,
+	CONSTRAINT MD_Candidate_Stock_Delta_Key PRIMARY KEY (M_Product_ID, M_Warehouse_ID, StorageAttributesKey, C_BPartner_Customer_ID, Day, DateProjected, SeqNo)
+)
+;
+
+CREATE TABLE public.MD_Candidate_Stock_DayBucket
+(
+	M_Product_ID           numeric(10)             NOT NULL,
+	M_Warehouse_ID         numeric(10)             NOT NULL,
+	C_BPartner_Customer_ID numeric(10)             NOT NULL DEFAULT 0,
+	StorageAttributesKey   character varying(1024) NOT NULL,
+	Day                    date                    NOT NULL,
+	QtyDelta               numeric                 NOT NULL DEFAULT 0,
+	CONSTRAINT MD_Candidate_Stock_DayBucket_Key PRIMARY KEY (M_Product_ID, M_Warehouse_ID, StorageAttributesKey, C_BPartner_Customer_ID, Day)
+)
+;
+
+CREATE INDEX MD_Candidate_Stock_DayBucket_Day
+	ON public.MD_Candidate_Stock_DayBucket (Day)
+;
+
+
+
+DROP FUNCTION IF EXISTS de_metas_material.MD_Candidate_Stock_Delta_Add(numeric, numeric, numeric, character varying, timestamp with time zone, numeric, numeric);
+CREATE FUNCTION de_metas_material.MD_Candidate_Stock_Delta_Add(
+	p_M_Product_ID numeric,
+	p_M_Warehouse_ID numeric,
+	p_C_BPartner_Customer_ID numeric,
+	p_StorageAttributesKey character varying,
+	p_DateProjected timestamp with time zone,
+	p_SeqNo numeric,
+	p_QtyDelta numeric)
+RETURNS void AS
+$BODY$
+	INSERT INTO MD_Candidate_Stock_Delta (M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day, DateProjected, SeqNo, QtyDelta)
+	VALUES (p_M_Product_ID, p_M_Warehouse_ID, COALESCE(p_C_BPartner_Customer_ID, 0), p_StorageAttributesKey, p_DateProjected::date, p_DateProjected, COALESCE(p_SeqNo, 0), p_QtyDelta)
+	ON CONFLICT ON CONSTRAINT MD_Candidate_Stock_Delta_Key DO UPDATE SET QtyDelta = MD_Candidate_Stock_Delta.QtyDelta + EXCLUDED.QtyDelta;
+
+	INSERT INTO MD_Candidate_Stock_DayBucket (M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day, QtyDelta)
+	VALUES (p_M_Product_ID, p_M_Warehouse_ID, COALESCE(p_C_BPartner_Customer_ID, 0), p_StorageAttributesKey, p_DateProjected::date, p_QtyDelta)
+	ON CONFLICT ON CONSTRAINT MD_Candidate_Stock_DayBucket_Key DO UPDATE SET QtyDelta = MD_Candidate_Stock_DayBucket.QtyDelta + EXCLUDED.QtyDelta;
+$BODY$
+	LANGUAGE sql VOLATILE;
+COMMENT ON FUNCTION de_metas_material.MD_Candidate_Stock_Delta_Add(numeric, numeric, numeric, character varying, timestamp with time zone, numeric, numeric)
+	IS 'Adds the given delta to both MD_Candidate_Stock_Delta and MD_Candidate_Stock_DayBucket. Called by StockDeltasRepository.';
+
+
+
+DROP FUNCTION IF EXISTS de_metas_material.retrieve_stock_from_deltas(numeric, numeric, numeric, character varying, timestamp with time zone, numeric);
+CREATE FUNCTION de_metas_material.retrieve_stock_from_deltas(
+	p_M_Product_ID numeric,
+	p_M_Warehouse_ID numeric,
+	p_C_BPartner_Customer_ID numeric,
+	p_StorageAttributesKey character varying,
+	p_Date timestamp with time zone,
+	p_SeqNo numeric /* deltas with this DateProjected and a SeqNo >= p_SeqNo are excluded; NULL means they are included */)
+RETURNS numeric AS
+$BODY$
+	SELECT
+		COALESCE((SELECT SUM(b.QtyDelta)
+				  FROM MD_Candidate_Stock_DayBucket b
+				  WHERE b.M_Product_ID = p_M_Product_ID AND b.M_Warehouse_ID = p_M_Warehouse_ID AND b.StorageAttributesKey = p_StorageAttributesKey
+					AND (COALESCE(p_C_BPartner_Customer_ID, 0) = 0 OR b.C_BPartner_Customer_ID IN (0, p_C_BPartner_Customer_ID))
+					AND b.Day < p_Date::date), 0)
+		+
+		COALESCE((SELECT SUM(d.QtyDelta)
+				  FROM MD_Candidate_Stock_Delta d
+				  WHERE d.M_Product_ID = p_M_Product_ID AND d.M_Warehouse_ID = p_M_Warehouse_ID AND d.StorageAttributesKey = p_StorageAttributesKey
+					AND (COALESCE(p_C_BPartner_Customer_ID, 0) = 0 OR d.C_BPartner_Customer_ID IN (0, p_C_BPartner_Customer_ID))
+					AND d.Day = p_Date::date
+					AND (d.DateProjected < p_Date OR (d.DateProjected = p_Date AND (p_SeqNo IS NULL OR d.SeqNo < p_SeqNo)))), 0)
+$BODY$
+	LANGUAGE sql STABLE;
+COMMENT ON FUNCTION de_metas_material.retrieve_stock_from_deltas(numeric, numeric, numeric, character varying, timestamp with time zone, numeric)
+	IS 'Returns the projected stock of the given product, warehouse and StorageAttributesKey at the given date.
+If p_C_BPartner_Customer_ID is NULL or 0, then all deltas are summed up, otherwise only the deltas which are not reserved or which are reserved for the given customer.
+This is the same as what is maintained in the Qty of the MD_Candidate STOCK records.';
+
+
+
+DROP FUNCTION IF EXISTS de_metas_material.retrieve_atp_from_deltas_at_date(timestamp with time zone);
+CREATE FUNCTION de_metas_material.retrieve_atp_from_deltas_at_date(IN p_date timestamp with time zone)
+RETURNS TABLE(
+	M_Product_ID numeric,
+	M_Warehouse_ID numeric,
+	C_BPartner_Customer_ID numeric,
+	StorageAttributesKey character varying,
+	DateProjected timestamp with time zone,
+	SeqNo numeric,
+	Qty numeric) AS
+$BODY$
+	SELECT
+		k.M_Product_ID,
+		k.M_Warehouse_ID,
+		NULLIF(k.C_BPartner_Customer_ID, 0),
+		k.StorageAttributesKey,
+		k.DateProjected,
+		0::numeric,
+		de_metas_material.retrieve_stock_from_deltas(k.M_Product_ID, k.M_Warehouse_ID, k.C_BPartner_Customer_ID, k.StorageAttributesKey, p_date, NULL)
+	FROM (
+		SELECT b.M_Product_ID, b.M_Warehouse_ID, b.C_BPartner_Customer_ID, b.StorageAttributesKey, MAX(b.Day)::timestamp with time zone AS DateProjected
+		FROM MD_Candidate_Stock_DayBucket b
+		WHERE b.Day <= p_date::date
+		GROUP BY b.M_Product_ID, b.M_Warehouse_ID, b.C_BPartner_Customer_ID, b.StorageAttributesKey
+	) k
+$BODY$
+	LANGUAGE sql STABLE;
+COMMENT ON FUNCTION de_metas_material.retrieve_atp_from_deltas_at_date(timestamp with time zone)
+	IS 'Same result columns as de_metas_material.retrieve_atp_at_date, but computed from MD_Candidate_Stock_DayBucket and MD_Candidate_Stock_Delta instead of the latest MD_Candidate STOCK records.
+Note that DateProjected is the day of the most recent delta and SeqNo is always 0.
+Please keep this function in sync with the AD_Table named MD_Candidate_ATP_QueryResult.';
+
+
+
+DROP FUNCTION IF EXISTS de_metas_material.MD_Candidate_Stock_Delta_Rebuild();
+CREATE FUNCTION de_metas_material.MD_Candidate_Stock_Delta_Rebuild()
+RETURNS void AS
+$BODY$
+	DELETE FROM MD_Candidate_Stock_Delta;
+	DELETE FROM MD_Candidate_Stock_DayBucket;
+
+	INSERT INTO MD_Candidate_Stock_Delta (M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day, DateProjected, SeqNo, QtyDelta)
+	SELECT
+		c.M_Product_ID,
+		c.M_Warehouse_ID,
+		CASE WHEN c.IsReservedForCustomer = 'Y' THEN COALESCE(c.C_BPartner_Customer_ID, 0) ELSE 0 END,
+		c.StorageAttributesKey,
+		c.DateProjected::date,
+		c.DateProjected,
+		COALESCE(c.SeqNo, 0),
+		SUM(CASE
+				WHEN c.MD_Candidate_Type IN ('SUPPLY', 'UNEXPECTED_INCREASE', 'INVENTORY_UP', 'ATTRIBUTES_CHANGED_TO') THEN c.Qty
+				ELSE -c.Qty
+			END)
+	FROM MD_Candidate c
+	WHERE c.IsActive = 'Y'
+	  AND c.MD_Candidate_Type IN ('SUPPLY', 'UNEXPECTED_INCREASE', 'INVENTORY_UP', 'ATTRIBUTES_CHANGED_TO',
+								  'DEMAND', 'UNEXPECTED_DECREASE', 'INVENTORY_DOWN', 'ATTRIBUTES_CHANGED_FROM')
+	GROUP BY 1, 2, 3, 4, 5, 6, 7;
+
+	INSERT INTO MD_Candidate_Stock_DayBucket (M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day, QtyDelta)
+	SELECT M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day, SUM(QtyDelta)
+	FROM MD_Candidate_Stock_Delta
+	GROUP BY M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, Day;
+$BODY$
+	LANGUAGE sql VOLATILE;
+COMMENT ON FUNCTION de_metas_material.MD_Candidate_Stock_Delta_Rebuild()
+	IS 'Recomputes MD_Candidate_Stock_Delta and MD_Candidate_Stock_DayBucket from the active non-stock MD_Candidates.
+Needs to be run before the SysConfig de.metas.material.dispo.StockDeltas.Enabled is set to Y.';
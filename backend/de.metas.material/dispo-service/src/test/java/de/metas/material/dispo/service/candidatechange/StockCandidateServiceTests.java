@@ -8,8 +8,10 @@ import de.metas.material.dispo.commons.candidate.CandidateId;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.DeleteResult;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService.SaveResult;
 import de.metas.material.dispo.commons.repository.DateAndSeqNo;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.event.commons.MaterialDescriptor;
 import lombok.NonNull;
@@ -19,6 +21,8 @@ import org.compiere.util.TimeUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
@@ -91,7 +95,8 @@ public class StockCandidateServiceTests
 		candidateRepositoryWriteService = new CandidateRepositoryWriteService();
 		stockCandidateService = new StockCandidateService(
 				candidateRepository,
-				candidateRepositoryWriteService);
+				candidateRepositoryWriteService,
+				new StockDeltasRepository());
 	}
 
 	private SaveResult createStockRecordAtTimeNOW(@Nullable final BPartnerId customerId)
@@ -485,6 +490,35 @@ public class StockCandidateServiceTests
 		assertDateAndQty(records.get(4), t6, "11");
 	}
 
+	/**
+	 * With stock deltas, a deleted demand candidate's own quantity is added back at the candidate's own time;
+	 * the deleted stock candidate's quantity (i.e. the running total) does not matter.
+	 */
+	@Test
+	void applyDeleteToMatchingLaterStockCandidates_stockDeltas()
+	{
+		final StockDeltasRepository stockDeltasRepository = Mockito.mock(StockDeltasRepository.class);
+		Mockito.when(stockDeltasRepository.isEnabled()).thenReturn(true);
+		stockCandidateService = new StockCandidateService(new CandidateRepositoryRetrieval(), candidateRepositoryWriteService, stockDeltasRepository);
+
+		final Candidate demandCandidate = Candidate.builder()
+				.type(CandidateType.DEMAND)
+				.clientAndOrgId(CLIENT_AND_ORG_ID)
+				.materialDescriptor(createMaterialDescriptor())
+				.build();
+		final DeleteResult candidateDeleteResult = new DeleteResult(CandidateId.ofRepoId(10), DateAndSeqNo.builder().date(BEFORE_NOW).seqNo(3).build(), TEN);
+		final DeleteResult stockDeleteResult = new DeleteResult(CandidateId.ofRepoId(11), DateAndSeqNo.builder().date(BEFORE_NOW).seqNo(3).build(), new BigDecimal("-25"));
+
+		stockCandidateService.applyDeleteToMatchingLaterStockCandidates(demandCandidate, candidateDeleteResult, TEN.negate(), stockDeleteResult);
+
+		final ArgumentCaptor<SaveResult> saveResultCaptor = ArgumentCaptor.forClass(SaveResult.class);
+		Mockito.verify(stockDeltasRepository).addDeltas(saveResultCaptor.capture());
+		final SaveResult deltas = saveResultCaptor.getValue();
+		assertThat(deltas.isDateMoved()).isFalse();
+		assertThat(DateAndSeqNo.ofCandidate(deltas.getCandidate())).isEqualTo(candidateDeleteResult.getPreviousTime());
+		assertThat(deltas.getQtyDelta()).isEqualByComparingTo(TEN);
+	}
+
 	private void assertDateAndQty(
 			@NonNull final I_MD_Candidate candidateRecord,
 			@NonNull final Instant t,
@@ -6,6 +6,7 @@ import de.metas.material.dispo.commons.candidate.CandidateBusinessCase;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.model.X_MD_Candidate;
 import de.metas.material.dispo.service.candidatechange.StockCandidateService;
@@ -78,7 +79,8 @@ public class SupplyCandidateHandlerTest
 
 		final StockCandidateService stockCandidateService = new StockCandidateService(
 				candidateRepository,
-				candidateRepositoryWriteService);
+				candidateRepositoryWriteService,
+				new StockDeltasRepository());
 
 		supplyCandiateHandler = new SupplyCandidateHandler(candidateRepositoryWriteService, stockCandidateService);
 	}
@@ -8,6 +8,7 @@ import de.metas.material.dispo.commons.RequestMaterialOrderService;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseMultiQuery;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.model.I_MD_Candidate;
@@ -109,7 +110,8 @@ public class MaterialEventHandlerRegistryTests
 
 		final StockCandidateService stockCandidateService = new StockCandidateService(
 				candidateRepositoryRetrieval,
-				candidateRepositoryCommands);
+				candidateRepositoryCommands,
+				new StockDeltasRepository());
 
 		final SupplyCandidateHandler supplyCandidateHandler = new SupplyCandidateHandler(
 				candidateRepositoryCommands,
@@ -6,6 +6,7 @@ import de.metas.material.dispo.commons.RequestMaterialOrderService;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.service.candidatechange.CandidateChangeService;
@@ -117,7 +118,8 @@ public class DDOrderAdvisedHandlerTests
 		final AvailableToPromiseRepository availableToPromiseRepository = new AvailableToPromiseRepository();
 		final StockCandidateService stockCandidateService = new StockCandidateService(
 				candidateRepository,
-				candidateRepositoryCommands);
+				candidateRepositoryCommands,
+				new StockDeltasRepository());
 
 		final SupplyCandidateHandler supplyCandiateHandler = new SupplyCandidateHandler(candidateRepositoryCommands, stockCandidateService);
 
@@ -23,6 +23,7 @@ import org.mockito.Mockito;
 import de.metas.material.dispo.commons.candidate.Candidate;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.repository.CandidateRepositoryRetrieval;
+import de.metas.material.dispo.commons.repository.StockDeltasRepository;
 import de.metas.material.dispo.service.candidatechange.CandidateChangeService;
 import de.metas.material.event.commons.EventDescriptor;
 import de.metas.material.event.stock.ResetStockPInstanceId;
@@ -67,7 +68,8 @@ public class StockChangedEventHandlerTest
 
 		stockChangedEventHandler = new StockChangedEventHandler(
 				candidateRepositoryRetrieval,
-				candidateChangeService);
+				candidateChangeService,
+				new StockDeltasRepository());
 	}
 
 	/**
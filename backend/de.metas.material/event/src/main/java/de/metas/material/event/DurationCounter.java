@@ -0,0 +1,60 @@
+package de.metas.material.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Thread safe counter of durations, used for the material event statistics.
+ */
+public final class DurationCounter
+{
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public void record(final long nanos)
+	{
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	public double getAvgMillis()
+	{
+		final long count = this.count.get();
+		return count > 0 ? (double)totalNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+	}
+
+	public double getMaxMillis()
+	{
+		return (double)maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * #%L
@@ -45,6 +46,8 @@ public class MaterialEventHandlerRegistry
 	private final ImmutableListMultimap<Class, MaterialEventHandler> eventType2Handler;
 	private final EventLogUserService eventLogUserService;
 
+	private final ConcurrentHashMap<Class, DurationCounter> handlerClass2runDuration = new ConcurrentHashMap<>();
+
 	public MaterialEventHandlerRegistry(
 			@NonNull final Optional<Collection<MaterialEventHandler>> handlers,
 			@NonNull final EventLogUserService eventLogUserService)
@@ -87,8 +90,31 @@ public class MaterialEventHandlerRegistry
 						.invokaction(() -> handler.handleEvent(event))
 						.build();
 
-				eventLogUserService.invokeHandlerAndLog(request);
+				final long startNanos = System.nanoTime();
+				try
+				{
+					eventLogUserService.invokeHandlerAndLog(request);
+				}
+				finally
+				{
+					handlerClass2runDuration
+							.computeIfAbsent(handler.getClass(), handlerClass -> new DurationCounter())
+							.record(System.nanoTime() - startNanos);
+				}
 			}
 		}
 	}
+
+	public ImmutableList<MaterialEventHandlerStats> getHandlerStats()
+	{
+		return handlerClass2runDuration.entrySet()
+				.stream()
+				.map(entry -> MaterialEventHandlerStats.builder()
+						.handlerClassName(entry.getKey().getName())
+						.invocations(entry.getValue().getCount())
+						.runMillisAvg(entry.getValue().getAvgMillis())
+						.runMillisMax(entry.getValue().getMaxMillis())
+						.build())
+				.collect(ImmutableList.toImmutableList());
+	}
 }
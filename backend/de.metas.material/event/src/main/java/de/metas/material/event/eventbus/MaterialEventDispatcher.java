@@ -0,0 +1,433 @@
+package de.metas.material.event.eventbus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.material.event.DurationCounter;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.attributes.AttributesChangedEvent;
+import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.procurement.AbstractPurchaseOfferEvent;
+import de.metas.material.event.purchase.PurchaseCandidateEvent;
+import de.metas.material.event.receiptschedule.AbstractReceiptScheduleEvent;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.stockestimate.AbstractStockEstimateEvent;
+import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands material events over to their handlers.
+ * <p>
+ * If {@link #SYSCONFIG_Partitions} is greater than zero, then events which are about one single product are handled in one of that many partitions,
+ * each partition being one thread. Events of the same product always go to the same partition, so they are still handled in the order they were received.
+ * Events which are about no or more than one product (e.g. PP_Order or DD_Order events) are handled in an extra dispatcher thread,
+ * after all partitions handled their pending events. That way they are still ordered with regard to all other events.
+ * <p>
+ * All events are first handed to that dispatcher thread, which assigns them to their partitions. So neither the event bus thread nor a partition thread
+ * ever waits for another thread; that's important because handlers post further events which - with a synchronous event bus - are dispatched
+ * again in the posting handler's thread.
+ * <p>
+ * Note that the number of partitions is only read on startup.
+ * <p>
+ * <b>Delivery guarantee:</b> with partitions, an event is acknowledged to the event bus as soon as it is enqueued, i.e. before it is handled.
+ * Pending events are only kept in memory, so between that acknowledgement and the end of the handler's transaction the event is delivered at most once:
+ * on a regular shutdown, {@link #shutdown(Duration)} handles the pending events, but if the JVM is killed or the shutdown times out, they are lost.
+ * Without partitions, events are handled in the event bus thread before they are acknowledged.
+ */
+final class MaterialEventDispatcher
+{
+	private static final Logger logger = LogManager.getLogger(MaterialEventDispatcher.class);
+
+	private static final String SYSCONFIG_Partitions = "de.metas.material.event.eventbus.MaterialEventDispatcher.Partitions";
+
+	private final ImmutableList<Partition> partitions;
+	/** single thread that assigns events to partitions and handles the events which can't be assigned; {@code null} if there are no partitions */
+	private final ExecutorService dispatcherExecutor;
+	private final AtomicLong eventsDispatched = new AtomicLong();
+	private final AtomicLong eventsHandledSynchronously = new AtomicLong();
+	private final AtomicLong eventsFailedSynchronously = new AtomicLong();
+	private volatile boolean shutdown = false;
+
+	public static MaterialEventDispatcher newInstance()
+	{
+		final int partitionsCount = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Partitions, 0);
+		return new MaterialEventDispatcher(partitionsCount);
+	}
+
+	@VisibleForTesting
+	MaterialEventDispatcher(final int partitionsCount)
+	{
+		final ImmutableList.Builder<Partition> partitions = ImmutableList.builder();
+		for (int partitionNo = 0; partitionNo < partitionsCount; partitionNo++)
+		{
+			partitions.add(new Partition(partitionNo));
+		}
+		this.partitions = partitions.build();
+
+		if (partitionsCount > 0)
+		{
+			this.dispatcherExecutor = newSingleThreadExecutor(MaterialEventDispatcher.class.getName() + "-dispatcher");
+			logger.info("Handling material events in {} partitions", partitionsCount);
+		}
+		else
+		{
+			this.dispatcherExecutor = null;
+		}
+	}
+
+	private static ExecutorService newSingleThreadExecutor(@NonNull final String threadNamePrefix)
+	{
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(threadNamePrefix)
+				.setDaemon(true)
+				.build();
+		return new ThreadPoolExecutor(
+				1, // corePoolSize
+				1, // maximumPoolSize
+				0, TimeUnit.MILLISECONDS, // keepAliveTime
+				new LinkedBlockingQueue<>(),
+				threadFactory);
+	}
+
+	public void dispatch(@NonNull final MaterialEvent event, @NonNull final Runnable handler)
+	{
+		dispatchForProductId(extractProductIdOrNull(event), handler);
+	}
+
+	/**
+	 * Never blocks; if there are partitions, the given handler is only enqueued.
+	 */
+	@VisibleForTesting
+	void dispatchForProductId(@Nullable final Integer productId, @NonNull final Runnable handler)
+	{
+		eventsDispatched.incrementAndGet();
+		if (dispatcherExecutor == null || shutdown)
+		{
+			eventsHandledSynchronously.incrementAndGet();
+			handler.run();
+		}
+		else
+		{
+			// one single thread, so the events keep their order; also, an event which can't be assigned to a partition does not overtake events that were enqueued before
+			dispatcherExecutor.execute(() -> dispatchInDispatcherThread(productId, handler));
+		}
+	}
+
+	private void dispatchInDispatcherThread(@Nullable final Integer productId, @NonNull final Runnable handler)
+	{
+		if (productId != null)
+		{
+			final int partitionNo = Math.floorMod(productId.hashCode(), partitions.size());
+			partitions.get(partitionNo).enqueue(handler);
+			return;
+		}
+
+		// waiting is OK here, because the partition threads never wait for the dispatcher thread
+		awaitAllPartitionsIdle();
+
+		eventsHandledSynchronously.incrementAndGet();
+		try
+		{
+			handler.run();
+		}
+		catch (final Exception ex)
+		{
+			eventsFailedSynchronously.incrementAndGet();
+			logger.warn("Failed handling material event in dispatcher thread", ex);
+		}
+	}
+
+	private void awaitAllPartitionsIdle()
+	{
+		final CountDownLatch latch = new CountDownLatch(partitions.size());
+		partitions.forEach(partition -> partition.enqueueMarker(latch::countDown));
+		await(latch);
+	}
+
+	/**
+	 * Handles the pending events and stops the partition threads.
+	 * The caller shall make sure that no more events are dispatched from outside, e.g. by unsubscribing from the event bus before.
+	 * Events which are posted by handlers while draining are still handled; events which are dispatched afterwards are handled synchronously.
+	 *
+	 * @return {@code true} if all pending events were handled within the given timeout
+	 */
+	public boolean shutdown(@NonNull final Duration timeout)
+	{
+		if (dispatcherExecutor == null || shutdown)
+		{
+			return true;
+		}
+
+		final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+		boolean idle = awaitIdle(deadlineNanos);
+		shutdown = true;
+		if (idle)
+		{
+			// once more, for the events which were dispatched by handlers right before the flag was set
+			idle = awaitIdle(deadlineNanos);
+		}
+
+		final List<Runnable> notHandledEvents = new ArrayList<>(dispatcherExecutor.shutdownNow());
+		partitions.forEach(partition -> notHandledEvents.addAll(partition.shutdownNow()));
+		if (idle)
+		{
+			logger.info("Handled all pending material events on shutdown");
+		}
+		else
+		{
+			logger.warn("Pending material events were not handled within {} and are lost: about {} events", timeout, notHandledEvents.size());
+		}
+		return idle;
+	}
+
+	/**
+	 * Waits until all events are handled, including the ones that are posted by handlers meanwhile.
+	 */
+	@VisibleForTesting
+	void awaitIdle()
+	{
+		awaitIdle(System.nanoTime() + Duration.ofDays(1).toNanos());
+	}
+
+	/**
+	 * @return {@code true} if all events were handled before the given {@link System#nanoTime()} deadline
+	 */
+	private boolean awaitIdle(final long deadlineNanos)
+	{
+		if (dispatcherExecutor == null)
+		{
+			return true;
+		}
+
+		long eventsDispatchedBefore;
+		do
+		{
+			eventsDispatchedBefore = eventsDispatched.get();
+
+			final CountDownLatch latch = new CountDownLatch(1);
+			dispatcherExecutor.execute(() -> {
+				awaitAllPartitionsIdle();
+				latch.countDown();
+			});
+			if (!await(latch, deadlineNanos - System.nanoTime()))
+			{
+				return false;
+			}
+		}
+		while (eventsDispatched.get() != eventsDispatchedBefore);
+		return true;
+	}
+
+	private static void await(@NonNull final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	private static boolean await(@NonNull final CountDownLatch latch, final long timeoutNanos)
+	{
+		try
+		{
+			return latch.await(timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * @return the ID of the one product the given event is about or {@code null} if the event cannot be assigned to one single product.
+	 */
+	@VisibleForTesting
+	@Nullable
+	static Integer extractProductIdOrNull(@NonNull final MaterialEvent event)
+	{
+		if (event instanceof AbstractShipmentScheduleEvent)
+		{
+			return extractProductIdOrNull(((AbstractShipmentScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractReceiptScheduleEvent)
+		{
+			return extractProductIdOrNull(((AbstractReceiptScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractTransactionEvent)
+		{
+			final AbstractTransactionEvent transactionEvent = (AbstractTransactionEvent)event;
+			if (transactionEvent.getPpOrderId() > 0)
+			{
+				return null; // production transactions also touch the candidates of the PP_Order's other products
+			}
+			return extractProductIdOrNull(transactionEvent.getMaterialDescriptor());
+		}
+		else if (event instanceof SupplyRequiredEvent)
+		{
+			return extractProductIdOrNull(((SupplyRequiredEvent)event).getSupplyRequiredDescriptor().getMaterialDescriptor());
+		}
+		else if (event instanceof PurchaseCandidateEvent)
+		{
+			return extractProductIdOrNull(((PurchaseCandidateEvent)event).getPurchaseMaterialDescriptor());
+		}
+		else if (event instanceof StockChangedEvent)
+		{
+			return ((StockChangedEvent)event).getProductDescriptor().getProductId();
+		}
+		else if (event instanceof AbstractStockEstimateEvent)
+		{
+			return ((AbstractStockEstimateEvent)event).getProductDescriptor().getProductId();
+		}
+		else if (event instanceof AbstractPurchaseOfferEvent)
+		{
+			return ((AbstractPurchaseOfferEvent)event).getProductDescriptor().getProductId();
+		}
+		else if (event instanceof AttributesChangedEvent)
+		{
+			return ((AttributesChangedEvent)event).getProductId();
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	@Nullable
+	private static Integer extractProductIdOrNull(@Nullable final MaterialDescriptor materialDescriptor)
+	{
+		return materialDescriptor != null ? materialDescriptor.getProductId() : null;
+	}
+
+	public MaterialEventDispatcherStats getStats()
+	{
+		final MaterialEventDispatcherStats.MaterialEventDispatcherStatsBuilder stats = MaterialEventDispatcherStats.builder()
+				.partitionsCount(partitions.size())
+				.eventsHandledSynchronously(eventsHandledSynchronously.get())
+				.eventsFailedSynchronously(eventsFailedSynchronously.get());
+		partitions.forEach(partition -> stats.partition(partition.getStats()));
+		return stats.build();
+	}
+
+	private static final class Partition
+	{
+		private final int partitionNo;
+		private final ExecutorService executor;
+
+		private final AtomicLong eventsEnqueued = new AtomicLong();
+		private final AtomicLong eventsHandled = new AtomicLong();
+		private final AtomicLong eventsFailed = new AtomicLong();
+		private final DurationCounter lag = new DurationCounter();
+		private final DurationCounter run = new DurationCounter();
+
+		private Partition(final int partitionNo)
+		{
+			this.partitionNo = partitionNo;
+
+			this.executor = newSingleThreadExecutor(MaterialEventDispatcher.class.getName() + "-partition-" + partitionNo);
+		}
+
+		public void enqueue(@NonNull final Runnable handler)
+		{
+			final long enqueuedNanos = System.nanoTime();
+			eventsEnqueued.incrementAndGet();
+
+			executor.execute(() -> {
+				final long startNanos = System.nanoTime();
+				lag.record(startNanos - enqueuedNanos);
+				try
+				{
+					handler.run();
+				}
+				catch (final Exception ex)
+				{
+					eventsFailed.incrementAndGet();
+					logger.warn("Failed handling material event in partition {}", partitionNo, ex);
+				}
+				finally
+				{
+					run.record(System.nanoTime() - startNanos);
+					eventsHandled.incrementAndGet();
+				}
+			});
+		}
+
+		/**
+		 * Enqueues the given marker, which is not counted as event.
+		 */
+		public void enqueueMarker(@NonNull final Runnable marker)
+		{
+			executor.execute(marker);
+		}
+
+		/**
+		 * @return the events which were not handled
+		 */
+		public List<Runnable> shutdownNow()
+		{
+			return executor.shutdownNow();
+		}
+
+		public MaterialEventDispatcherStats.PartitionStats getStats()
+		{
+			return MaterialEventDispatcherStats.PartitionStats.builder()
+					.partitionNo(partitionNo)
+					.eventsEnqueued(eventsEnqueued.get())
+					.eventsHandled(eventsHandled.get())
+					.eventsFailed(eventsFailed.get())
+					.lagMillisAvg(lag.getAvgMillis())
+					.lagMillisMax(lag.getMaxMillis())
+					.runMillisAvg(run.getAvgMillis())
+					.runMillisMax(run.getMaxMillis())
+					.build();
+		}
+	}
+}
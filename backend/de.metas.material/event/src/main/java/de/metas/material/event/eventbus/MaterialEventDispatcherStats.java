@@ -0,0 +1,85 @@
+package de.metas.material.event.eventbus;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Snapshot of the statistics of {@link MaterialEventDispatcher}.
+ */
+@Value
+public class MaterialEventDispatcherStats
+{
+	/** zero means that all events are handled synchronously, in the event bus thread */
+	int partitionsCount;
+
+	/** events which were not handled in a partition, either because there are no partitions or because they could not be assigned to a partition */
+	long eventsHandledSynchronously;
+
+	/** events which could not be assigned to a partition and whose handling failed; if there are no partitions, the event bus takes care of failures */
+	long eventsFailedSynchronously;
+
+	ImmutableList<PartitionStats> partitions;
+
+	@Builder
+	private MaterialEventDispatcherStats(
+			final int partitionsCount,
+			final long eventsHandledSynchronously,
+			final long eventsFailedSynchronously,
+			@Singular final List<PartitionStats> partitions)
+	{
+		this.partitionsCount = partitionsCount;
+		this.eventsHandledSynchronously = eventsHandledSynchronously;
+		this.eventsFailedSynchronously = eventsFailedSynchronously;
+		this.partitions = ImmutableList.copyOf(partitions);
+	}
+
+	@Value
+	@Builder
+	public static class PartitionStats
+	{
+		int partitionNo;
+
+		long eventsEnqueued;
+		long eventsHandled;
+		long eventsFailed;
+
+		/** time between enqueuing an event and starting to handle it */
+		double lagMillisAvg;
+		double lagMillisMax;
+
+		double runMillisAvg;
+		double runMillisMax;
+
+		public long getEventsToHandle()
+		{
+			return eventsEnqueued - eventsHandled;
+		}
+	}
+}
@@ -101,4 +101,9 @@ public final class MetasfreshEventBusService
 	{
 		getEventBus().subscribe(internalListener);
 	}
+
+	public void unsubscribe(@NonNull final IEventListener internalListener)
+	{
+		getEventBus().unsubscribe(internalListener);
+	}
 }
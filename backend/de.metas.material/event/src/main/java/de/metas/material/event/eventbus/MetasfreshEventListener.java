@@ -18,8 +18,11 @@ import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Properties;
 
+import javax.annotation.PreDestroy;
+
 /*
  * #%L
  * metasfresh-material-event
@@ -48,12 +51,16 @@ public class MetasfreshEventListener
 {
 	private static final Logger logger = LogManager.getLogger(MetasfreshEventListener.class);
 
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+
 	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
 
 	private final MetasfreshEventBusService metasfreshEventBusService;
 
 	private final MaterialEventConverter materialEventConverter;
 
+	private final MaterialEventDispatcher materialEventDispatcher;
+
 	private final IEventListener internalListener = new IEventListener()
 	{
 		@Override
@@ -63,18 +70,22 @@ public class MetasfreshEventListener
 			try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName()))
 			{
 				logger.info("Received MaterialEvent={}", lightWeightEvent);
+			}
 
-				// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
-				final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
+			// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
+			final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
 
-				Env.setClientId(temporaryCtx, lightWeightEvent.getEventDescriptor().getClientId());
-				Env.setOrgId(temporaryCtx, lightWeightEvent.getEventDescriptor().getOrgId());
+			Env.setClientId(temporaryCtx, lightWeightEvent.getEventDescriptor().getClientId());
+			Env.setOrgId(temporaryCtx, lightWeightEvent.getEventDescriptor().getOrgId());
 
-				try (final IAutoCloseable ignored1 = Env.switchContext(temporaryCtx))
+			// the handler might run in another thread; that's why it switches the context and MDC itself
+			materialEventDispatcher.dispatch(lightWeightEvent, () -> {
+				try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName());
+						final IAutoCloseable ignored1 = Env.switchContext(temporaryCtx))
 				{
 					invokeListenerInTrx(lightWeightEvent);
 				}
-			}
+			});
 		}
 
 		private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
@@ -99,7 +110,23 @@ public class MetasfreshEventListener
 		this.materialEventConverter = materialEventConverter;
 		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
 		this.metasfreshEventBusService = metasfreshEventBusService;
+		this.materialEventDispatcher = MaterialEventDispatcher.newInstance();
 
 		this.metasfreshEventBusService.subscribe(internalListener);
 	}
+
+	/**
+	 * Stops receiving events from the event bus and handles the events which the dispatcher already accepted, so they are not lost on a regular redeploy.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		metasfreshEventBusService.unsubscribe(internalListener);
+		materialEventDispatcher.shutdown(SHUTDOWN_TIMEOUT);
+	}
+
+	public MaterialEventDispatcherStats getDispatcherStats()
+	{
+		return materialEventDispatcher.getStats();
+	}
 }
@@ -0,0 +1,72 @@
+package de.metas.material.event.rest;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.metas.material.event.MaterialEventHandlerRegistry;
+import de.metas.material.event.MaterialEventHandlerStats;
+import de.metas.material.event.eventbus.MaterialEventDispatcherStats;
+import de.metas.material.event.eventbus.MetasfreshEventListener;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@RequestMapping(MaterialEventRestController.ENDPOINT)
+@RestController
+public class MaterialEventRestController
+{
+	public static final String ENDPOINT = "/api/material/events";
+
+	private final MetasfreshEventListener metasfreshEventListener;
+	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
+
+	public MaterialEventRestController(
+			@NonNull final MetasfreshEventListener metasfreshEventListener,
+			@NonNull final MaterialEventHandlerRegistry materialEventHandlerRegistry)
+	{
+		this.metasfreshEventListener = metasfreshEventListener;
+		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
+	}
+
+	@GetMapping("/stats")
+	public JSONMaterialEventStats getStats()
+	{
+		return JSONMaterialEventStats.builder()
+				.dispatcher(metasfreshEventListener.getDispatcherStats())
+				.handlers(materialEventHandlerRegistry.getHandlerStats())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class JSONMaterialEventStats
+	{
+		MaterialEventDispatcherStats dispatcher;
+		List<MaterialEventHandlerStats> handlers;
+	}
+}
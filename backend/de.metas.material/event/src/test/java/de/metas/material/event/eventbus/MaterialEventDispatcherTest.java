@@ -0,0 +1,140 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventDispatcherTest
+{
+	@Test
+	public void noPartitions_handledSynchronously()
+	{
+		final MaterialEventDispatcher dispatcher = new MaterialEventDispatcher(0);
+
+		final List<Integer> handled = new ArrayList<>();
+		dispatcher.dispatchForProductId(1, () -> handled.add(1));
+		dispatcher.dispatchForProductId(null, () -> handled.add(2));
+
+		assertThat(handled).containsExactly(1, 2);
+		assertThat(dispatcher.getStats().getEventsHandledSynchronously()).isEqualTo(2);
+	}
+
+	@Test
+	public void sameProduct_keepsOrder_and_eventWithoutProduct_waitsForPartitions()
+	{
+		final MaterialEventDispatcher dispatcher = new MaterialEventDispatcher(4);
+
+		final List<Integer> handledForProduct1 = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> handledForProduct2 = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 100; i++)
+		{
+			final int eventNo = i;
+			dispatcher.dispatchForProductId(1, () -> handledForProduct1.add(eventNo));
+			dispatcher.dispatchForProductId(2, () -> handledForProduct2.add(eventNo));
+		}
+
+		final List<Integer> handledCountsSeenByEventWithoutProduct = Collections.synchronizedList(new ArrayList<>());
+		dispatcher.dispatchForProductId(null, () -> {
+			handledCountsSeenByEventWithoutProduct.add(handledForProduct1.size());
+			handledCountsSeenByEventWithoutProduct.add(handledForProduct2.size());
+		});
+		dispatcher.awaitIdle();
+
+		assertThat(handledCountsSeenByEventWithoutProduct).containsExactly(100, 100);
+		assertThat(handledForProduct1).isSorted().hasSize(100);
+		assertThat(handledForProduct2).isSorted().hasSize(100);
+
+		final MaterialEventDispatcherStats stats = dispatcher.getStats();
+		assertThat(stats.getPartitionsCount()).isEqualTo(4);
+		assertThat(stats.getEventsHandledSynchronously()).isEqualTo(1);
+		assertThat(stats.getPartitions()).extracting(MaterialEventDispatcherStats.PartitionStats::getEventsHandled).containsOnly(0L, 100L);
+	}
+
+	@Test
+	public void failingHandler_doesNotStopPartition()
+	{
+		final MaterialEventDispatcher dispatcher = new MaterialEventDispatcher(1);
+
+		final List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+		dispatcher.dispatchForProductId(1, () -> {
+			throw new RuntimeException("test");
+		});
+		dispatcher.dispatchForProductId(1, () -> handled.add(1));
+		dispatcher.dispatchForProductId(null, () -> handled.add(2));
+		dispatcher.awaitIdle();
+
+		assertThat(handled).containsExactly(1, 2);
+		assertThat(dispatcher.getStats().getPartitions().get(0).getEventsFailed()).isEqualTo(1);
+	}
+
+	/**
+	 * With a synchronous event bus, an event that is posted by a handler is dispatched in that handler's thread.
+	 */
+	@Test
+	public void eventsPostedByHandlers_doNotDeadlock()
+	{
+		final MaterialEventDispatcher dispatcher = new MaterialEventDispatcher(2);
+
+		final List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+		dispatcher.dispatchForProductId(1, () -> {
+			dispatcher.dispatchForProductId(null, () -> {
+				handled.add(2);
+				dispatcher.dispatchForProductId(null, () -> handled.add(3));
+				dispatcher.dispatchForProductId(1, () -> handled.add(4));
+			});
+			handled.add(1);
+		});
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), dispatcher::awaitIdle);
+		assertThat(handled).containsExactly(1, 2, 3, 4);
+	}
+
+	@Test
+	public void shutdown_handlesPendingEvents_and_handlesLaterEventsSynchronously()
+	{
+		final MaterialEventDispatcher dispatcher = new MaterialEventDispatcher(2);
+
+		final List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 100; i++)
+		{
+			final int eventNo = i;
+			dispatcher.dispatchForProductId(eventNo % 3 == 0 ? null : eventNo, () -> handled.add(eventNo));
+		}
+
+		final boolean allHandled = dispatcher.shutdown(Duration.ofSeconds(10));
+
+		assertThat(allHandled).isTrue();
+		assertThat(handled).hasSize(100);
+
+		dispatcher.dispatchForProductId(1, () -> handled.add(100));
+		assertThat(handled).hasSize(101).endsWith(100);
+	}
+}
@@ -0,0 +1,12 @@
+CREATE TABLE T_WEBUI_ViewSnapshot
+(
+  View_UUID character varying(60) NOT NULL,
+  Snapshot text NOT NULL,
+  Updated timestamp with time zone NOT NULL DEFAULT now(),
+  CONSTRAINT T_WEBUI_ViewSnapshot_pkey PRIMARY KEY (View_UUID)
+);
+
+CREATE INDEX T_WEBUI_ViewSnapshot_Updated
+  ON T_WEBUI_ViewSnapshot
+  USING btree
+  (Updated);
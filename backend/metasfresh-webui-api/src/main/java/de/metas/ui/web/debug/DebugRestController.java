@@ -48,6 +48,7 @@ import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.menu.MenuTreeRepository;
 import de.metas.ui.web.process.ProcessRestController;
 import de.metas.ui.web.session.UserSession;
+import de.metas.ui.web.view.DefaultView;
 import de.metas.ui.web.view.IView;
 import de.metas.ui.web.view.IViewsRepository;
 import de.metas.ui.web.view.SqlViewFactory;
@@ -55,6 +56,7 @@ import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewProfileId;
 import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.ViewRowOverridesHelper;
+import de.metas.ui.web.view.ViewRowsCacheStats;
 import de.metas.ui.web.view.descriptor.annotation.ViewColumnHelper;
 import de.metas.ui.web.view.event.ViewChangesCollector;
 import de.metas.ui.web.view.json.JSONViewResult;
@@ -277,6 +279,18 @@ public class DebugRestController
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
+	@GetMapping("/views/rowsCacheStats")
+	public List<ViewRowsCacheStats> getViewRowsCacheStats()
+	{
+		userSession.assertLoggedIn();
+
+		return viewsRepo.getViews()
+				.stream()
+				.filter(view -> view instanceof DefaultView)
+				.map(view -> DefaultView.cast(view).getRowsCacheStats())
+				.collect(GuavaCollectors.toImmutableList());
+	}
+
 	@PostMapping("/viewDefaultProfile/{windowId}")
 	public void setDefaultViewProfile(@PathVariable("windowId") final String windowIdStr, @RequestBody final String profileIdStr)
 	{
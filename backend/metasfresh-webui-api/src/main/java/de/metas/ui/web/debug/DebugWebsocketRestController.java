@@ -30,6 +30,7 @@ import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.websocket.WebsocketSubscriptionId;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
+import de.metas.ui.web.websocket.WebsocketTopicStats;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.util.GuavaCollectors;
 import lombok.NonNull;
@@ -152,6 +153,15 @@ public class DebugWebsocketRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("/logging/topicStats")
+	public List<WebsocketTopicStats> getWebsocketTopicStats(
+			@RequestParam(value = "destinationFilter", required = false) final String destinationFilter)
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getTopicStats(destinationFilter);
+	}
+
 	@GetMapping("/activeSubscriptions")
 	public Map<String, ?> getActiveSubscriptions()
 	{
@@ -5,7 +5,6 @@ import java.util.Collection;
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.element.api.AdTabId;
-import org.elasticsearch.client.Client;
 import org.springframework.stereotype.Component;
 
 import de.metas.elasticsearch.indexer.IESModelIndexer;
@@ -24,7 +23,6 @@ import de.metas.ui.web.document.filter.provider.NullDocumentFilterDescriptorsPro
 import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.util.Services;
-import lombok.NonNull;
 
 /*
  * #%L
@@ -54,16 +52,9 @@ public class FullTextSearchDocumentFilterDescriptorsProviderFactory implements D
 	// services
 	private final transient IMsgBL msgBL = Services.get(IMsgBL.class);
 	private final IESModelIndexersRegistry esModelIndexersRegistry = Services.get(IESModelIndexersRegistry.class);
-	private final Client elasticsearchClient;
 
 	private static final AdMessageKey MSG_FULL_TEXT_SEARCH_CAPTION = AdMessageKey.of("Search");
 
-	public FullTextSearchDocumentFilterDescriptorsProviderFactory(
-			@NonNull final org.elasticsearch.client.Client elasticsearchClient)
-	{
-		this.elasticsearchClient = elasticsearchClient;
-	}
-
 	@Override
 	public DocumentFilterDescriptorsProvider createFiltersProvider(
 			@Nullable final AdTabId adTabId_NOTUSED,
@@ -104,10 +95,7 @@ public class FullTextSearchDocumentFilterDescriptorsProviderFactory implements D
 	private FullTextSearchFilterContext createFullTextSearchFilterContext(final IESModelIndexer modelIndexer)
 	{
 		return FullTextSearchFilterContext.builder()
-				.elasticsearchClient(elasticsearchClient)
-				.modelTableName(modelIndexer.getModelTableName())
-				.esIndexName(modelIndexer.getIndexName())
-				.esSearchFieldNames(modelIndexer.getFullTextSearchFieldNames())
+				.modelIndexer(modelIndexer)
 				.build();
 	}
 
@@ -1,13 +1,10 @@
 package de.metas.ui.web.document.filter.provider.fullTextSearch;
 
 import org.adempiere.model.InterfaceWrapperHelper;
-import org.elasticsearch.client.Client;
-
-import com.google.common.collect.ImmutableSet;
 
+import de.metas.elasticsearch.indexer.IESModelIndexer;
 import lombok.Builder;
 import lombok.NonNull;
-import lombok.Singular;
 import lombok.Value;
 
 /*
@@ -37,18 +34,11 @@ import lombok.Value;
 public class FullTextSearchFilterContext
 {
 	@NonNull
-	final Client elasticsearchClient;
-	@NonNull
-	final String modelTableName;
-	@NonNull
-	final String esIndexName;
-	@NonNull
-	@Singular
-	final ImmutableSet<String> esSearchFieldNames;
+	final IESModelIndexer modelIndexer;
 
-	public String[] getEsSearchFieldNamesAsArray()
+	public String getModelTableName()
 	{
-		return esSearchFieldNames.toArray(new String[esSearchFieldNames.size()]);
+		return modelIndexer.getModelTableName();
 	}
 
 	public String getKeyColumnName()
@@ -56,9 +46,4 @@ public class FullTextSearchFilterContext
 		return InterfaceWrapperHelper.getKeyColumnName(getModelTableName());
 	}
 
-	public String getEsKeyColumnName()
-	{
-		return getKeyColumnName();
-	}
-
 }
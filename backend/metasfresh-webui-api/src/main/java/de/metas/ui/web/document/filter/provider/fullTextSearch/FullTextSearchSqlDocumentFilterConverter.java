@@ -1,20 +1,15 @@
 package de.metas.ui.web.document.filter.provider.fullTextSearch;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Stream;
 
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
-import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.Client;
-import org.elasticsearch.index.query.QueryBuilder;
-import org.elasticsearch.index.query.QueryBuilders;
-import org.elasticsearch.search.SearchHit;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
 import com.jgoodies.common.base.Objects;
 
+import de.metas.elasticsearch.indexer.IESModelIndexer;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverter;
@@ -23,6 +18,7 @@ import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import de.metas.util.Check;
 import de.metas.util.NumberUtils;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -57,6 +53,9 @@ public class FullTextSearchSqlDocumentFilterConverter implements SqlDocumentFilt
 
 	private static final Logger logger = LogManager.getLogger(FullTextSearchSqlDocumentFilterConverter.class);
 
+	private static final String SYSCONFIG_MaxResults = "de.metas.ui.web.document.filter.provider.fullTextSearch.MaxResults";
+	private static final int DEFAULT_MaxResults = 10; // same as elasticsearch's default search size
+
 	private FullTextSearchSqlDocumentFilterConverter()
 	{
 	}
@@ -83,22 +82,12 @@ public class FullTextSearchSqlDocumentFilterConverter implements SqlDocumentFilt
 		final FullTextSearchFilterContext ftsContext = filter.getParameterValueAs(PARAM_Context);
 		Check.assumeNotNull(ftsContext, "Parameter ftsContext is not null"); // shall not happen
 		logger.trace("context: {}", ftsContext);
-		final Client elasticsearchClient = ftsContext.getElasticsearchClient();
-		final String esIndexName = ftsContext.getEsIndexName();
+		final IESModelIndexer modelIndexer = ftsContext.getModelIndexer();
 		final String keyColumnName = ftsContext.getKeyColumnName();
-		final String esKeyColumnName = ftsContext.getEsKeyColumnName();
-
-		final QueryBuilder query = QueryBuilders.multiMatchQuery(text, ftsContext.getEsSearchFieldNamesAsArray());
-		logger.trace("ES query: {}", query);
-
-		final SearchResponse searchResponse = elasticsearchClient.prepareSearch(esIndexName)
-				.setQuery(query)
-				.setExplain(logger.isTraceEnabled())
-				.get();
-		logger.trace("ES response: {}", searchResponse);
 
-		final List<Integer> recordIds = Stream.of(searchResponse.getHits().getHits())
-				.map(hit -> extractId(hit, esKeyColumnName))
+		final List<Integer> recordIds = modelIndexer.searchIds(text, getMaxResults())
+				.stream()
+				.map(id -> NumberUtils.asInt(id, -1))
 				.filter(id -> id >= 0)
 				.distinct()
 				.collect(ImmutableList.toImmutableList());
@@ -112,10 +101,9 @@ public class FullTextSearchSqlDocumentFilterConverter implements SqlDocumentFilt
 		return DB.buildSqlList(keyColumnNameFQ, recordIds, null);
 	}
 
-	private int extractId(final SearchHit hit, final String esKeyColumnName)
+	private static int getMaxResults()
 	{
-		final Map<String, Object> source = hit.getSource();
-		return NumberUtils.asInt(source.get(esKeyColumnName), -1);
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxResults, DEFAULT_MaxResults);
 	}
 
 }
@@ -1,13 +1,18 @@
 package de.metas.ui.web.view;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -15,6 +20,7 @@ import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.SynchronizedMutable;
 import org.adempiere.util.lang.SynchronizedMutable.OldAndNewValues;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -24,6 +30,7 @@ import org.slf4j.Logger;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import de.metas.cache.CCache;
 import de.metas.cache.CCache.CacheMapType;
@@ -33,10 +40,12 @@ import de.metas.i18n.TranslatableStrings;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.json.JSONDocumentFilter;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
 import de.metas.ui.web.document.filter.provider.standard.FacetFilterViewCacheMap;
 import de.metas.ui.web.document.references.DocumentReferenceId;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.view.ViewNextPagePrefetcher.PageKey;
 import de.metas.ui.web.view.descriptor.SqlViewRowsWhereClause;
 import de.metas.ui.web.view.event.ViewChangesCollector;
 import de.metas.ui.web.view.json.JSONViewDataType;
@@ -45,6 +54,7 @@ import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.DocumentPath;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.json.JSONDocumentChangedEvent;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.model.Document;
 import de.metas.ui.web.window.model.DocumentCollection;
@@ -101,6 +111,9 @@ public final class DefaultView implements IEditableView
 
 	private static final Logger logger = LogManager.getLogger(DefaultView.class);
 
+	private static final String SYSCONFIG_RowsCacheMaxSize = "de.metas.ui.web.view.DefaultView.RowsCacheMaxSize";
+	private static final int DEFAULT_RowsCacheMaxSize = 500;
+
 	@Getter
 	private final SqlViewDataRepository viewDataRepository;
 
@@ -151,12 +164,26 @@ public final class DefaultView implements IEditableView
 	//
 	// Caching
 	private final transient CCache<DocumentId, IViewRow> cache_rowsById;
+	/** incremented each time rows are invalidated, so that loads which started before don't put their stale rows into {@link #cache_rowsById} */
+	private final AtomicLong cache_rowsById_generation = new AtomicLong();
+	private final transient AtomicLong cacheStats_pageRequests = new AtomicLong();
+	private final transient AtomicLong cacheStats_rowsRequested = new AtomicLong();
+	private final transient AtomicLong cacheStats_rowsFromCache = new AtomicLong();
+	private final transient AtomicLong cacheStats_rowsLoaded = new AtomicLong();
+	private final transient ViewNextPagePrefetcher nextPagePrefetcher = new ViewNextPagePrefetcher();
+	private final transient ViewHeaderPropertiesAsyncLoader headerPropertiesAsyncLoader = new ViewHeaderPropertiesAsyncLoader();
 
 	private final IViewInvalidationAdvisor viewInvalidationAdvisor;
 
 	//
 	// View refreshing on change events
 	private final boolean refreshViewOnChangeEvents;
+
+	/** Recipe to build this view again, see {@link #getSnapshot()}; null if this view cannot be rebuilt */
+	@Nullable
+	private final ViewSnapshot snapshotRecipe;
+	/** Set if other webui instances might rebuild this view from its snapshot and use the same selection, see {@link ViewsRepository} */
+	private final AtomicBoolean selectionShared = new AtomicBoolean(false);
 	private final ChangedRowIdsCollector changedRowIdsToCheck = new ChangedRowIdsCollector();
 
 	private DefaultView(final Builder builder)
@@ -179,6 +206,7 @@ public final class DefaultView implements IEditableView
 		stickyFilters = builder.getStickyFilters();
 		filters = builder.getFilters();
 		refreshViewOnChangeEvents = builder.isRefreshViewOnChangeEvents();
+		snapshotRecipe = builder.getSnapshotRecipe();
 
 		//
 		// Selection
@@ -189,6 +217,7 @@ public final class DefaultView implements IEditableView
 					.viewDataRepository(viewDataRepository)
 					.viewId(viewId)
 					.applySecurityRestrictions(builder.isApplySecurityRestrictions())
+					.deleteExistingSelection(builder.isDeleteExistingSelection())
 					.stickyFilters(stickyFilters)
 					.filters(filters)
 					.viewEvaluationCtxSupplier(this::getViewEvaluationCtx)
@@ -201,7 +230,9 @@ public final class DefaultView implements IEditableView
 				.cacheMapType(CacheMapType.LRU)
 				.cacheName("ViewRows#" + viewId)
 				.additionalTableNameToResetFor(viewDataRepository.getTableName())
-				.initialCapacity(100) // i.e. max size
+				// if possible, invalidate only the row of the changed record instead of the whole cache
+				.invalidationKeysMapper(viewDataRepository.isRowIdMatchingRecordId() ? recordRef -> ImmutableList.of(DocumentId.of(recordRef.getRecord_ID())) : null)
+				.initialCapacity(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_RowsCacheMaxSize, DEFAULT_RowsCacheMaxSize)) // i.e. max size
 				.expireMinutes(2)
 				.build();
 
@@ -236,9 +267,52 @@ public final class DefaultView implements IEditableView
 	@Override
 	public ViewHeaderProperties getHeaderProperties()
 	{
+		if (isLoadHeaderPropertiesAsync())
+		{
+			final ViewHeaderProperties headerProperties = headerPropertiesHolder.getValue();
+			if (headerProperties != null)
+			{
+				return headerProperties;
+			}
+
+			loadHeaderPropertiesAsync();
+			return ViewHeaderProperties.EMPTY;
+		}
+
 		return headerPropertiesHolder.computeIfNull(() -> headerPropertiesProvider.computeHeaderProperties(this));
 	}
 
+	private boolean isLoadHeaderPropertiesAsync()
+	{
+		return !(headerPropertiesProvider instanceof NullViewHeaderPropertiesProvider)
+				&& headerPropertiesAsyncLoader.isEnabled();
+	}
+
+	private void loadHeaderPropertiesAsync()
+	{
+		headerPropertiesAsyncLoader.loadAsync(
+				() -> headerPropertiesProvider.computeHeaderProperties(this),
+				this::onHeaderPropertiesLoaded);
+	}
+
+	private void onHeaderPropertiesLoaded(@NonNull final ViewHeaderPropertiesAsyncLoader.LoadedHeaderProperties loaded)
+	{
+		final ViewHeaderProperties headerProperties = headerPropertiesHolder.compute(
+				currentHeaderProperties -> headerPropertiesAsyncLoader.isCurrentVersion(loaded.getVersion())
+						? loaded.getHeaderProperties()
+						: currentHeaderProperties);
+
+		if (headerProperties == loaded.getHeaderProperties())
+		{
+			ViewChangesCollector.getCurrentOrAutoflush().collectHeaderPropertiesChanged(this);
+		}
+		else if (headerProperties == null && !closed.get())
+		{
+			// our result is stale because the view changed meanwhile => compute them again, so the frontend gets notified
+			loadHeaderPropertiesAsync();
+		}
+	}
+
 	/**
 	 * Returns the table name as provided by our internal {@link IViewDataRepository}.
 	 */
@@ -301,29 +375,75 @@ public final class DefaultView implements IEditableView
 		}
 
 		selectionsRef.forgetCurrentSelections();
+		nextPagePrefetcher.invalidate();
 
 		logger.debug("View closed with reason={}: {}", reason, this);
 	}
 
+	@Override
+	public void afterDestroy()
+	{
+		if (closed.getAndSet(true))
+		{
+			return; // already closed
+		}
+
+		// Also release the selections of expired views (e.g. the in-memory ones, see InMemoryViewRowIdsOrderedSelectionFactory)
+		if (selectionShared.get())
+		{
+			// another webui instance might still use it; ViewsRepository deletes it together with the snapshot
+			selectionsRef.forgetCurrentSelectionsExcept(viewId.getViewId());
+		}
+		else
+		{
+			selectionsRef.forgetCurrentSelections();
+		}
+		nextPagePrefetcher.invalidate();
+
+		logger.debug("View destroyed: {}", this);
+	}
+
+	/**
+	 * Advises this view to keep its selection when it's destroyed, because other webui instances might rebuild the view and use the same selection.
+	 *
+	 * @see #deleteSharedSelection()
+	 */
+	/* package */ void markSelectionShared()
+	{
+		selectionShared.set(true);
+	}
+
+	/**
+	 * Deletes the selection which was kept when this view was destroyed, after no other webui instance is using it anymore.
+	 */
+	/* package */ void deleteSharedSelection()
+	{
+		viewDataRepository.scheduleDeleteSelections(ImmutableSet.of(viewId.getViewId()));
+	}
+
 	@Override
 	public void invalidateAll()
 	{
+		cache_rowsById_generation.incrementAndGet();
 		cache_rowsById.reset();
-		headerPropertiesHolder.setValue(null);
+		nextPagePrefetcher.invalidate();
+		resetHeaderProperties();
 	}
 
 	@Override
 	public void invalidateRowById(final DocumentId rowId)
 	{
+		cache_rowsById_generation.incrementAndGet();
 		cache_rowsById.remove(rowId);
-		headerPropertiesHolder.setValue(null);
+		nextPagePrefetcher.invalidate();
+		resetHeaderProperties();
 	}
 
 	@Override
 	public void invalidateSelection()
 	{
 		selectionsRef.forgetCurrentSelections();
-		headerPropertiesHolder.setValue(null);
+		resetHeaderProperties();
 
 		invalidateAll();
 
@@ -351,10 +471,18 @@ public final class DefaultView implements IEditableView
 		final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
 		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBy.toDocumentQueryOrderByList());
 
-		final List<IViewRow> rows = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+		final List<IViewRow> rows = nextPagePrefetcher.getPageOrLoad(
+				PageKey.of(orderedSelection, firstRow, pageLength),
+				() -> getOrRetrievePage(evalCtx, orderedSelection, firstRow, pageLength));
 
-		// Add to cache
-		rows.forEach(row -> cache_rowsById.put(row.getId(), row));
+		// Start loading the next page, while the user is looking at this one
+		final int nextPageFirstRow = firstRow + pageLength;
+		if (nextPageFirstRow < orderedSelection.getSize() && nextPagePrefetcher.isEnabled())
+		{
+			nextPagePrefetcher.prefetch(
+					PageKey.of(orderedSelection, nextPageFirstRow, pageLength),
+					() -> getOrRetrievePage(evalCtx, orderedSelection, nextPageFirstRow, pageLength));
+		}
 
 		return ViewResult.builder()
 				.view(this)
@@ -366,6 +494,106 @@ public final class DefaultView implements IEditableView
 				.build();
 	}
 
+	/**
+	 * Gets the rows of given page from {@link #cache_rowsById} and loads only the ones which are not cached (e.g. which were invalidated by {@link #notifyRecordsChanged(TableRecordReferenceSet, boolean)}).
+	 */
+	private List<IViewRow> getOrRetrievePage(
+			@NonNull final ViewEvaluationCtx evalCtx,
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength)
+	{
+		final long generation = cache_rowsById_generation.get();
+
+		// Nothing cached: no point in fetching the row IDs first, load the whole page in one go
+		if (cache_rowsById.isEmpty())
+		{
+			final List<IViewRow> rows = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+			if (cache_rowsById_generation.get() == generation)
+			{
+				rows.forEach(row -> cache_rowsById.put(row.getId(), row));
+				removeFromRowsCacheIfInvalidatedSince(generation, rows.stream().map(IViewRow::getId).collect(ImmutableList.toImmutableList()));
+			}
+			collectRowsCacheStats(rows.size(), 0, rows.size());
+			return rows;
+		}
+
+		final List<DocumentId> rowIds = viewDataRepository.retrieveRowIdsByPage(evalCtx, orderedSelection, firstRow, pageLength);
+		final AtomicInteger rowsNotCached = new AtomicInteger();
+		final AtomicInteger rowsLoaded = new AtomicInteger();
+		final List<DocumentId> loadedRowIds = new ArrayList<>();
+		final Map<DocumentId, IViewRow> rowsById = Maps.uniqueIndex(
+				cache_rowsById.getAllOrLoad(rowIds, rowIdsToLoad -> {
+					final List<IViewRow> loadedRows = viewDataRepository.retrieveByIds(evalCtx, viewId, DocumentIdsSelection.of(rowIdsToLoad));
+					rowsNotCached.set(rowIdsToLoad.size());
+					rowsLoaded.set(loadedRows.size());
+					loadedRows.forEach(row -> loadedRowIds.add(row.getId()));
+					return Maps.uniqueIndex(loadedRows, IViewRow::getId);
+				}),
+				IViewRow::getId);
+		removeFromRowsCacheIfInvalidatedSince(generation, loadedRowIds);
+
+		final ImmutableList<IViewRow> rows = rowIds.stream()
+				.map(rowsById::get)
+				.filter(Objects::nonNull) // rows which are no longer there
+				.collect(ImmutableList.toImmutableList());
+		collectRowsCacheStats(rowIds.size(), rowIds.size() - rowsNotCached.get(), rowsLoaded.get());
+		return rows;
+	}
+
+	/**
+	 * If rows were invalidated while we were loading, the rows we loaded might be stale, so we don't keep them in {@link #cache_rowsById}.
+	 */
+	private void removeFromRowsCacheIfInvalidatedSince(final long generation, @NonNull final Collection<DocumentId> loadedRowIds)
+	{
+		if (!loadedRowIds.isEmpty() && cache_rowsById_generation.get() != generation)
+		{
+			cache_rowsById.removeAll(loadedRowIds);
+		}
+	}
+
+	private void collectRowsCacheStats(final int rowsRequested, final int rowsFromCache, final int rowsLoaded)
+	{
+		cacheStats_pageRequests.incrementAndGet();
+		cacheStats_rowsRequested.addAndGet(rowsRequested);
+		cacheStats_rowsFromCache.addAndGet(rowsFromCache);
+		cacheStats_rowsLoaded.addAndGet(rowsLoaded);
+	}
+
+	/**
+	 * @return serializable recipe which allows building this view again, on any webui instance; empty if this view cannot be rebuilt.
+	 */
+	public Optional<ViewSnapshot> getSnapshot()
+	{
+		if (snapshotRecipe == null)
+		{
+			return Optional.empty();
+		}
+
+		return Optional.of(snapshotRecipe.toBuilder()
+				.viewId(viewId)
+				.filters(JSONDocumentFilter.ofList(filters, JSONOptions.newInstance()))
+				.build());
+	}
+
+	@Nullable
+	/* package */ ViewSnapshot getSnapshotRecipe()
+	{
+		return snapshotRecipe;
+	}
+
+	public ViewRowsCacheStats getRowsCacheStats()
+	{
+		return ViewRowsCacheStats.builder()
+				.viewId(viewId)
+				.cachedRowsCount(cache_rowsById.size())
+				.pageRequests(cacheStats_pageRequests.get())
+				.rowsRequested(cacheStats_rowsRequested.get())
+				.rowsFromCache(cacheStats_rowsFromCache.get())
+				.rowsLoaded(cacheStats_rowsLoaded.get())
+				.build();
+	}
+
 	private List<ViewResultColumn> extractViewResultColumns(@NonNull final List<IViewRow> rows)
 	{
 		if (rows.isEmpty())
@@ -445,7 +673,10 @@ public final class DefaultView implements IEditableView
 	{
 		checkChangedRows();
 
-		return cache_rowsById.getOrLoad(rowId, () -> retrieveRowById(rowId));
+		final long generation = cache_rowsById_generation.get();
+		final IViewRow row = cache_rowsById.getOrLoad(rowId, () -> retrieveRowById(rowId));
+		removeFromRowsCacheIfInvalidatedSince(generation, ImmutableList.of(rowId));
+		return row;
 	}
 
 	private IViewRow retrieveRowById(final DocumentId rowId)
@@ -563,7 +794,9 @@ public final class DefaultView implements IEditableView
 		}
 
 		// Invalidate local rowsById cache
+		cache_rowsById_generation.incrementAndGet();
 		cache_rowsById.removeAll(rowIds);
+		nextPagePrefetcher.invalidate();
 
 		checkCollectHeaderPropertiesChanged(rowIds, watchedByFrontend);
 
@@ -592,10 +825,25 @@ public final class DefaultView implements IEditableView
 		}
 	}
 
+	@Override
+	public Set<String> getDependsOnTableNames()
+	{
+		return viewInvalidationAdvisor.getDependsOnTableNames(this);
+	}
+
+	private void resetHeaderProperties()
+	{
+		headerPropertiesAsyncLoader.invalidate(); // make sure a result which is currently computing is discarded
+		headerPropertiesHolder.setValue(null);
+	}
+
 	private void checkCollectHeaderPropertiesChanged(
 			@NonNull final Set<DocumentId> rowIds,
 			final boolean watchedByFrontend)
 	{
+		// rows changed => a result which is currently computing might be stale
+		headerPropertiesAsyncLoader.invalidate();
+
 		final OldAndNewValues<ViewHeaderProperties> oldAndNewHeaderProperties = headerPropertiesHolder
 				.computeIfNotNullReturningOldAndNew(currentHeaderProperties -> {
 					final ViewHeaderPropertiesIncrementalResult newHeaderPropertiesResult = headerPropertiesProvider.computeIncrementallyOnRowsChanged(
@@ -762,6 +1010,9 @@ public final class DefaultView implements IEditableView
 
 		private boolean applySecurityRestrictions = true;
 
+		private ViewSnapshot snapshotRecipe;
+		private boolean deleteExistingSelection = false;
+
 		private Builder(@NonNull final SqlViewDataRepository viewDataRepository)
 		{
 			this.viewDataRepository = viewDataRepository;
@@ -978,5 +1229,35 @@ public final class DefaultView implements IEditableView
 		{
 			return applySecurityRestrictions;
 		}
+
+		/**
+		 * @param snapshotRecipe the recipe which was used to create this view; the view ID and filters are taken from the view itself.
+		 */
+		public Builder setSnapshotRecipe(@Nullable final ViewSnapshot snapshotRecipe)
+		{
+			this.snapshotRecipe = snapshotRecipe;
+			return this;
+		}
+
+		@Nullable
+		private ViewSnapshot getSnapshotRecipe()
+		{
+			return snapshotRecipe;
+		}
+
+		/**
+		 * Advises the view to delete the selection which might already exist for this view ID, before creating its own.
+		 * Needed when the view is rebuilt from a snapshot.
+		 */
+		public Builder deleteExistingSelection(final boolean deleteExistingSelection)
+		{
+			this.deleteExistingSelection = deleteExistingSelection;
+			return this;
+		}
+
+		private boolean isDeleteExistingSelection()
+		{
+			return deleteExistingSelection;
+		}
 	}
 }
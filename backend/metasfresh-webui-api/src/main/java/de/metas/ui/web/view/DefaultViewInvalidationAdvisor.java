@@ -64,4 +64,11 @@ public final class DefaultViewInvalidationAdvisor implements IViewInvalidationAd
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
+	@Override
+	public Set<String> getDependsOnTableNames(@NonNull final IView view)
+	{
+		final String viewTableName = view.getTableNameOrNull();
+		return viewTableName != null ? ImmutableSet.of(viewTableName) : ImmutableSet.of();
+	}
+
 }
@@ -1,16 +1,21 @@
 package de.metas.ui.web.view;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.slf4j.Logger;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
 import de.metas.ui.web.view.event.ViewChangesCollector;
@@ -45,11 +50,35 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	private static transient final Logger logger = LogManager.getLogger(DefaultViewsRepositoryStorage.class);
 
 	private final Cache<ViewId, IView> views;
+	private final ViewsByTableNameIndex viewsByTableName = new ViewsByTableNameIndex();
+	private final ViewRemovedCallback onViewRemovedCallback;
+
+	@FunctionalInterface
+	public interface ViewRemovedCallback
+	{
+		/**
+		 * @param expired true if the view expired, false if it was closed per user request
+		 */
+		void onViewRemoved(@NonNull IView view, boolean expired);
+	}
 
 	public DefaultViewsRepositoryStorage(@NonNull final Duration viewExpirationTimeout)
 	{
+		this(viewExpirationTimeout, Ticker.systemTicker(), (view, expired) -> {});
+	}
+
+	/**
+	 * @param onViewRemovedCallback called after a view was closed or expired (but not when it was replaced by a view with the same ID)
+	 */
+	public DefaultViewsRepositoryStorage(
+			@NonNull final Duration viewExpirationTimeout,
+			@NonNull final Ticker ticker,
+			@NonNull final ViewRemovedCallback onViewRemovedCallback)
+	{
+		this.onViewRemovedCallback = onViewRemovedCallback;
 		views = CacheBuilder.newBuilder()
 				.expireAfterAccess(viewExpirationTimeout.toNanos(), TimeUnit.NANOSECONDS)
+				.ticker(ticker)
 				.removalListener(this::onViewRemoved)
 				.build();
 	}
@@ -64,6 +93,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	public void put(@NonNull final IView view)
 	{
 		views.put(view.getViewId(), view);
+		viewsByTableName.add(view);
 	}
 
 	@Nullable
@@ -100,7 +130,13 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	{
 		final IView view = (IView)notification.getValue();
 		logger.debug("View <" + view.getViewId() + "> removed from cache. Cause: " + notification.getCause());
+		viewsByTableName.remove(view);
 		view.afterDestroy();
+
+		if (notification.getCause() != RemovalCause.REPLACED)
+		{
+			onViewRemovedCallback.onViewRemoved(view, notification.wasEvicted());
+		}
 	}
 
 	@Override
@@ -124,4 +160,15 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 		return views.asMap().values().stream();
 	}
 
+	@Override
+	public ImmutableList<IView> getViewsToNotifyRecordsChanged(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		// NOTE: containsKey is not considered an access, so it does not prevent the view from expiring
+		final Map<ViewId, IView> viewsMap = views.asMap();
+		return viewsByTableName.getViewsAffectedBy(recordRefs)
+				.stream()
+				.filter(view -> viewsMap.containsKey(view.getViewId()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 }
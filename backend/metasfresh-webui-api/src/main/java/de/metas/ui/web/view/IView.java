@@ -218,6 +218,16 @@ public interface IView
 	 */
 	void notifyRecordsChanged(TableRecordReferenceSet recordRefs, boolean watchedByFrontend);
 
+	/**
+	 * @return the tables whose changed records can affect this view, see {@link #notifyRecordsChanged(TableRecordReferenceSet, boolean)};
+	 *         {@code null} if not known, i.e. the view shall be notified about all changed records.
+	 */
+	@Nullable
+	default Set<String> getDependsOnTableNames()
+	{
+		return null;
+	}
+
 	/**
 	 * @return actions which were registered particularly for this view instance
 	 */
@@ -57,6 +57,11 @@ public interface IViewDataRepository
 
 	IViewRow retrieveById(ViewEvaluationCtx viewEvalCtx, ViewId viewId, DocumentId rowId);
 
+	/**
+	 * @return the rows of given IDs, in no particular order. Rows which were not found are not included.
+	 */
+	List<IViewRow> retrieveByIds(ViewEvaluationCtx viewEvalCtx, ViewId viewId, DocumentIdsSelection rowIds);
+
 	List<IViewRow> retrievePage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength) throws DBException;
 
 	List<DocumentId> retrieveRowIdsByPage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength);
@@ -2,12 +2,15 @@ package de.metas.ui.web.view;
 
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.springframework.stereotype.Component;
 
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -47,4 +50,13 @@ public interface IViewInvalidationAdvisor
 			final TableRecordReferenceSet recordRefs,
 			final boolean watchedByFrontend,
 			IView view);
+
+	/**
+	 * @return the tables for whose records {@link #findAffectedRowIds(TableRecordReferenceSet, boolean, IView)} can return something; {@code null} if not known
+	 */
+	@Nullable
+	default Set<String> getDependsOnTableNames(@NonNull final IView view)
+	{
+		return null;
+	}
 }
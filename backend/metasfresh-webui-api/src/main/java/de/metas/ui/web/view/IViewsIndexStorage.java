@@ -26,9 +26,12 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+
 import com.google.common.collect.ImmutableList;
 
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /**
  * Implementations of this interface are responsible of storing {@link IView} references for a particular window ID identified by {@link #getWindowId()}.
@@ -72,6 +75,14 @@ public interface IViewsIndexStorage
 		return streamAllViews().collect(ImmutableList.toImmutableList());
 	}
 
+	/**
+	 * @return the views which shall be notified about given changed records; by default, all views.
+	 */
+	default ImmutableList<IView> getViewsToNotifyRecordsChanged(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		return getAllViews();
+	}
+
 	void invalidateView(ViewId viewId);
 
 }
@@ -0,0 +1,192 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable ordered list of integer row IDs of a view selection which is kept in memory instead of <code>T_WEBUI_ViewSelection</code>.
+ *
+ * @see InMemoryViewRowIdsOrderedSelectionFactory
+ */
+public final class InMemoryViewRowIds
+{
+	public static InMemoryViewRowIds ofOrderedRowIds(@NonNull final int[] rowIds)
+	{
+		return new InMemoryViewRowIds(rowIds.clone());
+	}
+
+	/** row IDs, in view order */
+	private final int[] rowIds;
+	/** row IDs, sorted ascending, used for lookups */
+	private final int[] rowIdsSorted;
+
+	private InMemoryViewRowIds(@NonNull final int[] rowIds)
+	{
+		this.rowIds = rowIds;
+		this.rowIdsSorted = rowIds.clone();
+		Arrays.sort(this.rowIdsSorted);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryViewRowIds[size=" + size() + "]";
+	}
+
+	public int size()
+	{
+		return rowIds.length;
+	}
+
+	public boolean contains(final int rowId)
+	{
+		return Arrays.binarySearch(rowIdsSorted, rowId) >= 0;
+	}
+
+	public boolean contains(@NonNull final DocumentId rowId)
+	{
+		return rowId.isInt() && contains(rowId.toInt());
+	}
+
+	public boolean containsAny(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+		else if (rowIds.isAll())
+		{
+			return size() > 0;
+		}
+		else
+		{
+			return rowIds.toSet().stream().anyMatch(this::contains);
+		}
+	}
+
+	/**
+	 * @return those of given row IDs which are part of this selection
+	 */
+	public Set<DocumentId> retainContained(@NonNull final Collection<DocumentId> rowIds)
+	{
+		final LinkedHashSet<DocumentId> result = new LinkedHashSet<>();
+		for (final DocumentId rowId : rowIds)
+		{
+			if (contains(rowId))
+			{
+				result.add(rowId);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all row IDs, in view order
+	 */
+	public int[] toArray()
+	{
+		return rowIds.clone();
+	}
+
+	/**
+	 * @return the row IDs of given page, in view order
+	 */
+	public int[] getPage(final int firstRowZeroBased, final int pageLength)
+	{
+		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
+		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
+
+		final int from = Math.min(firstRowZeroBased, rowIds.length);
+		final int to = (int)Math.min((long)firstRowZeroBased + pageLength, rowIds.length);
+		return Arrays.copyOfRange(rowIds, from, to);
+	}
+
+	public ImmutableList<DocumentId> getPageAsDocumentIds(final int firstRowZeroBased, final int pageLength)
+	{
+		final ImmutableList.Builder<DocumentId> result = ImmutableList.builder();
+		for (final int rowId : getPage(firstRowZeroBased, pageLength))
+		{
+			result.add(DocumentId.of(rowId));
+		}
+		return result.build();
+	}
+
+	/**
+	 * @return new instance with given row IDs appended at the end, or this instance if all of them are already contained
+	 */
+	public InMemoryViewRowIds addingRowIds(@NonNull final Collection<Integer> rowIdsToAdd)
+	{
+		final LinkedHashSet<Integer> newRowIds = new LinkedHashSet<>();
+		for (final Integer rowId : rowIdsToAdd)
+		{
+			if (!contains(rowId))
+			{
+				newRowIds.add(rowId);
+			}
+		}
+		if (newRowIds.isEmpty())
+		{
+			return this;
+		}
+
+		final int[] result = Arrays.copyOf(rowIds, rowIds.length + newRowIds.size());
+		int idx = rowIds.length;
+		for (final int rowId : newRowIds)
+		{
+			result[idx++] = rowId;
+		}
+		return new InMemoryViewRowIds(result);
+	}
+
+	/**
+	 * @return new instance without given row IDs, or this instance if none of them is contained
+	 */
+	public InMemoryViewRowIds removingRowIds(@NonNull final Collection<Integer> rowIdsToRemove)
+	{
+		final int[] rowIdsToRemoveSorted = rowIdsToRemove.stream()
+				.filter(this::contains)
+				.mapToInt(Integer::intValue)
+				.sorted()
+				.toArray();
+		if (rowIdsToRemoveSorted.length == 0)
+		{
+			return this;
+		}
+
+		final int[] result = Arrays.stream(rowIds)
+				.filter(rowId -> Arrays.binarySearch(rowIdsToRemoveSorted, rowId) < 0)
+				.toArray();
+		return new InMemoryViewRowIds(result);
+	}
+}
@@ -0,0 +1,585 @@
+package de.metas.ui.web.view;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.metas.logging.LogManager;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewKeyColumnNamesMap;
+import de.metas.ui.web.view.descriptor.SqlViewRowsWhereClause;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Keeps the ordered row IDs of a view selection in memory (see {@link InMemoryViewRowIds}) instead of inserting them into <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * Applies only to views with a single integer key and without grouping (see {@link #isApplicable(SqlViewBinding)}) and only if enabled by {@value #SYSCONFIG_Enabled}.
+ * Selections with more than {@value #SYSCONFIG_MaxSize} rows, and all selections of views which are not applicable, are delegated to {@link SqlViewRowIdsOrderedSelectionFactory}.
+ * <p>
+ * All in-memory selections together hold at most {@value #SYSCONFIG_MaxTotalRows} rows; above that, the least recently used selections are inserted into <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * If an in-memory selection is needed in SQL (e.g. the where clause of all view rows), it's inserted into <code>T_WEBUI_ViewSelection</code> first
+ * and from then on it's handled like any other SQL selection.
+ */
+public class InMemoryViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSelectionFactory
+{
+	public static InMemoryViewRowIdsOrderedSelectionFactory of(@NonNull final SqlViewBinding viewBinding)
+	{
+		return new InMemoryViewRowIdsOrderedSelectionFactory(viewBinding);
+	}
+
+	public static boolean isApplicable(@NonNull final SqlViewBinding viewBinding)
+	{
+		return !viewBinding.hasGroupingFields()
+				&& viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey();
+	}
+
+	private static final Logger logger = LogManager.getLogger(InMemoryViewRowIdsOrderedSelectionFactory.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.Enabled";
+	private static final String SYSCONFIG_MaxSize = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxSize";
+	private static final int DEFAULT_MaxSize = 100000;
+	private static final String SYSCONFIG_MaxTotalRows = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxTotalRows";
+	private static final int DEFAULT_MaxTotalRows = 5000000;
+
+	/**
+	 * In-memory selections by selectionId.
+	 * <p>
+	 * NOTE: shared between all factories, because the {@link SqlViewBinding}s (and so their factories) could be reloaded while the views are still alive.
+	 */
+	private static final ConcurrentHashMap<String, InMemoryViewRowIds> rowIdsBySelectionId = new ConcurrentHashMap<>();
+	/** The factory which created each in-memory selection and when it was last used; needed to evict the least recently used selections */
+	private static final ConcurrentHashMap<String, SelectionUsage> usagesBySelectionId = new ConcurrentHashMap<>();
+	/** Sum of the sizes of all {@link #rowIdsBySelectionId} */
+	private static final AtomicLong inMemoryRowsCount = new AtomicLong();
+
+	private final SqlViewBinding viewBinding;
+	private final SqlViewRowIdsOrderedSelectionFactory sqlFactory;
+
+	/**
+	 * Queries which recently had more than {@value #SYSCONFIG_MaxSize} rows.
+	 * Those are directly created in database, instead of retrieving up to max size rows just to find out that they don't fit in memory.
+	 */
+	private final Cache<SelectionQueryKey, Boolean> tooBigSelectionQueries = CacheBuilder.newBuilder()
+			.maximumSize(1000)
+			.expireAfterWrite(10, TimeUnit.MINUTES)
+			.build();
+
+	private InMemoryViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	{
+		this.viewBinding = viewBinding;
+		this.sqlFactory = SqlViewRowIdsOrderedSelectionFactory.of(viewBinding);
+	}
+
+	private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
+	{
+		return SqlViewSelectionQueryBuilder.newInstance(viewBinding);
+	}
+
+	private boolean isEnabled()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	private int getMaxSize()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_MaxSize, DEFAULT_MaxSize);
+	}
+
+	private long getMaxTotalRows()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_MaxTotalRows, DEFAULT_MaxTotalRows);
+	}
+
+	@Nullable
+	@Override
+	public InMemoryViewRowIds getInMemoryRowIdsOrNull(@NonNull final String selectionId)
+	{
+		final SelectionUsage usage = usagesBySelectionId.get(selectionId);
+		if (usage != null)
+		{
+			usage.touch();
+		}
+
+		return rowIdsBySelectionId.get(selectionId);
+	}
+
+	/**
+	 * @return how many selections are currently kept in memory
+	 */
+	public static int getInMemorySelectionsCount()
+	{
+		return rowIdsBySelectionId.size();
+	}
+
+	/**
+	 * @return how many rows all in-memory selections currently have together
+	 */
+	public static long getInMemoryRowsCount()
+	{
+		return inMemoryRowsCount.get();
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context)
+	{
+		if (!isEnabled())
+		{
+			return sqlFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final int queryLimit = sqlFactory.extractQueryLimit(viewEvalCtx);
+		final int maxSize = getMaxSize();
+		final boolean queryLimitFitsInMemory = queryLimit > 0 && queryLimit <= maxSize;
+
+		final SelectionQueryKey queryKey = SelectionQueryKey.builder()
+				.filters(filters)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.context(context)
+				.loggedUserId(viewEvalCtx.getLoggedUserId())
+				.permissionsKey(viewEvalCtx.getPermissionsKey())
+				.queryLimit(queryLimit)
+				.maxSize(maxSize)
+				.build();
+		if (!queryLimitFitsInMemory && tooBigSelectionQueries.getIfPresent(queryKey) != null)
+		{
+			logger.debug("Selection {} recently had more than {} rows. Creating it directly in database", viewId, maxSize);
+			return sqlFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final SqlAndParams sql = newSqlViewSelectionQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectRowIdsOrdered(viewEvalCtx, filters, orderBys, queryLimitFitsInMemory ? queryLimit : maxSize + 1, context);
+		final int[] rowIds = retrieveRowIds(sql, maxSize);
+		if (rowIds == null)
+		{
+			logger.debug("Selection {} has more than {} rows. Creating it in database", viewId, maxSize);
+			tooBigSelectionQueries.put(queryKey, Boolean.TRUE);
+			return sqlFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final String selectionId = viewId.getViewId();
+		putInMemory(selectionId, InMemoryViewRowIds.ofOrderedRowIds(rowIds));
+		logger.trace("Created in-memory selection {}, rowsCount={}, duration={}", selectionId, rowIds.length, stopwatch);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(rowIds.length)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewRowIdsOrderedSelection fromSelection,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		// NOTE: we are not checking if enabled, because an in-memory selection can't be handled by the SQL factory.
+		final InMemoryViewRowIds fromRowIds = getInMemoryRowIdsOrNull(fromSelection.getSelectionId());
+		if (fromRowIds == null)
+		{
+			return sqlFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		}
+
+		final ViewId newViewId = ViewId.random(fromSelection.getWindowId());
+
+		final SqlAndParams sql = newSqlViewSelectionQueryBuilder()
+				.buildSqlSelectRowIdsFromRowIdsArray(viewEvalCtx, fromRowIds.toArray(), filters, orderBys, filterConverterCtx);
+		final int[] rowIds = retrieveRowIds(sql, 0); // no max size, because it can't have more rows than fromSelection
+
+		putInMemory(newViewId.getViewId(), InMemoryViewRowIds.ofOrderedRowIds(rowIds));
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(newViewId)
+				.size(rowIds.length)
+				.orderBys(orderBys)
+				.queryLimit(fromSelection.getQueryLimit())
+				.build();
+	}
+
+	private void putInMemory(@NonNull final String selectionId, @NonNull final InMemoryViewRowIds rowIds)
+	{
+		usagesBySelectionId.put(selectionId, new SelectionUsage(this));
+		final InMemoryViewRowIds previousRowIds = rowIdsBySelectionId.put(selectionId, rowIds);
+		inMemoryRowsCount.addAndGet(rowIds.size() - (previousRowIds != null ? previousRowIds.size() : 0));
+
+		evictLeastRecentlyUsedSelectionsIfNeeded();
+	}
+
+	private static void removeFromMemory(@NonNull final String selectionId)
+	{
+		final InMemoryViewRowIds removedRowIds = rowIdsBySelectionId.remove(selectionId);
+		if (removedRowIds != null)
+		{
+			inMemoryRowsCount.addAndGet(-removedRowIds.size());
+		}
+		usagesBySelectionId.remove(selectionId);
+	}
+
+	/**
+	 * Materializes the least recently used in-memory selections (of any factory) until all in-memory selections together are within {@value #SYSCONFIG_MaxTotalRows}.
+	 */
+	private void evictLeastRecentlyUsedSelectionsIfNeeded()
+	{
+		final long maxTotalRows = getMaxTotalRows();
+		if (maxTotalRows <= 0)
+		{
+			return;
+		}
+
+		while (inMemoryRowsCount.get() > maxTotalRows)
+		{
+			final Map.Entry<String, SelectionUsage> leastRecentlyUsed = usagesBySelectionId.entrySet()
+					.stream()
+					.min(Comparator.comparingLong(entry -> entry.getValue().getLastUsedNanos()))
+					.orElse(null);
+			if (leastRecentlyUsed == null)
+			{
+				return;
+			}
+
+			final String selectionId = leastRecentlyUsed.getKey();
+			final InMemoryViewRowIds rowIds = rowIdsBySelectionId.get(selectionId);
+			if (rowIds == null)
+			{
+				usagesBySelectionId.remove(selectionId, leastRecentlyUsed.getValue());
+				continue;
+			}
+
+			try
+			{
+				logger.debug("Evicting in-memory selection {} (rowsCount={}), because all in-memory selections have more than {} rows", selectionId, rowIds.size(), maxTotalRows);
+				leastRecentlyUsed.getValue().getFactory().materializeSelection(selectionId, rowIds);
+			}
+			catch (final Exception ex)
+			{
+				// keep it in memory; we will try again with the next in-memory selection
+				logger.warn("Failed evicting in-memory selection {}. Ignored.", selectionId, ex);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param maxSize max rows to retrieve; zero means no limit
+	 * @return retrieved row IDs or null if there were more than <code>maxSize</code> rows
+	 */
+	@Nullable
+	private static int[] retrieveRowIds(@NonNull final SqlAndParams sql, final int maxSize)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sql.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			int[] rowIds = new int[1024];
+			int count = 0;
+			while (rs.next())
+			{
+				if (maxSize > 0 && count >= maxSize)
+				{
+					return null;
+				}
+
+				if (count >= rowIds.length)
+				{
+					rowIds = Arrays.copyOf(rowIds, rowIds.length * 2);
+				}
+				rowIds[count++] = rs.getInt(1);
+			}
+
+			return Arrays.copyOf(rowIds, count);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql.getSql(), sql.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public SqlViewRowsWhereClause getSqlWhereClause(
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		final String selectionId = viewId.getViewId();
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIdsOrNull(selectionId);
+		if (inMemoryRowIds == null || rowIds.isEmpty())
+		{
+			return sqlFactory.getSqlWhereClause(viewId, rowIds);
+		}
+		else if (rowIds.isAll())
+		{
+			// the where clause would have to contain all row IDs, so it's better to have them in the database
+			materializeSelection(selectionId, inMemoryRowIds);
+			return sqlFactory.getSqlWhereClause(viewId, rowIds);
+		}
+		else
+		{
+			final Set<DocumentId> rowIdsContained = inMemoryRowIds.retainContained(rowIds.toSet());
+			if (rowIdsContained.isEmpty())
+			{
+				return SqlViewRowsWhereClause.noRecords();
+			}
+
+			final SqlViewKeyColumnNamesMap keyColumnNamesMap = viewBinding.getSqlViewKeyColumnNamesMap();
+			final SqlAndParams rowsPresentInTable = keyColumnNamesMap.prepareSqlFilterByRowIds()
+					.sqlColumnPrefix(viewBinding.getTableName() + ".")
+					.useKeyColumnName(true)
+					.rowIds(DocumentIdsSelection.of(rowIdsContained))
+					.rowIdsConverter(viewBinding.getRowIdsConverter())
+					.embedSqlParams(true)
+					.build();
+
+			return SqlViewRowsWhereClause.builder()
+					.rowsPresentInTable(rowsPresentInTable)
+					.build();
+		}
+	}
+
+	/**
+	 * Inserts the in-memory selection into <code>T_WEBUI_ViewSelection</code> and forgets it.
+	 */
+	private void materializeSelection(@NonNull final String selectionId, @NonNull final InMemoryViewRowIds rowIds)
+	{
+		synchronized (rowIds)
+		{
+			if (rowIdsBySelectionId.get(selectionId) != rowIds)
+			{
+				return; // already materialized or changed meanwhile
+			}
+
+			final SqlAndParams sql = newSqlViewSelectionQueryBuilder().buildSqlCreateSelectionFromRowIdsArray(selectionId, rowIds.toArray());
+
+			// NOTE: out of transaction, because from now on the selection is available only in database
+			final int rowsCount = DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_None);
+			if (rowIdsBySelectionId.remove(selectionId, rowIds))
+			{
+				inMemoryRowsCount.addAndGet(-rowIds.size());
+				usagesBySelectionId.remove(selectionId);
+			}
+			logger.debug("Materialized in-memory selection {}, rowsCount={}", selectionId, rowsCount);
+		}
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+		else if (rowIds.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = changeInMemoryRowIdsIfPresent(
+				selection.getSelectionId(),
+				currentRowIds -> currentRowIds.addingRowIds(rowIds.toIntSet()));
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.addRowIdsToSelection(selection, rowIds);
+		}
+
+		evictLeastRecentlyUsedSelectionsIfNeeded();
+
+		return selection.withSize(inMemoryRowIds.size());
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = changeInMemoryRowIdsIfPresent(
+				selection.getSelectionId(),
+				currentRowIds -> rowIds.isAll()
+						? InMemoryViewRowIds.ofOrderedRowIds(new int[] {})
+						: currentRowIds.removingRowIds(rowIds.toIntSet()));
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.removeRowIdsFromSelection(selection, rowIds);
+		}
+
+		return selection.withSize(inMemoryRowIds.size());
+	}
+
+	/**
+	 * Changes the in-memory selection while holding the same lock as {@link #materializeSelection(String, InMemoryViewRowIds)},
+	 * so a selection which is currently materialized is not changed in memory only.
+	 *
+	 * @return changed in-memory row IDs or null if the selection is not (or no longer) in memory; in that case the caller shall change it in database
+	 */
+	@Nullable
+	private InMemoryViewRowIds changeInMemoryRowIdsIfPresent(
+			@NonNull final String selectionId,
+			@NonNull final UnaryOperator<InMemoryViewRowIds> changer)
+	{
+		while (true)
+		{
+			final InMemoryViewRowIds currentRowIds = rowIdsBySelectionId.get(selectionId);
+			if (currentRowIds == null)
+			{
+				return null;
+			}
+
+			synchronized (currentRowIds)
+			{
+				final InMemoryViewRowIds changedRowIds = changer.apply(currentRowIds);
+				if (rowIdsBySelectionId.replace(selectionId, currentRowIds, changedRowIds))
+				{
+					inMemoryRowsCount.addAndGet(changedRowIds.size() - currentRowIds.size());
+					return changedRowIds;
+				}
+			}
+
+			// materialized, deleted or changed meanwhile => try again
+		}
+	}
+
+	@Override
+	public boolean containsAnyOfRowIds(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIdsOrNull(selection.getSelectionId());
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.containsAnyOfRowIds(selection, rowIds);
+		}
+
+		return inMemoryRowIds.containsAny(rowIds);
+	}
+
+	@Override
+	public void deleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		selectionIds.forEach(InMemoryViewRowIdsOrderedSelectionFactory::removeFromMemory);
+
+		// NOTE: also delete from database, because the selections could have been materialized
+		sqlFactory.deleteSelections(selectionIds);
+	}
+
+	@Override
+	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		selectionIds.forEach(InMemoryViewRowIdsOrderedSelectionFactory::removeFromMemory);
+
+		// NOTE: also delete from database, because the selections could have been materialized
+		sqlFactory.scheduleDeleteSelections(selectionIds);
+	}
+
+	@Value
+	@Builder
+	private static class SelectionQueryKey
+	{
+		@NonNull
+		DocumentFilterList filters;
+		boolean applySecurityRestrictions;
+		@NonNull
+		SqlDocumentFilterConverterContext context;
+		@NonNull
+		Optional<UserId> loggedUserId;
+		@NonNull
+		UserRolePermissionsKey permissionsKey;
+		int queryLimit;
+		int maxSize;
+	}
+
+	private static final class SelectionUsage
+	{
+		@Getter
+		private final InMemoryViewRowIdsOrderedSelectionFactory factory;
+		@Getter
+		private volatile long lastUsedNanos;
+
+		private SelectionUsage(@NonNull final InMemoryViewRowIdsOrderedSelectionFactory factory)
+		{
+			this.factory = factory;
+			touch();
+		}
+
+		private void touch()
+		{
+			lastUsedNanos = System.nanoTime();
+		}
+	}
+}
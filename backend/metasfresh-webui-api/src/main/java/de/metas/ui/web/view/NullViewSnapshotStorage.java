@@ -0,0 +1,74 @@
+package de.metas.ui.web.view;
+
+import java.time.Instant;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Storage used when views are not shared between webui instances: nothing is stored, so views live only in the instance which created them.
+ */
+public final class NullViewSnapshotStorage implements ViewSnapshotStorage
+{
+	public static final transient NullViewSnapshotStorage instance = new NullViewSnapshotStorage();
+
+	private NullViewSnapshotStorage()
+	{
+	}
+
+	@Nullable
+	@Override
+	public Instant save(@NonNull final ViewSnapshot snapshot)
+	{
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public Instant touch(@NonNull final ViewId viewId)
+	{
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public ViewSnapshot getByIdOrNull(@NonNull final ViewId viewId)
+	{
+		return null;
+	}
+
+	@Override
+	public void deleteById(@NonNull final ViewId viewId)
+	{
+		// nothing
+	}
+
+	@Override
+	public boolean deleteByIdIfNotUpdatedAfter(@NonNull final ViewId viewId, @NonNull final Instant time)
+	{
+		return false;
+	}
+}
@@ -8,8 +8,11 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
@@ -104,7 +107,9 @@ class SqlViewDataRepository implements IViewDataRepository
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		viewRowIdsOrderedSelectionFactory = InMemoryViewRowIdsOrderedSelectionFactory.isApplicable(sqlBindings)
+				? InMemoryViewRowIdsOrderedSelectionFactory.of(sqlBindings)
+				: SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -136,6 +141,14 @@ class SqlViewDataRepository implements IViewDataRepository
 		return tableAlias;
 	}
 
+	/**
+	 * @return true if the row IDs are the IDs of {@link #getTableName()} records, i.e. a changed record affects only the row having the same ID
+	 */
+	public boolean isRowIdMatchingRecordId()
+	{
+		return keyColumnNamesMap.isSingleIntKey() && !hasIncludedRows;
+	}
+
 	@Override
 	public SqlViewRowsWhereClause getSqlWhereClause(
 			@NonNull final ViewId viewId,
@@ -208,11 +221,23 @@ class SqlViewDataRepository implements IViewDataRepository
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.rowId(rowId)
-				.build();
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId.getViewId());
+		final SqlAndParams sqlAndParams;
+		if (inMemoryRowIds != null)
+		{
+			sqlAndParams = sqlViewSelect.selectByRowIdsArray()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(inMemoryRowIds.contains(rowId) ? new int[] { rowId.toInt() } : new int[] {})
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectById()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -251,6 +276,87 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	@Override
+	public List<IViewRow> retrieveByIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+		else if (rowIds.isAll())
+		{
+			throw new AdempiereException("Retrieving ALL rows by IDs is not supported");
+		}
+
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId.getViewId());
+		if (inMemoryRowIds != null)
+		{
+			final Set<DocumentId> rowIdsContained = inMemoryRowIds.retainContained(rowIds.toSet());
+			if (rowIdsContained.isEmpty())
+			{
+				return ImmutableList.of();
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIdsArray()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(rowIdsContained.stream().mapToInt(DocumentId::toInt).toArray())
+					.build();
+		}
+		else if (keyColumnNamesMap.isSingleIntKey())
+		{
+			sqlAndParams = sqlViewSelect.selectByIds()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowIds(rowIds)
+					.build();
+		}
+		else
+		{
+			// Composed keys cannot be filtered in one go, so we fetch them one by one
+			return rowIds.stream()
+					.map(rowId -> retrieveByIdOrNull(viewEvalCtx, viewId, rowId))
+					.filter(Objects::nonNull)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+
+			rs = pstmt.executeQuery();
+			return loadViewRows(rs, viewEvalCtx, viewId, -1/* limit */);
+		}
+		catch (final SQLException | DBException e)
+		{
+			throw DBException.wrapIfNeeded(e)
+					.setSqlIfAbsent(sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Nullable
+	private IViewRow retrieveByIdOrNull(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
+	{
+		try
+		{
+			return retrieveById(viewEvalCtx, viewId, rowId);
+		}
+		catch (final EntityNotFoundException ex)
+		{
+			return null;
+		}
+	}
+
 	private final ImmutableList<IViewRow> loadViewRows(
 			@NonNull final ResultSet rs,
 			final ViewEvaluationCtx viewEvalCtx,
@@ -480,12 +586,24 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.firstRowZeroBased(firstRow)
-				.pageLength(pageLength)
-				.build();
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(orderedSelection.getSelectionId());
+		final SqlAndParams sqlAndParams;
+		if (inMemoryRowIds != null)
+		{
+			sqlAndParams = sqlViewSelect.selectByRowIdsArray()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(inMemoryRowIds.getPage(firstRow, pageLength))
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageLength(pageLength)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -519,6 +637,12 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
 		logger.debug("Using: {}", orderedSelection);
 
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(orderedSelection.getSelectionId());
+		if (inMemoryRowIds != null)
+		{
+			return inMemoryRowIds.getPageAsDocumentIds(firstRow, pageLength);
+		}
+
 		final ViewId viewId = orderedSelection.getViewId();
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
@@ -707,7 +831,10 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int limit)
 	{
 		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
-		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(selectionId);
+		final SqlAndParams sql = inMemoryRowIds != null
+				? sqlViewSelect.selectFieldValuesFromRowIdsArray(viewEvalCtx, inMemoryRowIds.toArray(), fieldName, limit)
+				: sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
 		return DB.retrieveRows(
@@ -63,6 +63,7 @@ import de.metas.ui.web.view.json.JSONFilterViewRequest;
 import de.metas.ui.web.view.json.JSONViewDataType;
 import de.metas.ui.web.window.datatypes.DocumentPath;
 import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.descriptor.factory.DocumentDescriptorFactory;
@@ -150,6 +151,23 @@ public class SqlViewFactory implements IViewFactory
 
 	@Override
 	public DefaultView createView(final @NonNull CreateViewRequest request)
+	{
+		return createView(request, extractSnapshotRecipeOrNull(request), false);
+	}
+
+	/**
+	 * Builds again a view which was created (maybe by another webui instance) and then saved as {@link ViewSnapshot}.
+	 * The view will have the same {@link ViewId}; its selection is created again.
+	 */
+	public DefaultView rebuildView(@NonNull final ViewSnapshot snapshot)
+	{
+		return createView(snapshot.toCreateViewRequest(), snapshot, true);
+	}
+
+	private DefaultView createView(
+			@NonNull final CreateViewRequest request,
+			@Nullable final ViewSnapshot snapshotRecipe,
+			final boolean deleteExistingSelection)
 	{
 		final WindowId windowId = request.getViewId().getWindowId();
 
@@ -174,7 +192,9 @@ public class SqlViewFactory implements IViewFactory
 						request.getDocumentReferenceId()))
 				.applySecurityRestrictions(request.isApplySecurityRestrictions())
 				.viewInvalidationAdvisor(sqlViewBinding.getViewInvalidationAdvisor())
-				.refreshViewOnChangeEvents(sqlViewBinding.isRefreshViewOnChangeEvents());
+				.refreshViewOnChangeEvents(sqlViewBinding.isRefreshViewOnChangeEvents())
+				.setSnapshotRecipe(snapshotRecipe != null ? snapshotRecipe.toBuilder().profileId(profileId).build() : null)
+				.deleteExistingSelection(deleteExistingSelection);
 
 		final DocumentFilterList filters = request.getFiltersUnwrapped(viewDataRepository.getViewFilterDescriptors());
 		viewBuilder.setFilters(filters);
@@ -194,6 +214,42 @@ public class SqlViewFactory implements IViewFactory
 		return viewBuilder.build();
 	}
 
+	/**
+	 * @return the recipe from which the view can be created again or <code>null</code> if the view can't be serialized (e.g. it has programmatic sticky filters or it's an included view)
+	 */
+	@Nullable
+	private static ViewSnapshot extractSnapshotRecipeOrNull(@NonNull final CreateViewRequest request)
+	{
+		if (!request.getStickyFilters().isEmpty()
+				|| request.getParentViewId() != null
+				|| request.getParentRowId() != null)
+		{
+			return null;
+		}
+
+		final ImmutableList.Builder<JSONDocumentPath> referencingDocumentPaths = ImmutableList.builder();
+		for (final DocumentPath referencingDocumentPath : request.getReferencingDocumentPaths())
+		{
+			if (!referencingDocumentPath.isRootDocument() && !referencingDocumentPath.isSingleIncludedDocument())
+			{
+				return null;
+			}
+			referencingDocumentPaths.add(JSONDocumentPath.ofWindowDocumentPath(referencingDocumentPath));
+		}
+
+		final DocumentReferenceId documentReferenceId = request.getDocumentReferenceId();
+
+		return ViewSnapshot.builder()
+				.viewId(request.getViewId())
+				.viewType(request.getViewType())
+				.profileId(request.getProfileId())
+				.referencingDocumentPaths(referencingDocumentPaths.build())
+				.documentReferenceId(documentReferenceId != null ? documentReferenceId.toJson() : null)
+				.filterOnlyIds(request.getFilterOnlyIds())
+				.applySecurityRestrictions(request.isApplySecurityRestrictions())
+				.build();
+	}
+
 	@Nullable
 	private DocumentFilter extractReferencedDocumentFilter(
 			@NonNull final WindowId targetWindowId,
@@ -312,9 +368,12 @@ public class SqlViewFactory implements IViewFactory
 		// }
 		// else
 		{
-			return createView(CreateViewRequest.filterViewBuilder(view)
-					.setFilters(newFilters)
-					.build());
+			return createView(
+					CreateViewRequest.filterViewBuilder(view)
+							.setFilters(newFilters)
+							.build(),
+					view.getSnapshotRecipe(),
+					false);
 		}
 	}
 
@@ -0,0 +1,156 @@
+package de.metas.ui.web.view;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSnapshot;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores the view snapshots in {@link I_T_WEBUI_ViewSnapshot}, so they are available to all webui instances which share the same database.
+ */
+public final class SqlViewSnapshotStorage implements ViewSnapshotStorage
+{
+	private static final Logger logger = LogManager.getLogger(SqlViewSnapshotStorage.class);
+
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	@Override
+	public Instant save(@NonNull final ViewSnapshot snapshot)
+	{
+		final String sql = "INSERT INTO " + I_T_WEBUI_ViewSnapshot.Table_Name + " ("
+				+ I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID
+				+ ", " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Snapshot
+				+ ", " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated
+				+ ") VALUES (?, ?, now())"
+				+ " ON CONFLICT (" + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID + ") DO UPDATE SET "
+				+ I_T_WEBUI_ViewSnapshot.COLUMNNAME_Snapshot + "=EXCLUDED." + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Snapshot
+				+ ", " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated + "=EXCLUDED." + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated
+				+ " RETURNING " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated;
+
+		final List<Object> sqlParams = ImmutableList.of(snapshot.getViewId().getViewId(), toJson(snapshot));
+		final List<Timestamp> updated = DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> rs.getTimestamp(1));
+		logger.debug("Saved {}", snapshot);
+		return updated.get(0).toInstant();
+	}
+
+	@Nullable
+	@Override
+	public Instant touch(@NonNull final ViewId viewId)
+	{
+		final String sql = "UPDATE " + I_T_WEBUI_ViewSnapshot.Table_Name
+				+ " SET " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated + "=now()"
+				+ " WHERE " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID + "=?"
+				+ " RETURNING " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated;
+
+		final List<Timestamp> updated = DB.retrieveRowsOutOfTrx(sql, ImmutableList.of(viewId.getViewId()), rs -> rs.getTimestamp(1));
+		return !updated.isEmpty() ? updated.get(0).toInstant() : null;
+	}
+
+	@Nullable
+	@Override
+	public ViewSnapshot getByIdOrNull(@NonNull final ViewId viewId)
+	{
+		final String sql = "SELECT " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Snapshot
+				+ " FROM " + I_T_WEBUI_ViewSnapshot.Table_Name
+				+ " WHERE " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID + "=?";
+
+		final List<String> jsonSnapshots = DB.retrieveRowsOutOfTrx(sql, ImmutableList.of(viewId.getViewId()), rs -> rs.getString(1));
+		return !jsonSnapshots.isEmpty() ? fromJson(jsonSnapshots.get(0)) : null;
+	}
+
+	@Override
+	public void deleteById(@NonNull final ViewId viewId)
+	{
+		final String sql = "DELETE FROM " + I_T_WEBUI_ViewSnapshot.Table_Name
+				+ " WHERE " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID + "=?";
+		DB.executeUpdateEx(sql, new Object[] { viewId.getViewId() }, ITrx.TRXNAME_None);
+	}
+
+	@Override
+	public boolean deleteByIdIfNotUpdatedAfter(@NonNull final ViewId viewId, @NonNull final Instant time)
+	{
+		final String sql = "DELETE FROM " + I_T_WEBUI_ViewSnapshot.Table_Name
+				+ " WHERE " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID + "=?"
+				+ " AND " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated + " <= ?";
+		final int deleted = DB.executeUpdateEx(sql, new Object[] { viewId.getViewId(), Timestamp.from(time) }, ITrx.TRXNAME_None);
+		return deleted > 0;
+	}
+
+	/**
+	 * Deletes the snapshots which were not saved or touched since given time, e.g. the ones of views which were open on a webui instance which crashed.
+	 *
+	 * @return the view IDs of deleted snapshots
+	 */
+	public ImmutableSet<String> deleteNotUpdatedSince(@NonNull final Instant time)
+	{
+		final String sql = "DELETE FROM " + I_T_WEBUI_ViewSnapshot.Table_Name
+				+ " WHERE " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_Updated + " < ?"
+				+ " RETURNING " + I_T_WEBUI_ViewSnapshot.COLUMNNAME_View_UUID;
+
+		final List<String> viewIds = DB.retrieveRowsOutOfTrx(sql, ImmutableList.of(Timestamp.from(time)), rs -> rs.getString(1));
+		logger.debug("Deleted {} snapshots which were not updated since {}", viewIds.size(), time);
+		return ImmutableSet.copyOf(viewIds);
+	}
+
+	private String toJson(@NonNull final ViewSnapshot snapshot)
+	{
+		try
+		{
+			return jsonObjectMapper.writeValueAsString(snapshot);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting " + snapshot + " to JSON", ex);
+		}
+	}
+
+	private ViewSnapshot fromJson(@NonNull final String json)
+	{
+		try
+		{
+			return jsonObjectMapper.readValue(json, ViewSnapshot.class);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting JSON to " + ViewSnapshot.class.getSimpleName() + ": " + json, ex);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package de.metas.ui.web.view;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import org.compiere.util.DisplayType;
+
+import de.metas.data.export.api.impl.CSVWriter;
+import de.metas.i18n.Language;
+import de.metas.impexp.excel.CellValue;
+import de.metas.impexp.excel.ExcelExportConstants;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.util.StringUtils;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exports view rows as CSV (or TSV) text.
+ * <p>
+ * Unlike {@link ViewExcelExporter} no document model is built: each page of rows is written to the output stream as soon as it was fetched.
+ */
+/* package */ class ViewCsvExporter
+{
+	public static final String FIELD_DELIMITER_CSV = ";";
+	public static final String FIELD_DELIMITER_TSV = "\t";
+
+	private final ViewExportRows rows;
+	private final Language language;
+	private final String fieldDelimiter;
+
+	private final HashMap<Integer, DateFormat> dateFormatsByDisplayType = new HashMap<>();
+
+	@Builder
+	private ViewCsvExporter(
+			@Nullable final ExcelExportConstants constants,
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final ViewLayout layout,
+			@NonNull final Language language,
+			@NonNull final ZoneId zoneId,
+			@Nullable final String fieldDelimiter)
+	{
+		this.language = language;
+		this.fieldDelimiter = fieldDelimiter != null ? fieldDelimiter : FIELD_DELIMITER_CSV;
+
+		this.rows = ViewExportRows.builder()
+				.view(view)
+				.rowIds(rowIds)
+				.layout(layout)
+				.jsonOpts(JSONOptions.builder()
+						.adLanguage(language.getAD_Language())
+						.zoneId(zoneId)
+						.build())
+				.pageSize(ExcelExportConstants.givenOrDefault(constants).getAllRowsPageSize())
+				.build();
+	}
+
+	public void export(@NonNull final OutputStream out) throws IOException
+	{
+		final Properties config = new Properties();
+		config.setProperty(CSVWriter.CONFIG_FieldDelimiter, fieldDelimiter);
+
+		final CSVWriter csvWriter = new CSVWriter(new BufferedOutputStream(out), config);
+		try
+		{
+			csvWriter.setHeader(getHeaderNames());
+			while (rows.hasNextRow())
+			{
+				csvWriter.appendLine(toCsvValues(rows.nextRow()));
+			}
+		}
+		finally
+		{
+			csvWriter.close();
+		}
+	}
+
+	private List<String> getHeaderNames()
+	{
+		final int columnCount = rows.getColumnCount();
+		final ArrayList<String> headerNames = new ArrayList<>(columnCount);
+		for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+		{
+			headerNames.add(rows.getHeaderName(columnIndex));
+		}
+		return headerNames;
+	}
+
+	private List<Object> toCsvValues(@NonNull final List<CellValue> cellValues)
+	{
+		final ArrayList<Object> csvValues = new ArrayList<>(cellValues.size());
+		for (int columnIndex = 0; columnIndex < cellValues.size(); columnIndex++)
+		{
+			csvValues.add(toCsvValue(cellValues.get(columnIndex), columnIndex));
+		}
+		return csvValues;
+	}
+
+	@Nullable
+	private String toCsvValue(@Nullable final CellValue cellValue, final int columnIndex)
+	{
+		if (cellValue == null)
+		{
+			return null;
+		}
+		else if (cellValue.isDate())
+		{
+			final int displayType = rows.getWidgetType(columnIndex).getDisplayType();
+			return getDateFormat(displayType).format(cellValue.dateValue());
+		}
+		else if (cellValue.isNumber())
+		{
+			return new BigDecimal(cellValue.stringValue()).toPlainString();
+		}
+		else if (cellValue.isBoolean())
+		{
+			return StringUtils.ofBoolean(cellValue.booleanValue());
+		}
+		else
+		{
+			return cellValue.stringValue();
+		}
+	}
+
+	private DateFormat getDateFormat(final int displayType)
+	{
+		return dateFormatsByDisplayType.computeIfAbsent(displayType, k -> DisplayType.getDateFormat(displayType, language));
+	}
+}
@@ -0,0 +1,243 @@
+package de.metas.ui.web.view;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import de.metas.impexp.excel.CellValue;
+import de.metas.impexp.excel.CellValues;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.DateTimeConverters;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValuesList;
+import de.metas.ui.web.window.datatypes.json.JSONNullValue;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Iterates the rows of a view which shall be exported, page by page, and converts them to {@link CellValue}s.
+ * <p>
+ * At most one page of rows is loaded at a time, so the memory footprint does not depend on the view size.
+ *
+ * @see ViewExcelExporter
+ * @see ViewCsvExporter
+ */
+/* package */ final class ViewExportRows
+{
+	private final ViewLayout layout;
+	private final JSONOptions jsonOpts;
+	private final int rowCount;
+	private final Iterator<? extends IViewRow> rows;
+
+	@Builder
+	private ViewExportRows(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final ViewLayout layout,
+			@NonNull final JSONOptions jsonOpts,
+			final int pageSize)
+	{
+		Check.assume(pageSize > 0, "pageSize > 0 but it was {}", pageSize);
+
+		this.layout = layout;
+		this.jsonOpts = jsonOpts;
+
+		if (rowIds.isAll())
+		{
+			this.rowCount = (int)view.size();
+			this.rows = new AllRowsIterator(view, pageSize, jsonOpts);
+		}
+		else if (rowIds.isEmpty())
+		{
+			throw new AdempiereException("@NoSelection@");
+		}
+		else
+		{
+			this.rowCount = rowIds.size();
+			this.rows = iterateByIds(view, rowIds, pageSize);
+		}
+	}
+
+	public int getColumnCount()
+	{
+		return layout.getElements().size();
+	}
+
+	public String getHeaderName(final int columnIndex)
+	{
+		return layout.getElements().get(columnIndex).getCaption(jsonOpts.getAdLanguage());
+	}
+
+	public DocumentFieldWidgetType getWidgetType(final int columnIndex)
+	{
+		return layout.getElements().get(columnIndex).getWidgetType();
+	}
+
+	private String getFieldName(final int columnIndex)
+	{
+		final Set<DocumentLayoutElementFieldDescriptor> fields = layout.getElements().get(columnIndex).getFields();
+		return fields.iterator().next().getField();
+	}
+
+	/**
+	 * @return the number of rows which are expected to be exported. Rows which meanwhile disappeared from the view are not exported.
+	 */
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+	public boolean hasNextRow()
+	{
+		return rows.hasNext();
+	}
+
+	public List<CellValue> nextRow()
+	{
+		final IViewRow row = rows.next();
+
+		final int columnCount = getColumnCount();
+		final ArrayList<CellValue> result = new ArrayList<>(columnCount);
+		for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+		{
+			result.add(getValue(row, columnIndex));
+		}
+		return result;
+	}
+
+	@Nullable
+	private CellValue getValue(@NonNull final IViewRow row, final int columnIndex)
+	{
+		final String fieldName = getFieldName(columnIndex);
+
+		final Object value = row.getFieldValueAsJsonObject(fieldName, jsonOpts);
+		if (JSONNullValue.isNull(value))
+		{
+			return null;
+		}
+
+		final DocumentFieldWidgetType widgetType = getWidgetType(columnIndex);
+		if (widgetType.isDateOrTime())
+		{
+			return CellValue.ofDate(DateTimeConverters.fromObject(value, widgetType));
+		}
+		else if (value instanceof JSONLookupValue)
+		{
+			final String valueStr = ((JSONLookupValue)value).getCaption();
+			return CellValues.toCellValue(valueStr, widgetType.getDisplayType());
+		}
+		else if (value instanceof JSONLookupValuesList)
+		{
+			final JSONLookupValuesList jsonLookupValuesList = (JSONLookupValuesList)value;
+			final String valueStr = jsonLookupValuesList
+					.getValues()
+					.stream()
+					.map(lookupValue -> lookupValue.getCaption())
+					.collect(Collectors.joining(", "));
+			return CellValue.ofString(valueStr);
+		}
+		else
+		{
+			return CellValues.toCellValue(value, widgetType.getDisplayType());
+		}
+	}
+
+	/**
+	 * Loads the rows in chunks of <code>pageSize</code>, in the order of given row IDs.
+	 */
+	private static Iterator<IViewRow> iterateByIds(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			final int pageSize)
+	{
+		final ImmutableList<DocumentId> rowIdsList = ImmutableList.copyOf(rowIds.toSet());
+		final Iterator<Iterator<IViewRow>> pages = Iterators.transform(
+				Iterators.partition(rowIdsList.iterator(), pageSize),
+				pageRowIds -> view.streamByIds(DocumentIdsSelection.of(pageRowIds))
+						.map(IViewRow.class::cast)
+						.iterator());
+		return Iterators.concat(pages);
+	}
+
+	/**
+	 * Iterates all rows of the view, using the view's default ordering.
+	 */
+	private static final class AllRowsIterator extends AbstractIterator<IViewRow>
+	{
+		private final IView view;
+		private final int pageSize;
+		private final ViewRowsOrderBy orderBys;
+
+		private int nextPageFirstRow = 0;
+		private boolean endReached = false;
+		private Iterator<IViewRow> currentPage = ImmutableList.<IViewRow> of().iterator();
+
+		private AllRowsIterator(
+				@NonNull final IView view,
+				final int pageSize,
+				@NonNull final JSONOptions jsonOpts)
+		{
+			this.view = view;
+			this.pageSize = pageSize;
+			this.orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+		}
+
+		@Override
+		protected IViewRow computeNext()
+		{
+			while (!currentPage.hasNext())
+			{
+				if (endReached || nextPageFirstRow >= view.size())
+				{
+					return endOfData();
+				}
+
+				// NOTE: a page can be shorter than pageSize even if it's not the last one, because rows which no longer exist are skipped
+				final List<IViewRow> page = view.getPage(nextPageFirstRow, pageSize, orderBys).getPage();
+				nextPageFirstRow += pageSize;
+				endReached = page.isEmpty();
+				currentPage = page.iterator();
+			}
+
+			return currentPage.next();
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Computes the view header properties (e.g. the amount sums of {@link InvoiceCandidateViewHeaderPropertiesProvider}) in background,
+ * so that the first page of a big view can be returned without waiting for them.
+ * <p>
+ * The frontend is notified when they are available (see {@link de.metas.ui.web.view.event.ViewChangesCollector#collectHeaderPropertiesChanged(IView)}),
+ * and then it fetches them again.
+ * <p>
+ * Each time the header properties are invalidated, the version is incremented, so that a result computed for an older version is discarded.
+ * <p>
+ * If the executor is busy, submitting is retried a few times with an increasing delay, because the frontend would not ask again until it gets notified.
+ */
+/* package */ final class ViewHeaderPropertiesAsyncLoader
+{
+	private static final Logger logger = LogManager.getLogger(ViewHeaderPropertiesAsyncLoader.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.view.ViewHeaderPropertiesAsyncLoader.Enabled";
+	private static final boolean DEFAULT_Enabled = false;
+
+	private static final int MAX_SUBMIT_ATTEMPTS = 10;
+	private static final Duration DEFAULT_SUBMIT_RETRY_DELAY = Duration.ofSeconds(1);
+
+	private static final ExecutorService sharedExecutor = new ThreadPoolExecutor(
+			1, // corePoolSize
+			4, // maxPoolSize
+			60L, // keepAliveTime
+			TimeUnit.SECONDS, // keepAliveTime unit
+			new LinkedBlockingQueue<>(100), // workQueue
+			CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(ViewHeaderPropertiesAsyncLoader.class.getSimpleName() + "-")
+					.build(),
+			new ThreadPoolExecutor.AbortPolicy());
+
+	private static final ScheduledExecutorService sharedRetryScheduler = Executors.newSingleThreadScheduledExecutor(
+			CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(ViewHeaderPropertiesAsyncLoader.class.getSimpleName() + "-retry-")
+					.build());
+
+	private final ExecutorService executor;
+	private final ScheduledExecutorService retryScheduler;
+	private final Duration submitRetryDelay;
+
+	private final AtomicLong version = new AtomicLong(0);
+	private final AtomicLong loadingVersion = new AtomicLong(-1);
+
+	public ViewHeaderPropertiesAsyncLoader()
+	{
+		this(sharedExecutor, sharedRetryScheduler, DEFAULT_SUBMIT_RETRY_DELAY);
+	}
+
+	@VisibleForTesting
+	ViewHeaderPropertiesAsyncLoader(
+			@NonNull final ExecutorService executor,
+			@NonNull final ScheduledExecutorService retryScheduler,
+			@NonNull final Duration submitRetryDelay)
+	{
+		this.executor = executor;
+		this.retryScheduler = retryScheduler;
+		this.submitRetryDelay = submitRetryDelay;
+	}
+
+	public boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, DEFAULT_Enabled);
+	}
+
+	/**
+	 * Shall be called <b>before</b> resetting the header properties.
+	 */
+	public void invalidate()
+	{
+		version.incrementAndGet();
+	}
+
+	public boolean isCurrentVersion(final long version)
+	{
+		return this.version.get() == version;
+	}
+
+	/**
+	 * Starts computing the header properties in background, unless they are already computing for current version.
+	 *
+	 * @param onLoaded called from background thread. Shall check {@link #isCurrentVersion(long)} before using the result.
+	 */
+	public void loadAsync(
+			@NonNull final Supplier<ViewHeaderProperties> loader,
+			@NonNull final Consumer<LoadedHeaderProperties> onLoaded)
+	{
+		final long versionToLoad = version.get();
+		if (loadingVersion.getAndSet(versionToLoad) == versionToLoad)
+		{
+			return; // already loading
+		}
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		submit(ctx, loader, onLoaded, versionToLoad, 1);
+	}
+
+	private void submit(
+			@NonNull final Properties ctx,
+			@NonNull final Supplier<ViewHeaderProperties> loader,
+			@NonNull final Consumer<LoadedHeaderProperties> onLoaded,
+			final long versionToLoad,
+			final int attempt)
+	{
+		if (!isCurrentVersion(versionToLoad))
+		{
+			// invalidated while waiting for a retry; the new version will be loaded on next request
+			loadingVersion.compareAndSet(versionToLoad, -1);
+			return;
+		}
+
+		try
+		{
+			executor.execute(() -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+				{
+					final ViewHeaderProperties headerProperties = loader.get();
+					onLoaded.accept(LoadedHeaderProperties.of(headerProperties, versionToLoad));
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed computing header properties. Will retry on next request.", ex);
+					loadingVersion.compareAndSet(versionToLoad, -1);
+				}
+			});
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			if (attempt >= MAX_SUBMIT_ATTEMPTS)
+			{
+				logger.warn("Executor is still busy after {} attempts. Will retry on next request.", attempt);
+				loadingVersion.compareAndSet(versionToLoad, -1);
+				return;
+			}
+
+			final Duration retryDelay = submitRetryDelay.multipliedBy(attempt);
+			logger.debug("Executor is busy. Retrying in {}", retryDelay);
+			retryScheduler.schedule(
+					() -> submit(ctx, loader, onLoaded, versionToLoad, attempt + 1),
+					retryDelay.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	public static class LoadedHeaderProperties
+	{
+		@NonNull
+		ViewHeaderProperties headerProperties;
+		long version;
+	}
+}
@@ -0,0 +1,173 @@
+package de.metas.ui.web.view;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads the page after the one the user just fetched in background, so that paging forward doesn't have to wait for the database.
+ * <p>
+ * Only the most recently prefetched page is kept. It is used only if the next request asks for exactly the same ordered selection, first row and page length.
+ */
+/* package */ final class ViewNextPagePrefetcher
+{
+	private static final Logger logger = LogManager.getLogger(ViewNextPagePrefetcher.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.view.ViewNextPagePrefetcher.Enabled";
+	private static final boolean DEFAULT_Enabled = false;
+
+	/** A prefetched page which was not fetched within this time is considered stale */
+	private static final long PREFETCHED_PAGE_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+	private static final ExecutorService executor = new ThreadPoolExecutor(
+			1, // corePoolSize
+			4, // maxPoolSize
+			60L, // keepAliveTime
+			TimeUnit.SECONDS, // keepAliveTime unit
+			new LinkedBlockingQueue<>(100), // workQueue
+			CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(ViewNextPagePrefetcher.class.getSimpleName() + "-")
+					.build(),
+			new ThreadPoolExecutor.AbortPolicy());
+
+	private final AtomicReference<PrefetchedPage> prefetchedPageRef = new AtomicReference<>();
+	/** incremented on each {@link #invalidate()}, so that a page whose prefetching started before is never used */
+	private final AtomicLong generation = new AtomicLong();
+
+	public boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, DEFAULT_Enabled);
+	}
+
+	/**
+	 * @return the prefetched page if it matches given key, else the page loaded by given loader
+	 */
+	public List<IViewRow> getPageOrLoad(
+			@NonNull final PageKey pageKey,
+			@NonNull final Supplier<List<IViewRow>> pageLoader)
+	{
+		final PrefetchedPage prefetchedPage = prefetchedPageRef.getAndSet(null);
+		if (prefetchedPage != null && prefetchedPage.isUsableFor(pageKey, generation.get()))
+		{
+			try
+			{
+				return prefetchedPage.getRows().join();
+			}
+			catch (final Exception ex)
+			{
+				logger.debug("Failed prefetching {}. Loading it again.", pageKey, ex);
+			}
+		}
+
+		return pageLoader.get();
+	}
+
+	/**
+	 * Starts loading given page in background, using a copy of current context.
+	 */
+	public void prefetch(
+			@NonNull final PageKey pageKey,
+			@NonNull final Supplier<List<IViewRow>> pageLoader)
+	{
+		final long currentGeneration = generation.get();
+		final PrefetchedPage currentPrefetchedPage = prefetchedPageRef.get();
+		if (currentPrefetchedPage != null && currentPrefetchedPage.isUsableFor(pageKey, currentGeneration))
+		{
+			return; // already prefetched or prefetching
+		}
+
+		try
+		{
+			final Properties ctx = Env.copyCtx(Env.getCtx());
+			final CompletableFuture<List<IViewRow>> rows = CompletableFuture.supplyAsync(
+					() -> {
+						try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+						{
+							return pageLoader.get();
+						}
+					},
+					executor);
+			prefetchedPageRef.set(new PrefetchedPage(pageKey, rows, System.currentTimeMillis(), currentGeneration));
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// prefetching is only an optimization, so it's fine to skip it when we are too busy
+			logger.debug("Skip prefetching {} because the executor is busy", pageKey);
+		}
+	}
+
+	public void invalidate()
+	{
+		generation.incrementAndGet();
+		prefetchedPageRef.set(null);
+	}
+
+	@Value(staticConstructor = "of")
+	public static class PageKey
+	{
+		@NonNull
+		ViewRowIdsOrderedSelection orderedSelection;
+		int firstRow;
+		int pageLength;
+	}
+
+	@Value
+	private static class PrefetchedPage
+	{
+		@NonNull
+		PageKey pageKey;
+		@NonNull
+		CompletableFuture<List<IViewRow>> rows;
+		long createdTimeMillis;
+		long generation;
+
+		boolean isUsableFor(@NonNull final PageKey pageKey, final long currentGeneration)
+		{
+			return this.generation == currentGeneration
+					&& this.pageKey.equals(pageKey)
+					&& System.currentTimeMillis() - createdTimeMillis <= PREFETCHED_PAGE_MAX_AGE_MILLIS;
+		}
+	}
+}
@@ -61,11 +61,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Evaluatee;
 import org.compiere.util.Evaluatees;
 import org.compiere.util.MimeType;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -77,9 +73,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import javax.servlet.http.HttpServletResponse;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -507,10 +501,11 @@ public class ViewRestController
 	}
 
 	@GetMapping("/{viewId}/export/excel")
-	public ResponseEntity<Resource> exportToExcel(
+	public void exportToExcel(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable(PARAM_ViewId) final String viewIdStr,
-			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr)
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
 			throws Exception
 	{
 		userSession.assertLoggedIn();
@@ -518,29 +513,53 @@ public class ViewRestController
 		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
 
 		final ExcelFormat excelFormat = ExcelFormats.getDefaultFormat();
-		final File tmpFile = File.createTempFile("exportToExcel", "." + excelFormat.getFileExtension());
+		final ViewExcelExporter exporter = ViewExcelExporter.builder()
+				.excelFormat(excelFormat)
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.build();
 
-		try (final FileOutputStream out = new FileOutputStream(tmpFile))
-		{
-			ViewExcelExporter.builder()
-					.excelFormat(excelFormat)
-					.view(viewsRepo.getView(viewId))
-					.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
-					.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
-					.language(userSession.getLanguage())
-					.zoneId(userSession.getTimeZone())
-					.build()
-					.export(out);
-		}
+		// NOTE: the workbook is completely built before the first byte is written, so export errors are still reported as proper error responses
+		setExportResponseHeaders(response, "report." + excelFormat.getFileExtension()); // TODO: use a better name
+		exporter.export(response.getOutputStream());
+	}
 
-		final String filename = "report." + excelFormat.getFileExtension(); // TODO: use a better name
-		final String contentType = MimeType.getMimeType(filename);
-		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.parseMediaType(contentType));
-		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+	@GetMapping("/{viewId}/export/csv")
+	public void exportToCsv(
+			@PathVariable("windowId") final String windowIdStr,
+			@PathVariable(PARAM_ViewId) final String viewIdStr,
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			@RequestParam(name = "tabSeparated", required = false, defaultValue = "false") @ApiParam("if true, the fields are separated by TAB instead of semicolon") final boolean tabSeparated,
+			final HttpServletResponse response)
+			throws Exception
+	{
+		userSession.assertLoggedIn();
+
+		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
+
+		final ViewCsvExporter exporter = ViewCsvExporter.builder()
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.fieldDelimiter(tabSeparated ? ViewCsvExporter.FIELD_DELIMITER_TSV : ViewCsvExporter.FIELD_DELIMITER_CSV)
+				.build();
+
+		// NOTE: rows are streamed page by page, so an error while fetching rows will truncate the already started response
+		setExportResponseHeaders(response, tabSeparated ? "report.tsv" : "report.csv");
+		response.setCharacterEncoding("UTF-8");
+		exporter.export(response.getOutputStream());
+	}
 
-		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
-		return response;
+	private static void setExportResponseHeaders(@NonNull final HttpServletResponse response, @NonNull final String filename)
+	{
+		final String contentType = MimeType.getMimeType(filename);
+		response.setContentType(contentType);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
 	}
 }
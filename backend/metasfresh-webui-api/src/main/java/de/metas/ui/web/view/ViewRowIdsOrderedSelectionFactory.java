@@ -2,6 +2,8 @@ package de.metas.ui.web.view;
 
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.ui.web.document.filter.DocumentFilterList;
@@ -68,4 +70,13 @@ public interface ViewRowIdsOrderedSelectionFactory
 	void deleteSelections(Set<String> selectionIds);
 
 	void scheduleDeleteSelections(Set<String> selectionIds);
+
+	/**
+	 * @return the row IDs of given selection if it's kept in memory or null if it's stored in <code>T_WEBUI_ViewSelection</code>
+	 */
+	@Nullable
+	default InMemoryViewRowIds getInMemoryRowIdsOrNull(@NonNull final String selectionId)
+	{
+		return null;
+	}
 }
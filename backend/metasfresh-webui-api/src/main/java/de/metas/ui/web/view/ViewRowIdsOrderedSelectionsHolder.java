@@ -62,12 +62,14 @@ final class ViewRowIdsOrderedSelectionsHolder
 			final boolean applySecurityRestrictions,
 			@NonNull final DocumentFilterList stickyFilters,
 			@NonNull final DocumentFilterList filters,
-			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier)
+			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier,
+			final boolean deleteExistingSelection)
 	{
 		this.viewDataRepository = viewDataRepository;
 		this.viewId = viewId;
 		this.applySecurityRestrictions = applySecurityRestrictions;
 		this.viewEvaluationCtxSupplier = viewEvaluationCtxSupplier;
+		this.selectionDeleteBeforeCreate.set(deleteExistingSelection);
 
 		final ArrayList<DocumentFilter> filtersExcludingFacetsList = new ArrayList<>();
 		final ArrayList<DocumentFilter> facetFiltersList = new ArrayList<>();
@@ -176,12 +178,23 @@ final class ViewRowIdsOrderedSelectionsHolder
 	}
 
 	public void forgetCurrentSelections()
+	{
+		forgetCurrentSelectionsExcept(null);
+	}
+
+	/**
+	 * Same as {@link #forgetCurrentSelections()}, but the selection with given ID is not deleted.
+	 */
+	public void forgetCurrentSelectionsExcept(@Nullable final String selectionIdToKeep)
 	{
 		selectionDeleteBeforeCreate.set(true);
 		final ViewRowIdsOrderedSelections selections = currentSelectionsRef.setValueAndReturnPrevious(null);
 		if (selections != null)
 		{
-			final ImmutableSet<String> selectionIds = selections.getSelectionIds();
+			final ImmutableSet<String> selectionIds = selections.getSelectionIds()
+					.stream()
+					.filter(selectionId -> !selectionId.equals(selectionIdToKeep))
+					.collect(ImmutableSet.toImmutableSet());
 			viewDataRepository.scheduleDeleteSelections(selectionIds);
 		}
 	}
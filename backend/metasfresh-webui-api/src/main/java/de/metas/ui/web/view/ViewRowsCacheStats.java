@@ -0,0 +1,66 @@
+package de.metas.ui.web.view;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Snapshot of the statistics of a view's rows cache (see {@link DefaultView#getRowsCacheStats()}).
+ */
+@Value
+@Builder
+public class ViewRowsCacheStats
+{
+	@NonNull
+	ViewId viewId;
+
+	/** Rows which are currently cached */
+	long cachedRowsCount;
+
+	/** How many pages were requested */
+	long pageRequests;
+	/** How many rows were requested, in all pages */
+	long rowsRequested;
+	/** How many of the requested rows were served from cache */
+	long rowsFromCache;
+	/** How many of the requested rows had to be loaded from database */
+	long rowsLoaded;
+
+	/**
+	 * @return cache hit rate, between 0 and 1
+	 */
+	public double getHitRate()
+	{
+		return rowsRequested > 0 ? (double)rowsFromCache / rowsRequested : 0;
+	}
+
+	/**
+	 * @return average number of rows which had to be loaded from database, per page request
+	 */
+	public double getAvgRowsLoadedPerRequest()
+	{
+		return pageRequests > 0 ? (double)rowsLoaded / pageRequests : 0;
+	}
+}
@@ -0,0 +1,123 @@
+package de.metas.ui.web.view;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.document.filter.json.JSONDocumentFilter;
+import de.metas.ui.web.document.references.DocumentReferenceId;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializable recipe of a {@link DefaultView}, i.e. everything needed to build the same view again on any webui instance.
+ * <p>
+ * The rows are not part of the snapshot. A view which is rebuilt from a snapshot creates its selection again, using the same {@link ViewId}.
+ *
+ * @see ViewSnapshotStorage
+ * @see SqlViewFactory#rebuildView(ViewSnapshot)
+ */
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+public class ViewSnapshot
+{
+	@JsonProperty("viewId")
+	ViewId viewId;
+
+	@JsonProperty("viewType")
+	JSONViewDataType viewType;
+
+	@JsonProperty("profileId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	ViewProfileId profileId;
+
+	@JsonProperty("referencingDocumentPaths")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	ImmutableList<JSONDocumentPath> referencingDocumentPaths;
+
+	@JsonProperty("documentReferenceId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String documentReferenceId;
+
+	@JsonProperty("filterOnlyIds")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	ImmutableSet<Integer> filterOnlyIds;
+
+	@JsonProperty("filters")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	ImmutableList<JSONDocumentFilter> filters;
+
+	@JsonProperty("applySecurityRestrictions")
+	boolean applySecurityRestrictions;
+
+	@JsonCreator
+	@Builder(toBuilder = true)
+	private ViewSnapshot(
+			@JsonProperty("viewId") @NonNull final ViewId viewId,
+			@JsonProperty("viewType") @NonNull final JSONViewDataType viewType,
+			@JsonProperty("profileId") @Nullable final ViewProfileId profileId,
+			@JsonProperty("referencingDocumentPaths") @Nullable final List<JSONDocumentPath> referencingDocumentPaths,
+			@JsonProperty("documentReferenceId") @Nullable final String documentReferenceId,
+			@JsonProperty("filterOnlyIds") @Nullable final Set<Integer> filterOnlyIds,
+			@JsonProperty("filters") @Nullable final List<JSONDocumentFilter> filters,
+			@JsonProperty("applySecurityRestrictions") final boolean applySecurityRestrictions)
+	{
+		this.viewId = viewId;
+		this.viewType = viewType;
+		this.profileId = profileId;
+		this.referencingDocumentPaths = referencingDocumentPaths != null ? ImmutableList.copyOf(referencingDocumentPaths) : ImmutableList.of();
+		this.documentReferenceId = documentReferenceId;
+		this.filterOnlyIds = filterOnlyIds != null ? ImmutableSet.copyOf(filterOnlyIds) : ImmutableSet.of();
+		this.filters = filters != null ? ImmutableList.copyOf(filters) : ImmutableList.of();
+		this.applySecurityRestrictions = applySecurityRestrictions;
+	}
+
+	public CreateViewRequest toCreateViewRequest()
+	{
+		return CreateViewRequest.builder(viewId, viewType)
+				.setProfileId(profileId)
+				.setReferencingDocumentPaths(referencingDocumentPaths.stream()
+						.map(JSONDocumentPath::toDocumentPathOrNull)
+						.collect(ImmutableSet.toImmutableSet()))
+				.setDocumentReferenceId(documentReferenceId != null ? DocumentReferenceId.ofString(documentReferenceId) : null)
+				.setFilterOnlyIds(filterOnlyIds)
+				.setFiltersFromJSON(filters)
+				.setUseAutoFilters(false) // the auto filters, if any, are already part of our filters
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.build();
+	}
+}
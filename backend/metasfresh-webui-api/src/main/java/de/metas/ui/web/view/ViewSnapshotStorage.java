@@ -0,0 +1,66 @@
+package de.metas.ui.web.view;
+
+import java.time.Instant;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores {@link ViewSnapshot}s where all webui instances can reach them, so that a view can be rebuilt by any instance, e.g. after a restart or when the user was routed to another instance.
+ */
+public interface ViewSnapshotStorage
+{
+	/**
+	 * Adds or replaces the snapshot of given view.
+	 *
+	 * @return when the snapshot was updated, according to this storage; null if nothing was stored
+	 */
+	@Nullable
+	Instant save(@NonNull ViewSnapshot snapshot);
+
+	/**
+	 * Marks the snapshot of given view as still in use, so it's not deleted when the view expires on another webui instance.
+	 *
+	 * @return when the snapshot was updated, according to this storage; null if there is no such snapshot
+	 */
+	@Nullable
+	Instant touch(@NonNull ViewId viewId);
+
+	@Nullable
+	ViewSnapshot getByIdOrNull(@NonNull ViewId viewId);
+
+	/**
+	 * Deletes the snapshot of given view. Does nothing if there is no such snapshot.
+	 */
+	void deleteById(@NonNull ViewId viewId);
+
+	/**
+	 * Deletes the snapshot of given view, unless it was saved or touched after given time, i.e. by another webui instance which is still using the view.
+	 *
+	 * @return true if the snapshot was deleted
+	 */
+	boolean deleteByIdIfNotUpdatedAfter(@NonNull ViewId viewId, @NonNull Instant time);
+}
@@ -0,0 +1,152 @@
+package de.metas.ui.web.view;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Index of views by the tables they depend on (see {@link IView#getDependsOnTableNames()}),
+ * so that changed records are routed only to the views which can be affected by them.
+ */
+final class ViewsByTableNameIndex
+{
+	private final HashMap<ViewId, IndexedView> viewsById = new HashMap<>();
+	private final HashMap<String, Map<ViewId, IView>> viewsByTableName = new HashMap<>();
+	/** views which don't know their tables, so they are notified about all changes */
+	private final LinkedHashMap<ViewId, IView> viewsForAllTables = new LinkedHashMap<>();
+
+	private static final class IndexedView
+	{
+		private final IView view;
+		/** null means all tables */
+		private final ImmutableSet<String> tableNames;
+
+		private IndexedView(@NonNull final IView view)
+		{
+			this.view = view;
+
+			final Set<String> tableNames = view.getDependsOnTableNames();
+			this.tableNames = tableNames != null ? ImmutableSet.copyOf(tableNames) : null;
+		}
+	}
+
+	public synchronized void add(@NonNull final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		final IndexedView existing = viewsById.get(viewId);
+		if (existing != null)
+		{
+			removeFromTableNames(viewId, existing);
+		}
+
+		final IndexedView indexedView = new IndexedView(view);
+		viewsById.put(viewId, indexedView);
+
+		if (indexedView.tableNames == null)
+		{
+			viewsForAllTables.put(viewId, view);
+		}
+		else
+		{
+			for (final String tableName : indexedView.tableNames)
+			{
+				viewsByTableName.computeIfAbsent(tableName, k -> new LinkedHashMap<>()).put(viewId, view);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given view, unless it was already replaced by another view with the same ID.
+	 */
+	public synchronized void remove(@NonNull final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		final IndexedView existing = viewsById.get(viewId);
+		if (existing == null || existing.view != view)
+		{
+			return;
+		}
+
+		viewsById.remove(viewId);
+		removeFromTableNames(viewId, existing);
+	}
+
+	private void removeFromTableNames(final ViewId viewId, final IndexedView indexedView)
+	{
+		if (indexedView.tableNames == null)
+		{
+			viewsForAllTables.remove(viewId);
+			return;
+		}
+
+		for (final String tableName : indexedView.tableNames)
+		{
+			final Map<ViewId, IView> views = viewsByTableName.get(tableName);
+			if (views == null)
+			{
+				continue;
+			}
+
+			views.remove(viewId);
+			if (views.isEmpty())
+			{
+				viewsByTableName.remove(tableName);
+			}
+		}
+	}
+
+	public synchronized ImmutableList<IView> getViewsAffectedBy(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		if (recordRefs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final LinkedHashMap<ViewId, IView> result = new LinkedHashMap<>(viewsForAllTables);
+		for (final String tableName : recordRefs.getTableNames())
+		{
+			final Map<ViewId, IView> views = viewsByTableName.get(tableName);
+			if (views != null)
+			{
+				result.putAll(views);
+			}
+		}
+
+		return ImmutableList.copyOf(result.values());
+	}
+
+	public synchronized int size()
+	{
+		return viewsById.size();
+	}
+}
@@ -1,9 +1,13 @@
 package de.metas.ui.web.view;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
+import de.metas.common.util.time.SystemTime;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelectionLine;
@@ -29,17 +33,21 @@ import org.adempiere.util.lang.MutableInt;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.stream.Stream;
@@ -84,12 +92,48 @@ public class ViewsRepository implements IViewsRepository
 
 	private final Executor async;
 
+	private static final String SYSCONFIG_SharedViewSnapshots = "de.metas.ui.web.view.ViewsRepository.SharedViewSnapshots";
+	private static final String SYSCONFIG_ViewSnapshotsMaxAgeInHours = "de.metas.ui.web.view.SqlViewSnapshotStorage.MaxAgeInHours";
+	private final ViewSnapshotStorage viewSnapshotStorage;
+
+	/**
+	 * The snapshots which this instance saved, by view ID.
+	 * While such a view is used, we touch its snapshot from time to time, so the other instances know that they shall not delete the snapshot and the view's selection.
+	 */
+	private final ConcurrentHashMap<ViewId, SharedSnapshot> sharedSnapshotsByViewId = new ConcurrentHashMap<>();
+	private final Duration snapshotTouchInterval;
+	private static final Duration MAX_SNAPSHOT_TOUCH_INTERVAL = Duration.ofMinutes(1);
+
+	@Autowired
 	public ViewsRepository(
 			@NonNull final List<IViewFactory> viewFactories,
 			@SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NonNull final Optional<List<IViewsIndexStorage>> viewIndexStorages,
 			@NonNull final SqlViewFactory defaultFactory,
 			@NonNull final MenuTreeRepository menuTreeRepo,
 			@NonNull final WebsocketActiveSubscriptionsIndex websocketActiveSubscriptionsIndex)
+	{
+		this(viewFactories,
+				viewIndexStorages,
+				defaultFactory,
+				menuTreeRepo,
+				websocketActiveSubscriptionsIndex,
+				Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_SharedViewSnapshots, false)
+						? new SqlViewSnapshotStorage()
+						: NullViewSnapshotStorage.instance,
+				Duration.ofMinutes(Services.get(ISysConfigBL.class).getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60)),
+				Ticker.systemTicker());
+	}
+
+	@VisibleForTesting
+	ViewsRepository(
+			@NonNull final List<IViewFactory> viewFactories,
+			@SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NonNull final Optional<List<IViewsIndexStorage>> viewIndexStorages,
+			@NonNull final SqlViewFactory defaultFactory,
+			@NonNull final MenuTreeRepository menuTreeRepo,
+			@NonNull final WebsocketActiveSubscriptionsIndex websocketActiveSubscriptionsIndex,
+			@NonNull final ViewSnapshotStorage viewSnapshotStorage,
+			@NonNull final Duration viewExpirationTimeout,
+			@NonNull final Ticker ticker)
 	{
 		factories = createFactoriesMap(viewFactories);
 		factories.values().forEach(viewFactory -> viewFactory.setViewsRepository(this));
@@ -102,8 +146,13 @@ public class ViewsRepository implements IViewsRepository
 		this.menuTreeRepo = menuTreeRepo;
 		this.websocketActiveSubscriptionsIndex = websocketActiveSubscriptionsIndex;
 
-		final Duration viewExpirationTimeout = Duration.ofMinutes(Services.get(ISysConfigBL.class).getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60));
-		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		this.viewSnapshotStorage = viewSnapshotStorage;
+		logger.info("Using view snapshot storage: {}", viewSnapshotStorage);
+
+		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout, ticker, this::onDefaultViewRemoved);
+		snapshotTouchInterval = viewExpirationTimeout.dividedBy(10).compareTo(MAX_SNAPSHOT_TOUCH_INTERVAL) < 0
+				? viewExpirationTimeout.dividedBy(10)
+				: MAX_SNAPSHOT_TOUCH_INTERVAL;
 
 		async = createAsyncExecutor();
 	}
@@ -115,10 +164,21 @@ public class ViewsRepository implements IViewsRepository
 		return Executors.newSingleThreadExecutor(asyncThreadFactory);
 	}
 
+	private boolean isSharedViewSnapshots()
+	{
+		return viewSnapshotStorage != NullViewSnapshotStorage.instance;
+	}
+
 	@PostConstruct
 	private void truncateTempTablesIfAllowed()
 	{
-		if (truncateSelectionOnStartUp)
+		if (isSharedViewSnapshots())
+		{
+			// the selections are shared with the other webui instances, so we can't truncate them
+			logger.info("Skip truncating selection tables on startup because view snapshots are shared");
+			deleteStaleViewSnapshots();
+		}
+		else if (truncateSelectionOnStartUp)
 		{
 			truncateTable(I_T_WEBUI_ViewSelection.Table_Name);
 			truncateTable(I_T_WEBUI_ViewSelectionLine.Table_Name);
@@ -129,6 +189,27 @@ public class ViewsRepository implements IViewsRepository
 		}
 	}
 
+	private void deleteStaleViewSnapshots()
+	{
+		if (!(viewSnapshotStorage instanceof SqlViewSnapshotStorage))
+		{
+			return;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			final Duration maxAge = Duration.ofHours(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ViewSnapshotsMaxAgeInHours, 24));
+			final ImmutableSet<String> viewIds = ((SqlViewSnapshotStorage)viewSnapshotStorage).deleteNotUpdatedSince(SystemTime.asInstant().minus(maxAge));
+			SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(viewIds);
+			logger.info("Deleted {} view snapshots older than {} and scheduled their selections for deletion (Took: {})", viewIds.size(), maxAge, stopwatch);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed deleting stale view snapshots (Took: {})", stopwatch, ex);
+		}
+	}
+
 	private static void truncateTable(final String tableName)
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
@@ -283,7 +364,7 @@ public class ViewsRepository implements IViewsRepository
 					.setParameter("factory", factory.toString());
 		}
 
-		getViewsStorageFor(view.getViewId()).put(view);
+		putView(view);
 		logger.trace("Created view {}", view);
 
 		return view;
@@ -314,7 +395,7 @@ public class ViewsRepository implements IViewsRepository
 		// NOTE: avoid adding if the factory returned the same view.
 		if (view != newView)
 		{
-			getViewsStorageFor(newView.getViewId()).put(newView);
+			putView(newView);
 			logger.trace("Created filtered view {}", newView);
 		}
 		else
@@ -351,7 +432,7 @@ public class ViewsRepository implements IViewsRepository
 		// NOTE: avoid adding if the factory returned the same view.
 		if (view != newView)
 		{
-			getViewsStorageFor(newView.getViewId()).put(newView);
+			putView(newView);
 			logger.trace("Sticky filter deleted. Returning new view {}", newView);
 		}
 		else
@@ -363,6 +444,135 @@ public class ViewsRepository implements IViewsRepository
 		return newView;
 	}
 
+	private void putView(@NonNull final IView view)
+	{
+		final IViewsIndexStorage viewsIndexStorage = getViewsStorageFor(view.getViewId());
+		viewsIndexStorage.put(view);
+
+		if (viewsIndexStorage == defaultViewsIndexStorage && isRebuildableFromSnapshot(view))
+		{
+			final ViewSnapshot snapshot = ((DefaultView)view).getSnapshot().orElse(null);
+			if (snapshot != null)
+			{
+				saveSnapshot((DefaultView)view, snapshot);
+			}
+		}
+	}
+
+	private void saveSnapshot(@NonNull final DefaultView view, @NonNull final ViewSnapshot snapshot)
+	{
+		final Instant updated;
+		try
+		{
+			updated = viewSnapshotStorage.save(snapshot);
+		}
+		catch (final Exception ex)
+		{
+			// the view is still usable on this instance
+			logger.warn("Failed saving {}. Ignored.", snapshot, ex);
+			return;
+		}
+
+		if (updated != null)
+		{
+			view.markSelectionShared();
+			sharedSnapshotsByViewId.put(view.getViewId(), SharedSnapshot.of(updated, SystemTime.asInstant()));
+		}
+	}
+
+	/**
+	 * Lets the other instances know that we are still using the view, see {@link #onDefaultViewRemoved(IView, boolean)}.
+	 */
+	private void touchSnapshotIfDue(@NonNull final ViewId viewId)
+	{
+		final SharedSnapshot sharedSnapshot = sharedSnapshotsByViewId.get(viewId);
+		final Instant now = SystemTime.asInstant();
+		if (sharedSnapshot == null || now.isBefore(sharedSnapshot.getTouched().plus(snapshotTouchInterval)))
+		{
+			return;
+		}
+
+		try
+		{
+			final Instant updated = viewSnapshotStorage.touch(viewId);
+			// if the snapshot was deleted in meantime (i.e. the view was closed on another instance), just stop touching it
+			sharedSnapshotsByViewId.put(viewId, SharedSnapshot.of(updated != null ? updated : sharedSnapshot.getUpdated(), now));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed touching the snapshot of {}. Ignored.", viewId, ex);
+		}
+	}
+
+	/**
+	 * @return true if the view was created by our {@link SqlViewFactory} and not by a custom factory, which might add things (e.g. actions, parameters) a snapshot does not know about
+	 */
+	private boolean isRebuildableFromSnapshot(@NonNull final IView view)
+	{
+		return view instanceof DefaultView
+				&& getFactory(view.getViewId().getWindowId(), view.getViewType()) == defaultFactory;
+	}
+
+	@Nullable
+	private synchronized IView rebuildViewFromSnapshotOrNull(@NonNull final ViewId viewId)
+	{
+		// check again, maybe it was rebuilt in meantime
+		final IView existingView = defaultViewsIndexStorage.getByIdOrNull(viewId);
+		if (existingView != null)
+		{
+			return existingView;
+		}
+
+		final ViewSnapshot snapshot = viewSnapshotStorage.getByIdOrNull(viewId);
+		if (snapshot == null)
+		{
+			return null;
+		}
+
+		final DefaultView view = defaultFactory.rebuildView(snapshot);
+		defaultViewsIndexStorage.put(view);
+		logger.debug("Rebuilt view {} from {}", view, snapshot);
+
+		// save it again, so the instance which created the view knows that we are using it too
+		saveSnapshot(view, snapshot);
+
+		return view;
+	}
+
+	/**
+	 * If the user closed the view, its snapshot is deleted right away (the view already deleted its selection).
+	 * If the view just expired on this instance, another instance might still use it. So the snapshot and the selection are deleted only if nobody touched the snapshot after we did.
+	 */
+	private void onDefaultViewRemoved(@NonNull final IView view, final boolean expired)
+	{
+		final ViewId viewId = view.getViewId();
+		final SharedSnapshot sharedSnapshot = sharedSnapshotsByViewId.remove(viewId);
+		if (sharedSnapshot == null)
+		{
+			return;
+		}
+
+		try
+		{
+			if (!expired)
+			{
+				viewSnapshotStorage.deleteById(viewId);
+			}
+			else if (viewSnapshotStorage.deleteByIdIfNotUpdatedAfter(viewId, sharedSnapshot.getUpdated()))
+			{
+				((DefaultView)view).deleteSharedSelection();
+			}
+			else
+			{
+				logger.debug("Keeping the snapshot and selection of expired view {} because it's used by another instance", viewId);
+			}
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed deleting the snapshot of {}. Ignored.", view, ex);
+		}
+	}
+
 	@Override
 	public IView getView(@NonNull final String viewIdStr)
 	{
@@ -378,7 +588,7 @@ public class ViewsRepository implements IViewsRepository
 	@Override
 	public IView getViewIfExists(final ViewId viewId)
 	{
-		final IView view = getViewsStorageFor(viewId).getByIdOrNull(viewId);
+		final IView view = getOrRebuildViewOrNull(viewId);
 		if (view == null)
 		{
 			throw new EntityNotFoundException("View not found: " + viewId.toJson());
@@ -389,6 +599,23 @@ public class ViewsRepository implements IViewsRepository
 		return view;
 	}
 
+	@VisibleForTesting
+	@Nullable
+	IView getOrRebuildViewOrNull(@NonNull final ViewId viewId)
+	{
+		final IViewsIndexStorage viewsIndexStorage = getViewsStorageFor(viewId);
+		final IView view = viewsIndexStorage.getByIdOrNull(viewId);
+		if (view == null)
+		{
+			return viewsIndexStorage == defaultViewsIndexStorage
+					? rebuildViewFromSnapshotOrNull(viewId)
+					: null;
+		}
+
+		touchSnapshotIfDue(viewId);
+		return view;
+	}
+
 	@Override
 	public void closeView(@NonNull final ViewId viewId, @NonNull final ViewCloseAction closeAction)
 	{
@@ -445,7 +672,7 @@ public class ViewsRepository implements IViewsRepository
 			@NonNull final TableRecordReferenceSet recordRefs,
 			@NonNull final IViewsIndexStorage viewsIndexStorage)
 	{
-		final ImmutableList<IView> views = viewsIndexStorage.getAllViews();
+		final ImmutableList<IView> views = viewsIndexStorage.getViewsToNotifyRecordsChanged(recordRefs);
 		if (views.isEmpty())
 		{
 			return;
@@ -476,4 +703,14 @@ public class ViewsRepository implements IViewsRepository
 		JSONViewDataType viewType;
 	}
 
+	@lombok.Value(staticConstructor = "of")
+	private static class SharedSnapshot
+	{
+		/** when we last saved or touched the snapshot, according to the snapshot storage */
+		Instant updated;
+
+		/** when we last saved or touched the snapshot, according to us */
+		Instant touched;
+	}
+
 }
@@ -174,6 +174,15 @@ public final class SqlViewKeyColumnNamesMap
 		return singleKeyColumnName != null;
 	}
 
+	/**
+	 * @return true if there is only one key column and it's an integer
+	 */
+	public boolean isSingleIntKey()
+	{
+		return singleWebuiSelectionColumnName != null
+				&& I_T_WEBUI_ViewSelection.COLUMNNAME_IntKeys.contains(singleWebuiSelectionColumnName);
+	}
+
 	public String getWebuiSelectionColumnNameForKeyColumnName(@NonNull final String keyColumnName)
 	{
 		final String webuiSelectionColumnName = webuiSelectionColumnNamesByKeyColumnName.get(keyColumnName);
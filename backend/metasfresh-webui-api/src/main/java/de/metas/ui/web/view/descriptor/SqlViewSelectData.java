@@ -78,7 +78,12 @@ public class SqlViewSelectData
 	private final IStringExpression sqlSelectRowIdsByPage;
 	@Getter(AccessLevel.PRIVATE)
 	private final IStringExpression sqlSelectById;
+	@Getter(AccessLevel.PRIVATE)
+	private final IStringExpression sqlSelectByIds;
 	private final IStringExpression sqlSelectLines;
+	/** null if the rows cannot be selected from an array of row IDs (i.e. not single integer key or grouping) */
+	@Nullable
+	private final IStringExpression sqlSelectByRowIdsArray;
 
 	@Builder
 	private SqlViewSelectData(
@@ -128,9 +133,27 @@ public class SqlViewSelectData
 						.collect(Collectors.joining("\nAND ")))
 				.build();
 
+		sqlSelectByIds = sqlSelect.toComposer()
+				.append("\n WHERE ")
+				// NOTE: already filtered by UUID
+				.build();
+
 		this.sqlSelectLines = groupingBinding != null
 				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
 				: null;
+
+		this.sqlSelectByRowIdsArray = groupingBinding == null && keyColumnNamesMap.isSingleIntKey()
+				? buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, true)
+						.toComposer()
+						.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+						.build()
+				: null;
+	}
+
+	private IStringExpression getSqlSelectByRowIdsArray()
+	{
+		Check.assumeNotNull(sqlSelectByRowIdsArray, "sqlSelectByRowIdsArray is not null (only single integer keys without grouping are supported)");
+		return sqlSelectByRowIdsArray;
 	}
 
 	private IStringExpression getSqlSelectLines()
@@ -160,7 +183,7 @@ public class SqlViewSelectData
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, false);
 		}
 		else
 		{
@@ -168,12 +191,17 @@ public class SqlViewSelectData
 		}
 	}
 
+	/**
+	 * @param fromRowIdsArray if true, the rows are selected from an array of row IDs (see {@link SqlViewSelectionQueryBuilder#buildSqlRowIdsArraySource(SqlViewKeyColumnNamesMap, String)})
+	 *            instead of {@link I_T_WEBUI_ViewSelection}. SQL Parameters required: 1=row IDs array
+	 */
 	private static IStringExpression buildSqlSelect_WithoutGrouping(
 			@NonNull final String sqlTableName,
 			@NonNull final String sqlTableAlias,
 			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			@NonNull final Collection<String> displayFieldNames,
-			@NonNull final Collection<SqlViewRowFieldBinding> allFields)
+			@NonNull final Collection<SqlViewRowFieldBinding> allFields,
+			final boolean fromRowIdsArray)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -209,14 +237,22 @@ public class SqlViewSelectData
 				.append("\n   SELECT ")
 				.append("\n   ").append(Joiner.on("\n   , ").join(sqlSelectValuesList))
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " AS " + COLUMNNAME_Paging_SeqNo_OneBased)
-				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
+				.append("\n , " + (fromRowIdsArray ? "null::varchar" : "sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID) + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
-				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
-				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
-				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
-				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
-				.append("\n ) " + sqlTableAlias); // FROM
+				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing);
+		if (fromRowIdsArray)
+		{
+			sql.append("\n   FROM " + SqlViewSelectionQueryBuilder.buildSqlRowIdsArraySource(keyColumnNamesMap, "sel"))
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")");
+		}
+		else
+		{
+			sql.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
+					// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
+					.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?");
+		}
+		sql.append("\n ) " + sqlTableAlias); // FROM
 
 		return sql.build().caching();
 	}
@@ -428,6 +464,49 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * Selects the rows of given row IDs. The result is not ordered.
+	 * <p>
+	 * Supports only single key views, see {@link SqlViewKeyColumnNamesMap#isSingleIntKey()}.
+	 */
+	@Builder(builderMethodName = "selectByIds", builderClassName = "SelectByIdsBuilder")
+	private SqlAndParams selectByIdsBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "Selecting by multiple IDs is supported only for single integer keys: {}", keyColumnNamesMap);
+
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(viewId.getViewId());
+
+		final SqlAndParams sqlFilterByRowIds = keyColumnNamesMap.prepareSqlFilterByRowIds()
+				.sqlColumnPrefix(COLUMNNAME_Paging_Prefix)
+				.rowIds(rowIds)
+				.build();
+		final String sql = new StringBuilder()
+				.append(getSqlSelectByIds().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail))
+				.append("\n").append(sqlFilterByRowIds.getSql())
+				.toString();
+		sqlParams.addAll(sqlFilterByRowIds.getSqlParams());
+
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * Selects the rows of given row IDs, in the order of given array.
+	 * <p>
+	 * Used instead of {@link #selectByPage()} when the view selection is not stored in {@link I_T_WEBUI_ViewSelection}.
+	 */
+	@Builder(builderMethodName = "selectByRowIdsArray", builderClassName = "SelectByRowIdsArrayBuilder")
+	private SqlAndParams selectByRowIdsArrayBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] rowIds)
+	{
+		final String sql = getSqlSelectByRowIdsArray().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, SqlViewSelectionQueryBuilder.toSqlIntArray(rowIds));
+	}
+
 	@Builder(builderMethodName = "selectIncludedLines", builderClassName = "SelectIncludedLinesBuilder")
 	private SqlAndParams selectIncludedLinesBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
@@ -458,6 +537,33 @@ public class SqlViewSelectData
 			@NonNull final String selectionId,
 			@NonNull final String fieldName,
 			final int limit)
+	{
+		final String sqlFrom = I_T_WEBUI_ViewSelection.Table_Name + " sel";
+		// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
+		final String sqlWhere = "sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?";
+		return selectFieldValues(viewEvalCtx, sqlFrom, sqlWhere, selectionId, fieldName, limit);
+	}
+
+	/**
+	 * Same as {@link #selectFieldValues(ViewEvaluationCtx, String, String, int)} but the view selection is given as an array of row IDs.
+	 */
+	public SqlAndParams selectFieldValuesFromRowIdsArray(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] rowIds,
+			@NonNull final String fieldName,
+			final int limit)
+	{
+		final String sqlFrom = SqlViewSelectionQueryBuilder.buildSqlRowIdsArraySource(keyColumnNamesMap, "sel");
+		return selectFieldValues(viewEvalCtx, sqlFrom, null, SqlViewSelectionQueryBuilder.toSqlIntArray(rowIds), fieldName, limit);
+	}
+
+	private SqlAndParams selectFieldValues(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final String sqlFrom,
+			@Nullable final String sqlWhere,
+			@NonNull final Object selectionParam,
+			@NonNull final String fieldName,
+			final int limit)
 	{
 		Check.assumeGreaterThanZero(limit, "limit");
 
@@ -496,17 +602,19 @@ public class SqlViewSelectData
 			sqlExpression
 					.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
 		}
-		sqlExpression.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
-				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
-				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
-				.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
-				.append("\n ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+		sqlExpression.append("\n FROM " + sqlFrom)
+				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")");
+		if (sqlWhere != null)
+		{
+			sqlExpression.append("\n WHERE " + sqlWhere);
+		}
+		sqlExpression.append("\n ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
 				.append("\n) t")
 				.append("\n LIMIT ?");
 
 		final String sql = sqlExpression.build()
 				.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 
-		return SqlAndParams.of(sql, selectionId, limit);
+		return SqlAndParams.of(sql, selectionParam, limit);
 	}
 }
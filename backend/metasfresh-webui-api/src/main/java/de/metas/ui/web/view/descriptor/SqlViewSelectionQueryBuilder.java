@@ -308,6 +308,76 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFrom(ViewEvaluationCtx, ViewId, DocumentFilterList, DocumentQueryOrderByList, int, SqlDocumentFilterConverterContext)}
+	 * but instead of inserting into {@link I_T_WEBUI_ViewSelection}, it's just selecting the ordered keys.
+	 * <p>
+	 * NOTE: grouping is not supported.
+	 *
+	 * @return <pre>
+	 * SELECT keys FROM ourTable WHERE ... ORDER BY ... LIMIT [limit]
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIdsOrdered(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int limit,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assume(!hasGroupingFields(), "grouping is not supported");
+
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+
+		//
+		// SELECT ... FROM ... WHERE 1=1
+		sqlBuilder.append(
+				IStringExpression.composer()
+						.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+						.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
+						.append("\n WHERE 1=1 ")
+						.wrap(securityRestrictionsWrapper(sqlTableAlias)) // security
+		);
+
+		//
+		// WHERE clause (from query)
+		{
+			final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
+			final IStringExpression sqlWhereClause = buildSqlWhereClause(sqlWhereClauseParams, filters, SqlOptions.usingTableAlias(sqlTableAlias), filterConverterCtx);
+
+			if (sqlWhereClause != null && !sqlWhereClause.isNullExpression())
+			{
+				sqlBuilder.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+				sqlParams.addAll(sqlWhereClauseParams.toList());
+			}
+		}
+
+		//
+		// ORDER BY
+		{
+			final IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
+					.joinOnTableNameOrAlias(sqlTableAlias)
+					.useColumnNameAlias(false)
+					.buildSqlOrderBy(orderBys)
+					.orElseGet(() -> ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
+			sqlBuilder.append("\n ORDER BY ").append(sqlOrderBy);
+		}
+
+		if (limit > 0)
+		{
+			sqlBuilder.append("\n LIMIT ?");
+			sqlParams.add(limit);
+		}
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
 	private SqlAndParams buildSqlCreateSelectionLines_WithGrouping(
 			final ViewEvaluationCtx viewEvalCtx,
 			final ViewId newViewId,
@@ -511,6 +581,136 @@ public final class SqlViewSelectionQueryBuilder
 			@NonNull final DocumentFilterList filters,
 			@NonNull final DocumentQueryOrderByList orderBys,
 			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n").append(buildSqlSelectFromSelection(
+						viewEvalCtx,
+						newViewId.getViewId(),
+						SqlAndParams.of(I_T_WEBUI_ViewSelection.Table_Name + " sel"),
+						SqlAndParams.of("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?", fromSelectionId),
+						filters,
+						orderBys,
+						filterConverterCtx))
+				.build();
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)}
+	 * but the source selection is given as an array of row IDs and the ordered keys are just selected, instead of inserting them into {@link I_T_WEBUI_ViewSelection}.
+	 * <p>
+	 * NOTE: only single integer keys are supported.
+	 *
+	 * @return <pre>
+	 * SELECT keys FROM unnest([fromRowIds]) sel INNER JOIN ourTable ... ORDER BY ...
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIdsFromRowIdsArray(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] fromRowIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final SqlAndParams sqlSelect = buildSqlSelectFromSelection(
+				viewEvalCtx,
+				null, // newSelectionId
+				SqlAndParams.of(buildSqlRowIdsArraySource(keyColumnNamesMap, "sel"), toSqlIntArray(fromRowIds)),
+				null, // no selection where clause
+				filters,
+				orderBys,
+				filterConverterCtx);
+
+		return SqlAndParams.builder()
+				.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated())
+				.append("\n FROM (").append(sqlSelect).append(") t")
+				.append("\n ORDER BY " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	/**
+	 * @return <pre>
+	 * INSERT INTO T_WEBUI_ViewSelection (UUID, Line, keys)
+	 * SELECT [selectionId], sel.Line, sel.key FROM unnest([rowIds]) sel
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlCreateSelectionFromRowIdsArray(
+			@NonNull final String selectionId,
+			@NonNull final int[] rowIds)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n SELECT ")
+				.append("\n  ?", selectionId)
+				.append("\n, sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append("\n, ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated("sel"))
+				.append("\n FROM ").append(buildSqlRowIdsArraySource(keyColumnNamesMap, "sel"), toSqlIntArray(rowIds))
+				.build();
+	}
+
+	/**
+	 * SQL Parameters required: 1=row IDs array (see {@link #toSqlIntArray(int[])})
+	 *
+	 * @return <code>unnest(?::integer[]) WITH ORDINALITY AS [alias](IntKey1, Line)</code>, i.e. a source which looks like {@link I_T_WEBUI_ViewSelection}
+	 */
+	static String buildSqlRowIdsArraySource(
+			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
+			@NonNull final String alias)
+	{
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "single integer key expected: {}", keyColumnNamesMap);
+
+		return "unnest(?::integer[]) WITH ORDINALITY AS " + alias
+				+ "(" + keyColumnNamesMap.getSingleWebuiSelectionColumnName() + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")";
+	}
+
+	/**
+	 * @return postgres array literal, e.g. <code>{1,2,3}</code>
+	 */
+	static String toSqlIntArray(@NonNull final int[] values)
+	{
+		final StringBuilder sql = new StringBuilder(values.length * 8 + 2);
+		sql.append("{");
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+			{
+				sql.append(",");
+			}
+			sql.append(values[i]);
+		}
+		sql.append("}");
+		return sql.toString();
+	}
+
+	/**
+	 * @return <pre>
+	 * SELECT [newSelectionId,] row_number() OVER (ORDER BY ...) AS Line, keys
+	 * FROM [selection] sel INNER JOIN ourTable ON (...)
+	 * WHERE [selectionWhereClause]
+	 *         </pre>
+	 */
+	private SqlAndParams buildSqlSelectFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@Nullable final String newSelectionId,
+			@NonNull final SqlAndParams sqlFromSelection,
+			@Nullable final SqlAndParams sqlSelectionWhereClause,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
@@ -602,20 +802,22 @@ public final class SqlViewSelectionQueryBuilder
 		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
 
 		//
-		return SqlAndParams.builder()
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
-						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
-						+ ")")
-				.append("\n SELECT ")
-				.append("\n  ?", newViewId.getViewId()) // newUUID
-				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
+		final SqlAndParams.Builder sql = SqlAndParams.builder()
+				.append("SELECT ");
+		if (newSelectionId != null)
+		{
+			sql.append("\n  ?,", newSelectionId); // newUUID
+		}
+		sql.append("\n ").append("row_number() OVER (ORDER BY ").append(sqlOrderBys != null ? sqlOrderBys : "sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line).append(") AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line) // Line
 				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
-				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
-				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
-				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
-				.build();
+				.append("\n FROM ").append(sqlFromSelection)
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")");
+		if (sqlSelectionWhereClause != null)
+		{
+			sql.append("\n WHERE ").append(sqlSelectionWhereClause); // e.g. fromUUID
+		}
+
+		return sql.build();
 	}
 
 	/**
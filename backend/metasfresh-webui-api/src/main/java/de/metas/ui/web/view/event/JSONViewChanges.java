@@ -27,7 +27,9 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -35,12 +37,21 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 import lombok.Value;
 
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Value
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public class JSONViewChanges implements WebsocketEndpointAware
+public class JSONViewChanges implements WebsocketEndpointAware, WebsocketMergeableEvent
 {
+	/**
+	 * When merging changes, if there are more changed rows than this, the view is considered fully changed
+	 * because it's cheaper for the frontend to reload the page than to fetch each row.
+	 */
+	private static final int MERGE_MAX_CHANGED_IDS = 100;
+
 	public static JSONViewChanges of(@NonNull final ViewChanges changes)
 	{
 		return new JSONViewChanges(changes);
@@ -92,5 +103,80 @@ public class JSONViewChanges implements WebsocketEndpointAware
 
 		websocketEndpoint = WebsocketTopicNames.buildViewNotificationsTopicName(viewId);
 	}
+
+	private JSONViewChanges(
+			@NonNull final String viewId,
+			@NonNull final WindowId windowId,
+			@Nullable final Boolean fullyChanged,
+			@Nullable final Set<String> changedIds,
+			@Nullable final Boolean headerPropertiesChanged,
+			@NonNull final WebsocketTopicName websocketEndpoint)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+		this.headerPropertiesChanged = headerPropertiesChanged;
+		this.websocketEndpoint = websocketEndpoint;
+	}
+
+	@Nullable
+	@Override
+	public JSONViewChanges mergeWithNewer(@NonNull final WebsocketMergeableEvent newerEvent)
+	{
+		if (!(newerEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges newer = (JSONViewChanges)newerEvent;
+		if (!Objects.equals(viewId, newer.viewId)
+				|| !Objects.equals(windowId, newer.windowId))
+		{
+			return null;
+		}
+
+		final Boolean fullyChangedMerged;
+		final Set<String> changedIdsMerged;
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(newer.fullyChanged))
+		{
+			fullyChangedMerged = Boolean.TRUE;
+			changedIdsMerged = null;
+		}
+		else
+		{
+			final HashSet<String> changedIdsUnion = new HashSet<>();
+			if (changedIds != null)
+			{
+				changedIdsUnion.addAll(changedIds);
+			}
+			if (newer.changedIds != null)
+			{
+				changedIdsUnion.addAll(newer.changedIds);
+			}
+
+			if (changedIdsUnion.isEmpty())
+			{
+				fullyChangedMerged = null;
+				changedIdsMerged = null;
+			}
+			else if (changedIdsUnion.size() > MERGE_MAX_CHANGED_IDS)
+			{
+				fullyChangedMerged = Boolean.TRUE;
+				changedIdsMerged = null;
+			}
+			else
+			{
+				fullyChangedMerged = Boolean.FALSE;
+				changedIdsMerged = ImmutableSet.copyOf(changedIdsUnion);
+			}
+		}
+
+		final Boolean headerPropertiesChangedMerged = Boolean.TRUE.equals(headerPropertiesChanged) || Boolean.TRUE.equals(newer.headerPropertiesChanged)
+				? Boolean.TRUE
+				: null;
+
+		return new JSONViewChanges(viewId, windowId, fullyChangedMerged, changedIdsMerged, headerPropertiesChangedMerged, websocketEndpoint);
+	}
 }
 
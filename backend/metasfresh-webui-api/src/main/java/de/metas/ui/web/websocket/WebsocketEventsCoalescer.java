@@ -0,0 +1,242 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the websocket events in one queue per topic and sends them in batches.
+ * <p>
+ * Compared to one global debouncer:
+ * <ul>
+ * <li>a burst of events for one busy topic does not delay the events of other topics
+ * <li>consecutive events of the same topic are merged (see {@link WebsocketMergeableEvent}) and duplicate events are dropped
+ * <li>each topic adapts its flush delay: while events keep coming, the delay is doubled (up to max delay) so more events are merged;
+ * when only one event came, it's halved (down to min delay) so that single events are sent fast.
+ * </ul>
+ * The events of a topic are sent at most after the current delay, counted from the first queued event, or right away if the topic queue is full.
+ */
+final class WebsocketEventsCoalescer
+{
+	private static final Logger logger = LogManager.getLogger(WebsocketEventsCoalescer.class);
+
+	private final String name;
+	private final int bufferMaxSize;
+	private final int minDelayMillis;
+	private final int maxDelayMillis;
+	private final Consumer<List<WebsocketEvent>> consumer;
+	private final WebsocketEventsLog eventsLog;
+
+	private final ScheduledExecutorService executor;
+	/** NOTE: a topic queue expires only if it was not accessed for a long time, so it has no pending events */
+	private final LoadingCache<WebsocketTopicName, TopicQueue> queues = CacheBuilder.newBuilder()
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.build(CacheLoader.from(TopicQueue::new));
+
+	@Builder
+	private WebsocketEventsCoalescer(
+			@NonNull final String name,
+			final int bufferMaxSize,
+			final int minDelayMillis,
+			final int maxDelayMillis,
+			@NonNull final Consumer<List<WebsocketEvent>> consumer,
+			@NonNull final WebsocketEventsLog eventsLog)
+	{
+		Check.assumeGreaterThanZero(minDelayMillis, "minDelayMillis");
+
+		this.name = name;
+		this.bufferMaxSize = bufferMaxSize > 0 ? bufferMaxSize : Integer.MAX_VALUE;
+		this.minDelayMillis = minDelayMillis;
+		this.maxDelayMillis = Math.max(minDelayMillis, maxDelayMillis);
+		this.consumer = consumer;
+		this.eventsLog = eventsLog;
+
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+		threadFactory.setDaemon(true);
+		this.executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("name", name)
+				.add("bufferMaxSize", bufferMaxSize)
+				.add("minDelayMillis", minDelayMillis)
+				.add("maxDelayMillis", maxDelayMillis)
+				.toString();
+	}
+
+	public void addAll(@NonNull final List<WebsocketEvent> events)
+	{
+		events.forEach(this::add);
+	}
+
+	public void add(@NonNull final WebsocketEvent event)
+	{
+		queues.getUnchecked(event.getDestination()).add(event);
+	}
+
+	@Value
+	private static class PendingEvent
+	{
+		@NonNull
+		WebsocketEvent event;
+		long enqueuedTimeMillis;
+	}
+
+	private final class TopicQueue
+	{
+		private final WebsocketTopicName topicName;
+
+		private final ArrayList<PendingEvent> pendingEvents = new ArrayList<>();
+		private int eventsEnqueuedSinceLastFlush = 0;
+		private int delayMillis;
+		private boolean flushScheduled = false;
+
+		private TopicQueue(@NonNull final WebsocketTopicName topicName)
+		{
+			this.topicName = topicName;
+			this.delayMillis = minDelayMillis;
+		}
+
+		public void add(@NonNull final WebsocketEvent event)
+		{
+			final boolean merged;
+			final int queueDepth;
+			synchronized (this)
+			{
+				eventsEnqueuedSinceLastFlush++;
+				merged = mergeIntoPendingEvents(event);
+				if (!merged)
+				{
+					pendingEvents.add(new PendingEvent(event, SystemTime.millis()));
+				}
+				queueDepth = pendingEvents.size();
+
+				if (queueDepth >= bufferMaxSize)
+				{
+					scheduleFlush(0); // ASAP
+				}
+				else if (!flushScheduled)
+				{
+					scheduleFlush(delayMillis);
+				}
+			}
+
+			eventsLog.logEventEnqueued(topicName, merged, queueDepth);
+			logger.trace("[{}] Enqueued {} (merged={}, queueDepth={})", name, event, merged, queueDepth);
+		}
+
+		/**
+		 * @return true if given event was a duplicate or was merged into the last pending event
+		 */
+		private boolean mergeIntoPendingEvents(@NonNull final WebsocketEvent event)
+		{
+			if (pendingEvents.isEmpty())
+			{
+				return false;
+			}
+
+			if (pendingEvents.stream().anyMatch(pendingEvent -> pendingEvent.getEvent().equals(event)))
+			{
+				return true;
+			}
+
+			// NOTE: merge only with the last one, to preserve the order of the events
+			final int lastIndex = pendingEvents.size() - 1;
+			final PendingEvent lastPendingEvent = pendingEvents.get(lastIndex);
+			final WebsocketEvent mergedEvent = lastPendingEvent.getEvent().mergeWithNewerOrNull(event);
+			if (mergedEvent == null)
+			{
+				return false;
+			}
+
+			pendingEvents.set(lastIndex, new PendingEvent(mergedEvent, lastPendingEvent.getEnqueuedTimeMillis()));
+			return true;
+		}
+
+		private void scheduleFlush(final long delayMillis)
+		{
+			flushScheduled = true;
+			executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+		}
+
+		private void flush()
+		{
+			final List<WebsocketEvent> eventsToSend;
+			final long oldestEnqueuedTimeMillis;
+			final int nextDelayMillis;
+			synchronized (this)
+			{
+				flushScheduled = false;
+				if (pendingEvents.isEmpty())
+				{
+					return;
+				}
+
+				eventsToSend = new ArrayList<>(pendingEvents.size());
+				pendingEvents.forEach(pendingEvent -> eventsToSend.add(pendingEvent.getEvent()));
+				oldestEnqueuedTimeMillis = pendingEvents.get(0).getEnqueuedTimeMillis();
+				pendingEvents.clear();
+
+				delayMillis = eventsEnqueuedSinceLastFlush > 1
+						? Math.min(delayMillis * 2, maxDelayMillis)
+						: Math.max(delayMillis / 2, minDelayMillis);
+				nextDelayMillis = delayMillis;
+				eventsEnqueuedSinceLastFlush = 0;
+			}
+
+			try
+			{
+				consumer.accept(eventsToSend);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("[{}] Failed sending {} events to {}. Ignored.", name, eventsToSend.size(), topicName, ex);
+			}
+
+			eventsLog.logEventsSent(topicName, eventsToSend.size(), SystemTime.millis() - oldestEnqueuedTimeMillis, nextDelayMillis);
+		}
+	}
+}
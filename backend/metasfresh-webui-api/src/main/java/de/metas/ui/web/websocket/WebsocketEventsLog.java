@@ -2,16 +2,23 @@ package de.metas.ui.web.websocket;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
+import lombok.NonNull;
 
 import javax.annotation.Nullable;
 
@@ -44,6 +51,11 @@ final class WebsocketEventsLog
 	private final AtomicInteger logEventsMaxSize = new AtomicInteger(500);
 	private final List<WebsocketEventLogRecord> loggedEvents = new LinkedList<>();
 
+	/** Statistics per topic, always collected. Topics which are no longer used are forgotten after a while. */
+	private final LoadingCache<WebsocketTopicName, TopicStatsCollector> topicStats = CacheBuilder.newBuilder()
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.build(CacheLoader.from(TopicStatsCollector::new));
+
 	public void logEvent(final WebsocketTopicName destination, @Nullable final Object event)
 	{
 		if (!logEventsEnabled.get())
@@ -92,4 +104,73 @@ final class WebsocketEventsLog
 				.filter(websocketEvent -> websocketEvent.isDestinationMatching(destinationFilter))
 				.collect(ImmutableList.toImmutableList());
 	}
+
+	public void logEventEnqueued(@NonNull final WebsocketTopicName destination, final boolean merged, final int queueDepth)
+	{
+		final TopicStatsCollector stats = topicStats.getUnchecked(destination);
+		stats.eventsEnqueued.incrementAndGet();
+		if (merged)
+		{
+			stats.eventsMerged.incrementAndGet();
+		}
+		stats.queueDepth.set(queueDepth);
+	}
+
+	public void logEventsSent(
+			@NonNull final WebsocketTopicName destination,
+			final int eventsSent,
+			final long sendLatencyMillis,
+			final long nextFlushDelayMillis)
+	{
+		final TopicStatsCollector stats = topicStats.getUnchecked(destination);
+		stats.eventsSent.addAndGet(eventsSent);
+		stats.flushesCount.incrementAndGet();
+		stats.lastSendLatencyMillis.set(sendLatencyMillis);
+		stats.maxSendLatencyMillis.accumulateAndGet(sendLatencyMillis, Math::max);
+		stats.totalSendLatencyMillis.addAndGet(sendLatencyMillis);
+		stats.flushDelayMillis.set(nextFlushDelayMillis);
+		stats.queueDepth.set(0);
+	}
+
+	public List<WebsocketTopicStats> getTopicStats(@Nullable final String destinationFilter)
+	{
+		final String destinationFilterNorm = destinationFilter != null ? destinationFilter.toLowerCase().trim() : "";
+
+		return topicStats.asMap()
+				.entrySet()
+				.stream()
+				.filter(entry -> destinationFilterNorm.isEmpty() || entry.getKey().getAsString().toLowerCase().contains(destinationFilterNorm))
+				.map(entry -> entry.getValue().toTopicStats(entry.getKey()))
+				.sorted(Comparator.comparing(WebsocketTopicStats::getEventsEnqueued).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static final class TopicStatsCollector
+	{
+		private final AtomicInteger queueDepth = new AtomicInteger();
+		private final AtomicLong flushDelayMillis = new AtomicLong();
+		private final AtomicLong eventsEnqueued = new AtomicLong();
+		private final AtomicLong eventsMerged = new AtomicLong();
+		private final AtomicLong eventsSent = new AtomicLong();
+		private final AtomicLong flushesCount = new AtomicLong();
+		private final AtomicLong lastSendLatencyMillis = new AtomicLong();
+		private final AtomicLong maxSendLatencyMillis = new AtomicLong();
+		private final AtomicLong totalSendLatencyMillis = new AtomicLong();
+
+		public WebsocketTopicStats toTopicStats(@NonNull final WebsocketTopicName topicName)
+		{
+			return WebsocketTopicStats.builder()
+					.topicName(topicName)
+					.queueDepth(queueDepth.get())
+					.flushDelayMillis(flushDelayMillis.get())
+					.eventsEnqueued(eventsEnqueued.get())
+					.eventsMerged(eventsMerged.get())
+					.eventsSent(eventsSent.get())
+					.flushesCount(flushesCount.get())
+					.lastSendLatencyMillis(lastSendLatencyMillis.get())
+					.maxSendLatencyMillis(maxSendLatencyMillis.get())
+					.totalSendLatencyMillis(totalSendLatencyMillis.get())
+					.build();
+		}
+	}
 }
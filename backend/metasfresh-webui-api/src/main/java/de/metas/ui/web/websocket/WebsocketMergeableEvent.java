@@ -0,0 +1,43 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Websocket event which can be merged with a newer event sent to the same topic, so that the frontend gets one event instead of many.
+ *
+ * @see WebsocketSender
+ */
+public interface WebsocketMergeableEvent
+{
+	/**
+	 * Shall not change this or the given event.
+	 *
+	 * @return event which contains the changes of this and the given (newer) event or <code>null</code> if the events can't be merged
+	 */
+	@Nullable
+	WebsocketMergeableEvent mergeWithNewer(@NonNull WebsocketMergeableEvent newerEvent);
+}
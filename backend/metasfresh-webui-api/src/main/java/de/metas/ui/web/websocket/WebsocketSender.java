@@ -2,7 +2,6 @@ package de.metas.ui.web.websocket;
 
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
-import de.metas.util.async.Debouncer;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -20,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 /*
  * #%L
  * metasfresh-webui-api
@@ -62,23 +63,24 @@ public class WebsocketSender implements InitializingBean
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
-	private final Debouncer<WebsocketEvent> debouncer;
+	private final WebsocketEventsCoalescer coalescer;
 
 	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
 
 		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
-		this.debouncer = Debouncer.<WebsocketEvent>builder()
-				.name(WebsocketSender.class.getSimpleName() + "-debouncer")
-				.bufferMaxSize(sysConfigBL.getIntValue("webui.WebsocketSender.debouncer.bufferMaxSize", 500))
-				.delayInMillis(sysConfigBL.getIntValue("webui.WebsocketSender.debouncer.delayInMillis", 200))
-				.distinct(true)
+		this.coalescer = WebsocketEventsCoalescer.builder()
+				.name(WebsocketSender.class.getSimpleName() + "-coalescer")
+				.bufferMaxSize(sysConfigBL.getIntValue("webui.WebsocketSender.coalescer.bufferMaxSize", 500))
+				.minDelayMillis(sysConfigBL.getIntValue("webui.WebsocketSender.coalescer.minDelayInMillis", 50))
+				.maxDelayMillis(sysConfigBL.getIntValue("webui.WebsocketSender.coalescer.maxDelayInMillis", 1000))
 				.consumer(this::sendEventsNow)
+				.eventsLog(eventsLog)
 				.build();
-		logger.info("debouncer: {}", debouncer);
+		logger.info("coalescer: {}", coalescer);
 
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", /* autoflush */debouncer, true);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", coalescer, /* autoflush */true);
 	}
 
 	@Override
@@ -129,7 +131,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, debouncer, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, coalescer, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -154,6 +156,11 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
+	public List<WebsocketTopicStats> getTopicStats(@Nullable final String destinationFilter)
+	{
+		return eventsLog.getTopicStats(destinationFilter);
+	}
+
 	private void sendEventsNow(final List<WebsocketEvent> events)
 	{
 		events.forEach(this::sendEventNow);
@@ -181,15 +188,6 @@ public class WebsocketSender implements InitializingBean
 		System.out.println("\tSent to " + destination + ": " + payload);
 	}
 
-	@lombok.Value
-	@lombok.Builder
-	private static class WebsocketEvent
-	{
-		WebsocketTopicName destination;
-		Object payload;
-		boolean converted;
-	}
-
 	private static class WebsocketEventsQueue
 	{
 		/**
@@ -198,16 +196,16 @@ public class WebsocketSender implements InitializingBean
 		private final String name;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
-		private final Debouncer<WebsocketEvent> debouncer;
+		private final WebsocketEventsCoalescer coalescer;
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				final Debouncer<WebsocketEvent> debouncer,
+				@NonNull final WebsocketEventsCoalescer coalescer,
 				final boolean autoflush)
 		{
 			this.name = name;
 			this.autoflush = autoflush;
-			this.debouncer = debouncer;
+			this.coalescer = coalescer;
 		}
 
 		public void enqueueObject(final WebsocketTopicName destination, final Object payload)
@@ -219,7 +217,7 @@ public class WebsocketSender implements InitializingBean
 					.build();
 			if (autoflush)
 			{
-				debouncer.add(event);
+				coalescer.add(event);
 			}
 			else
 			{
@@ -236,7 +234,7 @@ public class WebsocketSender implements InitializingBean
 					.build();
 			if (autoflush)
 			{
-				debouncer.add(event);
+				coalescer.add(event);
 			}
 			else
 			{
@@ -257,7 +255,7 @@ public class WebsocketSender implements InitializingBean
 			final List<WebsocketEvent> eventsToSend = new ArrayList<>(events);
 			events.clear();
 
-			debouncer.addAll(eventsToSend);
+			coalescer.addAll(eventsToSend);
 		}
 	}
 }
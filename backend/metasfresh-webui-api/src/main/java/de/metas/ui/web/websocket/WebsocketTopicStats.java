@@ -0,0 +1,72 @@
+package de.metas.ui.web.websocket;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics about the events sent to a websocket topic.
+ *
+ * @see WebsocketEventsLog#getTopicStats(String)
+ */
+@Value
+@Builder
+public class WebsocketTopicStats
+{
+	@NonNull
+	WebsocketTopicName topicName;
+
+	/** Events which are currently waiting to be sent */
+	int queueDepth;
+	/** Current delay between the first enqueued event and sending it */
+	long flushDelayMillis;
+
+	/** Events which were enqueued */
+	long eventsEnqueued;
+	/** Enqueued events which were merged into another event (or which were duplicates) */
+	long eventsMerged;
+	/** Events which were actually sent */
+	long eventsSent;
+
+	/** How many times the queued events were sent */
+	long flushesCount;
+	/** Time between enqueuing the oldest event of the last batch and sending it */
+	long lastSendLatencyMillis;
+	long maxSendLatencyMillis;
+	long totalSendLatencyMillis;
+
+	/**
+	 * @return how many of the enqueued events were merged, between 0 and 1
+	 */
+	public double getMergeRatio()
+	{
+		return eventsEnqueued > 0 ? (double)eventsMerged / eventsEnqueued : 0;
+	}
+
+	public long getAvgSendLatencyMillis()
+	{
+		return flushesCount > 0 ? totalSendLatencyMillis / flushesCount : 0;
+	}
+}
@@ -1,18 +1,28 @@
 package de.metas.ui.web.window.descriptor;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 
+import lombok.NonNull;
+import lombok.Value;
+
 /*
  * #%L
  * metasfresh-webui-api
@@ -79,9 +89,21 @@ public final class DocumentFieldDependencyMap
 		void consume(String dependentFieldName, DependencyType dependencyType);
 	}
 
+	@Value(staticConstructor = "of")
+	public static class Dependency
+	{
+		@NonNull
+		String dependentFieldName;
+		@NonNull
+		DependencyType dependencyType;
+	}
+
 	/** Map: "dependency type" to "depends on field name" to list of "dependent field name" */
 	private final ImmutableMap<DependencyType, Multimap<String, String>> type2name2dependencies;
 
+	/** Map: "changed field name" to dependencies to update (see {@link #getDependenciesToUpdate(String)}). Computed on demand, once per changed field name. */
+	private final ConcurrentHashMap<String, ImmutableList<Dependency>> dependenciesToUpdateByChangedFieldName = new ConcurrentHashMap<>();
+
 	private DocumentFieldDependencyMap(final Builder builder)
 	{
 		super();
@@ -144,6 +166,67 @@ public final class DocumentFieldDependencyMap
 		}
 	}
 
+	/**
+	 * Gets the minimal list of dependencies to update when given field was changed.
+	 * <p>
+	 * Compared to {@link #consumeForChangedFieldName(String, IDependencyConsumer)}, this one also follows the {@link DependencyType#FieldValue} dependencies,
+	 * i.e. if a virtual field's value depends on the changed field, the dependencies of that virtual field are also included.
+	 * <p>
+	 * The dependencies are sorted so that a virtual field's value is updated before anything which depends on it. Each dependency is included only once.
+	 */
+	public ImmutableList<Dependency> getDependenciesToUpdate(@NonNull final String changedFieldName)
+	{
+		return dependenciesToUpdateByChangedFieldName.computeIfAbsent(changedFieldName, this::computeDependenciesToUpdate);
+	}
+
+	private ImmutableList<Dependency> computeDependenciesToUpdate(final String changedFieldName)
+	{
+		final Multimap<String, String> fieldValueDependencies = type2name2dependencies.get(DependencyType.FieldValue);
+
+		//
+		// Changed field and the virtual fields whose values depend on it, in topological order
+		final List<String> valueChangedFieldNames = new ArrayList<>();
+		collectValueChangedFieldNamesInReversedTopologicalOrder(changedFieldName, fieldValueDependencies, new HashSet<>(), valueChangedFieldNames);
+		Collections.reverse(valueChangedFieldNames);
+
+		//
+		// If a dependency is triggered by more than one of those fields, keep it at the last position,
+		// so that it's updated after all the values it depends on were updated.
+		final LinkedHashSet<Dependency> dependencies = new LinkedHashSet<>();
+		for (final String valueChangedFieldName : valueChangedFieldNames)
+		{
+			consumeForChangedFieldName(valueChangedFieldName, (dependentFieldName, dependencyType) -> {
+				final Dependency dependency = Dependency.of(dependentFieldName, dependencyType);
+				dependencies.remove(dependency);
+				dependencies.add(dependency);
+			});
+		}
+
+		return ImmutableList.copyOf(dependencies);
+	}
+
+	private static void collectValueChangedFieldNamesInReversedTopologicalOrder(
+			final String fieldName,
+			final Multimap<String, String> fieldValueDependencies,
+			final Set<String> visitedFieldNames,
+			final List<String> result)
+	{
+		if (!visitedFieldNames.add(fieldName))
+		{
+			return; // already visited or cycle
+		}
+
+		if (fieldValueDependencies != null)
+		{
+			for (final String dependentFieldName : fieldValueDependencies.get(fieldName))
+			{
+				collectValueChangedFieldNamesInReversedTopologicalOrder(dependentFieldName, fieldValueDependencies, visitedFieldNames, result);
+			}
+		}
+
+		result.add(fieldName);
+	}
+
 	//
 	//
 	//
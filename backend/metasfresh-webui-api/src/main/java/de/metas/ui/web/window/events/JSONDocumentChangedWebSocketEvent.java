@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+
 import de.metas.common.util.time.SystemTime;
 import org.adempiere.exceptions.AdempiereException;
 
@@ -15,6 +17,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -60,7 +63,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @EqualsAndHashCode
 @ToString
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, WebsocketMergeableEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -168,6 +171,27 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 		getIncludedTabInfo(tabId).staleRows(rowIds);
 	}
 
+	@Nullable
+	@Override
+	public JSONDocumentChangedWebSocketEvent mergeWithNewer(@NonNull final WebsocketMergeableEvent newerEvent)
+	{
+		if (!(newerEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent newer = (JSONDocumentChangedWebSocketEvent)newerEvent;
+		if (!Objects.equals(windowId, newer.windowId)
+				|| !Objects.equals(id, newer.id))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent merged = copy();
+		merged.mergeFrom(newer);
+		return merged;
+	}
+
 	void mergeFrom(@NonNull final JSONDocumentChangedWebSocketEvent from)
 	{
 		if (!Objects.equals(windowId, from.windowId)
@@ -28,6 +28,7 @@ import de.metas.ui.web.window.descriptor.ButtonFieldActionDescriptor;
 import de.metas.ui.web.window.descriptor.DetailId;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.Dependency;
 import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.DependencyType;
 import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
@@ -111,6 +112,11 @@ public final class Document
 	private static final ReasonSupplier REASON_Value_Refreshing = () -> "direct set on Document (refresh)";
 	private static final ReasonSupplier REASON_Value_ParentLinkUpdateOnSave = () -> "parent link update on save";
 
+	private static final ImmutableSet<DependencyType> DEPENDENCYTYPES_FieldLevel_ExceptFieldValue = DocumentFieldDependencyMap.DEPENDENCYTYPES_FieldLevel
+			.stream()
+			.filter(dependencyType -> dependencyType != DependencyType.FieldValue)
+			.collect(ImmutableSet.toImmutableSet());
+
 	//
 	// Descriptors & paths
 	private final DocumentEntityDescriptor entityDescriptor;
@@ -154,6 +160,9 @@ public final class Document
 	// Evaluatee
 	private IDocumentEvaluatee _evaluatee; // lazy
 	private transient IDocumentEvaluatee _shadowParentEvaluatee;
+	/** Logic results which were evaluated in parallel, before being applied to the fields. Set only while updating all dependencies. */
+	@Nullable
+	private transient ImmutableMap<Dependency, LogicExpressionResult> _precomputedFieldLogicResults;
 
 	// Changes tracking
 	private final transient IDocumentChangesCollector changesCollector;
@@ -1322,13 +1331,46 @@ public final class Document
 		}
 
 		// Fields
-		for (final IDocumentField documentField : getFields())
+		// NOTE: update the virtual field values first, because the other logics might depend on them
+		final Collection<IDocumentField> fields = getFields();
+		for (final IDocumentField documentField : fields)
+		{
+			updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, DependencyType.FieldValue);
+		}
+
+		_precomputedFieldLogicResults = DocumentFieldLogicsParallelEvaluator.evaluateIfApplicable(fields, asEvaluatee());
+		try
 		{
-			for (final DependencyType triggeringDependencyType : DocumentFieldDependencyMap.DEPENDENCYTYPES_FieldLevel)
+			for (final IDocumentField documentField : fields)
 			{
-				updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, triggeringDependencyType);
+				for (final DependencyType triggeringDependencyType : DEPENDENCYTYPES_FieldLevel_ExceptFieldValue)
+				{
+					updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, triggeringDependencyType);
+				}
 			}
 		}
+		finally
+		{
+			_precomputedFieldLogicResults = null;
+		}
+	}
+
+	private LogicExpressionResult evaluateFieldLogic(
+			@NonNull final IDocumentField documentField,
+			@NonNull final DependencyType logicType,
+			@NonNull final ILogicExpression logic)
+	{
+		final ImmutableMap<Dependency, LogicExpressionResult> precomputedFieldLogicResults = _precomputedFieldLogicResults;
+		if (precomputedFieldLogicResults != null)
+		{
+			final LogicExpressionResult precomputedResult = precomputedFieldLogicResults.get(Dependency.of(documentField.getFieldName(), logicType));
+			if (precomputedResult != null)
+			{
+				return precomputedResult;
+			}
+		}
+
+		return logic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
 	}
 
 	DocumentReadonly getReadonly()
@@ -1397,7 +1439,7 @@ public final class Document
 		final ILogicExpression fieldReadonlyLogic = documentField.getDescriptor().getReadonlyLogic();
 		try
 		{
-			final LogicExpressionResult readonly = fieldReadonlyLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+			final LogicExpressionResult readonly = evaluateFieldLogic(documentField, DependencyType.ReadonlyLogic, fieldReadonlyLogic);
 			return readonly;
 		}
 		catch (final Exception e)
@@ -1414,7 +1456,7 @@ public final class Document
 		final ILogicExpression displayLogic = documentField.getDescriptor().getDisplayLogic();
 		try
 		{
-			displayed = displayLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+			displayed = evaluateFieldLogic(documentField, DependencyType.DisplayLogic, displayLogic);
 		}
 		catch (final Exception e)
 		{
@@ -1428,17 +1470,19 @@ public final class Document
 	private void updateFieldsWhichDependsOn(final String triggeringFieldName)
 	{
 		final DocumentFieldDependencyMap dependencies = getEntityDescriptor().getDependencies();
-		dependencies.consumeForChangedFieldName(triggeringFieldName, (dependentFieldName, dependencyType) -> {
+		for (final Dependency dependency : dependencies.getDependenciesToUpdate(triggeringFieldName))
+		{
+			final String dependentFieldName = dependency.getDependentFieldName();
 			final IDocumentField dependentField = getFieldOrNull(dependentFieldName);
 			if (dependentField == null)
 			{
 				// shall not happen
 				logger.warn("Skip setting dependent propery {} because field is missing", dependentFieldName);
-				return;
+				continue;
 			}
 
-			updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
-		});
+			updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependency.getDependencyType());
+		}
 	}
 
 	/**
@@ -1471,7 +1515,7 @@ public final class Document
 			final ILogicExpression mandatoryLogic = documentField.getDescriptor().getMandatoryLogic();
 			try
 			{
-				final LogicExpressionResult mandatory = mandatoryLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+				final LogicExpressionResult mandatory = evaluateFieldLogic(documentField, DependencyType.MandatoryLogic, mandatoryLogic);
 				documentField.setMandatory(mandatory, changesCollector);
 			}
 			catch (final Exception e)
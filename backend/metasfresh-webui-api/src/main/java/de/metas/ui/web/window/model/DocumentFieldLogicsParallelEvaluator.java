@@ -0,0 +1,201 @@
+package de.metas.ui.web.window.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.ad.expression.api.ILogicExpression;
+import org.adempiere.ad.expression.api.LogicExpressionResult;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.Dependency;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.DependencyType;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Evaluates the readonly, display and mandatory logic expressions of all document fields in parallel.
+ * <p>
+ * Evaluating a logic expression only reads the document, so the evaluations are independent of each other.
+ * The results are applied to the fields by the calling thread, because {@link Document} is not thread safe.
+ * <p>
+ * Disabled by default. It pays off only for wide documents (e.g. sales order) whose logic expressions are not trivial.
+ */
+/* package */ final class DocumentFieldLogicsParallelEvaluator
+{
+	private static final Logger logger = LogManager.getLogger(DocumentFieldLogicsParallelEvaluator.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.window.model.DocumentFieldLogicsParallelEvaluator.Enabled";
+	private static final String SYSCONFIG_MinLogicsCount = "de.metas.ui.web.window.model.DocumentFieldLogicsParallelEvaluator.MinLogicsCount";
+	private static final int DEFAULT_MinLogicsCount = 100;
+
+	private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static final ExecutorService executor = new ThreadPoolExecutor(
+			PARALLELISM, // corePoolSize
+			PARALLELISM, // maxPoolSize
+			60L, // keepAliveTime
+			TimeUnit.SECONDS, // keepAliveTime unit
+			new LinkedBlockingQueue<>(PARALLELISM * 50), // workQueue
+			CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(DocumentFieldLogicsParallelEvaluator.class.getSimpleName() + "-")
+					.build(),
+			new ThreadPoolExecutor.AbortPolicy());
+
+	@Value
+	private static class LogicToEvaluate
+	{
+		@NonNull
+		Dependency key;
+		@NonNull
+		ILogicExpression logic;
+	}
+
+	/**
+	 * @return logic results indexed by field name and logic type ({@link DependencyType#ReadonlyLogic}, {@link DependencyType#DisplayLogic}, {@link DependencyType#MandatoryLogic}).
+	 *         Constant logics and the logics which failed are not included. If parallel evaluation is not enabled or not worth it, an empty map is returned.
+	 */
+	public static ImmutableMap<Dependency, LogicExpressionResult> evaluateIfApplicable(
+			@NonNull final Collection<IDocumentField> fields,
+			@NonNull final IDocumentEvaluatee evaluatee)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false))
+		{
+			return ImmutableMap.of();
+		}
+
+		final List<LogicToEvaluate> logicsToEvaluate = extractLogicsToEvaluate(fields);
+		if (logicsToEvaluate.size() < sysConfigBL.getIntValue(SYSCONFIG_MinLogicsCount, DEFAULT_MinLogicsCount))
+		{
+			return ImmutableMap.of();
+		}
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final int chunkSize = (logicsToEvaluate.size() + PARALLELISM - 1) / PARALLELISM;
+		final List<CompletableFuture<Map<Dependency, LogicExpressionResult>>> futures = new ArrayList<>();
+		try
+		{
+			for (final List<LogicToEvaluate> chunk : Lists.partition(logicsToEvaluate, chunkSize))
+			{
+				futures.add(CompletableFuture.supplyAsync(() -> evaluate(chunk, evaluatee, ctx), executor));
+			}
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// too busy; the caller will evaluate the logics sequentially
+			logger.debug("Skip evaluating logics in parallel because the executor is busy");
+			futures.forEach(future -> future.cancel(false));
+			return ImmutableMap.of();
+		}
+
+		final ImmutableMap.Builder<Dependency, LogicExpressionResult> result = ImmutableMap.builder();
+		for (final CompletableFuture<Map<Dependency, LogicExpressionResult>> future : futures)
+		{
+			try
+			{
+				result.putAll(future.join());
+			}
+			catch (final Exception ex)
+			{
+				// the logics which are not in result will be evaluated sequentially by the caller
+				logger.warn("Failed evaluating logics in parallel. Ignored.", ex);
+			}
+		}
+		return result.build();
+	}
+
+	private static List<LogicToEvaluate> extractLogicsToEvaluate(final Collection<IDocumentField> fields)
+	{
+		final List<LogicToEvaluate> logicsToEvaluate = new ArrayList<>();
+		for (final IDocumentField field : fields)
+		{
+			final DocumentFieldDescriptor descriptor = field.getDescriptor();
+			addIfNotConstant(logicsToEvaluate, field.getFieldName(), DependencyType.ReadonlyLogic, descriptor.getReadonlyLogic());
+			addIfNotConstant(logicsToEvaluate, field.getFieldName(), DependencyType.DisplayLogic, descriptor.getDisplayLogic());
+			addIfNotConstant(logicsToEvaluate, field.getFieldName(), DependencyType.MandatoryLogic, descriptor.getMandatoryLogic());
+		}
+		return logicsToEvaluate;
+	}
+
+	private static void addIfNotConstant(
+			final List<LogicToEvaluate> logicsToEvaluate,
+			final String fieldName,
+			final DependencyType logicType,
+			final ILogicExpression logic)
+	{
+		if (logic == null || logic.isConstant())
+		{
+			return;
+		}
+
+		logicsToEvaluate.add(new LogicToEvaluate(Dependency.of(fieldName, logicType), logic));
+	}
+
+	private static Map<Dependency, LogicExpressionResult> evaluate(
+			final List<LogicToEvaluate> logicsToEvaluate,
+			final IDocumentEvaluatee evaluatee,
+			final Properties ctx)
+	{
+		final HashMap<Dependency, LogicExpressionResult> result = new HashMap<>(logicsToEvaluate.size());
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+		{
+			for (final LogicToEvaluate logicToEvaluate : logicsToEvaluate)
+			{
+				try
+				{
+					result.put(logicToEvaluate.getKey(), logicToEvaluate.getLogic().evaluateToResult(evaluatee, OnVariableNotFound.Fail));
+				}
+				catch (final Exception ex)
+				{
+					// will be evaluated again by the caller, which also logs the error
+					logger.debug("Failed evaluating {}. Skipped.", logicToEvaluate, ex);
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -1,6 +1,10 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.google.common.base.MoreObjects;
@@ -13,6 +17,7 @@ import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -137,6 +142,35 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> delegate.retrieveLookupValueById(evalCtx));
 	}
 
+	@Override
+	public Map<LookupDataSourceContext, LookupValue> retrieveLookupValueByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>(evalCtxs.size());
+		final ArrayList<LookupDataSourceContext> evalCtxsToLoad = new ArrayList<>();
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			final LookupValue lookupValue = cache_retrieveLookupValueById.get(evalCtx);
+			if (lookupValue != null)
+			{
+				result.put(evalCtx, lookupValue);
+			}
+			else
+			{
+				result.put(evalCtx, null); // placeholder, to preserve the order
+				evalCtxsToLoad.add(evalCtx);
+			}
+		}
+
+		if (!evalCtxsToLoad.isEmpty())
+		{
+			final Map<LookupDataSourceContext, LookupValue> lookupValuesLoaded = delegate.retrieveLookupValueByIds(evalCtxsToLoad);
+			cache_retrieveLookupValueById.putAll(lookupValuesLoaded);
+			result.putAll(lookupValuesLoaded);
+		}
+
+		return result;
+	}
+
 	@Override
 	public Builder newContextForFetchingList()
 	{
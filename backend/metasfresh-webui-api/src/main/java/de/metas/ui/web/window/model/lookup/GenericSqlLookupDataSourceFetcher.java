@@ -24,6 +24,10 @@ package de.metas.ui.web.window.model.lookup;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
 import de.metas.adempiere.service.impl.TooltipType;
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.i18n.ITranslatableString;
@@ -45,11 +49,21 @@ import lombok.NonNull;
 import org.adempiere.ad.service.impl.LookupDAO.SQLNamePairIterator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.validationRule.INamePairPredicate;
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
 import org.compiere.util.DB;
+import org.compiere.util.Evaluatees;
 import org.slf4j.Logger;
 
+import java.sql.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetcher
 {
@@ -207,6 +221,67 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(evalCtx);
 
 		final String[] nameAndDescriptionAndActive = DB.getSQLValueArrayEx(ITrx.TRXNAME_None, sqlForFetchingLookupById, id);
+		return toLookupValue(id, nameAndDescriptionAndActive, evalCtx.getAD_Language());
+	}
+
+	/**
+	 * Fetches all lookup values using one SQL query per group of contexts which differ only by their ID.
+	 * <p>
+	 * The by-ID SQL is used as a correlated sub-select on the list of IDs, the same way it's used for display columns (see {@link de.metas.ui.web.window.descriptor.sql.SqlSelectDisplayValue}).
+	 */
+	@Override
+	public Map<LookupDataSourceContext, LookupValue> retrieveLookupValueByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		if (evalCtxs.size() <= 1)
+		{
+			return LookupDataSourceFetcher.super.retrieveLookupValueByIds(evalCtxs);
+		}
+
+		final HashMap<LookupDataSourceContext, LookupValue> result = new HashMap<>(evalCtxs.size());
+		final ImmutableListMultimap<LookupDataSourceContext, LookupDataSourceContext> evalCtxsByCommonCtx = Multimaps.index(evalCtxs, LookupDataSourceContext::withoutIdToFilter);
+		for (final LookupDataSourceContext commonEvalCtx : evalCtxsByCommonCtx.keySet())
+		{
+			final ImmutableMap<Object, LookupDataSourceContext> evalCtxsById = Maps.uniqueIndex(evalCtxsByCommonCtx.get(commonEvalCtx), LookupDataSourceContext::getIdToFilter);
+			final Map<Object, LookupValue> lookupValuesById = retrieveLookupValueByIds(evalCtxsById.keySet(), commonEvalCtx);
+
+			evalCtxsById.forEach((id, evalCtx) -> result.put(evalCtx, lookupValuesById.getOrDefault(id, LOOKUPVALUE_NULL)));
+		}
+
+		return result;
+	}
+
+	private Map<Object, LookupValue> retrieveLookupValueByIds(
+			@NonNull final Set<Object> ids,
+			@NonNull final LookupDataSourceContext commonEvalCtx)
+	{
+		final String sqlLookupValueById = sqlForFetchingLookupByIdExpression
+				.toStringExpression()
+				.evaluate(Evaluatees.compose(
+						Evaluatees.ofSingleton(SqlForFetchingLookupById.SQL_PARAM_KeyId.getName(), "k.id"),
+						commonEvalCtx),
+						OnVariableNotFound.Fail);
+
+		final String sql = "SELECT k.id, (" + sqlLookupValueById + ")"
+				+ " FROM unnest(ARRAY[" + String.join(",", Collections.nCopies(ids.size(), "?")) + "]) AS k(id)";
+		final List<Object> sqlParams = ImmutableList.copyOf(ids);
+		final String adLanguage = commonEvalCtx.getAD_Language();
+
+		final HashMap<Object, LookupValue> result = new HashMap<>(ids.size());
+		DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> {
+			final Object id = numericKey ? (Object)rs.getInt(1) : rs.getString(1);
+			final Array array = rs.getArray(2);
+			final String[] nameAndDescriptionAndActive = array != null ? (String[])array.getArray() : null;
+			result.put(id, toLookupValue(id, nameAndDescriptionAndActive, adLanguage));
+			return null;
+		});
+		return result;
+	}
+
+	private LookupValue toLookupValue(
+			@NonNull final Object id,
+			@Nullable final String[] nameAndDescriptionAndActive,
+			final String adLanguage)
+	{
 		if (nameAndDescriptionAndActive == null || nameAndDescriptionAndActive.length == 0)
 		{
 			return LOOKUPVALUE_NULL;
@@ -220,7 +295,6 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		final ITranslatableString descriptionTrl;
 		if (isTranslatable)
 		{
-			final String adLanguage = evalCtx.getAD_Language();
 			displayNameTrl = TranslatableStrings.singleLanguage(adLanguage, displayName);
 			descriptionTrl = TranslatableStrings.singleLanguage(adLanguage, description);
 		}
@@ -1,11 +1,15 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.compiere.util.Evaluatee;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.ui.web.window.datatypes.LookupValue;
@@ -119,10 +123,7 @@ final class LookupDataSourceAdapter implements LookupDataSource
 
 		//
 		// Build the validation context
-		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingById(idNormalized)
-				.putFilterById(idNormalized)
-				.putShowInactive(true)
-				.build();
+		final LookupDataSourceContext evalCtx = createContextForFetchingById(idNormalized);
 
 		//
 		// Get the lookup value
@@ -134,6 +135,38 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValue;
 	}
 
+	private LookupDataSourceContext createContextForFetchingById(@NonNull final Object idNormalized)
+	{
+		return fetcher.newContextForFetchingById(idNormalized)
+				.putFilterById(idNormalized)
+				.putShowInactive(true)
+				.build();
+	}
+
+	/**
+	 * Fetches all lookup values in one go (if the underlying fetcher supports it) instead of one by one.
+	 */
+	@Override
+	public LookupValuesList findByIdsOrdered(@NonNull final Collection<? extends Object> ids)
+	{
+		final ImmutableList<LookupDataSourceContext> evalCtxs = ids.stream()
+				.map(id -> LookupValue.normalizeId(id, fetcher.isNumericKey()))
+				.filter(Objects::nonNull)
+				.distinct()
+				.map(this::createContextForFetchingById)
+				.collect(ImmutableList.toImmutableList());
+		if (evalCtxs.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		final Map<LookupDataSourceContext, LookupValue> lookupValuesByCtx = fetcher.retrieveLookupValueByIds(evalCtxs);
+		return evalCtxs.stream()
+				.map(lookupValuesByCtx::get)
+				.filter(lookupValue -> lookupValue != null && lookupValue != LookupDataSourceFetcher.LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
 	@Override
 	public List<CCacheStats> getCacheStats()
 	{
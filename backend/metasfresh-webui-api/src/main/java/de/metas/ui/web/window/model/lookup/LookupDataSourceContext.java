@@ -330,6 +330,18 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		return idToFilter != null ? idToFilter.toString() : null;
 	}
 
+	/**
+	 * @return a copy of this context but without the ID to filter. Useful for grouping contexts which differ only by their ID.
+	 */
+	public LookupDataSourceContext withoutIdToFilter()
+	{
+		if (idToFilter == null)
+		{
+			return this;
+		}
+		return new LookupDataSourceContext(lookupTableName, parameterValues, null, postQueryPredicate);
+	}
+
 	public ViewId getViewId()
 	{
 		final ViewId viewId = get_ValueAsObject(PARAM_ViewId.getName());
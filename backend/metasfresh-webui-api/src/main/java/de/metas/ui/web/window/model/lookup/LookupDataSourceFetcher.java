@@ -9,7 +9,10 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /*
@@ -48,6 +51,24 @@ public interface LookupDataSourceFetcher
 	@Nullable
 	LookupValue retrieveLookupValueById(@NonNull LookupDataSourceContext evalCtx);
 
+	/**
+	 * Retrieves the lookup values for given contexts, which were created by {@link #newContextForFetchingById(Object)} and differ only by their ID.
+	 * <p>
+	 * The default implementation is fetching them one by one. Implementors are advised to override it and fetch all of them in one go.
+	 *
+	 * @return lookup value for each given context; if nothing was found for a context, {@link #LOOKUPVALUE_NULL} is mapped
+	 */
+	default Map<LookupDataSourceContext, LookupValue> retrieveLookupValueByIds(@NonNull final Collection<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<LookupDataSourceContext, LookupValue> result = new LinkedHashMap<>(evalCtxs.size());
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			final LookupValue lookupValue = retrieveLookupValueById(evalCtx);
+			result.put(evalCtx, lookupValue != null ? lookupValue : LOOKUPVALUE_NULL);
+		}
+		return result;
+	}
+
 	LookupDataSourceContext.Builder newContextForFetchingList();
 
 	LookupValuesList retrieveEntities(LookupDataSourceContext evalCtx);
@@ -0,0 +1,153 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import de.metas.organization.OrgId;
+import de.metas.ui.web.view.event.JSONViewChanges;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.websocket.WebsocketEndpointAware;
+import de.metas.ui.web.websocket.WebsocketSender;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests how {@link DefaultView} loads its header properties in background (see {@link ViewHeaderPropertiesAsyncLoader}).
+ */
+public class DefaultViewHeaderPropertiesTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private WebsocketSender websocketSender;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(100));
+		Env.setContext(Env.getCtx(), Env.CTXNAME_AD_Role_ID, 1000000);
+		Services.get(ISysConfigBL.class).setValue("de.metas.ui.web.view.ViewHeaderPropertiesAsyncLoader.Enabled", true, ClientId.SYSTEM, OrgId.ANY);
+
+		websocketSender = mock(WebsocketSender.class);
+		SpringContextHolder.registerJUnitBean(WebsocketSender.class, websocketSender);
+	}
+
+	@Test
+	public void staleResult_isLoadedAgain_andFrontendIsNotified() throws Exception
+	{
+		final ViewHeaderProperties staleHeaderProperties = ViewHeaderProperties.builder().build();
+		final ViewHeaderProperties currentHeaderProperties = ViewHeaderProperties.builder().build();
+
+		final CountDownLatch firstComputeStarted = new CountDownLatch(1);
+		final CountDownLatch firstComputeMayFinish = new CountDownLatch(1);
+		final AtomicInteger computeCount = new AtomicInteger();
+		final ViewHeaderPropertiesProvider headerPropertiesProvider = mock(ViewHeaderPropertiesProvider.class);
+		when(headerPropertiesProvider.computeHeaderProperties(any()))
+				.thenAnswer(invocation -> {
+					if (computeCount.incrementAndGet() > 1)
+					{
+						return currentHeaderProperties;
+					}
+
+					firstComputeStarted.countDown();
+					firstComputeMayFinish.await(10, TimeUnit.SECONDS);
+					return staleHeaderProperties;
+				});
+
+		final DefaultView view = newView(headerPropertiesProvider);
+
+		assertThat(view.getHeaderProperties()).isSameAs(ViewHeaderProperties.EMPTY);
+		assertThat(firstComputeStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// the view changes while the header properties are computed
+		view.invalidateAll();
+		firstComputeMayFinish.countDown();
+
+		@SuppressWarnings("unchecked")
+		final ArgumentCaptor<Collection<? extends WebsocketEndpointAware>> eventsCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(websocketSender, timeout(10_000)).convertAndSend(eventsCaptor.capture());
+		assertThat(eventsCaptor.getValue())
+				.hasSize(1)
+				.allSatisfy(event -> {
+					final JSONViewChanges viewChanges = (JSONViewChanges)event;
+					assertThat(viewChanges.getViewId()).isEqualTo(view.getViewId().getViewId());
+					assertThat(viewChanges.getHeaderPropertiesChanged()).isTrue();
+				});
+
+		assertThat(computeCount).hasValue(2);
+		assertThat(view.getHeaderProperties()).isSameAs(currentHeaderProperties);
+	}
+
+	@Test
+	public void currentResult_frontendIsNotified()
+	{
+		final ViewHeaderProperties headerProperties = ViewHeaderProperties.builder().build();
+		final ViewHeaderPropertiesProvider headerPropertiesProvider = mock(ViewHeaderPropertiesProvider.class);
+		when(headerPropertiesProvider.computeHeaderProperties(any())).thenReturn(headerProperties);
+
+		final DefaultView view = newView(headerPropertiesProvider);
+		assertThat(view.getHeaderProperties()).isSameAs(ViewHeaderProperties.EMPTY);
+
+		verify(websocketSender, timeout(10_000)).convertAndSend(anyCollection());
+		assertThat(view.getHeaderProperties()).isSameAs(headerProperties);
+	}
+
+	private static DefaultView newView(final ViewHeaderPropertiesProvider headerPropertiesProvider)
+	{
+		final SqlViewDataRepository viewDataRepository = mock(SqlViewDataRepository.class);
+		when(viewDataRepository.getTableName()).thenReturn("C_Order");
+
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		return DefaultView.builder(viewDataRepository)
+				.setViewId(viewId)
+				.setViewType(JSONViewDataType.grid)
+				.setSnapshotRecipe(ViewSnapshot.builder()
+						.viewId(viewId)
+						.viewType(JSONViewDataType.grid)
+						.build())
+				.setHeaderPropertiesProvider(headerPropertiesProvider)
+				.build();
+	}
+}
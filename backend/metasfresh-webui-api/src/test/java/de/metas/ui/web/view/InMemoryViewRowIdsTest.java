@@ -0,0 +1,93 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+{
+	@Test
+	public void getPage()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRowIds(new int[] { 30, 10, 20, 50, 40 });
+
+		assertThat(rowIds.size()).isEqualTo(5);
+		assertThat(rowIds.getPage(0, 2)).containsExactly(30, 10);
+		assertThat(rowIds.getPage(3, 10)).containsExactly(50, 40);
+		assertThat(rowIds.getPage(5, 10)).isEmpty();
+		assertThat(rowIds.getPageAsDocumentIds(1, 2)).containsExactly(DocumentId.of(10), DocumentId.of(20));
+	}
+
+	@Test
+	public void contains()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRowIds(new int[] { 30, 10, 20 });
+
+		assertThat(rowIds.contains(10)).isTrue();
+		assertThat(rowIds.contains(11)).isFalse();
+		assertThat(rowIds.contains(DocumentId.of("abc"))).isFalse();
+
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ofIntSet(ImmutableSet.of(1, 20)))).isTrue();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ofIntSet(ImmutableSet.of(1, 2)))).isFalse();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ALL)).isTrue();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.EMPTY)).isFalse();
+
+		assertThat(rowIds.retainContained(ImmutableList.of(DocumentId.of(1), DocumentId.of(30))))
+				.containsExactly(DocumentId.of(30));
+	}
+
+	@Test
+	public void addingAndRemovingRowIds()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRowIds(new int[] { 30, 10, 20 });
+
+		final InMemoryViewRowIds added = rowIds.addingRowIds(ImmutableList.of(10, 5, 5, 1));
+		assertThat(added.toArray()).containsExactly(30, 10, 20, 5, 1);
+		assertThat(added.contains(5)).isTrue();
+		assertThat(rowIds.addingRowIds(ImmutableList.of(10))).isSameAs(rowIds);
+
+		final InMemoryViewRowIds removed = added.removingRowIds(ImmutableList.of(10, 1, 99));
+		assertThat(removed.toArray()).containsExactly(30, 20, 5);
+		assertThat(removed.contains(10)).isFalse();
+		assertThat(rowIds.removingRowIds(ImmutableList.of(99))).isSameAs(rowIds);
+	}
+
+	@Test
+	public void instanceIsNotAffectedByChangingTheSourceArray()
+	{
+		final int[] source = new int[] { 1, 2, 3 };
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRowIds(source);
+		source[0] = 100;
+
+		assertThat(rowIds.toArray()).containsExactly(1, 2, 3);
+		assertThat(rowIds.contains(100)).isFalse();
+	}
+}
@@ -0,0 +1,146 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.view.ViewHeaderPropertiesAsyncLoader.LoadedHeaderProperties;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewHeaderPropertiesAsyncLoaderTest
+{
+	private ScheduledExecutorService retryScheduler;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		retryScheduler = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		retryScheduler.shutdownNow();
+	}
+
+	@Test
+	public void loadAsync() throws Exception
+	{
+		final ViewHeaderPropertiesAsyncLoader loader = new ViewHeaderPropertiesAsyncLoader();
+		final ViewHeaderProperties headerProperties = ViewHeaderProperties.builder().build();
+
+		final CompletableFuture<LoadedHeaderProperties> loadedFuture = new CompletableFuture<>();
+		loader.loadAsync(() -> headerProperties, loadedFuture::complete);
+
+		final LoadedHeaderProperties loaded = loadedFuture.get(10, TimeUnit.SECONDS);
+		assertThat(loaded.getHeaderProperties()).isSameAs(headerProperties);
+		assertThat(loader.isCurrentVersion(loaded.getVersion())).isTrue();
+	}
+
+	@Test
+	public void invalidate_makesLoadedResultStale() throws Exception
+	{
+		final ViewHeaderPropertiesAsyncLoader loader = new ViewHeaderPropertiesAsyncLoader();
+
+		final CompletableFuture<LoadedHeaderProperties> loadedFuture = new CompletableFuture<>();
+		loader.loadAsync(() -> ViewHeaderProperties.EMPTY, loadedFuture::complete);
+		final LoadedHeaderProperties loaded = loadedFuture.get(10, TimeUnit.SECONDS);
+
+		loader.invalidate();
+
+		assertThat(loader.isCurrentVersion(loaded.getVersion())).isFalse();
+	}
+
+	@Test
+	public void loadAsync_sameVersionIsLoadedOnlyOnce() throws Exception
+	{
+		final ViewHeaderPropertiesAsyncLoader loader = new ViewHeaderPropertiesAsyncLoader();
+
+		final CompletableFuture<LoadedHeaderProperties> loadedFuture = new CompletableFuture<>();
+		loader.loadAsync(() -> ViewHeaderProperties.EMPTY, loadedFuture::complete);
+		loadedFuture.get(10, TimeUnit.SECONDS);
+
+		loader.loadAsync(() -> {
+			throw new AssertionError("loader shall not be called");
+		}, loaded -> {
+			throw new AssertionError("onLoaded shall not be called");
+		});
+	}
+
+	@Test
+	public void loadAsync_retriesWhileExecutorIsBusy() throws Exception
+	{
+		final ExecutorService executor = mock(ExecutorService.class);
+		doThrow(new RejectedExecutionException())
+				.doThrow(new RejectedExecutionException())
+				.doAnswer(invocation -> {
+					invocation.<Runnable> getArgument(0).run();
+					return null;
+				})
+				.when(executor).execute(any());
+		final ViewHeaderPropertiesAsyncLoader loader = new ViewHeaderPropertiesAsyncLoader(executor, retryScheduler, Duration.ZERO);
+		final ViewHeaderProperties headerProperties = ViewHeaderProperties.builder().build();
+
+		final CompletableFuture<LoadedHeaderProperties> loadedFuture = new CompletableFuture<>();
+		loader.loadAsync(() -> headerProperties, loadedFuture::complete);
+
+		assertThat(loadedFuture.get(10, TimeUnit.SECONDS).getHeaderProperties()).isSameAs(headerProperties);
+		verify(executor, times(3)).execute(any());
+	}
+
+	@Test
+	public void loadAsync_givesUpWhenExecutorStaysBusy_andLoadsAgainOnNextRequest() throws Exception
+	{
+		final ExecutorService executor = mock(ExecutorService.class);
+		doThrow(new RejectedExecutionException()).when(executor).execute(any());
+		final ViewHeaderPropertiesAsyncLoader loader = new ViewHeaderPropertiesAsyncLoader(executor, retryScheduler, Duration.ZERO);
+
+		loader.loadAsync(() -> ViewHeaderProperties.EMPTY, loaded -> {});
+		verify(executor, timeout(10_000).times(10)).execute(any());
+		retryScheduler.submit(() -> {}).get(10, TimeUnit.SECONDS); // wait until the last attempt is completely done
+
+		// not "already loading" anymore
+		loader.loadAsync(() -> ViewHeaderProperties.EMPTY, loaded -> {});
+		verify(executor, timeout(10_000).times(20)).execute(any());
+	}
+}
@@ -0,0 +1,101 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.view.ViewNextPagePrefetcher.PageKey;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewNextPagePrefetcherTest
+{
+	private ViewRowIdsOrderedSelection orderedSelection;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		orderedSelection = ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.size(100)
+				.build();
+	}
+
+	@Test
+	public void prefetchedPageIsUsed()
+	{
+		final ViewNextPagePrefetcher prefetcher = new ViewNextPagePrefetcher();
+		final PageKey pageKey = PageKey.of(orderedSelection, 20, 20);
+
+		final List<IViewRow> prefetchedRows = new ArrayList<>();
+		prefetcher.prefetch(pageKey, () -> prefetchedRows);
+
+		final List<IViewRow> rows = prefetcher.getPageOrLoad(pageKey, () -> {
+			throw new AssertionError("loader shall not be called");
+		});
+		assertThat(rows).isSameAs(prefetchedRows);
+	}
+
+	@Test
+	public void prefetchedPageIsUsedOnlyOnce()
+	{
+		final ViewNextPagePrefetcher prefetcher = new ViewNextPagePrefetcher();
+		final PageKey pageKey = PageKey.of(orderedSelection, 20, 20);
+		prefetcher.prefetch(pageKey, ArrayList::new);
+		prefetcher.getPageOrLoad(pageKey, ArrayList::new);
+
+		final List<IViewRow> loadedRows = new ArrayList<>();
+		assertThat(prefetcher.getPageOrLoad(pageKey, () -> loadedRows)).isSameAs(loadedRows);
+	}
+
+	@Test
+	public void otherPageIsLoaded()
+	{
+		final ViewNextPagePrefetcher prefetcher = new ViewNextPagePrefetcher();
+		prefetcher.prefetch(PageKey.of(orderedSelection, 20, 20), ArrayList::new);
+
+		final List<IViewRow> loadedRows = new ArrayList<>();
+		assertThat(prefetcher.getPageOrLoad(PageKey.of(orderedSelection, 40, 20), () -> loadedRows)).isSameAs(loadedRows);
+	}
+
+	@Test
+	public void invalidate()
+	{
+		final ViewNextPagePrefetcher prefetcher = new ViewNextPagePrefetcher();
+		final PageKey pageKey = PageKey.of(orderedSelection, 20, 20);
+		prefetcher.prefetch(pageKey, ArrayList::new);
+
+		prefetcher.invalidate();
+
+		final List<IViewRow> loadedRows = new ArrayList<>();
+		assertThat(prefetcher.getPageOrLoad(pageKey, () -> loadedRows)).isSameAs(loadedRows);
+	}
+}
@@ -0,0 +1,123 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.ZoneId;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.DocumentFilterParam.Operator;
+import de.metas.ui.web.document.filter.json.JSONDocumentFilter;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewSnapshotTest
+{
+	private ObjectMapper jsonObjectMapper;
+
+	@BeforeEach
+	public void init()
+	{
+		jsonObjectMapper = JsonObjectMapperHolder.newJsonObjectMapper();
+	}
+
+	private static ViewSnapshot newViewSnapshot()
+	{
+		final JSONOptions jsonOpts = JSONOptions.builder()
+				.adLanguage("de_DE")
+				.zoneId(ZoneId.of("Europe/Berlin"))
+				.build();
+
+		return ViewSnapshot.builder()
+				.viewId(ViewId.ofParts(WindowId.of(123), "viewId"))
+				.viewType(JSONViewDataType.grid)
+				.profileId(ViewProfileId.fromJson("profileId"))
+				.referencingDocumentPaths(ImmutableList.of(JSONDocumentPath.ofWindowDocumentPath(DocumentPath.rootDocumentPath(WindowId.of(456), 1))))
+				.filterOnlyIds(ImmutableSet.of(1, 2, 3))
+				.filters(ImmutableList.of(JSONDocumentFilter.of(DocumentFilter.singleParameterFilter("filterId", "Name", Operator.EQUAL, "test"), jsonOpts)))
+				.applySecurityRestrictions(true)
+				.build();
+	}
+
+	@Test
+	public void testSerializeDeserialize()
+	{
+		final ViewSnapshot snapshot = newViewSnapshot();
+
+		final ViewSnapshot snapshotDeserialized = fromJson(toJson(snapshot));
+		assertThat(snapshotDeserialized).isEqualTo(snapshot);
+	}
+
+	@Test
+	public void toCreateViewRequest()
+	{
+		final ViewSnapshot snapshot = newViewSnapshot();
+
+		final CreateViewRequest request = snapshot.toCreateViewRequest();
+		assertThat(request.getViewId()).isEqualTo(snapshot.getViewId());
+		assertThat(request.getViewType()).isEqualTo(JSONViewDataType.grid);
+		assertThat(request.getProfileId()).isEqualTo(snapshot.getProfileId());
+		assertThat(request.getReferencingDocumentPaths()).containsExactly(DocumentPath.rootDocumentPath(WindowId.of(456), 1));
+		assertThat(request.getFilterOnlyIds()).containsExactlyInAnyOrder(1, 2, 3);
+		assertThat(request.isUseAutoFilters()).isFalse();
+		assertThat(request.isApplySecurityRestrictions()).isTrue();
+	}
+
+	private String toJson(final ViewSnapshot snapshot)
+	{
+		try
+		{
+			return jsonObjectMapper.writeValueAsString(snapshot);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed serializing " + snapshot, e);
+		}
+	}
+
+	private ViewSnapshot fromJson(final String json)
+	{
+		try
+		{
+			return jsonObjectMapper.readValue(json, ViewSnapshot.class);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed deserializing:\n" + json, e);
+		}
+	}
+}
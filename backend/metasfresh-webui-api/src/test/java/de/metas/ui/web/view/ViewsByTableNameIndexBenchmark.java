@@ -0,0 +1,96 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Micro-benchmark for {@link ViewsByTableNameIndex}: 5k open views over 100 tables and a stream of record changes.
+ * Compares how many views are notified when routing via index vs. notifying all views.
+ * <p>
+ * Not part of the regular build; run it manually from the IDE.
+ */
+@Disabled("micro-benchmark; run it manually")
+public class ViewsByTableNameIndexBenchmark
+{
+	private static final Logger logger = LogManager.getLogger(ViewsByTableNameIndexBenchmark.class);
+
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	@Test
+	public void benchmark_5kViews()
+	{
+		final int viewsCount = 5000;
+		final int tablesCount = 100;
+		final int eventsCount = 20000;
+		final Random random = new Random(4711);
+
+		final ViewsByTableNameIndex index = new ViewsByTableNameIndex();
+		for (int i = 0; i < viewsCount; i++)
+		{
+			final IView view = mock(IView.class);
+			when(view.getViewId()).thenReturn(ViewId.random(WINDOW_ID));
+			when(view.getDependsOnTableNames()).thenReturn(ImmutableSet.of("Table" + random.nextInt(tablesCount)));
+			index.add(view);
+		}
+
+		final List<TableRecordReferenceSet> events = new ArrayList<>();
+		for (int i = 0; i < eventsCount; i++)
+		{
+			events.add(TableRecordReferenceSet.of(TableRecordReference.of("Table" + random.nextInt(tablesCount), 1 + random.nextInt(1000))));
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		long notifiedViaIndex = 0;
+		for (final TableRecordReferenceSet event : events)
+		{
+			notifiedViaIndex += index.getViewsAffectedBy(event).size();
+		}
+		stopwatch.stop();
+
+		final long notifiedWithoutIndex = (long)eventsCount * viewsCount;
+		logger.info("Routed {} record changes to {} views in {}: notified {} views, instead of {}",
+				eventsCount, viewsCount, stopwatch, notifiedViaIndex, notifiedWithoutIndex);
+
+		// on average, each table is watched by viewsCount/tablesCount views
+		assertThat(notifiedViaIndex).isLessThan(notifiedWithoutIndex / tablesCount * 2);
+	}
+}
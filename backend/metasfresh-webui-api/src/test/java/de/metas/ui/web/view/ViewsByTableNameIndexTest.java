@@ -0,0 +1,129 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewsByTableNameIndexTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private static IView view(@Nullable final Set<String> dependsOnTableNames)
+	{
+		final IView view = mock(IView.class);
+		when(view.getViewId()).thenReturn(ViewId.random(WINDOW_ID));
+		when(view.getDependsOnTableNames()).thenReturn(dependsOnTableNames);
+		return view;
+	}
+
+	@Test
+	public void routesByTableName()
+	{
+		final ViewsByTableNameIndex index = new ViewsByTableNameIndex();
+		final IView orderView = view(ImmutableSet.of("C_Order"));
+		final IView orderAndInvoiceView = view(ImmutableSet.of("C_Order", "C_Invoice"));
+		final IView unknownTablesView = view(null);
+		final IView noTablesView = view(ImmutableSet.of());
+		index.add(orderView);
+		index.add(orderAndInvoiceView);
+		index.add(unknownTablesView);
+		index.add(noTablesView);
+
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("C_Order", 1)))
+				.containsOnly(orderView, orderAndInvoiceView, unknownTablesView);
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("C_Invoice", 1)))
+				.containsOnly(orderAndInvoiceView, unknownTablesView);
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("M_Product", 1)))
+				.containsOnly(unknownTablesView);
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.EMPTY)).isEmpty();
+	}
+
+	@Test
+	public void remove()
+	{
+		final ViewsByTableNameIndex index = new ViewsByTableNameIndex();
+		final IView view = view(ImmutableSet.of("C_Order"));
+		index.add(view);
+
+		index.remove(view);
+
+		assertThat(index.size()).isZero();
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("C_Order", 1))).isEmpty();
+	}
+
+	@Test
+	public void removeReplacedViewIsIgnored()
+	{
+		final ViewsByTableNameIndex index = new ViewsByTableNameIndex();
+		final IView view = view(ImmutableSet.of("C_Order"));
+		final IView replacement = mock(IView.class);
+		when(replacement.getViewId()).thenReturn(view.getViewId());
+		when(replacement.getDependsOnTableNames()).thenReturn(ImmutableSet.of("C_Invoice"));
+
+		index.add(view);
+		index.add(replacement);
+		index.remove(view); // e.g. the removal notification of the replaced view
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("C_Order", 1))).isEmpty();
+		assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of("C_Invoice", 1))).containsExactly(replacement);
+	}
+
+	@Test
+	public void sameResultAsCheckingEachView()
+	{
+		final ViewsByTableNameIndex index = new ViewsByTableNameIndex();
+		final List<IView> allViews = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+		{
+			final IView view = view(ImmutableSet.of("Table" + (i % 3), "Table" + (i % 5)));
+			index.add(view);
+			allViews.add(view);
+		}
+
+		for (int t = 0; t < 6; t++)
+		{
+			final String tableName = "Table" + t;
+			assertThat(index.getViewsAffectedBy(TableRecordReferenceSet.of(tableName, 1)))
+					.as("views affected by %s", tableName)
+					.containsExactlyInAnyOrderElementsOf(allViews.stream()
+							.filter(view -> view.getDependsOnTableNames().contains(tableName))
+							.collect(ImmutableSet.toImmutableSet()));
+		}
+	}
+}
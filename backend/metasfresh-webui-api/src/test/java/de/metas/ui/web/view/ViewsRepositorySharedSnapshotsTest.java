@@ -0,0 +1,284 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.common.util.time.SystemTime;
+import de.metas.ui.web.menu.MenuTreeRepository;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.websocket.WebsocketActiveSubscriptionsIndex;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.user.UserId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Two {@link ViewsRepository}s, i.e. two webui instances, which share the same {@link ViewSnapshotStorage}.
+ */
+public class ViewsRepositorySharedSnapshotsTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+	private static final Duration VIEW_EXPIRATION_TIMEOUT = Duration.ofMinutes(60);
+
+	private final AtomicLong clockMillis = new AtomicLong(Instant.parse("2020-06-01T10:00:00Z").toEpochMilli());
+	private InMemoryViewSnapshotStorage snapshotStorage;
+
+	private Instance instance1;
+	private Instance instance2;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(100));
+		Env.setContext(Env.getCtx(), Env.CTXNAME_AD_Role_ID, 1000000);
+		SystemTime.setTimeSource(clockMillis::get);
+
+		snapshotStorage = new InMemoryViewSnapshotStorage();
+		instance1 = new Instance();
+		instance2 = new Instance();
+	}
+
+	@AfterEach
+	public void resetTimeSource()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private void advanceClock(@NonNull final Duration duration)
+	{
+		clockMillis.addAndGet(duration.toMillis());
+	}
+
+	@Test
+	public void rebuildOnOtherInstance_recreatesSelection()
+	{
+		final ViewId viewId = instance1.createView();
+		assertThat(snapshotStorage.getByIdOrNull(viewId)).isNotNull();
+
+		final IView rebuiltView = instance2.viewsRepository.getOrRebuildViewOrNull(viewId);
+		assertThat(rebuiltView).isNotNull();
+		verify(instance2.viewFactory).rebuildView(any());
+
+		rebuiltView.size();
+		final InOrder inOrder = inOrder(instance2.viewDataRepository);
+		inOrder.verify(instance2.viewDataRepository).deleteSelection(viewId.getViewId());
+		inOrder.verify(instance2.viewDataRepository).createOrderedSelection(any(), eq(viewId), any(), anyBoolean(), any());
+	}
+
+	@Test
+	public void notUsedByOtherInstance_expires()
+	{
+		final ViewId viewId = instance1.createView();
+
+		advanceClock(VIEW_EXPIRATION_TIMEOUT.plusMinutes(1));
+		instance1.createView(); // triggers the expiration
+
+		assertThat(snapshotStorage.getByIdOrNull(viewId)).isNull();
+		verify(instance1.viewDataRepository).scheduleDeleteSelections(ImmutableSet.of(viewId.getViewId()));
+	}
+
+	@Test
+	public void expiresOnOneInstance_whileUsedOnOtherInstance()
+	{
+		final ViewId viewId = instance1.createView();
+
+		advanceClock(Duration.ofMinutes(10));
+		assertThat(instance2.viewsRepository.getOrRebuildViewOrNull(viewId)).isNotNull();
+
+		// instance2 keeps using the view long after it expired on instance1
+		for (int i = 0; i < 10; i++)
+		{
+			advanceClock(Duration.ofMinutes(30));
+			assertThat(instance2.viewsRepository.getOrRebuildViewOrNull(viewId)).isNotNull();
+		}
+		verify(instance2.viewFactory).rebuildView(any()); // only once
+
+		instance1.createView(); // triggers the expiration
+		assertThat(instance1.viewsRepository.getViews()).extracting(IView::getViewId).doesNotContain(viewId);
+		assertThat(snapshotStorage.getByIdOrNull(viewId)).isNotNull();
+		verify(instance1.viewDataRepository, never()).scheduleDeleteSelections(argThat(selectionIds -> selectionIds.contains(viewId.getViewId())));
+
+		// now the view also expires on instance2 => nobody uses it anymore
+		advanceClock(VIEW_EXPIRATION_TIMEOUT.plusMinutes(1));
+		instance2.createView();
+		assertThat(snapshotStorage.getByIdOrNull(viewId)).isNull();
+		verify(instance2.viewDataRepository).scheduleDeleteSelections(ImmutableSet.of(viewId.getViewId()));
+	}
+
+	@Test
+	public void closedPerUserRequest()
+	{
+		final ViewId viewId = instance1.createView();
+		assertThat(instance2.viewsRepository.getOrRebuildViewOrNull(viewId)).isNotNull();
+
+		instance1.viewsRepository.closeView(viewId, ViewCloseAction.DONE);
+
+		assertThat(snapshotStorage.getByIdOrNull(viewId)).isNull();
+		verify(instance1.viewDataRepository).scheduleDeleteSelections(ImmutableSet.of(viewId.getViewId()));
+	}
+
+	private class Instance
+	{
+		private final SqlViewDataRepository viewDataRepository = mock(SqlViewDataRepository.class);
+		private final SqlViewFactory viewFactory = mock(SqlViewFactory.class);
+		private final ViewsRepository viewsRepository;
+
+		private Instance()
+		{
+			when(viewDataRepository.getTableName()).thenReturn("C_Order");
+			when(viewDataRepository.createOrderedSelection(any(), any(), any(), anyBoolean(), any()))
+					.thenAnswer(invocation -> ViewRowIdsOrderedSelection.builder()
+							.viewId(invocation.getArgument(1))
+							.size(10)
+							.build());
+
+			when(viewFactory.createView(any()))
+					.thenAnswer(invocation -> newView(invocation.<CreateViewRequest> getArgument(0).getViewId(), false));
+			when(viewFactory.rebuildView(any()))
+					.thenAnswer(invocation -> newView(invocation.<ViewSnapshot> getArgument(0).getViewId(), true));
+
+			final Ticker ticker = new Ticker()
+			{
+				@Override
+				public long read()
+				{
+					return Duration.ofMillis(clockMillis.get()).toNanos();
+				}
+			};
+
+			viewsRepository = new ViewsRepository(
+					ImmutableList.of(),
+					Optional.empty(),
+					viewFactory,
+					mock(MenuTreeRepository.class),
+					mock(WebsocketActiveSubscriptionsIndex.class),
+					snapshotStorage,
+					VIEW_EXPIRATION_TIMEOUT,
+					ticker);
+		}
+
+		private DefaultView newView(@NonNull final ViewId viewId, final boolean deleteExistingSelection)
+		{
+			return DefaultView.builder(viewDataRepository)
+					.setViewId(viewId)
+					.setViewType(JSONViewDataType.grid)
+					.setSnapshotRecipe(ViewSnapshot.builder()
+							.viewId(viewId)
+							.viewType(JSONViewDataType.grid)
+							.build())
+					.deleteExistingSelection(deleteExistingSelection)
+					.build();
+		}
+
+		private ViewId createView()
+		{
+			final IView view = viewsRepository.createView(CreateViewRequest.builder(ViewId.random(WINDOW_ID), JSONViewDataType.grid).build());
+			view.size(); // make sure the selection is created
+			return view.getViewId();
+		}
+	}
+
+	private static class InMemoryViewSnapshotStorage implements ViewSnapshotStorage
+	{
+		private final Map<ViewId, ViewSnapshot> snapshots = new HashMap<>();
+		private final Map<ViewId, Instant> updatedByViewId = new HashMap<>();
+
+		@Override
+		public Instant save(@NonNull final ViewSnapshot snapshot)
+		{
+			snapshots.put(snapshot.getViewId(), snapshot);
+			return touch(snapshot.getViewId());
+		}
+
+		@Nullable
+		@Override
+		public Instant touch(@NonNull final ViewId viewId)
+		{
+			if (!snapshots.containsKey(viewId))
+			{
+				return null;
+			}
+
+			final Instant updated = SystemTime.asInstant();
+			updatedByViewId.put(viewId, updated);
+			return updated;
+		}
+
+		@Nullable
+		@Override
+		public ViewSnapshot getByIdOrNull(@NonNull final ViewId viewId)
+		{
+			return snapshots.get(viewId);
+		}
+
+		@Override
+		public void deleteById(@NonNull final ViewId viewId)
+		{
+			snapshots.remove(viewId);
+			updatedByViewId.remove(viewId);
+		}
+
+		@Override
+		public boolean deleteByIdIfNotUpdatedAfter(@NonNull final ViewId viewId, @NonNull final Instant time)
+		{
+			final Instant updated = updatedByViewId.get(viewId);
+			if (updated == null || updated.isAfter(time))
+			{
+				return false;
+			}
+
+			deleteById(viewId);
+			return true;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package de.metas.ui.web.view.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONViewChangesTest
+{
+	private static final ViewId viewId = ViewId.ofParts(WindowId.of(123), "viewId");
+
+	private static JSONViewChanges rowsChanged(final String rowIds)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.addChangedRowIds(DocumentIdsSelection.ofCommaSeparatedString(rowIds));
+		return JSONViewChanges.of(changes);
+	}
+
+	private static JSONViewChanges fullyChanged()
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setFullyChanged();
+		return JSONViewChanges.of(changes);
+	}
+
+	@Test
+	public void mergeChangedRowIds()
+	{
+		final JSONViewChanges merged = rowsChanged("1,2").mergeWithNewer(rowsChanged("2,3"));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isFalse();
+		assertThat(merged.getChangedIds()).containsExactlyInAnyOrder("1", "2", "3");
+	}
+
+	@Test
+	public void mergeWithFullyChanged()
+	{
+		final JSONViewChanges merged = rowsChanged("1,2").mergeWithNewer(fullyChanged());
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isTrue();
+		assertThat(merged.getChangedIds()).isNull();
+	}
+
+	@Test
+	public void tooManyChangedRowIds_becomesFullyChanged()
+	{
+		final String rowIds = IntStream.rangeClosed(1, 200).mapToObj(String::valueOf).collect(Collectors.joining(","));
+		final JSONViewChanges merged = rowsChanged("1").mergeWithNewer(rowsChanged(rowIds));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isTrue();
+		assertThat(merged.getChangedIds()).isNull();
+	}
+
+	@Test
+	public void headerPropertiesChanged()
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setHeaderPropertiesChanged();
+
+		final JSONViewChanges merged = rowsChanged("1").mergeWithNewer(JSONViewChanges.of(changes));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getHeaderPropertiesChanged()).isTrue();
+		assertThat(merged.getChangedIds()).containsExactly("1");
+	}
+
+	@Test
+	public void otherView_notMerged()
+	{
+		final ViewChanges otherViewChanges = new ViewChanges(ViewId.ofParts(WindowId.of(123), "otherViewId"));
+		otherViewChanges.setFullyChanged();
+
+		assertThat(rowsChanged("1").mergeWithNewer(JSONViewChanges.of(otherViewChanges))).isNull();
+	}
+}
@@ -0,0 +1,117 @@
+package de.metas.ui.web.window.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.Dependency;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.DependencyType;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentFieldDependencyMapTest
+{
+	@Test
+	public void directDependencies()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("B", ImmutableList.of("A"), DependencyType.ReadonlyLogic)
+				.add("C", ImmutableList.of("A"), DependencyType.DisplayLogic)
+				.add("D", ImmutableList.of("X"), DependencyType.MandatoryLogic)
+				.build();
+
+		assertThat(dependencies.getDependenciesToUpdate("A")).containsExactly(
+				Dependency.of("B", DependencyType.ReadonlyLogic),
+				Dependency.of("C", DependencyType.DisplayLogic));
+		assertThat(dependencies.getDependenciesToUpdate("Unknown")).isEmpty();
+	}
+
+	@Test
+	public void virtualFieldValueIsUpdatedBeforeItsDependencies()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V", ImmutableList.of("A"), DependencyType.FieldValue)
+				.add("D", ImmutableList.of("V"), DependencyType.MandatoryLogic)
+				.add("D", ImmutableList.of("A", "V"), DependencyType.ReadonlyLogic)
+				.build();
+
+		final List<Dependency> dependenciesToUpdate = dependencies.getDependenciesToUpdate("A");
+		assertThat(dependenciesToUpdate).containsExactlyInAnyOrder(
+				Dependency.of("V", DependencyType.FieldValue),
+				Dependency.of("D", DependencyType.ReadonlyLogic),
+				Dependency.of("D", DependencyType.MandatoryLogic));
+		assertThat(dependenciesToUpdate.get(0)).isEqualTo(Dependency.of("V", DependencyType.FieldValue));
+	}
+
+	@Test
+	public void virtualFieldsChain()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V1", ImmutableList.of("A"), DependencyType.FieldValue)
+				.add("V2", ImmutableList.of("A", "V1"), DependencyType.FieldValue)
+				.add("D", ImmutableList.of("V2"), DependencyType.DisplayLogic)
+				.build();
+
+		assertThat(dependencies.getDependenciesToUpdate("A")).containsExactly(
+				Dependency.of("V1", DependencyType.FieldValue),
+				Dependency.of("V2", DependencyType.FieldValue),
+				Dependency.of("D", DependencyType.DisplayLogic));
+	}
+
+	@Test
+	public void cyclicFieldValueDependencies()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V1", ImmutableList.of("A", "V2"), DependencyType.FieldValue)
+				.add("V2", ImmutableList.of("V1"), DependencyType.FieldValue)
+				.build();
+
+		assertThat(dependencies.getDependenciesToUpdate("A")).containsExactlyInAnyOrder(
+				Dependency.of("V1", DependencyType.FieldValue),
+				Dependency.of("V2", DependencyType.FieldValue));
+	}
+
+	@Test
+	public void wideEntity_eachDependencyIsUpdatedOnce()
+	{
+		final DocumentFieldDependencyMap.Builder builder = DocumentFieldDependencyMap.builder()
+				.add("V", ImmutableList.of("A"), DependencyType.FieldValue);
+		for (int i = 1; i <= 150; i++)
+		{
+			final String fieldName = "Field" + i;
+			builder.add(fieldName, ImmutableList.of("A", "V"), DependencyType.ReadonlyLogic);
+			builder.add(fieldName, ImmutableList.of("A", "V"), DependencyType.DisplayLogic);
+			builder.add(fieldName, ImmutableList.of("V"), DependencyType.MandatoryLogic);
+		}
+		final DocumentFieldDependencyMap dependencies = builder.build();
+
+		final List<Dependency> dependenciesToUpdate = dependencies.getDependenciesToUpdate("A");
+		assertThat(dependenciesToUpdate).hasSize(1 + 150 * 3).doesNotHaveDuplicates();
+		assertThat(dependenciesToUpdate.get(0)).isEqualTo(Dependency.of("V", DependencyType.FieldValue));
+		assertThat(dependencies.getDependenciesToUpdate("A")).isSameAs(dependenciesToUpdate);
+	}
+}
@@ -0,0 +1,189 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_C_Order;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.dataentry.data.DataEntryRecordRepository;
+import de.metas.dataentry.data.json.JSONDataEntryRecordMapper;
+import de.metas.ui.web.dataentry.window.descriptor.factory.DataEntrySubTabBindingDescriptorBuilder;
+import de.metas.ui.web.dataentry.window.descriptor.factory.DataEntryWebuiTools;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.model.Document;
+import de.metas.ui.web.window.model.Document.CopyMode;
+import de.metas.ui.web.window.model.DocumentsRepository;
+import de.metas.ui.web.window.model.IDocumentFieldView;
+import de.metas.ui.web.window.model.NullDocumentChangesCollector;
+import de.metas.user.UserId;
+import de.metas.user.UserRepository;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks the sales order window against a real database: loading the window descriptor, loading existing sales orders
+ * (which updates all field dependencies) and changing header fields (which updates the dependencies of the changed field).
+ * <p>
+ * Run it once with {@code de.metas.ui.web.window.model.DocumentFieldLogicsParallelEvaluator.Enabled} set to {@code N} and once with {@code Y} to compare.
+ * Nothing is saved.
+ */
+@Ignore
+// requires database connection
+public class SalesOrderDocument_DBTest
+{
+	private static final WindowId WINDOW_ID_SalesOrder = WindowId.of(143);
+
+	/** Header fields with display or readonly logics depending on them */
+	private static final List<String> FIELD_NAMES_TO_TOGGLE = ImmutableList.of("IsDropShip", "IsDiscountPrinted");
+
+	private static final int BENCHMARK_ORDERS = 200;
+	private static final int BENCHMARK_CHANGES_PER_ORDER = 10;
+
+	private DocumentEntityDescriptor entityDescriptor;
+
+	public static void main(final String[] args)
+	{
+		final SalesOrderDocument_DBTest test = new SalesOrderDocument_DBTest();
+
+		test.setupAdempiere();
+
+		test.benchmark(); // warm up
+		test.benchmark();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\metasfresh-webui-api\
+					+ File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+
+		final Properties ctx = Env.getCtx();
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, 1000000);
+		Env.setContext(ctx, Env.CTXNAME_AD_Org_ID, 1000000);
+		Env.setContext(ctx, Env.CTXNAME_AD_Role_ID, 1000000);
+		Env.setContext(ctx, Env.CTXNAME_AD_Language, "en_US");
+		Env.setLoggedUserId(ctx, UserId.ofRepoId(100));
+	}
+
+	@Test
+	public void benchmark()
+	{
+		final boolean parallelLogicsEnabled = Services.get(ISysConfigBL.class).getBooleanValue("de.metas.ui.web.window.model.DocumentFieldLogicsParallelEvaluator.Enabled", false);
+		System.out.println("Benchmark: orders=" + BENCHMARK_ORDERS + ", changesPerOrder=" + BENCHMARK_CHANGES_PER_ORDER + ", parallelLogicsEnabled=" + parallelLogicsEnabled
+				+ " ======================================================================");
+
+		final Stopwatch descriptorStopwatch = Stopwatch.createStarted();
+		entityDescriptor = newDocumentDescriptorFactory().getDocumentDescriptor(WINDOW_ID_SalesOrder).getEntityDescriptor();
+		descriptorStopwatch.stop();
+		System.out.println("Loaded the descriptor of window " + WINDOW_ID_SalesOrder + " (" + entityDescriptor.getFields().size() + " header fields) in " + descriptorStopwatch);
+
+		final List<Integer> orderIds = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Order.class)
+				.addEqualsFilter(I_C_Order.COLUMNNAME_IsSOTrx, true)
+				.orderByDescending(I_C_Order.COLUMNNAME_C_Order_ID)
+				.setLimit(BENCHMARK_ORDERS)
+				.create()
+				.listIds();
+		assertThat(orderIds).as("sales orders in database").isNotEmpty();
+
+		final Stopwatch loadStopwatch = Stopwatch.createStarted();
+		final List<Document> orders = new ArrayList<>(orderIds.size());
+		for (final int orderId : orderIds)
+		{
+			orders.add(loadOrder(orderId));
+		}
+		loadStopwatch.stop();
+		printThroughput("Loaded " + orders.size() + " sales orders", orders.size(), loadStopwatch);
+
+		final Stopwatch changeStopwatch = Stopwatch.createStarted();
+		int changesCount = 0;
+		for (final Document order : orders)
+		{
+			final Document writableOrder = order.copy(CopyMode.CheckOutWritable, NullDocumentChangesCollector.instance);
+			for (int i = 0; i < BENCHMARK_CHANGES_PER_ORDER; i++)
+			{
+				for (final String fieldName : FIELD_NAMES_TO_TOGGLE)
+				{
+					final IDocumentFieldView field = writableOrder.getFieldViewOrNull(fieldName);
+					if (field == null)
+					{
+						continue;
+					}
+
+					final boolean ignoreReadonlyFlag = true;
+					writableOrder.processValueChange(fieldName, !field.getValueAsBoolean(), () -> "benchmark", ignoreReadonlyFlag);
+					changesCount++;
+				}
+			}
+		}
+		changeStopwatch.stop();
+		printThroughput("Changed " + changesCount + " header fields", changesCount, changeStopwatch);
+	}
+
+	private static DefaultDocumentDescriptorFactory newDocumentDescriptorFactory()
+	{
+		final DataEntryWebuiTools dataEntryWebuiTools = new DataEntryWebuiTools(new UserRepository());
+		final DataEntryRecordRepository dataEntryRecordRepository = new DataEntryRecordRepository(new JSONDataEntryRecordMapper());
+		return new DefaultDocumentDescriptorFactory(new DataEntrySubTabBindingDescriptorBuilder(dataEntryRecordRepository, dataEntryWebuiTools));
+	}
+
+	private Document loadOrder(final int orderId)
+	{
+		final DocumentsRepository documentsRepository = entityDescriptor.getDataBinding().getDocumentsRepository();
+		return documentsRepository.retrieveDocumentById(entityDescriptor, DocumentId.of(orderId), NullDocumentChangesCollector.instance);
+	}
+
+	private static void printThroughput(final String what, final int count, final Stopwatch stopwatch)
+	{
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.println(what + " in " + stopwatch + " => " + (count * 1000L / millis) + "/sec");
+	}
+}